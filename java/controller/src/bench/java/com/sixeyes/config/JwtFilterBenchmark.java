@@ -0,0 +1,116 @@
+package com.sixeyes.config;
+
+import com.sixeyes.service.JwtService;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requests per millisecond through the JWT filter with a valid bearer token.
+ * {@code legacy} is the filter as it was (key rebuilt and signature checked twice per
+ * request), {@code uncached} the single-parse path with the cache off, {@code cached} the
+ * default configuration after the first request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    private static final String SECRET = "c2l4ZXllcy1sb2NhbC1kZXZlbG9wbWVudC1zZWNyZXQtZG8tbm90LXVzZS1pbi1wcm9kdWN0aW9u";
+    private static final FilterChain CHAIN = (request, response) -> { };
+
+    @Param({"legacy", "uncached", "cached"})
+    String mode;
+
+    private OncePerRequestFilter filter;
+    private String header;
+
+    @Setup
+    public void setUp() {
+        JwtService service = new JwtService(SECRET, 86_400_000, "cached".equals(mode) ? 10_000 : 0, 300_000);
+        header = "Bearer " + service.generate("admin");
+        filter = "legacy".equals(mode) ? new LegacyJwtFilter(SECRET) : new JwtFilter(service);
+    }
+
+    @Benchmark
+    public Authentication filter() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/torrents/get");
+        request.addHeader("Authorization", header);
+        filter.doFilter(request, new MockHttpServletResponse(), CHAIN);
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        if (auth == null) throw new IllegalStateException("token rejected");
+        return auth;
+    }
+
+    /** JwtFilter and JwtService before the change, inlined. */
+    private static final class LegacyJwtFilter extends OncePerRequestFilter {
+
+        private final String secret;
+
+        LegacyJwtFilter(String secret) {
+            this.secret = secret;
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                throws ServletException, IOException {
+            String header = request.getHeader("Authorization");
+            if (header != null && header.startsWith("Bearer ")) {
+                String token = header.substring(7);
+                if (isValid(token)) {
+                    SecurityContextHolder.getContext().setAuthentication(
+                            new UsernamePasswordAuthenticationToken(extractUsername(token), null, List.of()));
+                }
+            }
+            chain.doFilter(request, response);
+        }
+
+        private boolean isValid(String token) {
+            try {
+                extractUsername(token);
+                return true;
+            } catch (JwtException e) {
+                return false;
+            }
+        }
+
+        private String extractUsername(String token) {
+            return Jwts.parser()
+                    .verifyWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret)))
+                    .build()
+                    .parseSignedClaims(token)
+                    .getPayload()
+                    .getSubject();
+        }
+    }
+}
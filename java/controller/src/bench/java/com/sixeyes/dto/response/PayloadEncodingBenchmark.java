@@ -0,0 +1,125 @@
+package com.sixeyes.dto.response;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.sixeyes.model.Torrent;
+import com.sixeyes.model.TorrentStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * JSON against Smile and CBOR for the two big dashboard payloads: the 1k-torrent list and
+ * a 24-game catalog page. {@code write} is the server's cost per response, {@code read} a
+ * client's. Payload sizes (raw and gzipped) are printed once per trial, since JMH only
+ * reports time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayloadEncodingBenchmark {
+
+    @Param({"torrents1k", "catalogPage"})
+    String payload;
+
+    @Param({"json", "smile", "cbor"})
+    String format;
+
+    private ObjectMapper mapper;
+    private Object value;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        JsonFactory factory = switch (format) {
+            case "smile" -> new SmileFactory();
+            case "cbor" -> new CBORFactory();
+            default -> new JsonFactory();
+        };
+        mapper = new ObjectMapper(factory);
+        value = "catalogPage".equals(payload) ? catalogPage() : torrents(1_000);
+        encoded = mapper.writeValueAsBytes(value);
+        System.out.printf("%n[size] %s/%s: %d bytes, %d gzipped%n",
+                payload, format, encoded.length, gzip(encoded).length);
+    }
+
+    @Benchmark
+    public byte[] write() throws IOException {
+        return mapper.writeValueAsBytes(value);
+    }
+
+    @Benchmark
+    public JsonNode read() throws IOException {
+        return mapper.readTree(encoded);
+    }
+
+    private static List<TorrentResponse> torrents(int count) {
+        List<TorrentResponse> list = new ArrayList<>(count);
+        LocalDateTime created = LocalDateTime.of(2026, 3, 1, 12, 0);
+        for (long id = 1; id <= count; id++) {
+            Torrent t = new Torrent("magnet:?xt=urn:btih:" + "%040x".formatted(id));
+            t.setId(id);
+            t.setTitle("Some Game Repack v1." + id + " + 12 DLCs");
+            t.setSizeBytes(45_204_567_654L + id);
+            t.setProgress(id % 97 + 0.37);
+            t.setPeers((int) (id % 40));
+            t.setDownloadRate(2_621_440 + id);
+            t.setUploadRate(262_144);
+            t.setEtaSeconds(725L + id);
+            t.setStatus(id % 3 == 0 ? TorrentStatus.SEEDING : TorrentStatus.DOWNLOADING);
+            t.setInstallStatus("NONE");
+            t.setCreatedAt(created.plusMinutes(id));
+            t.setUpdatedAt(created.plusMinutes(id + 30));
+            list.add(TorrentResponse.from(t));
+        }
+        return list;
+    }
+
+    private static PageImpl<CatalogGameResponse> catalogPage() {
+        List<CatalogGameResponse> games = new ArrayList<>(24);
+        for (long id = 1; id <= 24; id++) {
+            games.add(new CatalogGameResponse(id, "Game Title " + id + ": Deluxe Edition",
+                    "https://fitgirl-repacks.site/game-title-" + id + "-deluxe-edition/",
+                    "https://i.imgur.com/cover" + id + ".jpg",
+                    "magnet:?xt=urn:btih:" + "%040x".formatted(id)
+                            + "&dn=Game+Title&tr=udp%3A%2F%2Ftracker.opentrackr.org%3A1337%2Fannounce",
+                    "%d.%d GB".formatted(10 + id, id % 10),
+                    "An open-world action RPG set in a vast fantasy realm. ".repeat(4),
+                    "$59.99", 50.5 + id, 40.0 + id, 120.0 + id,
+                    "Studio " + id, "Publisher " + (id % 5)));
+        }
+        return new PageImpl<>(games, PageRequest.of(0, 24), 3_120);
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(data);
+        }
+        return out.toByteArray();
+    }
+}
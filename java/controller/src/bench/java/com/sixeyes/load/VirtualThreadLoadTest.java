@@ -0,0 +1,198 @@
+package com.sixeyes.load;
+
+import com.sixeyes.SixEyesApplication;
+import com.sixeyes.service.JwtService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Boots the controller twice in this JVM, once on Tomcat's platform pool and once on
+ * virtual threads, against a local engine stand-in that answers every call after a fixed
+ * delay. Each run fires {@code requests} calls at {@code /system/disks} (an uncached,
+ * blocking engine call) from {@code concurrency} clients and prints p50/p99 latency,
+ * throughput and the peak platform thread count (virtual threads aren't counted).
+ *
+ * <pre>
+ * mvn -Pbench test-compile exec:exec -Dbench.main=com.sixeyes.load.VirtualThreadLoadTest \
+ *     -Dbench.args="concurrency=400 requests=4000 engine-delay-ms=200 warmup=1000"
+ * </pre>
+ */
+public final class VirtualThreadLoadTest {
+
+    private record Result(String mode, long p50, long p99, long max, double throughput, int peakThreads,
+                          int engineConcurrency, int errors) {}
+
+    private static final AtomicInteger ENGINE_IN_FLIGHT = new AtomicInteger();
+    private static final AtomicInteger ENGINE_PEAK = new AtomicInteger();
+
+    private VirtualThreadLoadTest() {}
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] kv = arg.split("=", 2);
+            options.put(kv[0], kv.length > 1 ? kv[1] : "");
+        }
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "400"));
+        int requests = Integer.parseInt(options.getOrDefault("requests", "4000"));
+        long engineDelayMs = Long.parseLong(options.getOrDefault("engine-delay-ms", "200"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "1000"));
+        // The engine pool caps concurrent engine calls in both modes; size it above the client count
+        // so the comparison is between thread models rather than pool sizes.
+        int maxConnections = Integer.parseInt(options.getOrDefault("max-connections", String.valueOf(concurrency)));
+
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        // The JDK server drops keep-alive connections past this (default 200), which the pooled
+        // engine client would then reuse and fail on.
+        System.setProperty("sun.net.httpserver.maxIdleConnections", String.valueOf(Math.max(maxConnections, 200)));
+        HttpServer engine = slowEngine(engineDelayMs);
+        try {
+            String engineUrl = "http://localhost:" + engine.getAddress().getPort();
+            Result platform = run(false, engineUrl, maxConnections, concurrency, warmup, requests);
+            Result virtual = run(true, engineUrl, maxConnections, concurrency, warmup, requests);
+
+            System.out.printf("%nengine delay %d ms, %d clients, %d requests%n", engineDelayMs, concurrency, requests);
+            System.out.printf("%-9s %8s %8s %8s %10s %13s %14s %7s%n",
+                    "mode", "p50 ms", "p99 ms", "max ms", "req/s", "peak threads", "engine in-use", "errors");
+            for (Result r : new Result[]{platform, virtual}) {
+                System.out.printf("%-9s %8d %8d %8d %10.0f %13d %14d %7d%n", r.mode(), r.p50(), r.p99(), r.max(),
+                        r.throughput(), r.peakThreads(), r.engineConcurrency(), r.errors());
+            }
+        } finally {
+            engine.stop(0);
+        }
+    }
+
+    private static Result run(boolean virtualThreads, String engineUrl, int maxConnections, int concurrency,
+                              int warmup, int requests) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        // Command-line arguments, so they win over application.yml.
+        try (ConfigurableApplicationContext app = new SpringApplicationBuilder(SixEyesApplication.class).run(
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--spring.datasource.url=jdbc:h2:mem:load-" + mode + ";DB_CLOSE_DELAY=-1",
+                "--python.service.url=" + engineUrl,
+                "--python.stream.enabled=false",
+                "--python.max-connections=" + maxConnections,
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--logging.level.com.sixeyes=WARN")) {
+            String base = "http://localhost:" + app.getEnvironment().getProperty("local.server.port") + "/api/v1";
+            String token = app.getBean(JwtService.class).generate("admin");
+            HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/system/disks"))
+                    .header("Authorization", "Bearer " + token)
+                    .timeout(Duration.ofSeconds(60))
+                    .build();
+
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(clients).build();
+                fire(http, request, clients, concurrency, warmup);
+
+                ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+                threads.resetPeakThreadCount();
+                ENGINE_PEAK.set(0);
+                long[] latencies = new long[requests];
+                long start = System.nanoTime();
+                int errors = fire(http, request, clients, concurrency, requests, latencies);
+                double seconds = (System.nanoTime() - start) / 1e9;
+
+                Arrays.sort(latencies);
+                return new Result(mode,
+                        percentile(latencies, 0.50), percentile(latencies, 0.99), latencies[latencies.length - 1],
+                        requests / seconds, threads.getPeakThreadCount(), ENGINE_PEAK.get(), errors);
+            }
+        }
+    }
+
+    private static int fire(HttpClient http, HttpRequest request, ExecutorService clients, int concurrency, int requests)
+            throws InterruptedException {
+        return fire(http, request, clients, concurrency, requests, new long[requests]);
+    }
+
+    /** {@code concurrency} clients share {@code requests} calls; returns the number of failures. */
+    private static int fire(HttpClient http, HttpRequest request, ExecutorService clients, int concurrency,
+                            int requests, long[] latencies) throws InterruptedException {
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(concurrency);
+        for (int c = 0; c < concurrency; c++) {
+            clients.submit(() -> {
+                try {
+                    for (int i = next.getAndIncrement(); i < requests; i = next.getAndIncrement()) {
+                        long t0 = System.nanoTime();
+                        try {
+                            if (http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() != 200) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (IOException e) {
+                            errors.incrementAndGet();
+                        }
+                        latencies[i] = (System.nanoTime() - t0) / 1_000_000;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        return errors.get();
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+
+    /** Engine stand-in: every call sleeps, then answers with a one-disk list or an empty body. */
+    private static HttpServer slowEngine(long delayMs) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/", exchange -> {
+            ENGINE_PEAK.accumulateAndGet(ENGINE_IN_FLIGHT.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                ENGINE_IN_FLIGHT.decrementAndGet();
+            }
+            String path = exchange.getRequestURI().getPath();
+            respond(exchange, path.endsWith("/getDisks")
+                    ? "[{\"path\":\"/downloads\",\"device\":\"sda1\",\"total\":100.0,\"used\":40.0,\"available\":60.0}]"
+                    : path.endsWith("/get") ? "[]" : "{}");
+        });
+        server.start();
+        return server;
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.sixeyes.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sixeyes.model.TelemetryField;
+import com.sixeyes.model.Torrent;
+import com.sixeyes.model.TorrentStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One sync cycle's worth of work on a {@code /python/get} payload: decode, join ids and
+ * diff against live state. {@code mapBaseline} is the previous {@code List<Map>} path,
+ * {@code typedDecoder} the streaming one. Every tenth torrent moves; the rest are idle.
+ *
+ * <p>With {@code -prof gc}, {@code gc.alloc.rate.norm} is bytes per cycle — divide by
+ * {@code torrents} for bytes per torrent.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TelemetryDecodeBenchmark {
+
+    private static final TypeReference<List<Map<String, Object>>> LIST_OF_MAPS = new TypeReference<>() {};
+
+    @Param({"1000", "10000"})
+    int torrents;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final EngineTelemetryDecoder decoder = new EngineTelemetryDecoder(mapper);
+    private final TelemetryChangeDetector detector = new TelemetryChangeDetector(0.1);
+    private final Map<Long, Torrent> live = new HashMap<>();
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<Map<String, Object>> records = new ArrayList<>();
+        for (long id = 1; id <= torrents; id++) {
+            Torrent t = new Torrent("magnet:?xt=urn:btih:" + "%040x".formatted(id)
+                    + "&dn=Some+Game+Repack&tr=udp%3A%2F%2Ftracker.opentrackr.org%3A1337%2Fannounce"
+                    + "&tr=udp%3A%2F%2Fopen.stealth.si%3A80%2Fannounce");
+            t.setId(id);
+            t.setTitle("Some Game Repack " + id);
+            t.setSizeBytes(45_204_567_654L);
+            t.setProgress(id % 97);
+            t.setPeers((int) (id % 40));
+            t.setDownloadRate(2_621_440);
+            t.setUploadRate(262_144);
+            t.setEtaSeconds(725L);
+            live.put(id, t);
+
+            Map<String, Object> record = new LinkedHashMap<>();
+            record.put("id", id);
+            record.put("magnet", t.getMagnet());
+            record.put("savePath", "/app/downloads");
+            record.put("status", TorrentStatus.DOWNLOADING.getValue());
+            record.put("title", t.getTitle());
+            record.put("sizeBytes", t.getSizeBytes());
+            record.put("progress", id % 10 == 0 ? t.getProgress() + 1.0 : t.getProgress());
+            record.put("peers", t.getPeers());
+            record.put("downloadRate", t.getDownloadRate());
+            record.put("uploadRate", t.getUploadRate());
+            record.put("etaSeconds", t.getEtaSeconds());
+            records.add(record);
+        }
+        payload = mapper.writeValueAsBytes(records);
+    }
+
+    @Benchmark
+    public int mapBaseline(Blackhole bh) throws IOException {
+        List<Map<String, Object>> body = mapper.readValue(payload, LIST_OF_MAPS);
+        Set<Long> engineIds = new HashSet<>();
+        int changed = 0;
+        for (Map<String, Object> data : body) {
+            if (data.get("id") instanceof Number n) {
+                engineIds.add(n.longValue());
+                TorrentDelta delta = LegacyDetector.detect(live.get(n.longValue()), data);
+                if (!delta.isEmpty()) changed++;
+                bh.consume(delta);
+            }
+        }
+        bh.consume(engineIds);
+        return changed;
+    }
+
+    @Benchmark
+    public int typedDecoder(Blackhole bh) throws IOException {
+        LongHashSet engineIds = new LongHashSet(torrents);
+        int[] changed = {0};
+        decoder.decodeArray(new ByteArrayInputStream(payload), telemetry -> {
+            engineIds.add(telemetry.id());
+            TorrentDelta delta = detector.detect(live.get(telemetry.id()), telemetry);
+            if (!delta.isEmpty()) changed[0]++;
+            bh.consume(delta);
+        });
+        bh.consume(engineIds);
+        return changed[0];
+    }
+
+    /** The detector as it was before the typed decoder: always copies, switches on keys, boxes. */
+    private static final class LegacyDetector {
+
+        static TorrentDelta detect(Torrent current, Map<String, Object> data) {
+            Torrent next = current.snapshot();
+            data.forEach((key, value) -> {
+                if (value == null) return;
+                switch (key) {
+                    case "title" -> next.setTitle(value instanceof String s ? s : null);
+                    case "sizeBytes" -> next.setSizeBytes(value instanceof Number n ? n.longValue() : 0L);
+                    case "etaSeconds" -> next.setEtaSeconds(value instanceof Number n ? n.longValue() : null);
+                    case "peers" -> next.setPeers(value instanceof Number n ? n.intValue() : 0);
+                    case "progress" -> next.setProgress(value instanceof Number n ? n.doubleValue() : 0.0);
+                    case "downloadRate" -> next.setDownloadRate(value instanceof Number n ? n.longValue() : 0L);
+                    case "uploadRate" -> next.setUploadRate(value instanceof Number n ? n.longValue() : 0L);
+                    case "status" -> TorrentStatus.fromValue(value.toString());
+                    default -> { }
+                }
+            });
+
+            EnumSet<TelemetryField> changed = EnumSet.noneOf(TelemetryField.class);
+            for (TelemetryField field : TelemetryField.values()) {
+                if (field == TelemetryField.PROGRESS) {
+                    if (Math.abs(next.getProgress() - current.getProgress()) > 0.1) changed.add(field);
+                } else if (!Objects.equals(field.valueOf(current), field.valueOf(next))) {
+                    changed.add(field);
+                }
+            }
+            return new TorrentDelta(next, changed);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.sixeyes.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading a multi-file {@code .torrent} upload down to its magnet. {@code streaming} is
+ * {@link TorrentFileParser}; {@code treeBaseline} is the textbook approach of decoding the
+ * whole document into maps and lists, then re-encoding {@code info} to hash it.
+ *
+ * <p>With {@code -prof gc}, {@code gc.alloc.rate.norm} shows what the tree costs per upload.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TorrentFileParseBenchmark {
+
+    @Param({"1000", "10000"})
+    int files;
+
+    private final TorrentFileParser parser = new TorrentFileParser(64L << 20);
+    private byte[] torrent;
+
+    @Setup
+    public void setUp() {
+        Map<String, Object> info = new TreeMap<>();
+        List<Object> list = new ArrayList<>(files);
+        for (int i = 0; i < files; i++) {
+            Map<String, Object> file = new TreeMap<>();
+            file.put("length", 1_048_576L + i * 7919L);
+            file.put("path", List.of(bytes("Disc " + (i / 250)), bytes("Track " + i + " - Some Artist - Some Title.flac")));
+            list.add(file);
+        }
+        info.put("files", list);
+        info.put("name", bytes("Some Complete Discography [FLAC]"));
+        info.put("piece length", 4L << 20);
+        info.put("pieces", new byte[20 * (files / 2)]);   // roughly what the sizes above need at 4 MiB pieces
+
+        Map<String, Object> root = new TreeMap<>();
+        root.put("announce", bytes("udp://tracker.opentrackr.org:1337/announce"));
+        root.put("announce-list", List.of(List.of(bytes("udp://tracker.opentrackr.org:1337/announce")),
+                List.of(bytes("udp://open.stealth.si:80/announce"))));
+        root.put("created by", bytes("mktorrent 1.1"));
+        root.put("info", info);
+        torrent = Bencode.encode(root);
+    }
+
+    @Benchmark
+    public String streaming() {
+        return parser.parse(new ByteArrayInputStream(torrent)).magnet();
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public String treeBaseline() throws Exception {
+        Map<String, Object> root = (Map<String, Object>) new Bencode(torrent).value();
+        Map<String, Object> info = (Map<String, Object>) root.get("info");
+        String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-1").digest(Bencode.encode(info)));
+        long size = 0;
+        for (Object file : (List<Object>) info.get("files")) size += (Long) ((Map<String, Object>) file).get("length");
+        String name = new String((byte[]) info.get("name"), StandardCharsets.UTF_8);
+        return "magnet:?xt=urn:btih:" + hash + "&dn=" + name + "&xl=" + size;
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** Minimal tree codec: byte[] strings, Long integers, List, and TreeMap keyed by String. */
+    private static final class Bencode {
+        private final byte[] in;
+        private int pos;
+
+        Bencode(byte[] in) {
+            this.in = in;
+        }
+
+        Object value() {
+            byte c = in[pos];
+            if (c == 'i') {
+                int end = indexOf('e');
+                long n = Long.parseLong(new String(in, pos + 1, end - pos - 1, StandardCharsets.US_ASCII));
+                pos = end + 1;
+                return n;
+            }
+            if (c == 'l') {
+                pos++;
+                List<Object> list = new ArrayList<>();
+                while (in[pos] != 'e') list.add(value());
+                pos++;
+                return list;
+            }
+            if (c == 'd') {
+                pos++;
+                Map<String, Object> map = new TreeMap<>();
+                while (in[pos] != 'e') map.put(new String((byte[]) value(), StandardCharsets.UTF_8), value());
+                pos++;
+                return map;
+            }
+            int colon = indexOf(':');
+            int length = Integer.parseInt(new String(in, pos, colon - pos, StandardCharsets.US_ASCII));
+            pos = colon + 1 + length;
+            return java.util.Arrays.copyOfRange(in, colon + 1, pos);
+        }
+
+        private int indexOf(char c) {
+            int i = pos;
+            while (in[i] != c) i++;
+            return i;
+        }
+
+        static byte[] encode(Object value) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            encode(value, out);
+            return out.toByteArray();
+        }
+
+        @SuppressWarnings("unchecked")
+        private static void encode(Object value, ByteArrayOutputStream out) {
+            if (value instanceof byte[] b) {
+                out.writeBytes((b.length + ":").getBytes(StandardCharsets.US_ASCII));
+                out.writeBytes(b);
+            } else if (value instanceof Long n) {
+                out.writeBytes(("i" + n + "e").getBytes(StandardCharsets.US_ASCII));
+            } else if (value instanceof List<?> list) {
+                out.write('l');
+                list.forEach(item -> encode(item, out));
+                out.write('e');
+            } else {
+                out.write('d');
+                ((Map<String, Object>) value).forEach((k, v) -> {
+                    encode(bytes(k), out);
+                    encode(v, out);
+                });
+                out.write('e');
+            }
+        }
+    }
+}
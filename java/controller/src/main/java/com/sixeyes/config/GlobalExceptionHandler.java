@@ -1,16 +1,25 @@
 package com.sixeyes.config;
 
 import com.sixeyes.exception.DuplicateMagnetException;
+import com.sixeyes.exception.EngineCircuitOpenException;
+import com.sixeyes.exception.EngineCommandNotFoundException;
+import com.sixeyes.exception.EngineTimeoutException;
+import com.sixeyes.exception.EngineUnavailableException;
 import com.sixeyes.exception.InsufficientStorageException;
 import com.sixeyes.exception.InvalidMagnetException;
+import com.sixeyes.exception.InvalidTorrentFileException;
+import com.sixeyes.exception.LoginThrottledException;
+import com.sixeyes.exception.StreamCapacityException;
 import com.sixeyes.exception.TorrentNotFoundException;
 import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
 import java.time.Instant;
 import java.util.Map;
@@ -20,21 +29,60 @@ import java.util.stream.Collectors;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
-    @ExceptionHandler(TorrentNotFoundException.class)
-    public ResponseEntity<Map<String, Object>> handleNotFound(TorrentNotFoundException ex) {
+    @ExceptionHandler({TorrentNotFoundException.class, EngineCommandNotFoundException.class})
+    public ResponseEntity<Map<String, Object>> handleNotFound(RuntimeException ex) {
         return error(HttpStatus.NOT_FOUND, ex.getMessage());
     }
 
-    @ExceptionHandler({InvalidMagnetException.class, DuplicateMagnetException.class})
+    @ExceptionHandler({InvalidMagnetException.class, InvalidTorrentFileException.class})
     public ResponseEntity<Map<String, Object>> handleBadRequest(RuntimeException ex) {
         return error(HttpStatus.BAD_REQUEST, ex.getMessage());
     }
 
+    @ExceptionHandler(DuplicateMagnetException.class)
+    public ResponseEntity<Map<String, Object>> handleDuplicate(DuplicateMagnetException ex) {
+        return error(HttpStatus.CONFLICT, ex.getMessage());
+    }
+
     @ExceptionHandler(InsufficientStorageException.class)
     public ResponseEntity<Map<String, Object>> handleInsufficientStorage(InsufficientStorageException ex) {
         return error(HttpStatus.BAD_REQUEST, ex.getMessage());
     }
 
+    @ExceptionHandler(MaxUploadSizeExceededException.class)
+    public ResponseEntity<Map<String, Object>> handleUploadTooLarge(MaxUploadSizeExceededException ex) {
+        return error(HttpStatus.PAYLOAD_TOO_LARGE, "Upload exceeds the maximum file size");
+    }
+
+    @ExceptionHandler(StreamCapacityException.class)
+    public ResponseEntity<Map<String, Object>> handleStreamCapacity(StreamCapacityException ex) {
+        return error(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+    }
+
+    @ExceptionHandler(EngineTimeoutException.class)
+    public ResponseEntity<Map<String, Object>> handleEngineTimeout(EngineTimeoutException ex) {
+        return error(HttpStatus.GATEWAY_TIMEOUT, ex.getMessage());
+    }
+
+    @ExceptionHandler(EngineCircuitOpenException.class)
+    public ResponseEntity<Map<String, Object>> handleEngineCircuitOpen(EngineCircuitOpenException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(error(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage()).getBody());
+    }
+
+    @ExceptionHandler(EngineUnavailableException.class)
+    public ResponseEntity<Map<String, Object>> handleEngineUnavailable(EngineUnavailableException ex) {
+        return error(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+    }
+
+    @ExceptionHandler(LoginThrottledException.class)
+    public ResponseEntity<Map<String, Object>> handleLoginThrottled(LoginThrottledException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(error(HttpStatus.TOO_MANY_REQUESTS, ex.getMessage()).getBody());
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, Object>> handleValidation(MethodArgumentNotValidException ex) {
         String message = ex.getBindingResult().getFieldErrors().stream()
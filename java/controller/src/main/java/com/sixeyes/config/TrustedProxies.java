@@ -0,0 +1,83 @@
+package com.sixeyes.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The reverse proxies whose client-address header may be believed. Entries are addresses,
+ * CIDR ranges or host names; host names are looked up on each check so a proxy container
+ * that restarts on a new address is still recognised. With no entries nobody is trusted.
+ */
+@Component
+public class TrustedProxies {
+
+    private record Range(byte[] network, int prefix) {
+        boolean contains(byte[] address) {
+            if (address.length != network.length) return false;
+            int full = prefix / 8;
+            for (int i = 0; i < full; i++) {
+                if (address[i] != network[i]) return false;
+            }
+            int rest = prefix % 8;
+            if (rest == 0) return true;
+            int mask = 0xff << (8 - rest) & 0xff;
+            return (address[full] & mask) == (network[full] & mask);
+        }
+    }
+
+    private final List<Range> ranges = new ArrayList<>();
+    private final List<String> hosts = new ArrayList<>();
+
+    public TrustedProxies(@Value("${auth.login.trusted-proxies:}") String entries) {
+        Arrays.stream(entries.split(","))
+                .map(String::trim)
+                .filter(entry -> !entry.isEmpty())
+                .forEach(this::add);
+    }
+
+    /** True when {@code remoteAddr} (a socket address literal) is one of the configured proxies. */
+    public boolean contains(String remoteAddr) {
+        if (remoteAddr == null || (ranges.isEmpty() && hosts.isEmpty())) return false;
+        byte[] address;
+        try {
+            address = InetAddress.getByName(remoteAddr).getAddress();
+        } catch (UnknownHostException e) {
+            return false;
+        }
+        for (Range range : ranges) {
+            if (range.contains(address)) return true;
+        }
+        for (String host : hosts) {
+            try {
+                for (InetAddress proxy : InetAddress.getAllByName(host)) {
+                    if (Arrays.equals(proxy.getAddress(), address)) return true;
+                }
+            } catch (UnknownHostException e) {
+                // not up right now; nothing can be coming from it
+            }
+        }
+        return false;
+    }
+
+    private void add(String entry) {
+        int slash = entry.indexOf('/');
+        if (slash < 0) {
+            hosts.add(entry);
+            return;
+        }
+        try {
+            byte[] network = InetAddress.getByName(entry.substring(0, slash)).getAddress();
+            int prefix = Integer.parseInt(entry.substring(slash + 1));
+            if (prefix < 0 || prefix > network.length * 8) throw new NumberFormatException();
+            ranges.add(new Range(network, prefix));
+        } catch (UnknownHostException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid trusted proxy range: " + entry, e);
+        }
+    }
+}
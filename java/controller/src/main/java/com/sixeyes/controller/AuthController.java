@@ -1,8 +1,11 @@
 package com.sixeyes.controller;
 
+import com.sixeyes.config.TrustedProxies;
 import com.sixeyes.dto.request.LoginRequest;
 import com.sixeyes.dto.response.TokenResponse;
 import com.sixeyes.service.JwtService;
+import com.sixeyes.service.LoginGuard;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
@@ -21,6 +24,8 @@ public class AuthController {
 
     private final JwtService jwtService;
     private final PasswordEncoder passwordEncoder;
+    private final LoginGuard loginGuard;
+    private final TrustedProxies trustedProxies;
 
     @Value("${admin.username}")
     private String adminUsername;
@@ -28,10 +33,15 @@ public class AuthController {
     @Value("${admin.password}")
     private String adminPassword;
 
+    // Set by the Cloudflare edge; only read on requests from a trusted proxy, since anyone else can send it.
+    @Value("${auth.login.client-ip-header:CF-Connecting-IP}")
+    private String clientIpHeader;
+
     @PostMapping("/login")
-    public ResponseEntity<TokenResponse> login(@Valid @RequestBody LoginRequest request) {
+    public ResponseEntity<TokenResponse> login(@Valid @RequestBody LoginRequest request, HttpServletRequest http) {
         boolean validUsername = request.username().equals(adminUsername);
-        boolean validPassword = isPasswordMatch(request.password(), adminPassword);
+        boolean validPassword = loginGuard.verify(clientIp(http),
+                () -> isPasswordMatch(request.password(), adminPassword));
 
         if (!validUsername || !validPassword) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
@@ -40,6 +50,15 @@ public class AuthController {
         return ResponseEntity.ok(new TokenResponse(jwtService.generate(request.username())));
     }
 
+    private String clientIp(HttpServletRequest http) {
+        String remote = http.getRemoteAddr();
+        if (clientIpHeader != null && !clientIpHeader.isBlank() && trustedProxies.contains(remote)) {
+            String forwarded = http.getHeader(clientIpHeader);
+            if (forwarded != null && !forwarded.isBlank()) return forwarded.trim();
+        }
+        return remote;
+    }
+
     private boolean isPasswordMatch(String raw, String stored) {
         if (stored.startsWith("$2a$") || stored.startsWith("$2b$")) {
             return passwordEncoder.matches(raw, stored);
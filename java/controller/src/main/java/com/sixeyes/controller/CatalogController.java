@@ -1,9 +1,9 @@
 package com.sixeyes.controller;
 
 import com.sixeyes.dto.response.CatalogGameResponse;
+import com.sixeyes.dto.response.PageResponse;
 import com.sixeyes.service.CatalogService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -18,12 +18,12 @@ public class CatalogController {
     private final CatalogService catalogService;
 
     @GetMapping("/search")
-    public ResponseEntity<Page<CatalogGameResponse>> search(
+    public ResponseEntity<PageResponse<CatalogGameResponse>> search(
             @RequestParam String q,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "24") int size
     ) {
-        return ResponseEntity.ok(catalogService.search(q, page, size));
+        return ResponseEntity.ok(PageResponse.of(catalogService.search(q, page, size)));
     }
 
     @GetMapping("/game")
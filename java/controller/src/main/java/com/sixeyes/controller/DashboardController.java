@@ -0,0 +1,25 @@
+package com.sixeyes.controller;
+
+import com.sixeyes.dto.request.DashboardPart;
+import com.sixeyes.dto.response.DashboardSnapshot;
+import com.sixeyes.service.DashboardService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/dashboard")
+@RequiredArgsConstructor
+public class DashboardController {
+
+    private final DashboardService dashboardService;
+
+    /** Torrents, system info, disks and settings in one call; {@code fields} picks a subset. */
+    @GetMapping("/snapshot")
+    public ResponseEntity<DashboardSnapshot> snapshot(@RequestParam(value = "fields", required = false) String fields) {
+        return ResponseEntity.ok(dashboardService.snapshot(DashboardPart.parse(fields)));
+    }
+}
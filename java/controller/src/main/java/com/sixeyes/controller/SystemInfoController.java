@@ -3,14 +3,21 @@ package com.sixeyes.controller;
 import com.sixeyes.dto.request.MkdirRequest;
 import com.sixeyes.dto.response.DiskInfo;
 import com.sixeyes.dto.response.SystemInfoResponse;
+import com.sixeyes.service.EngineCircuitBreaker;
+import com.sixeyes.service.EngineCommandOutbox;
+import com.sixeyes.service.LoginGuard;
+import com.sixeyes.service.SingleFlightCache;
 import com.sixeyes.service.SystemInfoService;
+import com.sixeyes.service.TorrentListCache;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/system")
@@ -18,24 +25,67 @@ import java.util.Map;
 public class SystemInfoController {
 
     private final SystemInfoService systemInfoService;
+    private final LoginGuard loginGuard;
+    private final TorrentListCache torrentListCache;
+    private final EngineCircuitBreaker engineBreaker;
+    private final EngineCommandOutbox commandOutbox;
 
     @GetMapping("/info")
     public ResponseEntity<SystemInfoResponse> getInfo() {
-        return ResponseEntity.ok(systemInfoService.getSystemInfo());
+        return served(systemInfoService.readSystemInfo());
+    }
+
+    /** Hit / coalesced / miss counts of the storage cache behind {@code /info}. */
+    @GetMapping("/info/cache")
+    public ResponseEntity<SingleFlightCache.Stats> getInfoCacheStats() {
+        return ResponseEntity.ok(systemInfoService.getStorageCacheStats());
+    }
+
+    /** Login verification latency and how many attempts were throttled or found the pool full. */
+    @GetMapping("/info/login")
+    public ResponseEntity<LoginGuard.Stats> getLoginStats() {
+        return ResponseEntity.ok(loginGuard.stats());
+    }
+
+    /** How often {@code /torrents/get} was encoded versus served from the pre-encoded bytes. */
+    @GetMapping("/info/torrent-list")
+    public ResponseEntity<TorrentListCache.Stats> getTorrentListStats() {
+        return ResponseEntity.ok(torrentListCache.stats());
+    }
+
+    /** Circuit breaker state and bulkhead use for calls to the engine. */
+    @GetMapping("/info/engine")
+    public ResponseEntity<EngineCircuitBreaker.Stats> getEngineStats() {
+        return ResponseEntity.ok(engineBreaker.stats());
+    }
+
+    /** Engine command outbox: backlog, outcomes and enqueue-to-answer latency per command type. */
+    @GetMapping("/info/commands")
+    public ResponseEntity<EngineCommandOutbox.Stats> getCommandStats() {
+        return ResponseEntity.ok(commandOutbox.stats());
     }
 
     @GetMapping("/disks")
     public ResponseEntity<List<DiskInfo>> getDisks() {
-        return ResponseEntity.ok(systemInfoService.getDiskList());
+        return served(systemInfoService.readDiskList());
     }
 
     @GetMapping("/browse")
     public ResponseEntity<Map<String, Object>> browse(@RequestParam(required = false) String path) {
-        return ResponseEntity.ok(systemInfoService.browse(path));
+        return served(systemInfoService.browse(path));
     }
 
     @PostMapping("/mkdir")
     public ResponseEntity<Map<String, Object>> mkdir(@Valid @RequestBody MkdirRequest request) {
         return ResponseEntity.ok(systemInfoService.makeDir(request.parent(), request.name()));
     }
+
+    // A last good value served while the engine is down carries its age, as a cache's would.
+    private static <T> ResponseEntity<T> served(SingleFlightCache.Read<T> read) {
+        if (!read.stale()) return ResponseEntity.ok(read.value());
+        return ResponseEntity.ok()
+                .header(HttpHeaders.AGE, String.valueOf(TimeUnit.MILLISECONDS.toSeconds(read.ageMs())))
+                .header("X-Engine-Stale", "true")
+                .body(read.value());
+    }
 }
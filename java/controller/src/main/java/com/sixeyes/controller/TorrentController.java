@@ -1,18 +1,41 @@
 package com.sixeyes.controller;
 
 import com.sixeyes.dto.request.AddTorrentRequest;
+import com.sixeyes.dto.request.BatchAddRequest;
+import com.sixeyes.dto.request.BatchCommandRequest;
+import com.sixeyes.dto.request.TorrentSearchRequest;
+import com.sixeyes.dto.response.BatchResponse;
+import com.sixeyes.dto.response.CommandAcceptedResponse;
 import com.sixeyes.dto.response.CompletedTorrentResponse;
+import com.sixeyes.dto.response.EngineCommandResponse;
+import com.sixeyes.dto.response.PageResponse;
+import com.sixeyes.dto.response.SpeedHistoryResponse;
+import com.sixeyes.dto.response.TorrentChangesResponse;
 import com.sixeyes.dto.response.TorrentResponse;
+import com.sixeyes.service.EngineCircuitBreaker;
+import com.sixeyes.service.EngineCommandOutbox;
+import com.sixeyes.service.TorrentListCache;
 import com.sixeyes.service.TorrentService;
+import com.sixeyes.service.TorrentStreamBroadcaster;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
-import org.springframework.http.HttpStatus;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 
@@ -23,25 +46,110 @@ import java.util.Map;
 public class TorrentController {
 
     private final TorrentService torrentService;
+    private final TorrentStreamBroadcaster streamBroadcaster;
+    private final TorrentListCache listCache;
+    private final EngineCircuitBreaker engineBreaker;
+    private final EngineCommandOutbox commandOutbox;
 
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    /**
+     * Single-torrent commands answer 202 once the new state is committed; the engine call
+     * follows from the outbox, and {@code Location} points at the command to poll.
+     */
     @PostMapping("/add")
-    public ResponseEntity<TorrentResponse> add(@Valid @RequestBody AddTorrentRequest request) {
-        return ResponseEntity.status(HttpStatus.CREATED)
-                .body(torrentService.addTorrent(request.magnet(), request.downloadPath()));
+    public ResponseEntity<CommandAcceptedResponse> add(@Valid @RequestBody AddTorrentRequest request) {
+        return accepted(torrentService.addTorrent(request.magnet(), request.downloadPath()));
     }
 
     @PostMapping(value = "/addFile", consumes = "multipart/form-data")
-    public ResponseEntity<TorrentResponse> addFile(
+    public ResponseEntity<CommandAcceptedResponse> addFile(
             @RequestParam("file") MultipartFile file,
             @RequestParam(value = "downloadPath", required = false) String downloadPath
     ) throws java.io.IOException {
-        return ResponseEntity.status(HttpStatus.CREATED)
-                .body(torrentService.addTorrentFromFile(file.getBytes(), file.getOriginalFilename(), downloadPath));
+        try (java.io.InputStream in = file.getInputStream()) {
+            return accepted(torrentService.addTorrentFromFile(in, downloadPath));
+        }
     }
 
+    /**
+     * Full list with an ETag of the list version; {@code If-None-Match} gets a 304 while nothing
+     * changed. JSON goes out as the bytes {@link TorrentListCache} encoded once for this version,
+     * gzipped when the client accepts it; Smile and CBOR are still serialized per request.
+     */
     @GetMapping("/get")
-    public ResponseEntity<List<TorrentResponse>> getAll() {
-        return ResponseEntity.ok(torrentService.getAllTorrents());
+    public ResponseEntity<?> getAll(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest request
+    ) {
+        if (prefersBinary(accept)) {
+            String etag = "\"" + torrentService.getListVersion() + "\"";
+            if (request.checkNotModified(etag)) return null;
+            return listResponse(etag).body(torrentService.getAllTorrents());
+        }
+        TorrentListCache.Encoded list = listCache.current();
+        boolean gzip = acceptsGzip(acceptEncoding);
+        String etag = list.etag(gzip);
+        if (request.checkNotModified(etag)) return null;
+        ResponseEntity.BodyBuilder response = listResponse(etag).contentType(MediaType.APPLICATION_JSON);
+        if (gzip) response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        return response.body(gzip ? list.gzip() : list.json());
+    }
+
+    private static ResponseEntity.BodyBuilder listResponse(String etag) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING); // same version, different bytes per encoding
+    }
+
+    // The first of JSON, Smile or CBOR named in Accept wins; wildcards mean JSON.
+    private static boolean prefersBinary(String accept) {
+        if (accept == null || accept.isBlank()) return false;
+        for (MediaType type : MediaType.parseMediaTypes(accept)) {
+            if (type.isWildcardType() || type.isCompatibleWith(MediaType.APPLICATION_JSON)) return false;
+            if (type.isCompatibleWith(MediaType.APPLICATION_CBOR) || type.isCompatibleWith(SMILE)) return true;
+        }
+        return false;
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            String name = parts[0].trim();
+            if (!name.equalsIgnoreCase("gzip") && !name.equals("*")) continue;
+            boolean refused = parts.length > 1 && parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            return !refused;
+        }
+        return false;
+    }
+
+    /** Paged, filtered and sorted in the database; see {@link TorrentSearchRequest}. */
+    @GetMapping(value = "/get", params = "page")
+    public ResponseEntity<PageResponse<TorrentResponse>> search(@Valid TorrentSearchRequest request) {
+        return ResponseEntity.ok(PageResponse.of(torrentService.searchTorrents(request)));
+    }
+
+    /** Torrents upserted and deleted after {@code since} (a previous response's {@code version}). */
+    @GetMapping("/changes")
+    public ResponseEntity<TorrentChangesResponse> changes(@RequestParam("since") @PositiveOrZero long since) {
+        return ResponseEntity.ok(torrentService.getChanges(since));
+    }
+
+    /**
+     * Live torrent and system state as Server-Sent Events: a snapshot, then per-torrent
+     * changes. Send {@code Last-Event-ID} on reconnect to resume without a new snapshot.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            HttpServletResponse response
+    ) {
+        response.setHeader("X-Accel-Buffering", "no"); // let nginx pass events through unbuffered
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        return streamBroadcaster.open(lastEventId);
     }
 
     @GetMapping("/getCompleted")
@@ -49,28 +157,76 @@ public class TorrentController {
         return ResponseEntity.ok(torrentService.getCompletedTorrents());
     }
 
+    @GetMapping(value = "/getCompleted", params = "page")
+    public ResponseEntity<PageResponse<CompletedTorrentResponse>> searchCompleted(@Valid TorrentSearchRequest request) {
+        return ResponseEntity.ok(PageResponse.of(torrentService.searchCompletedTorrents(request)));
+    }
+
     @PutMapping("/{id}/pause")
-    public ResponseEntity<TorrentResponse> pause(@PathVariable @Positive Long id) {
-        return ResponseEntity.ok(torrentService.pauseTorrent(id));
+    public ResponseEntity<CommandAcceptedResponse> pause(@PathVariable @Positive Long id) {
+        return accepted(torrentService.pauseTorrent(id));
     }
 
     @PutMapping("/{id}/stop")
-    public ResponseEntity<TorrentResponse> stop(@PathVariable @Positive Long id) {
-        return ResponseEntity.ok(torrentService.stopTorrent(id));
+    public ResponseEntity<CommandAcceptedResponse> stop(@PathVariable @Positive Long id) {
+        return accepted(torrentService.stopTorrent(id));
     }
 
     @PutMapping("/{id}/resume")
-    public ResponseEntity<TorrentResponse> resume(@PathVariable @Positive Long id) {
-        return ResponseEntity.ok(torrentService.resumeTorrent(id));
+    public ResponseEntity<CommandAcceptedResponse> resume(@PathVariable @Positive Long id) {
+        return accepted(torrentService.resumeTorrent(id));
     }
 
     @DeleteMapping("/{id}/removeTorrent")
-    public ResponseEntity<Map<String, String>> remove(
+    public ResponseEntity<CommandAcceptedResponse> remove(
             @PathVariable @Positive Long id,
             @RequestParam(value = "deleteFiles", defaultValue = "false") boolean deleteFiles
     ) {
-        torrentService.removeTorrent(id, deleteFiles);
-        return ResponseEntity.ok(Map.of("message", "Torrent removed", "id", id.toString()));
+        return accepted(torrentService.removeTorrent(id, deleteFiles));
+    }
+
+    /** Delivery state of a queued engine command, with its end-to-end latency once answered. */
+    @GetMapping("/commands/{commandId}")
+    public ResponseEntity<EngineCommandResponse> command(@PathVariable @Positive Long commandId) {
+        return ResponseEntity.ok(commandOutbox.get(commandId));
+    }
+
+    /** Bulk endpoints answer 200 with a result per item; only a bad request fails as a whole. */
+    @PostMapping("/batch/add")
+    public ResponseEntity<BatchResponse> addBatch(@Valid @RequestBody BatchAddRequest request) {
+        return ResponseEntity.ok(torrentService.addTorrents(request.magnets(), request.catalogUrls(), request.downloadPath()));
+    }
+
+    @PostMapping("/batch/pause")
+    public ResponseEntity<BatchResponse> pauseBatch(@Valid @RequestBody BatchCommandRequest request) {
+        return ResponseEntity.ok(torrentService.pauseTorrents(request));
+    }
+
+    @PostMapping("/batch/stop")
+    public ResponseEntity<BatchResponse> stopBatch(@Valid @RequestBody BatchCommandRequest request) {
+        return ResponseEntity.ok(torrentService.stopTorrents(request));
+    }
+
+    @PostMapping("/batch/resume")
+    public ResponseEntity<BatchResponse> resumeBatch(@Valid @RequestBody BatchCommandRequest request) {
+        return ResponseEntity.ok(torrentService.resumeTorrents(request));
+    }
+
+    @PostMapping("/batch/remove")
+    public ResponseEntity<BatchResponse> removeBatch(@Valid @RequestBody BatchCommandRequest request) {
+        return ResponseEntity.ok(torrentService.removeTorrents(request));
+    }
+
+    @GetMapping("/{id}/history")
+    public ResponseEntity<SpeedHistoryResponse> history(
+            @PathVariable @Positive Long id,
+            @RequestParam(value = "from", required = false) Long from,
+            @RequestParam(value = "to", required = false) Long to,
+            @RequestParam(value = "points", defaultValue = "300") @Min(3) @Max(2000) int points
+    ) {
+        long end = to != null ? to : System.currentTimeMillis();
+        long start = from != null ? from : end - Duration.ofHours(1).toMillis();
+        return ResponseEntity.ok(torrentService.getHistory(id, start, end, points));
     }
 
     @PostMapping("/{id}/install")
@@ -97,8 +253,16 @@ public class TorrentController {
         return ResponseEntity.ok(Map.of("status", request.status()));
     }
 
+    private static ResponseEntity<CommandAcceptedResponse> accepted(CommandAcceptedResponse body) {
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                        .path("/torrents/commands/{id}").buildAndExpand(body.commandId()).toUri())
+                .body(body);
+    }
+
+    /** Liveness of the controller itself; {@code engine} is the breaker state and never makes this fail. */
     @GetMapping("/test")
     public ResponseEntity<Map<String, String>> health() {
-        return ResponseEntity.ok(Map.of("status", "UP", "service", "SixEyes"));
+        return ResponseEntity.ok(Map.of("status", "UP", "service", "SixEyes", "engine", engineBreaker.state().name()));
     }
 }
@@ -7,7 +7,7 @@ import jakarta.validation.constraints.Size;
 public record AddTorrentRequest(
 
         @NotBlank(message = "Magnet link is required")
-        @Pattern(regexp = "magnet:\\?xt=urn:btih:.*", message = "Must be a valid magnet link (magnet:?xt=urn:btih:...)")
+        @Pattern(regexp = "(?i)magnet:\\?.+", message = "Must be a valid magnet link (magnet:?xt=urn:btih:...)")
         @Size(max = 4000, message = "Magnet link exceeds maximum length")
         String magnet,
 
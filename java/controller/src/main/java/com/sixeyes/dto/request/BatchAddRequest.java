@@ -0,0 +1,19 @@
+package com.sixeyes.dto.request;
+
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/** Magnets and/or catalog game URLs to add together; all go to {@code downloadPath}. */
+public record BatchAddRequest(
+
+        @Size(max = 500, message = "At most 500 magnets per batch")
+        List<@Size(max = 4000, message = "Magnet link exceeds maximum length") String> magnets,
+
+        @Size(max = 500, message = "At most 500 catalog games per batch")
+        List<@Size(max = 2000, message = "Catalog URL exceeds maximum length") String> catalogUrls,
+
+        @Size(max = 4000, message = "Download path exceeds maximum length")
+        String downloadPath
+
+) {}
@@ -0,0 +1,34 @@
+package com.sixeyes.dto.request;
+
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Targets of a bulk pause / stop / resume / remove: either explicit {@code ids} or a filter
+ * ({@code status}, {@code installStatus}, {@code title}), not both.
+ */
+public record BatchCommandRequest(
+
+        @Size(max = 500, message = "At most 500 ids per batch")
+        List<@Positive Long> ids,
+
+        String status,
+
+        String installStatus,
+
+        @Size(max = 200)
+        String title,
+
+        boolean deleteFiles
+
+) {
+    public boolean hasFilter() {
+        return isSet(status) || isSet(installStatus) || isSet(title);
+    }
+
+    private static boolean isSet(String value) {
+        return value != null && !value.isBlank();
+    }
+}
@@ -0,0 +1,31 @@
+package com.sixeyes.dto.request;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/** Sections of {@code /dashboard/snapshot}, selected with {@code fields=torrents,system,...}. */
+public enum DashboardPart {
+
+    TORRENTS, SYSTEM, DISKS, SETTINGS;
+
+    /** All parts for a missing or blank list; unknown names are a client error. */
+    public static Set<DashboardPart> parse(String fields) {
+        if (fields == null || fields.isBlank()) return EnumSet.allOf(DashboardPart.class);
+        return Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(f -> !f.isEmpty())
+                .map(DashboardPart::fromParam)
+                .collect(Collectors.toCollection(() -> EnumSet.noneOf(DashboardPart.class)));
+    }
+
+    private static DashboardPart fromParam(String value) {
+        try {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown dashboard field '" + value + "'");
+        }
+    }
+}
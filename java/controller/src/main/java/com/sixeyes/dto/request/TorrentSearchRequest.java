@@ -0,0 +1,40 @@
+package com.sixeyes.dto.request;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Query parameters of the paged torrent lists. {@code sort} is one of progress, speed,
+ * size or created (default created); {@code createdFrom}/{@code createdTo} are inclusive days.
+ */
+public record TorrentSearchRequest(
+
+        @PositiveOrZero
+        Integer page,
+
+        @Min(1) @Max(200)
+        Integer size,
+
+        String status,
+
+        String installStatus,
+
+        @Size(max = 200)
+        String title,
+
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+        LocalDate createdFrom,
+
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+        LocalDate createdTo,
+
+        String sort,
+
+        String dir
+
+) {}
@@ -0,0 +1,30 @@
+package com.sixeyes.dto.request;
+
+import java.util.Locale;
+
+/** Sort keys accepted by the paged torrent lists, mapped to entity properties. */
+public enum TorrentSort {
+    PROGRESS("progress"),
+    SPEED("downloadRate"),
+    SIZE("sizeBytes"),
+    CREATED("createdAt");
+
+    private final String property;
+
+    TorrentSort(String property) {
+        this.property = property;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public static TorrentSort fromParam(String value) {
+        if (value == null || value.isBlank()) return CREATED;
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown sort '" + value + "', expected progress, speed, size or created");
+        }
+    }
+}
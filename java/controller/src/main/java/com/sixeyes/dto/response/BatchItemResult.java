@@ -0,0 +1,26 @@
+package com.sixeyes.dto.response;
+
+/**
+ * Outcome of one item of a batch. {@code ref} is what the client sent (magnet, catalog URL
+ * or id); {@code id} is the torrent it resolved to, when there is one.
+ */
+public record BatchItemResult(String ref, Long id, Outcome outcome, String message) {
+
+    public enum Outcome { OK, NOT_FOUND, INVALID, DUPLICATE, ENGINE_ERROR }
+
+    public static BatchItemResult ok(String ref, Long id) {
+        return new BatchItemResult(ref, id, Outcome.OK, null);
+    }
+
+    public static BatchItemResult ok(Long id) {
+        return ok(String.valueOf(id), id);
+    }
+
+    public static BatchItemResult failed(String ref, Long id, Outcome outcome, String message) {
+        return new BatchItemResult(ref, id, outcome, message);
+    }
+
+    public boolean succeeded() {
+        return outcome == Outcome.OK;
+    }
+}
@@ -0,0 +1,11 @@
+package com.sixeyes.dto.response;
+
+import java.util.List;
+
+public record BatchResponse(int succeeded, int failed, List<BatchItemResult> results) {
+
+    public static BatchResponse of(List<BatchItemResult> results) {
+        int ok = (int) results.stream().filter(BatchItemResult::succeeded).count();
+        return new BatchResponse(ok, results.size() - ok, List.copyOf(results));
+    }
+}
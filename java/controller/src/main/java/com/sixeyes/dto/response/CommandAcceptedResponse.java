@@ -0,0 +1,7 @@
+package com.sixeyes.dto.response;
+
+/**
+ * Answer to a single-torrent command: the state already recorded ({@code torrent}, null
+ * after a remove) and the outbox command that will carry it to the engine.
+ */
+public record CommandAcceptedResponse(Long commandId, Long torrentId, TorrentResponse torrent) {}
@@ -1,6 +1,7 @@
 package com.sixeyes.dto.response;
 
 import com.sixeyes.model.Torrent;
+import com.sixeyes.model.TorrentSummary;
 
 import java.time.format.DateTimeFormatter;
 
@@ -8,18 +9,24 @@ public record CompletedTorrentResponse(
         Long id,
         String title,
         String size,
+        long sizeBytes,
         String completedAt,
         String installStatus
 ) {
     private static final DateTimeFormatter FMT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
 
     public static CompletedTorrentResponse from(Torrent t) {
+        return from(TorrentSummary.of(t));
+    }
+
+    public static CompletedTorrentResponse from(TorrentSummary t) {
         return new CompletedTorrentResponse(
-                t.getId(),
-                t.getTitle(),
-                t.getSize(),
-                t.getUpdatedAt() != null ? t.getUpdatedAt().format(FMT) : "Unknown",
-                t.getInstallStatus()
+                t.id(),
+                t.title(),
+                DisplayFormat.size(t.sizeBytes()),
+                t.sizeBytes(),
+                t.updatedAt() != null ? t.updatedAt().format(FMT) : "Unknown",
+                t.installStatus()
         );
     }
 }
@@ -0,0 +1,22 @@
+package com.sixeyes.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Everything a dashboard tick needs in one response. Parts that weren't asked for are
+ * left out; parts that couldn't be loaded in time are null and named in {@code unavailable}.
+ * Parts named in {@code stale} are the last good values, served while the engine is down.
+ * {@code version} is the torrent list version, usable with {@code /torrents/changes}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record DashboardSnapshot(
+        Long version,
+        List<TorrentResponse> torrents,
+        SystemInfoResponse system,
+        List<DiskInfo> disks,
+        SettingsResponse settings,
+        List<String> unavailable,
+        List<String> stale
+) {}
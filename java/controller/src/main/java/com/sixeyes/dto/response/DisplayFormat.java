@@ -0,0 +1,50 @@
+package com.sixeyes.dto.response;
+
+import java.util.Locale;
+
+/**
+ * Human-readable renderings of the numeric torrent columns. Only the API responses
+ * format; everything stored or computed stays in bytes, bytes/s and seconds.
+ */
+public final class DisplayFormat {
+
+    private static final double MB = 1024.0 * 1024.0;
+    private static final String[] SIZE_UNITS = {"B", "KB", "MB", "GB", "TB", "PB"};
+
+    private DisplayFormat() {}
+
+    /** Bytes/s as {@code "12.34 MB/s"}. */
+    public static String rate(long bytesPerSecond) {
+        return String.format(Locale.US, "%.2f MB/s", bytesPerSecond / MB);
+    }
+
+    /** Bytes/s as MB/s, the unit the dashboard charts use. */
+    public static double rateMbps(long bytesPerSecond) {
+        return bytesPerSecond / MB;
+    }
+
+    /** Total bytes as {@code "4.2 GB"} (1024-based). */
+    public static String size(long bytes) {
+        if (bytes <= 0) return "0 B";
+        double value = bytes;
+        int unit = 0;
+        while (value >= 1024.0 && unit < SIZE_UNITS.length - 1) {
+            value /= 1024.0;
+            unit++;
+        }
+        return String.format(Locale.US, "%.1f %s", value, SIZE_UNITS[unit]);
+    }
+
+    /** Seconds as {@code "2d 3h"}, {@code "1h 5m"}, {@code "4m 10s"} or {@code "9s"}; null when unknown. */
+    public static String eta(Long seconds) {
+        if (seconds == null || seconds <= 0) return null;
+        long d = seconds / 86_400;
+        long h = seconds % 86_400 / 3_600;
+        long m = seconds % 3_600 / 60;
+        long s = seconds % 60;
+        if (d > 0) return d + "d " + h + "h";
+        if (h > 0) return h + "h " + m + "m";
+        if (m > 0) return m + "m " + s + "s";
+        return s + "s";
+    }
+}
@@ -0,0 +1,27 @@
+package com.sixeyes.dto.response;
+
+import com.sixeyes.model.EngineCommand;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/** An outbox command as clients poll it; {@code latencyMs} runs from the request to the engine's answer. */
+public record EngineCommandResponse(
+        Long id,
+        Long torrentId,
+        String type,
+        String status,
+        int attempts,
+        Instant createdAt,
+        Instant completedAt,
+        Long latencyMs,
+        String lastError
+) {
+    public static EngineCommandResponse from(EngineCommand c) {
+        Long latency = c.getCompletedAt() != null
+                ? Duration.between(c.getCreatedAt(), c.getCompletedAt()).toMillis()
+                : null;
+        return new EngineCommandResponse(c.getId(), c.getTorrentId(), c.getType().name(), c.getStatus().name(),
+                c.getAttempts(), c.getCreatedAt(), c.getCompletedAt(), latency, c.getLastError());
+    }
+}
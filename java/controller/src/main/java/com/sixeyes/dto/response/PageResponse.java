@@ -0,0 +1,17 @@
+package com.sixeyes.dto.response;
+
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/**
+ * One page of a list, in a shape of our own rather than Spring Data's {@code PageImpl},
+ * whose JSON is not a stable contract. {@code number} is zero-based.
+ */
+public record PageResponse<T>(List<T> content, long totalElements, int totalPages, int number, int size) {
+
+    public static <T> PageResponse<T> of(Page<T> page) {
+        return new PageResponse<>(page.getContent(), page.getTotalElements(), page.getTotalPages(),
+                page.getNumber(), page.getSize());
+    }
+}
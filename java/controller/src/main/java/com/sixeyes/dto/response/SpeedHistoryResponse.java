@@ -0,0 +1,23 @@
+package com.sixeyes.dto.response;
+
+import com.sixeyes.service.SpeedHistory.Series;
+
+/**
+ * Columnar, downsampled speed history for one torrent. Speeds are bytes/s; {@code samples}
+ * is how many raw samples the window held before downsampling.
+ */
+public record SpeedHistoryResponse(
+        long id,
+        long from,
+        long to,
+        int samples,
+        long[] timestamps,
+        float[] download,
+        float[] upload,
+        int[] peers
+) {
+    public static SpeedHistoryResponse of(long id, long from, long to, int samples, Series series) {
+        return new SpeedHistoryResponse(id, from, to, samples,
+                series.timestamps(), series.download(), series.upload(), series.peers());
+    }
+}
@@ -0,0 +1,10 @@
+package com.sixeyes.dto.response;
+
+import java.util.List;
+
+/**
+ * Torrents changed since the version a client last saw. Pass {@code version} as the next
+ * {@code since}. When {@code full} is set, {@code upserted} is the whole list and the
+ * client should replace what it has instead of merging.
+ */
+public record TorrentChangesResponse(long version, boolean full, List<TorrentResponse> upserted, List<Long> deleted) {}
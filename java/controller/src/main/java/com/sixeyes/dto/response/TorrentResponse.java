@@ -1,6 +1,7 @@
 package com.sixeyes.dto.response;
 
 import com.sixeyes.model.Torrent;
+import com.sixeyes.model.TorrentSummary;
 
 import java.time.format.DateTimeFormatter;
 
@@ -8,32 +9,51 @@ public record TorrentResponse(
         Long id,
         String title,
         String size,
+        long sizeBytes,
         double progress,
         String downloadSpeed,
         String uploadSpeed,
+        long downloadRate,
+        long uploadRate,
         int peers,
         String eta,
+        Long etaSeconds,
         String status,
         String installStatus,
         String createdAt,
-        String updatedAt
+        String updatedAt,
+        long version
 ) {
     private static final DateTimeFormatter FMT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
 
     public static TorrentResponse from(Torrent t) {
+        return from(TorrentSummary.of(t), t.getChangeVersion());
+    }
+
+    /** Rows read straight from the database carry no live-store version (0). */
+    public static TorrentResponse from(TorrentSummary t) {
+        return from(t, 0L);
+    }
+
+    private static TorrentResponse from(TorrentSummary t, long version) {
         return new TorrentResponse(
-                t.getId(),
-                t.getTitle(),
-                t.getSize(),
-                t.getProgress(),
-                t.getDownloadSpeed(),
-                t.getUploadSpeed(),
-                t.getPeers(),
-                t.getEta(),
-                t.getStatus().getValue(),
-                t.getInstallStatus(),
-                t.getCreatedAt()  != null ? t.getCreatedAt().format(FMT)  : null,
-                t.getUpdatedAt()  != null ? t.getUpdatedAt().format(FMT)  : null
+                t.id(),
+                t.title(),
+                DisplayFormat.size(t.sizeBytes()),
+                t.sizeBytes(),
+                t.progress(),
+                DisplayFormat.rate(t.downloadRate()),
+                DisplayFormat.rate(t.uploadRate()),
+                t.downloadRate(),
+                t.uploadRate(),
+                t.peers(),
+                DisplayFormat.eta(t.etaSeconds()),
+                t.etaSeconds(),
+                t.status().getValue(),
+                t.installStatus(),
+                t.createdAt()  != null ? t.createdAt().format(FMT)  : null,
+                t.updatedAt()  != null ? t.updatedAt().format(FMT)  : null,
+                version
         );
     }
 }
@@ -0,0 +1,12 @@
+package com.sixeyes.event;
+
+import java.time.Instant;
+
+/** Install status moved from {@code from} to {@code to}, with the installer's message if any. */
+public record InstallStatusChanged(long torrentId, String from, String to, String message, Instant at)
+        implements TorrentEvent {
+
+    public InstallStatusChanged(long torrentId, String from, String to, String message) {
+        this(torrentId, from, to, message, Instant.now());
+    }
+}
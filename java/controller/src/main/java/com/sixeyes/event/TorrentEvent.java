@@ -0,0 +1,11 @@
+package com.sixeyes.event;
+
+import java.time.Instant;
+
+/** A torrent lifecycle transition, published on the {@link TorrentEventBus}. */
+public sealed interface TorrentEvent permits TorrentStatusChanged, InstallStatusChanged, TorrentRemoved {
+
+    long torrentId();
+
+    Instant at();
+}
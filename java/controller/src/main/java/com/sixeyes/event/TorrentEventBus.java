@@ -0,0 +1,155 @@
+package com.sixeyes.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process fan-out of {@link TorrentEvent}s. Each subscriber gets a bounded queue and
+ * its own delivery thread, so a slow consumer never runs on the publisher's thread.
+ *
+ * <p>Events published inside a transaction are held until it commits and dropped if it
+ * rolls back; outside one they go out immediately. Events live only in memory, so delivery
+ * is best effort: the database stays the source of truth. Whenever an event is lost, the
+ * subscriber is told to rebuild from it through {@link TorrentEventListener#resync()}.
+ * That happens when its queue stays full (the queue is cleared rather than stalling
+ * writers), or when a failing listener is still failing after {@value #MAX_ATTEMPTS}
+ * attempts. A resync that fails is retried until it succeeds.
+ */
+@Slf4j
+@Component
+public class TorrentEventBus {
+
+    static final int MAX_ATTEMPTS = 3;
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final long publishTimeoutMs;
+    private final long retryBackoffMs;
+
+    public TorrentEventBus(@Value("${events.publish-timeout-ms:50}") long publishTimeoutMs,
+                           @Value("${events.retry-backoff-ms:200}") long retryBackoffMs) {
+        this.publishTimeoutMs = publishTimeoutMs;
+        this.retryBackoffMs = retryBackoffMs;
+    }
+
+    public void publish(TorrentEvent event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(event);
+                }
+            });
+        } else {
+            dispatch(event);
+        }
+    }
+
+    /** Starts delivering to {@code listener}; close the subscription to stop. */
+    public Subscription subscribe(String name, int capacity, TorrentEventListener listener) {
+        Subscription subscription = new Subscription(name, capacity, listener);
+        subscriptions.add(subscription);
+        subscription.worker.start();
+        return subscription;
+    }
+
+    private void dispatch(TorrentEvent event) {
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(event);
+        }
+    }
+
+    public final class Subscription implements AutoCloseable {
+
+        private final String name;
+        private final BlockingQueue<TorrentEvent> queue;
+        private final TorrentEventListener listener;
+        private final Thread worker;
+        private volatile boolean resyncNeeded;
+        private volatile boolean closed;
+
+        private Subscription(String name, int capacity, TorrentEventListener listener) {
+            this.name = name;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.listener = listener;
+            this.worker = new Thread(this::run, "events-" + name);
+            this.worker.setDaemon(true);
+        }
+
+        /** Events waiting for delivery. */
+        public int backlog() {
+            return queue.size();
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            subscriptions.remove(this);
+            worker.interrupt();
+        }
+
+        private void offer(TorrentEvent event) {
+            if (closed) return;
+            try {
+                if (queue.offer(event, publishTimeoutMs, TimeUnit.MILLISECONDS)) return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (!resyncNeeded) log.warn("Event subscriber '{}' fell behind; asking it to resync", name);
+            resyncNeeded = true;
+            queue.clear();
+        }
+
+        private void run() {
+            while (!closed) {
+                try {
+                    if (resyncNeeded) resync();
+                    TorrentEvent event = queue.poll(1, TimeUnit.SECONDS);
+                    if (event != null) deliver(event);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+        private void resync() throws InterruptedException {
+            resyncNeeded = false;
+            try {
+                listener.resync();
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                log.warn("Event subscriber '{}' failed to resync, retrying: {}", name, e.getMessage());
+                resyncNeeded = true;
+                Thread.sleep(retryBackoffMs * MAX_ATTEMPTS);
+            }
+        }
+
+        private void deliver(TorrentEvent event) throws InterruptedException {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    listener.onEvent(event);
+                    return;
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    if (attempt >= MAX_ATTEMPTS) {
+                        log.error("Event subscriber '{}' gave up on {} after {} attempts; resyncing",
+                                name, event, attempt, e);
+                        resyncNeeded = true;
+                        return;
+                    }
+                    Thread.sleep(retryBackoffMs * attempt);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.sixeyes.event;
+
+/**
+ * Receives events on the subscription's own thread, one at a time and in publish order.
+ * Delivery is best effort, so every listener must be able to {@link #resync()}.
+ */
+public interface TorrentEventListener {
+
+    void onEvent(TorrentEvent event) throws Exception;
+
+    /**
+     * Rebuilds the listener's view from current (committed) state. Called instead of events
+     * that were lost: dropped because this subscriber's queue stayed full, or given up on
+     * after repeated failures. Events that were only in memory when the process stopped are
+     * lost as well, so listeners also rebuild from the database when they start.
+     */
+    void resync() throws Exception;
+}
@@ -0,0 +1,10 @@
+package com.sixeyes.event;
+
+import java.time.Instant;
+
+public record TorrentRemoved(long torrentId, Instant at) implements TorrentEvent {
+
+    public TorrentRemoved(long torrentId) {
+        this(torrentId, Instant.now());
+    }
+}
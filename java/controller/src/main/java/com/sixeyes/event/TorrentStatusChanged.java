@@ -0,0 +1,14 @@
+package com.sixeyes.event;
+
+import com.sixeyes.model.TorrentStatus;
+
+import java.time.Instant;
+
+/** Download status moved from {@code from} to {@code to}; {@code from} is null for a new torrent. */
+public record TorrentStatusChanged(long torrentId, TorrentStatus from, TorrentStatus to, Instant at)
+        implements TorrentEvent {
+
+    public TorrentStatusChanged(long torrentId, TorrentStatus from, TorrentStatus to) {
+        this(torrentId, from, to, Instant.now());
+    }
+}
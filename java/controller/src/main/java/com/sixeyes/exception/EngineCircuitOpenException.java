@@ -0,0 +1,16 @@
+package com.sixeyes.exception;
+
+/** Engine calls are failing fast until the circuit breaker lets a probe through. */
+public class EngineCircuitOpenException extends EngineUnavailableException {
+
+    private final long retryAfterSeconds;
+
+    public EngineCircuitOpenException(String operation, long retryAfterSeconds) {
+        super("Python engine unavailable: circuit open, " + operation + " not attempted");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
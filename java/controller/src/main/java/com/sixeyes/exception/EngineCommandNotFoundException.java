@@ -0,0 +1,7 @@
+package com.sixeyes.exception;
+
+public class EngineCommandNotFoundException extends RuntimeException {
+    public EngineCommandNotFoundException(Long id) {
+        super("Engine command not found with id: " + id);
+    }
+}
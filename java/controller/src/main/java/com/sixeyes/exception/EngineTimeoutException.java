@@ -0,0 +1,8 @@
+package com.sixeyes.exception;
+
+public class EngineTimeoutException extends RuntimeException {
+
+    public EngineTimeoutException(String operation, long deadlineMs) {
+        super("Python engine did not answer " + operation + " within " + deadlineMs + " ms");
+    }
+}
@@ -0,0 +1,13 @@
+package com.sixeyes.exception;
+
+/** The engine could not be reached, failed, or was not asked because the client is shedding load. */
+public class EngineUnavailableException extends RuntimeException {
+
+    public EngineUnavailableException(String message) {
+        super(message);
+    }
+
+    public EngineUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,7 @@
+package com.sixeyes.exception;
+
+public class InvalidTorrentFileException extends RuntimeException {
+    public InvalidTorrentFileException(String reason) {
+        super("Invalid .torrent file: " + reason);
+    }
+}
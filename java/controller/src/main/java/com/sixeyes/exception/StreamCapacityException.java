@@ -0,0 +1,8 @@
+package com.sixeyes.exception;
+
+public class StreamCapacityException extends RuntimeException {
+
+    public StreamCapacityException(int limit) {
+        super("Live stream is full (" + limit + " subscribers); fall back to polling");
+    }
+}
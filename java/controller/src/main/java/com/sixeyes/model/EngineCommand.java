@@ -0,0 +1,70 @@
+package com.sixeyes.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.Instant;
+
+/**
+ * A row of the engine command outbox. It is written in the same transaction as the torrent
+ * state it belongs to and delivered afterwards by the outbox dispatcher, so the engine call
+ * can neither hold up the request nor get lost when it fails. It carries everything the call
+ * needs, because a removed torrent's row is gone by the time the command is delivered.
+ */
+@Data
+@Entity
+@Table(name = "engine_commands", indexes = {
+        @Index(name = "idx_engine_commands_status", columnList = "status, id"),
+        @Index(name = "idx_engine_commands_status_torrent", columnList = "status, torrent_id, id"),
+        @Index(name = "idx_engine_commands_torrent_id", columnList = "torrent_id")
+})
+@NoArgsConstructor
+@ToString(of = {"id", "torrentId", "type", "status", "attempts"})
+public class EngineCommand {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "torrent_id", nullable = false)
+    private Long torrentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private EngineCommandType type;
+
+    @Column(nullable = false, length = 4000)
+    private String magnet;
+
+    @Column(name = "save_path", length = 4000)
+    private String savePath;
+
+    @Column(name = "delete_files", nullable = false)
+    private boolean deleteFiles;
+
+    // Sent as Idempotency-Key, so a redelivery after a lost answer is not acted on twice.
+    @Column(name = "idempotency_key", nullable = false, unique = true, length = 36)
+    private String idempotencyKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private EngineCommandStatus status = EngineCommandStatus.PENDING;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    // Null until a failed attempt schedules a retry.
+    @Column(name = "next_attempt_at")
+    private Instant nextAttemptAt;
+
+    @Column(name = "completed_at")
+    private Instant completedAt;
+
+    @Column(name = "last_error", length = 2000)
+    private String lastError;
+}
@@ -0,0 +1,10 @@
+package com.sixeyes.model;
+
+public enum EngineCommandStatus {
+    /** Waiting for its first delivery, or for a retry. */
+    PENDING,
+    /** The engine acknowledged it. */
+    DELIVERED,
+    /** Refused by the engine, or still failing after the last retry. */
+    FAILED
+}
@@ -0,0 +1,10 @@
+package com.sixeyes.model;
+
+/** What an {@link EngineCommand} asks the engine to do with its torrent. */
+public enum EngineCommandType {
+    ADD,
+    PAUSE,
+    STOP,
+    RESUME,
+    REMOVE
+}
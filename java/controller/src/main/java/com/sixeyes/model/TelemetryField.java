@@ -0,0 +1,42 @@
+package com.sixeyes.model;
+
+import java.util.function.Function;
+
+/**
+ * Torrent columns the engine sync is allowed to rewrite, with the accessor used to
+ * read the value that should be persisted for each one. The info hash is not among
+ * them: it is the duplicate key and comes only from the magnet or .torrent file. Lifecycle fields are written
+ * as soon as they change; the rest only live in memory until the next checkpoint.
+ */
+public enum TelemetryField {
+    TITLE("title", true, Torrent::getTitle),
+    SIZE("size_bytes", true, Torrent::getSizeBytes),
+    PROGRESS("progress", false, Torrent::getProgress),
+    DOWNLOAD_RATE("download_rate", false, Torrent::getDownloadRate),
+    UPLOAD_RATE("upload_rate", false, Torrent::getUploadRate),
+    PEERS("peers", false, Torrent::getPeers),
+    ETA("eta_seconds", false, Torrent::getEtaSeconds),
+    STATUS("status", true, t -> t.getStatus().name());
+
+    private final String column;
+    private final boolean lifecycle;
+    private final Function<Torrent, Object> accessor;
+
+    TelemetryField(String column, boolean lifecycle, Function<Torrent, Object> accessor) {
+        this.column = column;
+        this.lifecycle = lifecycle;
+        this.accessor = accessor;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    public boolean isLifecycle() {
+        return lifecycle;
+    }
+
+    public Object valueOf(Torrent torrent) {
+        return accessor.apply(torrent);
+    }
+}
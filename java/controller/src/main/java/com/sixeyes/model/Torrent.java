@@ -11,40 +11,55 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "torrents")
+@Table(name = "torrents", indexes = {
+        @Index(name = "idx_torrents_status", columnList = "status"),
+        @Index(name = "idx_torrents_install_status", columnList = "install_status"),
+        @Index(name = "idx_torrents_created_at", columnList = "created_at"),
+        @Index(name = "idx_torrents_updated_at", columnList = "updated_at"),
+        @Index(name = Torrent.INFO_HASH_INDEX, columnList = "info_hash", unique = true)
+})
+@SecondaryTable(name = "torrent_magnets", pkJoinColumns = @PrimaryKeyJoinColumn(name = "torrent_id"))
 @NoArgsConstructor
 @ToString(of = {"id", "title", "status", "progress"})
 public class Torrent {
 
-    private static final String DEFAULT_SPEED = "0.00 MB/s";
-    private static final String DEFAULT_SIZE = "0 B";
+    public static final String INFO_HASH_INDEX = "uk_torrents_info_hash";
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, length = 4000, unique = true)
+    // Canonical magnet (see MagnetLink), kept out of the torrents rows that every telemetry
+    // flush rewrites. Duplicates are found by info_hash, never by comparing magnets.
+    @Column(table = "torrent_magnets", nullable = false, length = 4000)
     private String magnet;
 
     private String title;
 
-    @Column(name = "info_hash")
+    // Lower-case hex: v1 (40 chars), or v2 (64) for a v2-only torrent. Nullable so
+    // ddl-auto=update can add the unique index to a populated table.
+    @Column(name = "info_hash", length = 64)
     private String infoHash;
 
-    private String size = DEFAULT_SIZE;
+    // Numeric telemetry: bytes, bytes/s and seconds. Display strings are produced by the
+    // response DTOs only. Defaults let ddl-auto=update add the columns to populated tables.
+    @Column(name = "size_bytes", columnDefinition = "bigint default 0 not null")
+    private long sizeBytes;
 
     @Column(nullable = false)
     private double progress = 0.0;
 
-    @Column(name = "download_speed")
-    private String downloadSpeed= DEFAULT_SPEED;
+    @Column(name = "download_rate", columnDefinition = "bigint default 0 not null")
+    private long downloadRate;
 
-    @Column(name = "upload_speed")
-    private String uploadSpeed  = DEFAULT_SPEED;
+    @Column(name = "upload_rate", columnDefinition = "bigint default 0 not null")
+    private long uploadRate;
 
     private int peers = 0;
 
-    private String eta;
+    // Null while the engine can't estimate it.
+    @Column(name = "eta_seconds")
+    private Long etaSeconds;
 
     @Column(name = "save_path", length = 4000)
     private String savePath;
@@ -69,6 +84,10 @@ public class Torrent {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Live-store change stamp; never persisted (see TorrentLiveStore).
+    @Transient
+    private long changeVersion;
+
     public Torrent(String magnet) {
         this.magnet = magnet;
     }
@@ -80,24 +99,26 @@ public class Torrent {
         }
     }
 
-    public void setDownloadSpeed(String value) {
-        this.downloadSpeed = formatSpeed(value);
-    }
-
-    public void setUploadSpeed(String value) {
-        this.uploadSpeed = formatSpeed(value);
-    }
-
-    private static String formatSpeed(String raw) {
-        if (raw == null || raw.isBlank()) {
-            return DEFAULT_SPEED;
-        }
-        try {
-            double mbps = Double.parseDouble(raw.replace("MB/s", "").trim());
-            return String.format(java.util.Locale.US, "%.2f MB/s", mbps);
-        } catch (NumberFormatException e) {
-            return DEFAULT_SPEED;
-        }
+    /** Detached copy of every column, used for the in-memory live view. */
+    public Torrent snapshot() {
+        Torrent copy = new Torrent(magnet);
+        copy.id = id;
+        copy.title = title;
+        copy.infoHash = infoHash;
+        copy.sizeBytes = sizeBytes;
+        copy.progress = progress;
+        copy.downloadRate = downloadRate;
+        copy.uploadRate = uploadRate;
+        copy.peers = peers;
+        copy.etaSeconds = etaSeconds;
+        copy.savePath = savePath;
+        copy.installStatus = installStatus;
+        copy.installMessage = installMessage;
+        copy.status = status;
+        copy.createdAt = createdAt;
+        copy.updatedAt = updatedAt;
+        copy.changeVersion = changeVersion;
+        return copy;
     }
 
     public boolean isCompleted() {
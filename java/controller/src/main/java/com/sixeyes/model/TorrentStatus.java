@@ -2,6 +2,9 @@ package com.sixeyes.model;
 
 import com.fasterxml.jackson.annotation.JsonValue;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public enum TorrentStatus {
     DOWNLOADING("Downloading"),
     SEEDING("Seeding"),
@@ -9,6 +12,17 @@ public enum TorrentStatus {
     STOPPED("Stopped"),
     ERROR("Error");
 
+    // Exact spellings seen on the wire, so the per-torrent sync lookup is a single hash hit.
+    private static final Map<String, TorrentStatus> BY_VALUE = new HashMap<>();
+
+    static {
+        for (TorrentStatus status : values()) {
+            BY_VALUE.put(status.value, status);
+            BY_VALUE.put(status.value.toLowerCase(), status);
+            BY_VALUE.put(status.value.toUpperCase(), status);
+        }
+    }
+
     private final String value;
 
     TorrentStatus(String value) {
@@ -26,6 +40,11 @@ public enum TorrentStatus {
             return DOWNLOADING;
         }
 
+        TorrentStatus cached = BY_VALUE.get(value);
+        if (cached != null) {
+            return cached;
+        }
+
         for (TorrentStatus status : values()) {
 
             if (status.value.equalsIgnoreCase(value.trim())){
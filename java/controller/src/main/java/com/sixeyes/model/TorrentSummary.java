@@ -0,0 +1,25 @@
+package com.sixeyes.model;
+
+import java.time.LocalDateTime;
+
+/** Read-only view of a torrent row without the magnet; what list endpoints are built from. */
+public record TorrentSummary(
+        Long id,
+        String title,
+        long sizeBytes,
+        double progress,
+        long downloadRate,
+        long uploadRate,
+        int peers,
+        Long etaSeconds,
+        TorrentStatus status,
+        String installStatus,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) {
+    public static TorrentSummary of(Torrent t) {
+        return new TorrentSummary(t.getId(), t.getTitle(), t.getSizeBytes(), t.getProgress(),
+                t.getDownloadRate(), t.getUploadRate(), t.getPeers(), t.getEtaSeconds(),
+                t.getStatus(), t.getInstallStatus(), t.getCreatedAt(), t.getUpdatedAt());
+    }
+}
@@ -0,0 +1,43 @@
+package com.sixeyes.repo;
+
+import com.sixeyes.model.EngineCommand;
+import com.sixeyes.model.EngineCommandStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EngineCommandRepository extends JpaRepository<EngineCommand, Long> {
+
+    /**
+     * The oldest pending command of each torrent, above {@code afterId} and oldest first. A
+     * torrent's later commands wait behind that head, so however many of them pile up they
+     * never crowd other torrents out of a page.
+     */
+    @Query("SELECT c FROM EngineCommand c WHERE c.id > :afterId AND c.id IN ("
+            + "SELECT MIN(h.id) FROM EngineCommand h WHERE h.status = com.sixeyes.model.EngineCommandStatus.PENDING"
+            + " GROUP BY h.torrentId) ORDER BY c.id")
+    List<EngineCommand> findPendingHeads(@Param("afterId") long afterId, Limit limit);
+
+    long countByStatus(EngineCommandStatus status);
+
+    /** Those of {@code torrentIds} that still have a command waiting for the engine. */
+    @Query("SELECT DISTINCT c.torrentId FROM EngineCommand c"
+            + " WHERE c.status = com.sixeyes.model.EngineCommandStatus.PENDING AND c.torrentId IN :ids")
+    List<Long> findTorrentIdsWithPending(@Param("ids") Collection<Long> torrentIds);
+
+    boolean existsByTorrentIdAndStatus(Long torrentId, EngineCommandStatus status);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM EngineCommand c WHERE c.status <> com.sixeyes.model.EngineCommandStatus.PENDING AND c.completedAt < :before")
+    int deleteCompletedBefore(@Param("before") Instant before);
+}
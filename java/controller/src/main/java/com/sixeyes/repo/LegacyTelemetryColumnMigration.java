@@ -0,0 +1,154 @@
+package com.sixeyes.repo;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * One-off upgrade for databases created while telemetry was stored as display strings
+ * ({@code "4.2 GB"}, {@code "1.25 MB/s"}, {@code "1h 5m"}): adds the numeric columns,
+ * copies the old values across and drops the string columns. On a fresh or already
+ * migrated schema it finds nothing to do.
+ *
+ * <p>Like {@link MagnetColumnMigration} it runs before the EntityManagerFactory is built,
+ * so no sync tick or request can read or write a row that still has only the old columns.
+ */
+@Slf4j
+@Component
+public class LegacyTelemetryColumnMigration implements InitializingBean {
+
+    /** Holds the EntityManagerFactory back until the migration is done. */
+    @Component
+    static class BeforeJpa extends EntityManagerFactoryDependsOnPostProcessor {
+        BeforeJpa() {
+            super(LegacyTelemetryColumnMigration.class);
+        }
+    }
+
+    private static final List<String> LEGACY_COLUMNS = List.of("size", "download_speed", "upload_speed", "eta");
+    private static final String[] SIZE_UNITS = {"B", "KB", "MB", "GB", "TB", "PB"};
+    private static final double MB = 1024.0 * 1024.0;
+
+    private final JdbcTemplate jdbcTemplate;
+    // Not the JPA transaction manager: that needs the EntityManagerFactory this runs ahead of.
+    private final TransactionTemplate transaction;
+
+    public LegacyTelemetryColumnMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(new DataSourceTransactionManager(jdbcTemplate.getDataSource()));
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Set<String> legacy = legacyColumns();
+        if (!legacy.isEmpty()) transaction.executeWithoutResult(status -> migrate(legacy));
+    }
+
+    private void migrate(Set<String> legacy) {
+        // The same definitions as the entity, so ddl-auto=update finds nothing left to add.
+        jdbcTemplate.execute("ALTER TABLE torrents ADD COLUMN IF NOT EXISTS size_bytes BIGINT DEFAULT 0 NOT NULL");
+        jdbcTemplate.execute("ALTER TABLE torrents ADD COLUMN IF NOT EXISTS download_rate BIGINT DEFAULT 0 NOT NULL");
+        jdbcTemplate.execute("ALTER TABLE torrents ADD COLUMN IF NOT EXISTS upload_rate BIGINT DEFAULT 0 NOT NULL");
+        jdbcTemplate.execute("ALTER TABLE torrents ADD COLUMN IF NOT EXISTS eta_seconds BIGINT");
+
+        List<Object[]> rows = jdbcTemplate.query("SELECT * FROM torrents", (rs, i) -> new Object[]{
+                parseSize(column(rs, legacy, "size")),
+                parseRate(column(rs, legacy, "download_speed")),
+                parseRate(column(rs, legacy, "upload_speed")),
+                parseEta(column(rs, legacy, "eta")),
+                rs.getLong("id")
+        });
+        jdbcTemplate.batchUpdate(
+                "UPDATE torrents SET size_bytes = ?, download_rate = ?, upload_rate = ?, eta_seconds = ? WHERE id = ?",
+                rows);
+        for (String column : legacy) {
+            jdbcTemplate.execute("ALTER TABLE torrents DROP COLUMN " + column);
+        }
+        log.info("Migrated {} torrent(s) off legacy string columns {}", rows.size(), legacy);
+    }
+
+    private Set<String> legacyColumns() {
+        Set<String> found = new HashSet<>();
+        jdbcTemplate.execute((Connection con) -> {
+            DatabaseMetaData meta = con.getMetaData();
+            // Identifier case differs by database (H2 upper-cases, PostgreSQL lower-cases).
+            for (String table : List.of("torrents", "TORRENTS")) {
+                try (ResultSet rs = meta.getColumns(con.getCatalog(), null, table, null)) {
+                    while (rs.next()) {
+                        String name = rs.getString("COLUMN_NAME").toLowerCase(Locale.ROOT);
+                        if (LEGACY_COLUMNS.contains(name)) found.add(name);
+                    }
+                }
+            }
+            return null;
+        });
+        return found;
+    }
+
+    private static String column(ResultSet rs, Set<String> present, String name) throws SQLException {
+        return present.contains(name) ? (String) JdbcUtils.getResultSetValue(rs, rs.findColumn(name), String.class) : null;
+    }
+
+    /** {@code "4.2 GB"} → bytes (1024-based); 0 when blank or unparseable. */
+    static long parseSize(String value) {
+        if (value == null || value.isBlank()) return 0L;
+        String[] parts = value.trim().split("\\s+");
+        try {
+            double amount = Double.parseDouble(parts[0]);
+            String unit = parts.length > 1 ? parts[1].toUpperCase(Locale.ROOT) : "B";
+            for (int i = 0; i < SIZE_UNITS.length; i++) {
+                if (SIZE_UNITS[i].equals(unit)) return Math.round(amount * Math.pow(1024, i));
+            }
+        } catch (NumberFormatException ignored) {
+            // fall through
+        }
+        return 0L;
+    }
+
+    /** {@code "1.25 MB/s"} → bytes/s; 0 when blank or unparseable. */
+    static long parseRate(String value) {
+        if (value == null || value.isBlank()) return 0L;
+        try {
+            return Math.round(Double.parseDouble(value.replace("MB/s", "").trim()) * MB);
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    /** {@code "1h 5m"} → seconds; null when blank or unparseable. */
+    static Long parseEta(String value) {
+        if (value == null || value.isBlank()) return null;
+        long seconds = 0;
+        for (String part : value.trim().split("\\s+")) {
+            if (part.length() < 2) return null;
+            long amount;
+            try {
+                amount = Long.parseLong(part.substring(0, part.length() - 1));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            switch (part.charAt(part.length() - 1)) {
+                case 'd' -> seconds += amount * 86_400;
+                case 'h' -> seconds += amount * 3_600;
+                case 'm' -> seconds += amount * 60;
+                case 's' -> seconds += amount;
+                default -> { return null; }
+            }
+        }
+        return seconds > 0 ? seconds : null;
+    }
+}
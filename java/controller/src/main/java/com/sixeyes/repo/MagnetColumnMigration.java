@@ -0,0 +1,111 @@
+package com.sixeyes.repo;
+
+import com.sixeyes.exception.InvalidMagnetException;
+import com.sixeyes.service.MagnetLink;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * One-off upgrade for databases created while the magnet was a unique column on
+ * {@code torrents}: creates {@code torrent_magnets}, canonicalizes each magnet into it,
+ * fills in its info hash and drops the old column. A row whose hash an older row already
+ * has keeps a null hash and is logged: it is a duplicate the old exact-string check let
+ * through.
+ *
+ * <p>It runs before the EntityManagerFactory is built, so Hibernate adds the
+ * {@code info_hash} unique index to rows that are already de-duplicated, and nothing can
+ * insert a torrent while the old non-null column is still there.
+ */
+@Slf4j
+@Component
+public class MagnetColumnMigration implements InitializingBean {
+
+    /** Holds the EntityManagerFactory, and with it the web tier and schedulers, back until the migration is done. */
+    @Component
+    static class BeforeJpa extends EntityManagerFactoryDependsOnPostProcessor {
+        BeforeJpa() {
+            super(MagnetColumnMigration.class);
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    // Not the JPA transaction manager: that needs the EntityManagerFactory this runs ahead of.
+    private final TransactionTemplate transaction;
+
+    public MagnetColumnMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(new DataSourceTransactionManager(jdbcTemplate.getDataSource()));
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (hasMagnetColumn()) transaction.executeWithoutResult(status -> migrate());
+    }
+
+    private void migrate() {
+
+        List<Object[]> magnets = new ArrayList<>();
+        List<Object[]> hashes = new ArrayList<>();
+        List<Long> duplicates = new ArrayList<>();
+        List<Long> unparseable = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        jdbcTemplate.query("SELECT id, magnet FROM torrents ORDER BY id", rs -> {
+            long id = rs.getLong("id");
+            String magnet = rs.getString("magnet");
+            try {
+                MagnetLink link = MagnetLink.parse(magnet);
+                magnets.add(new Object[]{id, link.toUri()});
+                if (seen.add(link.infoHash())) {
+                    hashes.add(new Object[]{link.infoHash(), id});
+                } else {
+                    duplicates.add(id);
+                }
+            } catch (InvalidMagnetException e) {
+                magnets.add(new Object[]{id, magnet});   // kept as it was; the engine may still know it
+                unparseable.add(id);
+            }
+        });
+
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS torrent_magnets "
+                + "(torrent_id BIGINT NOT NULL, magnet VARCHAR(4000) NOT NULL, PRIMARY KEY (torrent_id))");
+        // Clear first so a hash set by a .torrent upload can't collide while rows are filled in.
+        jdbcTemplate.update("UPDATE torrents SET info_hash = NULL");
+        jdbcTemplate.batchUpdate("UPDATE torrents SET info_hash = ? WHERE id = ?", hashes);
+        jdbcTemplate.batchUpdate("INSERT INTO torrent_magnets (torrent_id, magnet) VALUES (?, ?)", magnets);
+        jdbcTemplate.execute("ALTER TABLE torrents ALTER COLUMN info_hash SET DATA TYPE VARCHAR(64)");
+        jdbcTemplate.execute("ALTER TABLE torrents DROP COLUMN magnet");
+
+        log.info("Moved {} magnet(s) to torrent_magnets and keyed {} torrent(s) by info hash", magnets.size(), hashes.size());
+        if (!duplicates.isEmpty()) log.warn("Torrents {} duplicate an older torrent's info hash", duplicates);
+        if (!unparseable.isEmpty()) log.warn("Torrents {} have no BitTorrent info hash in their magnet", unparseable);
+    }
+
+    private boolean hasMagnetColumn() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((Connection con) -> {
+            DatabaseMetaData meta = con.getMetaData();
+            // Identifier case differs by database (H2 upper-cases, PostgreSQL lower-cases).
+            for (String table : List.of("torrents", "TORRENTS")) {
+                try (ResultSet rs = meta.getColumns(con.getCatalog(), null, table, null)) {
+                    while (rs.next()) {
+                        if ("magnet".equals(rs.getString("COLUMN_NAME").toLowerCase(Locale.ROOT))) return true;
+                    }
+                }
+            }
+            return false;
+        }));
+    }
+}
@@ -0,0 +1,22 @@
+package com.sixeyes.repo;
+
+import com.sixeyes.model.TorrentStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Criteria for {@link TorrentSearchRepository#search}; null fields don't filter.
+ * {@code createdTo} is exclusive.
+ */
+public record TorrentFilter(
+        TorrentStatus status,
+        String installStatus,
+        String title,
+        LocalDateTime createdFrom,
+        LocalDateTime createdTo,
+        boolean completedOnly
+) {
+    public TorrentFilter withCompletedOnly() {
+        return new TorrentFilter(status, installStatus, title, createdFrom, createdTo, true);
+    }
+}
@@ -2,20 +2,36 @@ package com.sixeyes.repo;
 
 import com.sixeyes.model.Torrent;
 import com.sixeyes.model.TorrentStatus;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
 
 @Repository
-public interface TorrentRepository extends JpaRepository<Torrent, Long> {
+public interface TorrentRepository extends JpaRepository<Torrent, Long>, TorrentSearchRepository {
 
-    boolean existsByMagnet(String magnet);
+    boolean existsByInfoHash(String infoHash);
+
+    @Query("SELECT t.infoHash FROM Torrent t WHERE t.infoHash IN :hashes")
+    List<String> findExistingInfoHashes(@Param("hashes") Collection<String> hashes);
 
     List<Torrent> findByStatus(TorrentStatus status);
 
     List<Torrent> findByStatusIn(Collection<TorrentStatus> statuses);
 
     List<Torrent> findByInstallStatus(String installStatus);
+
+    /** True when {@code e} is the unique info hash index turning away a second row for the same torrent. */
+    static boolean isInfoHashConflict(DataIntegrityViolationException e) {
+        // H2 reports the index with a suffix ("UK_TORRENTS_INFO_HASH_INDEX_A"), PostgreSQL as named.
+        return e.getCause() instanceof ConstraintViolationException violation
+                && violation.getConstraintName() != null
+                && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(Torrent.INFO_HASH_INDEX);
+    }
 }
@@ -0,0 +1,16 @@
+package com.sixeyes.repo;
+
+import com.sixeyes.model.TorrentSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/** Paged torrent listing; implemented by {@link TorrentSearchRepositoryImpl}. */
+public interface TorrentSearchRepository {
+
+    Page<TorrentSummary> search(TorrentFilter filter, Pageable pageable);
+
+    /** Ids of at most {@code limit} torrents matching {@code filter}, oldest first. */
+    List<Long> findIds(TorrentFilter filter, int limit);
+}
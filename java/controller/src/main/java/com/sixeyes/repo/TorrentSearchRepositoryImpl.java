@@ -0,0 +1,96 @@
+package com.sixeyes.repo;
+
+import com.sixeyes.model.Torrent;
+import com.sixeyes.model.TorrentStatus;
+import com.sixeyes.model.TorrentSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Criteria query that selects the summary columns only, so the 4000-char magnet never
+ * leaves the database. Only the filters that are set become predicates, which keeps the
+ * plans on the status / install_status / created_at indexes.
+ */
+class TorrentSearchRepositoryImpl implements TorrentSearchRepository {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public Page<TorrentSummary> search(TorrentFilter filter, Pageable pageable) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+
+        CriteriaQuery<TorrentSummary> query = cb.createQuery(TorrentSummary.class);
+        Root<Torrent> t = query.from(Torrent.class);
+        query.select(cb.construct(TorrentSummary.class,
+                        t.get("id"), t.get("title"), t.get("sizeBytes"), t.get("progress"),
+                        t.get("downloadRate"), t.get("uploadRate"), t.get("peers"), t.get("etaSeconds"),
+                        t.get("status"), t.get("installStatus"), t.get("createdAt"), t.get("updatedAt")))
+                .where(predicates(cb, t, filter))
+                // id breaks ties so rows don't repeat or vanish between pages
+                .orderBy(QueryUtils.toOrders(pageable.getSort().and(Sort.by(Sort.Direction.DESC, "id")), t, cb));
+        List<TorrentSummary> content = em.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> {
+            CriteriaQuery<Long> count = cb.createQuery(Long.class);
+            Root<Torrent> c = count.from(Torrent.class);
+            count.select(cb.count(c)).where(predicates(cb, c, filter));
+            return em.createQuery(count).getSingleResult();
+        });
+    }
+
+    @Override
+    public List<Long> findIds(TorrentFilter filter, int limit) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Torrent> t = query.from(Torrent.class);
+        query.select(t.get("id")).where(predicates(cb, t, filter)).orderBy(cb.asc(t.get("id")));
+        return em.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    private static Predicate[] predicates(CriteriaBuilder cb, Root<Torrent> t, TorrentFilter filter) {
+        List<Predicate> where = new ArrayList<>();
+        if (filter.status() != null) {
+            where.add(cb.equal(t.get("status"), filter.status()));
+        }
+        if (filter.installStatus() != null) {
+            Predicate equal = cb.equal(t.get("installStatus"), filter.installStatus());
+            // null is the NONE written before the column existed
+            where.add("NONE".equals(filter.installStatus()) ? cb.or(equal, cb.isNull(t.get("installStatus"))) : equal);
+        }
+        if (filter.title() != null && !filter.title().isBlank()) {
+            where.add(cb.like(cb.lower(t.<String>get("title")), "%" + escapeLike(filter.title().trim().toLowerCase()) + "%", '\\'));
+        }
+        if (filter.createdFrom() != null) {
+            where.add(cb.greaterThanOrEqualTo(t.<LocalDateTime>get("createdAt"), filter.createdFrom()));
+        }
+        if (filter.createdTo() != null) {
+            where.add(cb.lessThan(t.<LocalDateTime>get("createdAt"), filter.createdTo()));
+        }
+        if (filter.completedOnly()) {
+            // same rule as Torrent.isCompleted()
+            where.add(cb.or(cb.equal(t.get("status"), TorrentStatus.SEEDING), cb.ge(t.<Double>get("progress"), 100.0)));
+        }
+        return where.toArray(Predicate[]::new);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,129 @@
+package com.sixeyes.service;
+
+import com.sixeyes.service.TorrentSyncService.SyncReport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Drives {@link TorrentSyncService} on a self-rescheduling loop instead of a fixed delay:
+ * <ul>
+ *   <li>fast cadence while anything is downloading, slow cadence for seeds only — or for
+ *       everything while {@link EngineStreamClient} is pushing deltas;</li>
+ *   <li>exponential back-off (capped at the max interval) while cycles change nothing
+ *       or the engine is failing;</li>
+ *   <li>{@link #wake()} snaps straight back to a full, immediate cycle after user commands.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class AdaptiveSyncScheduler {
+
+    private static final int MAX_BACKOFF_SHIFT = 10;
+
+    private final TorrentSyncService syncService;
+    private final EngineStreamClient streamClient;
+    private final TaskScheduler taskScheduler;
+    private final Duration fastInterval;
+    private final Duration slowInterval;
+    private final Duration maxInterval;
+
+    private final Object lock = new Object();
+    private ScheduledFuture<?> pending;
+    private long generation;
+    private boolean running;
+    private boolean wakeRequested;
+    private int quietCycles;
+    private Instant lastFullSync = Instant.EPOCH;
+
+    public AdaptiveSyncScheduler(
+            TorrentSyncService syncService,
+            EngineStreamClient streamClient,
+            TaskScheduler taskScheduler,
+            @Value("${sync.fast-interval-ms:2000}") long fastIntervalMs,
+            @Value("${sync.slow-interval-ms:15000}") long slowIntervalMs,
+            @Value("${sync.max-interval-ms:60000}") long maxIntervalMs
+    ) {
+        this.syncService = syncService;
+        this.streamClient = streamClient;
+        this.taskScheduler = taskScheduler;
+        this.fastInterval = Duration.ofMillis(fastIntervalMs);
+        this.slowInterval = Duration.ofMillis(slowIntervalMs);
+        this.maxInterval = Duration.ofMillis(maxIntervalMs);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        wake();
+    }
+
+    /** Requests an immediate full sync and resets any back-off. */
+    public void wake() {
+        synchronized (lock) {
+            quietCycles = 0;
+            wakeRequested = true;
+            if (running) return;    // the in-flight cycle reschedules as soon as it ends
+            if (pending != null) pending.cancel(false);
+            schedule(Duration.ZERO);
+        }
+    }
+
+    private void runCycle(long token) {
+        boolean full;
+        synchronized (lock) {
+            if (token != generation) return;
+            running = true;
+            full = wakeRequested || !Instant.now().isBefore(lastFullSync.plus(slowInterval));
+            wakeRequested = false;
+        }
+
+        SyncReport report;
+        try {
+            report = syncService.syncFromEngine(full);
+        } catch (RuntimeException e) {
+            log.warn("Sync cycle failed: {}", e.getMessage());
+            report = SyncReport.failure(0, 0);
+        }
+
+        synchronized (lock) {
+            running = false;
+            if (full) lastFullSync = Instant.now();
+            Duration delay = wakeRequested ? Duration.ZERO : nextDelay(report);
+            log.trace("Next engine sync in {} ms", delay.toMillis());
+            schedule(delay);
+        }
+    }
+
+    /** Computes the pause before the next cycle and updates the back-off state. */
+    Duration nextDelay(SyncReport report) {
+        Duration base;
+        if (report.downloading() > 0 && !streamClient.isConnected()) {
+            base = fastInterval;
+        } else if (report.active() > 0) {
+            base = slowInterval;
+        } else {
+            base = maxInterval;
+        }
+
+        if (report.failed() || report.changed() == 0) {
+            quietCycles = Math.min(quietCycles + 1, MAX_BACKOFF_SHIFT);
+        } else {
+            quietCycles = 0;
+        }
+
+        Duration delay = base.multipliedBy(1L << quietCycles);
+        return delay.compareTo(maxInterval) > 0 ? maxInterval : delay;
+    }
+
+    private void schedule(Duration delay) {
+        long token = ++generation;
+        pending = taskScheduler.schedule(() -> runCycle(token), Instant.now().plus(delay));
+    }
+}
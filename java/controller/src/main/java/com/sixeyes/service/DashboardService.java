@@ -0,0 +1,68 @@
+package com.sixeyes.service;
+
+import com.sixeyes.dto.request.DashboardPart;
+import com.sixeyes.dto.response.DashboardSnapshot;
+import com.sixeyes.dto.response.DiskInfo;
+import com.sixeyes.dto.response.SettingsResponse;
+import com.sixeyes.dto.response.SystemInfoResponse;
+import com.sixeyes.dto.response.TorrentResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Future;
+
+/**
+ * Builds {@link DashboardSnapshot}s from the caches the other services keep: the live store
+ * for torrents and network rates, the storage and disk caches and the cached settings.
+ * The two parts that may reach the engine on a cache miss load side by side; a part that
+ * fails or misses the fan-out deadline is reported unavailable instead of failing the rest.
+ */
+@Service
+@RequiredArgsConstructor
+public class DashboardService {
+
+    private final TorrentService torrentService;
+    private final SystemInfoService systemInfoService;
+    private final SettingsService settingsService;
+    private final EngineFanOut fanOut;
+
+    public DashboardSnapshot snapshot(Set<DashboardPart> parts) {
+        long deadline = fanOut.deadline();
+        Future<SingleFlightCache.Read<SystemInfoResponse>> system = parts.contains(DashboardPart.SYSTEM)
+                ? fanOut.start(systemInfoService::readSystemInfo) : null;
+        Future<SingleFlightCache.Read<List<DiskInfo>>> disks = parts.contains(DashboardPart.DISKS)
+                ? fanOut.start(systemInfoService::readDiskList) : null;
+
+        Long version = null;
+        List<TorrentResponse> torrents = null;
+        if (parts.contains(DashboardPart.TORRENTS)) {
+            version = torrentService.getListVersion(); // before the list, as for the ETag
+            torrents = torrentService.getAllTorrents();
+        }
+        SettingsResponse settings = parts.contains(DashboardPart.SETTINGS) ? settingsService.getSettings() : null;
+
+        List<String> unavailable = new ArrayList<>();
+        List<String> stale = new ArrayList<>();
+        return new DashboardSnapshot(
+                version,
+                torrents,
+                collect(system, deadline, "system", unavailable, stale),
+                collect(disks, deadline, "disks", unavailable, stale),
+                settings,
+                unavailable.isEmpty() ? null : unavailable,
+                stale.isEmpty() ? null : stale);
+    }
+
+    private <T> T collect(Future<SingleFlightCache.Read<T>> part, long deadline, String name,
+                          List<String> unavailable, List<String> stale) {
+        if (part == null) return null;
+        Optional<SingleFlightCache.Read<T>> read = fanOut.settle(part, deadline, "dashboard " + name);
+        if (read.isEmpty()) unavailable.add(name);
+        else if (read.get().stale()) stale.add(name);
+        return read.map(SingleFlightCache.Read::value).orElse(null);
+    }
+}
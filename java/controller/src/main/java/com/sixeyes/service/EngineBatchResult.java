@@ -0,0 +1,7 @@
+package com.sixeyes.service;
+
+/**
+ * Engine outcome for one torrent of a batch call. {@code missing} means the engine doesn't
+ * hold the torrent (lost after a restart); {@code error} is set for any other failure.
+ */
+public record EngineBatchResult(long id, boolean ok, boolean missing, String error) {}
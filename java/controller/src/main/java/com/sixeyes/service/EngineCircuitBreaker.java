@@ -0,0 +1,169 @@
+package com.sixeyes.service;
+
+import com.sixeyes.exception.EngineCircuitOpenException;
+import com.sixeyes.exception.EngineUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker and bulkhead in front of every engine call. After {@code failureThreshold}
+ * consecutive engine faults the circuit opens and calls fail at once for {@code openMs};
+ * then one probe is let through (half-open) and its outcome closes or re-opens the circuit.
+ * Independently, at most {@code maxInFlight} calls may be outstanding; past that a call is
+ * refused rather than queued.
+ *
+ * <p>Only engine faults count: timeouts, dropped connections and 5xx answers. An engine that
+ * answers 4xx is up, and refusals by the breaker or the bulkhead are not the engine's doing.
+ */
+@Slf4j
+@Component
+public class EngineCircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /** {@code rejected} failed fast on an open circuit, {@code shed} found the bulkhead full. */
+    public record Stats(State state, int consecutiveFailures, long opened, long rejected, long shed,
+                        int inFlight, int maxInFlight, String lastFailure) {}
+
+    /** One admitted call; report its outcome exactly once. */
+    public final class Permit {
+        private final boolean probe;
+        private boolean done;
+
+        private Permit(boolean probe) {
+            this.probe = probe;
+        }
+
+        public void succeeded() {
+            finish(this, true, null);
+        }
+
+        public void failed(String reason) {
+            finish(this, false, reason);
+        }
+
+        /** The caller gave up (cancelled); says nothing about the engine's health. */
+        public void abandoned() {
+            finish(this, false, null);
+        }
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final int maxInFlight;
+    private final Semaphore bulkhead;
+    private final LongSupplier nanoClock;
+
+    private final LongAdder opened = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+
+    // Guarded by this; every critical section is a few field updates.
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long retryAt;
+    private boolean probing;
+    private String lastFailure;
+
+    @Autowired
+    public EngineCircuitBreaker(
+            @Value("${python.breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${python.breaker.open-ms:10000}") long openMs,
+            @Value("${python.bulkhead.max-in-flight:32}") int maxInFlight
+    ) {
+        this(failureThreshold, openMs, maxInFlight, System::nanoTime);
+    }
+
+    EngineCircuitBreaker(int failureThreshold, long openMs, int maxInFlight, LongSupplier nanoClock) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMs);
+        this.maxInFlight = maxInFlight;
+        this.bulkhead = new Semaphore(maxInFlight);
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Admits a call to {@code operation} or throws: {@link EngineCircuitOpenException} while
+     * the circuit is open (or its probe is still out), {@link EngineUnavailableException}
+     * when the bulkhead is full.
+     */
+    public Permit acquire(String operation) {
+        boolean probe = false;
+        synchronized (this) {
+            long now = nanoClock.getAsLong();
+            if (state == State.OPEN && now - retryAt >= 0) {
+                state = State.HALF_OPEN;
+                probing = false;
+            }
+            if (state == State.OPEN || (state == State.HALF_OPEN && probing)) {
+                rejected.increment();
+                long wait = state == State.OPEN ? retryAt - now : 0;
+                throw new EngineCircuitOpenException(operation, Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait) + 1));
+            }
+            if (state == State.HALF_OPEN) {
+                probing = true;
+                probe = true;
+            }
+        }
+        if (!bulkhead.tryAcquire()) {
+            if (probe) {
+                synchronized (this) {
+                    probing = false;
+                }
+            }
+            shed.increment();
+            throw new EngineUnavailableException(
+                    "Python engine busy: " + maxInFlight + " calls already in flight, " + operation + " not attempted");
+        }
+        return new Permit(probe);
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    public Stats stats() {
+        synchronized (this) {
+            return new Stats(state, consecutiveFailures, opened.sum(), rejected.sum(), shed.sum(),
+                    maxInFlight - bulkhead.availablePermits(), maxInFlight, lastFailure);
+        }
+    }
+
+    private void finish(Permit permit, boolean success, String failure) {
+        synchronized (this) {
+            if (permit.done) return;
+            permit.done = true;
+            if (permit.probe) probing = false;
+            if (success) {
+                consecutiveFailures = 0;
+                if (state != State.CLOSED) {
+                    state = State.CLOSED;
+                    log.info("Engine circuit closed");
+                }
+            } else if (failure != null) {
+                consecutiveFailures++;
+                lastFailure = failure;
+                if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+                    open(failure);
+                }
+            }
+        }
+        bulkhead.release();
+    }
+
+    // Caller holds the monitor.
+    private void open(String failure) {
+        state = State.OPEN;
+        retryAt = nanoClock.getAsLong() + openNanos;
+        opened.increment();
+        log.warn("Engine circuit opened after {} consecutive failure(s), probing again in {} ms: {}",
+                consecutiveFailures, TimeUnit.NANOSECONDS.toMillis(openNanos), failure);
+    }
+}
@@ -0,0 +1,425 @@
+package com.sixeyes.service;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sixeyes.dto.response.DiskInfo;
+import com.sixeyes.exception.EngineUnavailableException;
+import com.sixeyes.model.Torrent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.message.BasicHeader;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Non-blocking HTTP client for the Python engine. Every operation returns a
+ * {@link CompletableFuture}, so callers can overlap engine calls without holding a thread
+ * per call. Connections come from one keep-alive pool sized by {@code python.max-connections};
+ * each operation class has its own response timeout (reads are cut off well before adds),
+ * and responses are gzipped when the engine chooses to. Every call passes
+ * {@link EngineCircuitBreaker} first, so a dead engine costs callers nothing but an
+ * immediate {@link EngineUnavailableException}.
+ *
+ * <p>Responses are decoded off the I/O reactor, on a virtual thread, so stages a caller
+ * chains onto a returned future never stall other connections.
+ */
+@Slf4j
+@Component
+public class EngineClient {
+
+    private static final Header ACCEPT_JSON = new BasicHeader(HttpHeaders.ACCEPT, "application/json");
+    private static final Header ACCEPT_TELEMETRY_CBOR =
+            new BasicHeader(HttpHeaders.ACCEPT, "application/cbor, application/json;q=0.9");
+    private static final Header ACCEPT_GZIP = new BasicHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final ContentType JSON = ContentType.APPLICATION_JSON;
+    private static final ContentType CBOR = ContentType.create("application/cbor");
+
+    private static final TypeReference<Map<String, Object>> MAP = new TypeReference<>() {};
+    private static final TypeReference<List<Map<String, Object>>> LIST_OF_MAPS = new TypeReference<>() {};
+
+    /** Decodes a successful response body; runs on a virtual thread. */
+    @FunctionalInterface
+    private interface BodyReader<T> {
+        T read(InputStream body, ContentType type) throws IOException;
+    }
+
+    private record StartDownloadBody(long id, String magnet, @JsonProperty("downloadPath") String downloadPath) {}
+    private record TorrentIdBody(long id, String magnet) {}
+    private record RemoveBody(long id, String magnet, boolean deleteFiles) {}
+    private record MkdirBody(String parent, String name) {}
+    private record BatchAddBody(List<StartDownloadBody> items) {}
+    private record BatchIdsBody(Collection<Long> ids, boolean deleteFiles) {}
+    private record BatchResultBody(List<EngineBatchResult> results) {}
+
+    private final ObjectMapper objectMapper;
+    private final EngineTelemetryDecoder telemetryDecoder;
+    private final EngineCircuitBreaker breaker;
+    private final String pythonUrl;
+    private final Header telemetryAccept;
+    private final RequestConfig reads;
+    private final RequestConfig commands;
+    private final RequestConfig adds;
+    private final CloseableHttpAsyncClient client;
+    private final ExecutorService decoders =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("engine-decode-", 0).factory());
+
+    public EngineClient(
+            ObjectMapper objectMapper,
+            EngineTelemetryDecoder telemetryDecoder,
+            EngineCircuitBreaker breaker,
+            @Value("${python.service.url}") String pythonUrl,
+            // "cbor" asks the engine for the binary encoding; an engine that only speaks JSON still works.
+            @Value("${python.telemetry-format:json}") String telemetryFormat,
+            @Value("${python.max-connections:64}") int maxConnections,
+            @Value("${python.timeout.connect-ms:2000}") long connectMs,
+            @Value("${python.timeout.read-ms:5000}") long readMs,
+            @Value("${python.timeout.command-ms:10000}") long commandMs,
+            @Value("${python.timeout.add-ms:30000}") long addMs
+    ) {
+        this.objectMapper = objectMapper;
+        this.telemetryDecoder = telemetryDecoder;
+        this.breaker = breaker;
+        this.pythonUrl = pythonUrl;
+        this.telemetryAccept = "cbor".equalsIgnoreCase(telemetryFormat) ? ACCEPT_TELEMETRY_CBOR : ACCEPT_JSON;
+        this.reads = responseTimeout(readMs);
+        this.commands = responseTimeout(commandMs);
+        this.adds = responseTimeout(addMs);
+        this.client = HttpAsyncClients.custom()
+                .setConnectionManager(PoolingAsyncClientConnectionManagerBuilder.create()
+                        .setMaxConnTotal(maxConnections)
+                        .setMaxConnPerRoute(maxConnections)   // every call goes to the one engine route
+                        .setDefaultConnectionConfig(ConnectionConfig.custom()
+                                .setConnectTimeout(Timeout.ofMilliseconds(connectMs))
+                                .setValidateAfterInactivity(TimeValue.ofSeconds(10))
+                                .build())
+                        .build())
+                .setIOReactorConfig(IOReactorConfig.custom()
+                        .setIoThreadCount(2)
+                        .setSoKeepAlive(true)
+                        .build())
+                .evictIdleConnections(TimeValue.ofSeconds(30))
+                .disableCookieManagement()
+                .disableRedirectHandling()
+                .build();
+        this.client.start();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        client.close(CloseMode.GRACEFUL);
+        decoders.shutdownNow();
+    }
+
+    public CompletableFuture<Void> startDownload(long id, String magnet, String downloadPath) {
+        return startDownload(id, magnet, downloadPath, null);
+    }
+
+    /** As above; a non-null {@code idempotencyKey} lets the engine recognise a redelivered command. */
+    public CompletableFuture<Void> startDownload(long id, String magnet, String downloadPath, String idempotencyKey) {
+        return send("POST /python/add", json(keyed(SimpleRequestBuilder.post(url("/python/add")), idempotencyKey),
+                new StartDownloadBody(id, magnet, downloadPath)), adds, discard());
+    }
+
+    /** Starts every torrent in one engine call; each must already have an id and save path. */
+    public CompletableFuture<List<EngineBatchResult>> startDownloads(List<Torrent> torrents) {
+        List<StartDownloadBody> items = torrents.stream()
+                .map(t -> new StartDownloadBody(t.getId(), t.getMagnet(), t.getSavePath()))
+                .toList();
+        return batch("/python/batch/add", new BatchAddBody(items), adds);
+    }
+
+    /** One engine call for {@code pause}, {@code stop}, {@code resume} or {@code remove} on many ids. */
+    public CompletableFuture<List<EngineBatchResult>> batch(String action, Collection<Long> ids, boolean deleteFiles) {
+        return batch("/python/batch/" + action, new BatchIdsBody(ids, deleteFiles), commands);
+    }
+
+    public CompletableFuture<Void> pause(long id, String magnet) {
+        return pause(id, magnet, null);
+    }
+
+    public CompletableFuture<Void> pause(long id, String magnet, String idempotencyKey) {
+        return command("/python/pause", keyed(SimpleRequestBuilder.put(url("/python/pause")), idempotencyKey),
+                new TorrentIdBody(id, magnet));
+    }
+
+    public CompletableFuture<Void> stop(long id, String magnet) {
+        return stop(id, magnet, null);
+    }
+
+    public CompletableFuture<Void> stop(long id, String magnet, String idempotencyKey) {
+        return command("/python/stop", keyed(SimpleRequestBuilder.put(url("/python/stop")), idempotencyKey),
+                new TorrentIdBody(id, magnet));
+    }
+
+    public CompletableFuture<Void> resume(long id, String magnet) {
+        return resume(id, magnet, null);
+    }
+
+    public CompletableFuture<Void> resume(long id, String magnet, String idempotencyKey) {
+        return command("/python/resume", keyed(SimpleRequestBuilder.put(url("/python/resume")), idempotencyKey),
+                new TorrentIdBody(id, magnet));
+    }
+
+    public CompletableFuture<Void> remove(long id, String magnet, boolean deleteFiles) {
+        return remove(id, magnet, deleteFiles, null);
+    }
+
+    public CompletableFuture<Void> remove(long id, String magnet, boolean deleteFiles, String idempotencyKey) {
+        return command("/python/remove", keyed(SimpleRequestBuilder.delete(url("/python/remove")), idempotencyKey),
+                new RemoveBody(id, magnet, deleteFiles));
+    }
+
+    /** HTTP status the engine answered with when {@code failure} came from a non-2xx answer, else 0. */
+    public static int engineStatus(Throwable failure) {
+        for (Throwable e = failure; e != null; e = e.getCause()) {
+            if (e instanceof EngineHttpException http) return http.status;
+        }
+        return 0;
+    }
+
+    /**
+     * Fetches {@code /python/get} and decodes it through {@link EngineTelemetryDecoder},
+     * handing each record to {@code sink}; completes with the number of records.
+     */
+    public CompletableFuture<Integer> fetchTelemetry(Consumer<EngineTelemetry> sink) {
+        SimpleHttpRequest request = SimpleRequestBuilder.get(url("/python/get"))
+                .addHeader(telemetryAccept)
+                .addHeader(ACCEPT_GZIP)
+                .build();
+        return send("GET /python/get", request, reads,
+                (body, type) -> telemetryDecoder.decodeArray(body, isCbor(type), sink));
+    }
+
+    public CompletableFuture<Map<String, Object>> fetchStorageInfo() {
+        return read("/python/systemInfo/getStorageInfo", url("/python/systemInfo/getStorageInfo"), MAP,
+                Map.of("Used", 0L, "Available", 0L));
+    }
+
+    public CompletableFuture<List<DiskInfo>> fetchDisks() {
+        return read("/python/systemInfo/getDisks", url("/python/systemInfo/getDisks"), LIST_OF_MAPS,
+                List.<Map<String, Object>>of())
+                .thenApply(disks -> disks.isEmpty() ? Collections.<DiskInfo>emptyList() : disks.stream()
+                        .map(d -> new DiskInfo(
+                                str(d.get("path")),
+                                str(d.get("device")),
+                                toDouble(d.get("total")),
+                                toDouble(d.get("used")),
+                                toDouble(d.get("available"))))
+                        .toList());
+    }
+
+    public CompletableFuture<Map<String, Object>> browse(String path) {
+        // Build the URI so the path query param is percent-encoded exactly once.
+        UriComponentsBuilder b = UriComponentsBuilder.fromUriString(url("/python/systemInfo/browse"));
+        if (path != null && !path.isBlank()) {
+            b.queryParam("path", path);
+        }
+        return read("/python/systemInfo/browse", b.build().encode().toUri().toString(), MAP,
+                Map.of("path", "", "entries", List.of()));
+    }
+
+    public CompletableFuture<Map<String, Object>> makeDir(String parent, String name) {
+        SimpleHttpRequest request = json(SimpleRequestBuilder.post(url("/python/systemInfo/mkdir")),
+                new MkdirBody(parent, name));
+        return send("POST /python/systemInfo/mkdir", request, commands, (body, type) -> orDefault(
+                objectMapper.readValue(body, MAP), Map.of()));
+    }
+
+    private CompletableFuture<List<EngineBatchResult>> batch(String path, Object body, RequestConfig timeouts) {
+        return send("POST " + path, json(SimpleRequestBuilder.post(url(path)), body), timeouts, (in, type) -> {
+            BatchResultBody response = objectMapper.readValue(in, BatchResultBody.class);
+            return response != null && response.results() != null ? response.results() : List.of();
+        });
+    }
+
+    private CompletableFuture<Void> command(String path, SimpleRequestBuilder builder, Object body) {
+        return send(builder.getMethod() + " " + path, json(builder, body), commands, discard());
+    }
+
+    private <T> CompletableFuture<T> read(String path, String uri, TypeReference<T> type, T empty) {
+        SimpleHttpRequest request = SimpleRequestBuilder.get(URI.create(uri))
+                .addHeader(ACCEPT_JSON)
+                .addHeader(ACCEPT_GZIP)
+                .build();
+        return send("GET " + path, request, reads, (body, contentType) -> orDefault(objectMapper.readValue(body, type), empty));
+    }
+
+    private SimpleHttpRequest json(SimpleRequestBuilder builder, Object body) {
+        byte[] bytes;
+        try {
+            bytes = objectMapper.writeValueAsBytes(body);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unserializable engine request", e);
+        }
+        return builder.addHeader(ACCEPT_JSON).setBody(bytes, JSON).build();
+    }
+
+    private <T> CompletableFuture<T> send(String operation, SimpleHttpRequest request,
+                                          RequestConfig timeouts, BodyReader<T> reader) {
+        EngineCircuitBreaker.Permit permit;
+        try {
+            permit = breaker.acquire(operation);
+        } catch (EngineUnavailableException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        request.setConfig(timeouts);
+        CompletableFuture<SimpleHttpResponse> response = new CompletableFuture<>();
+        Future<SimpleHttpResponse> exchange = client.execute(request, new FutureCallback<>() {
+            @Override
+            public void completed(SimpleHttpResponse result) {
+                response.complete(result);
+            }
+
+            @Override
+            public void failed(Exception ex) {
+                response.completeExceptionally(ex);
+            }
+
+            @Override
+            public void cancelled() {
+                response.cancel(false);
+            }
+        });
+        CompletableFuture<T> result = new CompletableFuture<>();
+        response.thenApplyAsync(r -> decode(operation, r, reader), decoders).whenComplete((value, error) -> {
+            if (error == null) {
+                permit.succeeded();
+                result.complete(value);
+                return;
+            }
+            Throwable cause = unwrap(error);
+            if (cause instanceof CancellationException) {
+                permit.abandoned();
+            } else if (isEngineFault(cause)) {
+                permit.failed(operation + ": " + cause.getMessage());
+            } else {
+                permit.succeeded();
+            }
+            result.completeExceptionally(engineException(operation, cause));
+        });
+        // Cancelling the caller's future (a fan-out deadline, say) aborts the exchange too.
+        result.whenComplete((r, e) -> {
+            if (result.isCancelled()) exchange.cancel(true);
+        });
+        return result;
+    }
+
+    private <T> T decode(String operation, SimpleHttpResponse response, BodyReader<T> reader) {
+        int status = response.getCode();
+        if (status < 200 || status >= 300) {
+            throw new EngineHttpException(status, operation + " answered HTTP " + status);
+        }
+        byte[] body = response.getBodyBytes();
+        if (body == null) body = new byte[0];
+        try (InputStream in = response.containsHeader(HttpHeaders.CONTENT_ENCODING)
+                && "gzip".equalsIgnoreCase(response.getFirstHeader(HttpHeaders.CONTENT_ENCODING).getValue())
+                ? new GZIPInputStream(new ByteArrayInputStream(body))
+                : new ByteArrayInputStream(body)) {
+            return reader.read(in, response.getContentType());
+        } catch (IOException e) {
+            throw new EngineHttpException(0, operation + " returned an unreadable body: " + e.getMessage());
+        }
+    }
+
+    private RuntimeException engineException(String operation, Throwable cause) {
+        // A 4xx is an answer the caller acts on (the outbox expects 404s), not an engine fault.
+        if (isEngineFault(cause)) {
+            log.error("Python engine call failed [{}]: {}", operation, cause.getMessage());
+        } else {
+            log.debug("Python engine refused [{}]: {}", operation, cause.getMessage());
+        }
+        return new EngineUnavailableException("Python engine unavailable during " + operation, cause);
+    }
+
+    // An engine that answers 4xx is up; it is the request that was wrong.
+    private static boolean isEngineFault(Throwable cause) {
+        return !(cause instanceof EngineHttpException http) || http.status < 400 || http.status >= 500;
+    }
+
+    private static SimpleRequestBuilder keyed(SimpleRequestBuilder builder, String idempotencyKey) {
+        return idempotencyKey != null ? builder.addHeader(IDEMPOTENCY_KEY, idempotencyKey) : builder;
+    }
+
+    private String url(String path) {
+        return pythonUrl + path;
+    }
+
+    private static RequestConfig responseTimeout(long ms) {
+        return RequestConfig.custom().setResponseTimeout(Timeout.ofMilliseconds(ms)).build();
+    }
+
+    private static <T> BodyReader<T> discard() {
+        return (body, type) -> null;
+    }
+
+    private static boolean isCbor(ContentType type) {
+        return type != null && CBOR.isSameMimeType(type);
+    }
+
+    private static <T> T orDefault(T value, T empty) {
+        return value != null ? value : empty;
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
+    private static String str(Object o) {
+        return o == null ? "" : o.toString();
+    }
+
+    private static double toDouble(Object o) {
+        if (o == null) return 0.0;
+        try {
+            return Double.parseDouble(o.toString());
+        } catch (NumberFormatException e) {
+            return 0.0;
+        }
+    }
+
+    /** A non-2xx status, or an unreadable body (status 0); surfaced as "engine unavailable" like a dropped connection. */
+    static final class EngineHttpException extends RuntimeException {
+        private final int status;
+
+        EngineHttpException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+}
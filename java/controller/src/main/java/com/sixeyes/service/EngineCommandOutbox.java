@@ -0,0 +1,387 @@
+package com.sixeyes.service;
+
+import com.sixeyes.dto.response.EngineCommandResponse;
+import com.sixeyes.exception.EngineCircuitOpenException;
+import com.sixeyes.exception.EngineCommandNotFoundException;
+import com.sixeyes.model.EngineCommand;
+import com.sixeyes.model.EngineCommandStatus;
+import com.sixeyes.model.EngineCommandType;
+import com.sixeyes.model.Torrent;
+import com.sixeyes.repo.EngineCommandRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Transactional outbox for single-torrent engine commands. {@link #enqueue} writes the
+ * command in the caller's transaction, next to the state change it carries; once that
+ * commits, a dispatcher thread delivers it:
+ * <ul>
+ *   <li>per torrent in write order: only a torrent's oldest pending command is eligible,
+ *       and never while another of its commands is in flight;</li>
+ *   <li>different torrents concurrently, at most {@code maxInFlight} calls at a time;</li>
+ *   <li>with exponential back-off between attempts, each sent with the command's
+ *       {@code Idempotency-Key} so the engine can recognise a redelivery;</li>
+ *   <li>durably: rows still pending after a restart are delivered on startup.</li>
+ * </ul>
+ * An engine 4xx is final and fails the command; other faults are retried up to
+ * {@code maxAttempts}. Refusals by an open circuit never reached the engine and use up no
+ * attempt.
+ */
+@Slf4j
+@Component
+public class EngineCommandOutbox {
+
+    static final int LATENCY_SAMPLES = 512;
+    static final int HEAD_PAGE = 200;
+    private static final int NOT_FOUND = 404;
+
+    /** Enqueue-to-answer latency over the last {@value #LATENCY_SAMPLES} deliveries of one command type. */
+    public record Latency(long count, long p50Ms, long p95Ms, long p99Ms, long maxMs) {}
+
+    /** {@code pending} is read from the table; the counters run since startup. */
+    public record Stats(long pending, int inFlight, long delivered, long failed, long retried,
+                        Map<EngineCommandType, Latency> latency) {}
+
+    private final EngineCommandRepository commandRepository;
+    private final EngineClient engine;
+    private final Clock clock;
+    private final int maxInFlight;
+    private final int maxAttempts;
+    private final Duration baseBackoff;
+    private final Duration maxBackoff;
+    private final long idlePollMs;
+    private final Duration retention;
+
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final Map<EngineCommandType, LatencyWindow> latencies = new EnumMap<>(EngineCommandType.class);
+
+    // A lock rather than synchronized: the dispatch round queries the database while holding it.
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition work = lock.newCondition();
+    private final Set<Long> busyTorrents = new HashSet<>();
+    private boolean signalled;
+    private volatile Thread worker;
+
+    @Autowired
+    public EngineCommandOutbox(
+            EngineCommandRepository commandRepository,
+            EngineClient engine,
+            @Value("${python.outbox.max-in-flight:8}") int maxInFlight,
+            @Value("${python.outbox.max-attempts:10}") int maxAttempts,
+            @Value("${python.outbox.retry-base-ms:500}") long retryBaseMs,
+            @Value("${python.outbox.retry-max-ms:60000}") long retryMaxMs,
+            @Value("${python.outbox.idle-poll-ms:30000}") long idlePollMs,
+            @Value("${python.outbox.retention-hours:24}") long retentionHours
+    ) {
+        this(commandRepository, engine, Clock.systemUTC(), maxInFlight, maxAttempts,
+                Duration.ofMillis(retryBaseMs), Duration.ofMillis(retryMaxMs), idlePollMs, Duration.ofHours(retentionHours));
+    }
+
+    EngineCommandOutbox(EngineCommandRepository commandRepository, EngineClient engine, Clock clock,
+                        int maxInFlight, int maxAttempts, Duration baseBackoff, Duration maxBackoff,
+                        long idlePollMs, Duration retention) {
+        this.commandRepository = commandRepository;
+        this.engine = engine;
+        this.clock = clock;
+        this.maxInFlight = maxInFlight;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoff = baseBackoff;
+        this.maxBackoff = maxBackoff;
+        this.idlePollMs = idlePollMs;
+        this.retention = retention;
+        for (EngineCommandType type : EngineCommandType.values()) latencies.put(type, new LatencyWindow());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        worker = Thread.ofVirtual().name("engine-outbox").start(this::run);
+    }
+
+    @PreDestroy
+    void stop() {
+        Thread w = worker;
+        if (w != null) w.interrupt();
+    }
+
+    /**
+     * Records {@code type} for {@code torrent} in the caller's transaction; delivery starts
+     * once it commits, and never if it rolls back. Outside a transaction it starts at once.
+     */
+    public EngineCommand enqueue(EngineCommandType type, Torrent torrent, boolean deleteFiles) {
+        EngineCommand saved = commandRepository.save(newCommand(type, torrent, deleteFiles));
+        wakeAfterCommit();
+        return saved;
+    }
+
+    /** {@link #enqueue} for a batch: one command per torrent, in the order given, saved together. */
+    public List<EngineCommand> enqueueAll(EngineCommandType type, List<Torrent> torrents, boolean deleteFiles) {
+        if (torrents.isEmpty()) return List.of();
+        List<EngineCommand> saved = commandRepository.saveAll(torrents.stream()
+                .map(torrent -> newCommand(type, torrent, deleteFiles))
+                .toList());
+        wakeAfterCommit();
+        return saved;
+    }
+
+    private EngineCommand newCommand(EngineCommandType type, Torrent torrent, boolean deleteFiles) {
+        EngineCommand command = new EngineCommand();
+        command.setTorrentId(torrent.getId());
+        command.setType(type);
+        command.setMagnet(torrent.getMagnet());
+        command.setSavePath(torrent.getSavePath());
+        command.setDeleteFiles(deleteFiles);
+        command.setIdempotencyKey(UUID.randomUUID().toString());
+        command.setCreatedAt(clock.instant());
+        return command;
+    }
+
+    private void wakeAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    wake();
+                }
+            });
+        } else {
+            wake();
+        }
+    }
+
+    public EngineCommandResponse get(Long id) {
+        return commandRepository.findById(id)
+                .map(EngineCommandResponse::from)
+                .orElseThrow(() -> new EngineCommandNotFoundException(id));
+    }
+
+    public Stats stats() {
+        Map<EngineCommandType, Latency> latency = new EnumMap<>(EngineCommandType.class);
+        latencies.forEach((type, window) -> latency.put(type, window.snapshot()));
+        int busy;
+        lock.lock();
+        try {
+            busy = busyTorrents.size();
+        } finally {
+            lock.unlock();
+        }
+        return new Stats(commandRepository.countByStatus(EngineCommandStatus.PENDING), busy,
+                delivered.sum(), failed.sum(), retried.sum(), latency);
+    }
+
+    /** Drops delivered and failed commands once they are older than the retention period. */
+    @Scheduled(fixedDelayString = "${python.outbox.purge-interval-ms:3600000}",
+               initialDelayString = "${python.outbox.purge-interval-ms:3600000}")
+    public void purge() {
+        try {
+            int purged = commandRepository.deleteCompletedBefore(clock.instant().minus(retention));
+            if (purged > 0) log.debug("Purged {} completed engine command(s)", purged);
+        } catch (RuntimeException e) {
+            log.warn("Engine command purge failed — will retry: {}", e.getMessage());
+        }
+    }
+
+    void wake() {
+        lock.lock();
+        try {
+            signalled = true;
+            work.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * One dispatch round: sends the oldest pending command of every torrent that has none
+     * in flight and is not backing off. Returns how long the worker may wait before the next
+     * round if nothing wakes it sooner.
+     */
+    long dispatch() {
+        Instant now = clock.instant();
+        long waitMs = idlePollMs;
+        List<EngineCommand> ready = new ArrayList<>();
+        lock.lock();
+        try {
+            // Pages past heads that are in flight or backing off, so those never hide the rest.
+            long after = 0;
+            pages:
+            while (true) {
+                List<EngineCommand> heads = commandRepository.findPendingHeads(after, Limit.of(HEAD_PAGE));
+                for (EngineCommand command : heads) {
+                    after = command.getId();
+                    if (busyTorrents.contains(command.getTorrentId())) continue;
+                    Instant due = command.getNextAttemptAt();
+                    if (due != null && due.isAfter(now)) {
+                        waitMs = Math.min(waitMs, Math.max(1, Duration.between(now, due).toMillis()));
+                        continue;
+                    }
+                    if (busyTorrents.size() >= maxInFlight) break pages;    // a completion wakes the next round
+                    busyTorrents.add(command.getTorrentId());
+                    ready.add(command);
+                }
+                if (heads.size() < HEAD_PAGE) break;
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (EngineCommand command : ready) {
+            send(command).whenComplete((ignored, error) -> settle(command, error));
+        }
+        return waitMs;
+    }
+
+    private CompletableFuture<Void> send(EngineCommand c) {
+        long id = c.getTorrentId();
+        String key = c.getIdempotencyKey();
+        try {
+            return switch (c.getType()) {
+                case ADD -> engine.startDownload(id, c.getMagnet(), c.getSavePath(), key);
+                case PAUSE -> engine.pause(id, c.getMagnet(), key);
+                case STOP -> engine.stop(id, c.getMagnet(), key);
+                // An engine that lost the torrent gets it re-added from the magnet instead.
+                case RESUME -> engine.resume(id, c.getMagnet(), key).exceptionallyCompose(e ->
+                        EngineClient.engineStatus(e) == NOT_FOUND
+                                ? engine.startDownload(id, c.getMagnet(), c.getSavePath(), key + ":add")
+                                : CompletableFuture.failedFuture(e));
+                case REMOVE -> engine.remove(id, c.getMagnet(), c.isDeleteFiles(), key);
+            };
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void settle(EngineCommand command, Throwable error) {
+        Instant now = clock.instant();
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        int status = EngineClient.engineStatus(cause);
+
+        if (cause instanceof EngineCircuitOpenException open) {
+            command.setNextAttemptAt(now.plusSeconds(open.getRetryAfterSeconds()));
+            command.setLastError(open.getMessage());
+        } else {
+            command.setAttempts(command.getAttempts() + 1);
+            if (cause == null || (status == NOT_FOUND && command.getType() != EngineCommandType.ADD)) {
+                // A torrent the engine does not know is as paused, stopped or removed as it gets.
+                complete(command, EngineCommandStatus.DELIVERED, now);
+            } else if ((status >= 400 && status < 500) || command.getAttempts() >= maxAttempts) {
+                command.setLastError(cause.getMessage());
+                complete(command, EngineCommandStatus.FAILED, now);
+            } else {
+                command.setLastError(cause.getMessage());
+                command.setNextAttemptAt(now.plus(backoff(command.getAttempts())));
+                retried.increment();
+                log.info("Engine {} for torrent id={} failed (attempt {}), retrying at {}: {}",
+                        command.getType(), command.getTorrentId(), command.getAttempts(),
+                        command.getNextAttemptAt(), cause.getMessage());
+            }
+        }
+
+        lock.lock();
+        try {
+            // Saved under the lock so a dispatch round never reads this row as still pending after it is released.
+            commandRepository.save(command);
+        } catch (RuntimeException e) {
+            // The row stays as it was and is delivered again; the idempotency key absorbs the repeat.
+            log.warn("Could not record the outcome of engine command id={}: {}", command.getId(), e.getMessage());
+        } finally {
+            busyTorrents.remove(command.getTorrentId());
+            signalled = true;
+            work.signal();
+            lock.unlock();
+        }
+    }
+
+    private void complete(EngineCommand command, EngineCommandStatus status, Instant now) {
+        command.setStatus(status);
+        command.setCompletedAt(now);
+        command.setNextAttemptAt(null);
+        long latencyMs = Duration.between(command.getCreatedAt(), now).toMillis();
+        if (status == EngineCommandStatus.DELIVERED) {
+            delivered.increment();
+            latencies.get(command.getType()).record(latencyMs);
+            log.debug("Engine {} for torrent id={} delivered in {} ms after {} attempt(s)",
+                    command.getType(), command.getTorrentId(), latencyMs, command.getAttempts());
+        } else {
+            failed.increment();
+            log.warn("Engine {} for torrent id={} failed after {} attempt(s) and {} ms: {}",
+                    command.getType(), command.getTorrentId(), command.getAttempts(), latencyMs, command.getLastError());
+        }
+    }
+
+    Duration backoff(int attempts) {
+        Duration delay = baseBackoff.multipliedBy(1L << Math.min(attempts - 1, 16));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private void run() {
+        while (true) {
+            long waitMs;
+            try {
+                waitMs = dispatch();
+            } catch (RuntimeException e) {
+                log.warn("Engine outbox dispatch failed — will retry: {}", e.getMessage());
+                waitMs = maxBackoff.toMillis();
+            }
+            lock.lock();
+            try {
+                long nanos = TimeUnit.MILLISECONDS.toNanos(waitMs);
+                while (!signalled && nanos > 0) nanos = work.awaitNanos(nanos);
+                signalled = false;
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /** Ring of the most recent latencies; percentiles are computed when asked for. */
+    private static final class LatencyWindow {
+        private final long[] samples = new long[LATENCY_SAMPLES];
+        private long count;
+
+        synchronized void record(long ms) {
+            samples[(int) (count++ % samples.length)] = ms;
+        }
+
+        synchronized Latency snapshot() {
+            int n = (int) Math.min(count, samples.length);
+            if (n == 0) return new Latency(0, 0, 0, 0, 0);
+            long[] sorted = Arrays.copyOf(samples, n);
+            Arrays.sort(sorted);
+            return new Latency(count, percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99), sorted[n - 1]);
+        }
+
+        private static long percentile(long[] sorted, int p) {
+            return sorted[Math.max(0, (int) Math.ceil(p / 100.0 * sorted.length) - 1)];
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.sixeyes.service;
+
+import com.sixeyes.exception.EngineTimeoutException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * Runs independent blocking engine calls side by side, each on its own virtual thread,
+ * under one deadline shared by the whole group. The first failure or the deadline cancels
+ * whatever is still running; the combining step runs on the caller's thread.
+ */
+@Slf4j
+@Component
+public class EngineFanOut {
+
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("engine-fanout-", 0).factory());
+    private final long deadlineMs;
+
+    public EngineFanOut(@Value("${python.fanout-deadline-ms:10000}") long deadlineMs) {
+        this.deadlineMs = deadlineMs;
+    }
+
+    public <A, B, R> R both(String operation, Supplier<A> first, Supplier<B> second, BiFunction<A, B, R> combine) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+        Future<A> a = executor.submit(first::get);
+        Future<B> b = executor.submit(second::get);
+        try {
+            return combine.apply(await(a, deadline, operation), await(b, deadline, operation));
+        } finally {
+            a.cancel(true);
+            b.cancel(true);
+        }
+    }
+
+    /** Deadline for a group of {@link #start}ed calls, in {@link System#nanoTime()} terms. */
+    public long deadline() {
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+    }
+
+    /** Starts one call of a group whose parts may fail independently; collect it with {@link #settle}. */
+    public <T> Future<T> start(Supplier<T> call) {
+        return executor.submit(call::get);
+    }
+
+    /**
+     * The call's result, or empty when it failed or missed the deadline (it is cancelled
+     * then). Unlike {@link #both}, one part failing leaves the others alone.
+     */
+    public <T> Optional<T> settle(Future<T> future, long deadline, String operation) {
+        try {
+            return Optional.ofNullable(await(future, deadline, operation));
+        } catch (RuntimeException e) {
+            future.cancel(true);
+            log.warn("{} unavailable: {}", operation, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T await(Future<T> future, long deadline, String operation) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | CancellationException e) {
+            throw new EngineTimeoutException(operation, deadlineMs);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for " + operation, e);
+        }
+    }
+}
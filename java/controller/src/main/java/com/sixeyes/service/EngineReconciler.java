@@ -0,0 +1,143 @@
+package com.sixeyes.service;
+
+import com.sixeyes.model.EngineCommandStatus;
+import com.sixeyes.model.Torrent;
+import com.sixeyes.model.TorrentStatus;
+import com.sixeyes.repo.EngineCommandRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Re-adds downloading torrents the engine has lost (typically after an engine restart).
+ * Re-adds run on a small bounded pool so a sync cycle never waits on them, and each
+ * torrent backs off exponentially after failures instead of being retried every cycle.
+ *
+ * <p>A torrent with a command still waiting in the {@link EngineCommandOutbox} is left to
+ * that command (a pending resume re-adds it anyway), so a re-add can't land after a
+ * queued pause or remove. The check is repeated just before the engine call.
+ */
+@Slf4j
+@Component
+public class EngineReconciler {
+
+    private static final Duration BASE_BACKOFF = Duration.ofSeconds(5);
+    private static final Duration MAX_BACKOFF = Duration.ofMinutes(5);
+
+    private record Attempt(int failures, Instant retryAt) {}
+
+    private final PythonClientService pythonClient;
+    private final EngineCommandRepository commandRepository;
+    private final TorrentLiveStore liveStore;
+    private final ExecutorService executor;
+    private final Clock clock;
+
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<Long, Attempt> attempts = new ConcurrentHashMap<>();
+
+    @Autowired
+    public EngineReconciler(PythonClientService pythonClient,
+                            EngineCommandRepository commandRepository,
+                            TorrentLiveStore liveStore,
+                            @Value("${sync.reconcile-parallelism:4}") int parallelism) {
+        this(pythonClient, commandRepository, liveStore, boundedPool(parallelism), Clock.systemUTC());
+    }
+
+    EngineReconciler(PythonClientService pythonClient, EngineCommandRepository commandRepository,
+                     TorrentLiveStore liveStore, ExecutorService executor, Clock clock) {
+        this.pythonClient = pythonClient;
+        this.commandRepository = commandRepository;
+        this.liveStore = liveStore;
+        this.executor = executor;
+        this.clock = clock;
+    }
+
+    /**
+     * Schedules a re-add for each missing torrent that is not already in flight, backing
+     * off or waiting on an outbox command. Torrents no longer missing have their back-off
+     * forgotten. Returns the number of re-adds submitted.
+     */
+    public int reconcile(List<Torrent> missing) {
+        Set<Long> missingIds = missing.stream().map(Torrent::getId).collect(Collectors.toSet());
+        attempts.keySet().retainAll(missingIds);
+        if (missing.isEmpty()) return 0;
+        Set<Long> queued = new HashSet<>(commandRepository.findTorrentIdsWithPending(missingIds));
+
+        Instant now = clock.instant();
+        int submitted = 0;
+        for (Torrent t : missing) {
+            long id = t.getId();
+            if (queued.contains(id)) continue;
+            Attempt previous = attempts.get(id);
+            if (previous != null && now.isBefore(previous.retryAt())) continue;
+            if (!inFlight.add(id)) continue;
+
+            String magnet = t.getMagnet();
+            String savePath = t.getSavePath();
+            try {
+                executor.execute(() -> reAdd(id, magnet, savePath));
+                submitted++;
+            } catch (RejectedExecutionException e) {
+                inFlight.remove(id);
+            }
+        }
+        return submitted;
+    }
+
+    private void reAdd(long id, String magnet, String savePath) {
+        try {
+            if (!stillMissing(id)) return;
+            pythonClient.startDownload(id, magnet, savePath);
+            attempts.remove(id);
+            log.info("Reconcile: re-added missing torrent id={} to engine", id);
+        } catch (Exception e) {
+            Attempt next = attempts.merge(id, new Attempt(1, clock.instant().plus(BASE_BACKOFF)),
+                    (old, ignored) -> new Attempt(old.failures() + 1, clock.instant().plus(backoff(old.failures() + 1))));
+            log.warn("Reconcile: re-add failed for id={} (attempt {}), retrying after {}: {}",
+                    id, next.failures(), next.retryAt(), e.getMessage());
+        } finally {
+            inFlight.remove(id);
+        }
+    }
+
+    // The sync cycle's view may be stale by the time a worker gets here.
+    private boolean stillMissing(long id) {
+        boolean downloading = liveStore.get(id).map(t -> t.getStatus() == TorrentStatus.DOWNLOADING).orElse(false);
+        return downloading && !commandRepository.existsByTorrentIdAndStatus(id, EngineCommandStatus.PENDING);
+    }
+
+    static Duration backoff(int failures) {
+        Duration delay = BASE_BACKOFF.multipliedBy(1L << Math.min(failures - 1, 16));
+        return delay.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : delay;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static ExecutorService boundedPool(int parallelism) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                parallelism, parallelism, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(256),
+                Thread.ofPlatform().name("engine-reconcile-", 0).daemon().factory());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+}
@@ -0,0 +1,176 @@
+package com.sixeyes.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Consumes the engine's {@code /python/stream} NDJSON feed and applies each per-torrent
+ * delta to the live store as it arrives. The last sequence number seen is sent back as a
+ * resume cursor on reconnect; the engine answers with a fresh snapshot when it can't
+ * replay from there (ring overflow or an engine restart). The cursor only moves past an
+ * event once it is applied; a failed apply ends the stream, so the reconnect replays it,
+ * and a second failure on the same event falls back to a fresh snapshot.
+ *
+ * <p>While connected, {@link AdaptiveSyncScheduler} drops polling to the slow cadence —
+ * polling is then only a safety net that also re-adds torrents the engine lost.
+ */
+@Slf4j
+@Component
+public class EngineStreamClient {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final Duration MIN_RECONNECT_DELAY = Duration.ofSeconds(1);
+    private static final Duration MAX_RECONNECT_DELAY = Duration.ofSeconds(30);
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record EngineEvent(long seq, String epoch, String type, Long id,
+                       Map<String, Object> fields, List<Map<String, Object>> torrents) {}
+
+    private final TorrentSyncService syncService;
+    private final ObjectMapper objectMapper;
+    private final RestTemplate restTemplate;
+    private final String pythonUrl;
+    private final boolean enabled;
+
+    private volatile boolean connected;
+    private volatile boolean stopping;
+    private volatile String epoch;
+    private volatile long cursor = -1;
+    private long failedSeq = -1;    // stream thread only
+    private Thread worker;
+
+    public EngineStreamClient(
+            TorrentSyncService syncService,
+            ObjectMapper objectMapper,
+            RestTemplateBuilder restTemplateBuilder,
+            @Value("${python.service.url}") String pythonUrl,
+            @Value("${python.stream.enabled:true}") boolean enabled,
+            @Value("${python.stream.read-timeout-ms:45000}") long readTimeoutMs
+    ) {
+        this.syncService = syncService;
+        this.objectMapper = objectMapper;
+        // The engine heartbeats idle streams, so a read timeout well above the heartbeat
+        // interval catches a dead connection without cutting off a quiet one.
+        this.restTemplate = restTemplateBuilder
+                .connectTimeout(Duration.ofSeconds(5))
+                .readTimeout(Duration.ofMillis(readTimeoutMs))
+                .build();
+        this.pythonUrl = pythonUrl;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled || worker != null) return;
+        worker = Thread.ofPlatform().name("engine-stream").daemon().start(this::run);
+    }
+
+    @PreDestroy
+    void stop() {
+        stopping = true;
+        if (worker != null) worker.interrupt();
+    }
+
+    /** True while a stream is open, i.e. deltas arrive without polling. */
+    public boolean isConnected() {
+        return connected;
+    }
+
+    private void run() {
+        Duration delay = MIN_RECONNECT_DELAY;
+        while (!stopping) {
+            try {
+                if (consume() > 0) delay = MIN_RECONNECT_DELAY;
+                log.info("Engine stream closed at cursor {} — reconnecting", cursor);
+            } catch (RuntimeException e) {
+                log.debug("Engine stream unavailable: {}", e.getMessage());
+            }
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                return;
+            }
+            Duration doubled = delay.multipliedBy(2);
+            delay = doubled.compareTo(MAX_RECONNECT_DELAY) > 0 ? MAX_RECONNECT_DELAY : doubled;
+        }
+    }
+
+    /** Opens one stream from the current cursor and reads it until it ends; returns the events handled. */
+    int consume() {
+        URI uri = UriComponentsBuilder.fromUriString(pythonUrl + "/python/stream")
+                .queryParamIfPresent("cursor", cursor >= 0 ? Optional.of(cursor) : Optional.empty())
+                .queryParamIfPresent("epoch", Optional.ofNullable(epoch))
+                .build().encode().toUri();
+
+        Integer handled = restTemplate.execute(uri, HttpMethod.GET,
+                request -> request.getHeaders().setAccept(List.of(NDJSON)),
+                response -> {
+                    connected = true;
+                    log.info("Engine stream connected (cursor {})", cursor);
+                    try (BufferedReader reader = new BufferedReader(
+                            new InputStreamReader(response.getBody(), StandardCharsets.UTF_8))) {
+                        int count = 0;
+                        String line;
+                        while (!stopping && (line = reader.readLine()) != null) {
+                            if (line.isBlank()) continue;
+                            handle(line);
+                            count++;
+                        }
+                        return count;
+                    } finally {
+                        connected = false;
+                    }
+                });
+        return handled != null ? handled : 0;
+    }
+
+    void handle(String line) throws IOException {
+        EngineEvent event = objectMapper.readValue(line, EngineEvent.class);
+        try {
+            switch (event.type()) {
+                case "snapshot" -> event.torrents().forEach(syncService::applyPushed);
+                case "delta" -> {
+                    Map<String, Object> data = new HashMap<>(event.fields());
+                    data.put("id", event.id());
+                    syncService.applyPushed(data);
+                }
+                default -> { }    // heartbeat, removed: nothing to apply
+            }
+        } catch (RuntimeException e) {
+            boolean again = event.seq() == failedSeq;
+            failedSeq = event.seq();
+            if (again) cursor = -1;
+            log.warn("Failed to apply engine event seq={}, reconnecting {}: {}", event.seq(),
+                    again ? "for a snapshot" : "to replay it", e.getMessage());
+            throw new IllegalStateException("Engine event seq=" + event.seq() + " not applied", e);
+        }
+        epoch = event.epoch();
+        cursor = event.seq();
+    }
+
+    long getCursor() {
+        return cursor;
+    }
+}
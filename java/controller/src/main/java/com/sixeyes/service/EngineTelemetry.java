@@ -0,0 +1,98 @@
+package com.sixeyes.service;
+
+import com.sixeyes.model.TelemetryField;
+import com.sixeyes.model.TorrentStatus;
+
+import java.util.Map;
+
+/**
+ * One engine telemetry record held in primitive fields, with a presence bit per
+ * {@link TelemetryField}. The decoder reuses a single instance for a whole response, so
+ * consumers must copy out what they need before returning.
+ */
+public final class EngineTelemetry {
+
+    private long id;
+    private boolean hasId;
+    private int present;
+
+    private String title;
+    private long sizeBytes;
+    private long etaSeconds;
+    private double progress;
+    private long downloadRate;
+    private long uploadRate;
+    private int peers;
+    private TorrentStatus status;
+
+    /**
+     * Adapts a loosely typed record (e.g. a pushed stream delta). Null values count as
+     * absent, except {@code etaSeconds}, where null means the estimate is gone.
+     */
+    public static EngineTelemetry fromMap(Map<String, Object> data) {
+        EngineTelemetry t = new EngineTelemetry();
+        data.forEach((key, value) -> {
+            if (value == null) {
+                if ("etaSeconds".equals(key)) t.etaSeconds(0);
+                return;
+            }
+            switch (key) {
+                case "id" -> { if (value instanceof Number n) t.id(n.longValue()); }
+                case "title" -> { if (value instanceof String s) t.title(s); }
+                case "sizeBytes" -> t.sizeBytes(asLong(value));
+                case "etaSeconds" -> t.etaSeconds(asLong(value));
+                case "peers" -> t.peers((int) asLong(value));
+                case "progress" -> t.progress(value instanceof Number n ? n.doubleValue() : 0.0);
+                case "downloadRate" -> t.downloadRate(asLong(value));
+                case "uploadRate" -> t.uploadRate(asLong(value));
+                case "status" -> { if (value instanceof String s) t.status(TorrentStatus.fromValue(s)); }
+                default -> { }
+            }
+        });
+        return t;
+    }
+
+    void reset() {
+        hasId = false;
+        present = 0;
+        title = null;
+        status = null;
+    }
+
+    public boolean has(TelemetryField field) {
+        return (present & (1 << field.ordinal())) != 0;
+    }
+
+    public boolean hasId() {
+        return hasId;
+    }
+
+    public long id() { return id; }
+    public String title() { return title; }
+    public long sizeBytes() { return sizeBytes; }
+    /** Seconds left; 0 when the engine has no estimate. */
+    public long etaSeconds() { return etaSeconds; }
+    public double progress() { return progress; }
+    public long downloadRate() { return downloadRate; }
+    public long uploadRate() { return uploadRate; }
+    public int peers() { return peers; }
+    public TorrentStatus status() { return status; }
+
+    void id(long value) { id = value; hasId = true; }
+    void title(String value) { title = value; mark(TelemetryField.TITLE); }
+    void sizeBytes(long value) { sizeBytes = value; mark(TelemetryField.SIZE); }
+    void etaSeconds(long value) { etaSeconds = value; mark(TelemetryField.ETA); }
+    void progress(double value) { progress = value; mark(TelemetryField.PROGRESS); }
+    void downloadRate(long value) { downloadRate = value; mark(TelemetryField.DOWNLOAD_RATE); }
+    void uploadRate(long value) { uploadRate = value; mark(TelemetryField.UPLOAD_RATE); }
+    void peers(int value) { peers = value; mark(TelemetryField.PEERS); }
+    void status(TorrentStatus value) { status = value; mark(TelemetryField.STATUS); }
+
+    private void mark(TelemetryField field) {
+        present |= 1 << field.ordinal();
+    }
+
+    private static long asLong(Object value) {
+        return value instanceof Number n ? n.longValue() : 0L;
+    }
+}
@@ -0,0 +1,94 @@
+package com.sixeyes.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.sixeyes.model.TorrentStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * Streams the engine's {@code /python/get} array straight into a reused
+ * {@link EngineTelemetry}: no intermediate maps, no boxed numbers, and fields the sync
+ * doesn't use (the magnet above all) are skipped without ever becoming strings.
+ * The same token walk reads the engine's CBOR encoding of the array.
+ */
+@Component
+public class EngineTelemetryDecoder {
+
+    private final JsonFactory jsonFactory;
+    private final CBORFactory cborFactory = new CBORFactory();
+
+    public EngineTelemetryDecoder(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /** Feeds each record with an id to {@code sink}; returns how many were fed. */
+    public int decodeArray(InputStream in, Consumer<EngineTelemetry> sink) throws IOException {
+        return decodeArray(in, false, sink);
+    }
+
+    public int decodeArray(InputStream in, boolean cbor, Consumer<EngineTelemetry> sink) throws IOException {
+        try (JsonParser parser = (cbor ? cborFactory : jsonFactory).createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "Expected an array of torrents");
+            }
+            EngineTelemetry telemetry = new EngineTelemetry();
+            int count = 0;
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+                if (token != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    continue;
+                }
+                telemetry.reset();
+                readRecord(parser, telemetry);
+                if (telemetry.hasId()) {
+                    sink.accept(telemetry);
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    private static void readRecord(JsonParser parser, EngineTelemetry t) throws IOException {
+        String name;
+        while ((name = parser.nextFieldName()) != null) {
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.VALUE_NULL) {
+                // A null eta means "no estimate" and must clear the stored one.
+                if ("etaSeconds".equals(name)) t.etaSeconds(0);
+                continue;
+            }
+            if (value.isStructStart()) {
+                parser.skipChildren();
+                continue;
+            }
+
+            switch (name) {
+                case "id" -> { if (value.isNumeric()) t.id(parser.getLongValue()); }
+                case "title" -> { if (value == JsonToken.VALUE_STRING) t.title(parser.getText()); }
+                case "sizeBytes" -> t.sizeBytes(asLong(parser, value));
+                case "etaSeconds" -> t.etaSeconds(asLong(parser, value));
+                case "peers" -> t.peers((int) asLong(parser, value));
+                case "progress" -> t.progress(value.isNumeric() ? parser.getDoubleValue() : 0.0);
+                case "downloadRate" -> t.downloadRate(asLong(parser, value));
+                case "uploadRate" -> t.uploadRate(asLong(parser, value));
+                case "status" -> { if (value == JsonToken.VALUE_STRING) t.status(TorrentStatus.fromValue(parser.getText())); }
+                default -> { }
+            }
+        }
+    }
+
+    private static long asLong(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NUMBER_INT) return parser.getLongValue();
+        return value == JsonToken.VALUE_NUMBER_FLOAT ? (long) parser.getDoubleValue() : 0L;
+    }
+}
@@ -0,0 +1,71 @@
+package com.sixeyes.service;
+
+import com.sixeyes.service.SpeedHistory.Series;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling for {@link SpeedHistory} series. Picks one
+ * real sample per bucket, the one forming the largest triangle with its neighbours, so
+ * spikes survive the reduction. Download and upload areas are summed, letting a peak in
+ * either series win its bucket; all columns are then taken from the chosen samples.
+ */
+final class HistoryDownsampler {
+
+    private HistoryDownsampler() {}
+
+    static Series lttb(Series in, int threshold) {
+        int n = in.size();
+        if (threshold >= n || threshold < 3) return in;
+
+        int[] picked = new int[threshold];
+        picked[0] = 0;
+        picked[threshold - 1] = n - 1;
+
+        double bucketSize = (double) (n - 2) / (threshold - 2);
+        int a = 0;
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            int start = (int) (bucket * bucketSize) + 1;
+            int end = (int) ((bucket + 1) * bucketSize) + 1;
+
+            // Average of the next bucket is the third triangle vertex.
+            int nextStart = end;
+            int nextEnd = Math.min((int) ((bucket + 2) * bucketSize) + 1, n);
+            double avgX = 0, avgDown = 0, avgUp = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                avgX += in.timestamps()[i];
+                avgDown += in.download()[i];
+                avgUp += in.upload()[i];
+            }
+            int count = nextEnd - nextStart;
+            avgX /= count;
+            avgDown /= count;
+            avgUp /= count;
+
+            double ax = in.timestamps()[a];
+            double best = -1;
+            int chosen = start;
+            for (int i = start; i < end; i++) {
+                double bx = in.timestamps()[i];
+                double area = Math.abs((ax - avgX) * (in.download()[i] - in.download()[a])
+                                       - (ax - bx) * (avgDown - in.download()[a]))
+                            + Math.abs((ax - avgX) * (in.upload()[i] - in.upload()[a])
+                                       - (ax - bx) * (avgUp - in.upload()[a]));
+                if (area > best) {
+                    best = area;
+                    chosen = i;
+                }
+            }
+            picked[bucket + 1] = chosen;
+            a = chosen;
+        }
+
+        Series out = new Series(new long[threshold], new float[threshold], new float[threshold], new int[threshold]);
+        for (int i = 0; i < threshold; i++) {
+            int src = picked[i];
+            out.timestamps()[i] = in.timestamps()[src];
+            out.download()[i] = in.download()[src];
+            out.upload()[i] = in.upload()[src];
+            out.peers()[i] = in.peers()[src];
+        }
+        return out;
+    }
+}
@@ -13,6 +13,7 @@ import org.springframework.web.client.RestTemplate;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -31,6 +32,7 @@ public class IgdbService {
     private final CatalogGameRepository repo;
     private final RestTemplate rest = new RestTemplate();
 
+    private final ReentrantLock tokenLock = new ReentrantLock();
     private String accessToken;
     private Instant tokenExpiry = Instant.EPOCH;
 
@@ -201,8 +203,18 @@ public class IgdbService {
         }
     }
 
+    // A lock rather than synchronized: the refresh is an HTTP call, which would pin a virtual thread.
+    private void ensureToken() {
+        tokenLock.lock();
+        try {
+            refreshTokenIfExpired();
+        } finally {
+            tokenLock.unlock();
+        }
+    }
+
     @SuppressWarnings("unchecked")
-    private synchronized void ensureToken() {
+    private void refreshTokenIfExpired() {
         if (accessToken != null && Instant.now().isBefore(tokenExpiry)) return;
         String url = TOKEN_URL + "?client_id={cid}&client_secret={cs}&grant_type=client_credentials";
         ResponseEntity<Map> resp = rest.postForEntity(url, null, Map.class, clientId, clientSecret);
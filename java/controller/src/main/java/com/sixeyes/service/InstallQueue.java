@@ -0,0 +1,94 @@
+package com.sixeyes.service;
+
+import com.sixeyes.dto.response.InstallJob;
+import com.sixeyes.event.InstallStatusChanged;
+import com.sixeyes.event.TorrentEvent;
+import com.sixeyes.event.TorrentEventBus;
+import com.sixeyes.event.TorrentEventListener;
+import com.sixeyes.event.TorrentRemoved;
+import com.sixeyes.model.Torrent;
+import com.sixeyes.repo.TorrentRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Torrents waiting for the host installer, in request order. Loaded once from the
+ * database and then kept current from install events, so the installer's polls never
+ * touch the table.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class InstallQueue {
+
+    static final String REQUESTED = "REQUESTED";
+
+    private final TorrentRepository torrentRepository;
+    private final TorrentLiveStore liveStore;
+    private final TorrentEventBus eventBus;
+
+    private final LinkedHashSet<Long> pending = new LinkedHashSet<>();
+    private TorrentEventBus.Subscription subscription;
+
+    @PostConstruct
+    void start() {
+        subscription = eventBus.subscribe("install-queue", 256, new TorrentEventListener() {
+            @Override
+            public void onEvent(TorrentEvent event) {
+                apply(event);
+            }
+
+            @Override
+            public void resync() {
+                reload();
+            }
+        });
+        reload();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (subscription != null) subscription.close();
+    }
+
+    public List<InstallJob> jobs() {
+        List<Long> ids;
+        synchronized (pending) {
+            ids = List.copyOf(pending);
+        }
+        return ids.stream()
+                .map(liveStore::get)
+                .flatMap(Optional::stream)
+                .map(t -> new InstallJob(t.getId(), t.getTitle(), t.getSavePath()))
+                .toList();
+    }
+
+    void apply(TorrentEvent event) {
+        synchronized (pending) {
+            switch (event) {
+                case InstallStatusChanged e when REQUESTED.equals(e.to()) -> pending.add(e.torrentId());
+                case InstallStatusChanged e -> pending.remove(e.torrentId());
+                case TorrentRemoved e -> pending.remove(e.torrentId());
+                default -> { }
+            }
+        }
+    }
+
+    private void reload() {
+        List<Long> requested = torrentRepository.findByInstallStatus(REQUESTED).stream()
+                .map(Torrent::getId)
+                .toList();
+        synchronized (pending) {
+            pending.clear();
+            pending.addAll(requested);
+        }
+        log.debug("Install queue loaded with {} job(s)", requested.size());
+    }
+}
@@ -1,55 +1,76 @@
 package com.sixeyes.service;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.util.Date;
+import java.util.Optional;
 
+/**
+ * Issues and checks the dashboard's bearer tokens. The key and parser are built once; a
+ * verified token is remembered (see {@link VerifiedTokenCache}) so polling and stream
+ * reconnects don't pay for the HMAC and claims parse on every request.
+ */
 @Slf4j
 @Service
 public class JwtService {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    private final SecretKey key;
+    private final JwtParser parser;
+    private final long expirationMs;
+    private final VerifiedTokenCache verified;
 
-    @Value("${jwt.expiration-ms:86400000}")
-    private long expirationMs;
+    @Autowired
+    public JwtService(
+            @Value("${jwt.secret}") String secret,
+            @Value("${jwt.expiration-ms:86400000}") long expirationMs,
+            @Value("${jwt.cache-size:10000}") int cacheSize,
+            @Value("${jwt.cache-ttl-ms:300000}") long cacheTtlMs
+    ) {
+        this(secret, expirationMs, new VerifiedTokenCache(cacheSize, cacheTtlMs));
+    }
+
+    JwtService(String secret, long expirationMs, VerifiedTokenCache verified) {
+        this.key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        this.parser = Jwts.parser().verifyWith(key).build();
+        this.expirationMs = expirationMs;
+        this.verified = verified;
+    }
 
     public String generate(String username) {
         return Jwts.builder()
                 .subject(username)
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + expirationMs))
-                .signWith(key())
+                .signWith(key)
                 .compact();
     }
 
-    public String extractUsername(String token) {
-        return Jwts.parser()
-                .verifyWith(key())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getSubject();
-    }
+    /** The token's subject when it is signed by us and unexpired; one parse on a cache miss. */
+    public Optional<String> authenticate(String token) {
+        String cached = verified.get(token);
+        if (cached != null) return Optional.of(cached);
 
-    public boolean isValid(String token) {
+        Claims claims;
         try {
-            extractUsername(token);
-            return true;
-        } catch (JwtException e) {
+            claims = parser.parseSignedClaims(token).getPayload();
+        } catch (JwtException | IllegalArgumentException e) {
             log.debug("Invalid JWT: {}", e.getMessage());
-            return false;
+            return Optional.empty();
         }
-    }
-
-    private SecretKey key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        String subject = claims.getSubject();
+        if (subject == null) return Optional.empty();
+        // Tokens without exp never expire in jjwt; they are re-verified each time instead.
+        if (claims.getExpiration() != null) verified.put(token, subject, claims.getExpiration().getTime());
+        return Optional.of(subject);
     }
 }
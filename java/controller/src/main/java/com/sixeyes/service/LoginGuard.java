@@ -0,0 +1,178 @@
+package com.sixeyes.service;
+
+import com.sixeyes.exception.LoginThrottledException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps login attempts from eating the CPU the sync job needs. Each client gets a token
+ * bucket; an attempt without a token is refused before any password hashing. Attempts
+ * that pass run on a small fixed pool with a short queue, so a burst spread over many
+ * clients is refused too instead of piling up BCrypt work.
+ *
+ * <p>At most {@code maxClients} clients are tracked; a new one evicts the least recently
+ * seen, so no client ever shares another's bucket.
+ */
+@Slf4j
+@Service
+public class LoginGuard {
+
+    /** Verification times include the queue wait; {@code throttled} ran out of tokens, {@code busy} found the pool full. */
+    public record Stats(long verified, long throttled, long busy, double avgVerifyMs, double maxVerifyMs,
+                        int queued, int clients) {}
+
+    // Access-ordered, so the eldest entry is the least recently seen client.
+    private final LinkedHashMap<String, TokenBucket> buckets = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, TokenBucket> eldest) {
+            return size() > maxClients;
+        }
+    };
+    private final ReentrantLock bucketsLock = new ReentrantLock();
+    private final ThreadPoolExecutor executor;
+    private final int burst;
+    private final double refillPerSecond;
+    private final int maxClients;
+    private final long timeoutMs;
+    private final LongSupplier nanoClock;
+
+    private final LongAdder verified = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder busy = new LongAdder();
+    private final LongAdder verifyNanos = new LongAdder();
+    private final AtomicLong maxVerifyNanos = new AtomicLong();
+
+    @Autowired
+    public LoginGuard(
+            @Value("${auth.login.threads:2}") int threads,
+            @Value("${auth.login.queue:8}") int queue,
+            @Value("${auth.login.burst:5}") int burst,
+            @Value("${auth.login.refill-per-minute:10}") double refillPerMinute,
+            @Value("${auth.login.max-clients:10000}") int maxClients,
+            @Value("${auth.login.timeout-ms:5000}") long timeoutMs
+    ) {
+        this(threads, queue, burst, refillPerMinute, maxClients, timeoutMs, System::nanoTime);
+    }
+
+    LoginGuard(int threads, int queue, int burst, double refillPerMinute, int maxClients, long timeoutMs,
+               LongSupplier nanoClock) {
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queue),
+                Thread.ofPlatform().name("login-verify-", 0).daemon().factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.burst = burst;
+        this.refillPerSecond = refillPerMinute / 60d;
+        this.maxClients = maxClients;
+        this.timeoutMs = timeoutMs;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Runs {@code check} (the password comparison) for {@code client} on the login pool and
+     * returns its result; throws {@link LoginThrottledException} when the client is out of
+     * tokens or the pool can't take more work.
+     */
+    public boolean verify(String client, BooleanSupplier check) {
+        long now = nanoClock.getAsLong();
+        TokenBucket bucket = bucketFor(client, now);
+        if (!bucket.tryAcquire(now)) {
+            throttled.increment();
+            long waitSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(bucket.nanosUntilToken(now)) + 1);
+            throw new LoginThrottledException("Too many login attempts; try again in " + waitSeconds + " s", waitSeconds);
+        }
+
+        long start = System.nanoTime();
+        Future<Boolean> result;
+        try {
+            result = executor.submit(check::getAsBoolean);
+        } catch (RejectedExecutionException e) {
+            busy.increment();
+            log.warn("Login pool saturated, refusing attempt from {}", client);
+            throw new LoginThrottledException("Login is busy; try again shortly", 1);
+        }
+        try {
+            return result.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            busy.increment();
+            throw new LoginThrottledException("Login is busy; try again shortly", 1);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during login", e);
+        } finally {
+            recordLatency(System.nanoTime() - start);
+        }
+    }
+
+    public Stats stats() {
+        long count = verified.sum();
+        return new Stats(count, throttled.sum(), busy.sum(),
+                count == 0 ? 0 : verifyNanos.sum() / 1e6 / count,
+                maxVerifyNanos.get() / 1e6,
+                executor.getQueue().size(),
+                clients());
+    }
+
+    /** Forgets clients whose bucket has refilled; they would start full anyway. */
+    @Scheduled(fixedDelayString = "${auth.login.sweep-ms:60000}")
+    public void evictIdle() {
+        long now = nanoClock.getAsLong();
+        bucketsLock.lock();
+        try {
+            buckets.values().removeIf(b -> b.isFull(now));
+        } finally {
+            bucketsLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private TokenBucket bucketFor(String client, long now) {
+        bucketsLock.lock();
+        try {
+            return buckets.computeIfAbsent(client, k -> new TokenBucket(burst, refillPerSecond, now));
+        } finally {
+            bucketsLock.unlock();
+        }
+    }
+
+    private int clients() {
+        bucketsLock.lock();
+        try {
+            return buckets.size();
+        } finally {
+            bucketsLock.unlock();
+        }
+    }
+
+    private void recordLatency(long nanos) {
+        verified.increment();
+        verifyNanos.add(nanos);
+        maxVerifyNanos.accumulateAndGet(nanos, Math::max);
+    }
+}
@@ -0,0 +1,60 @@
+package com.sixeyes.service;
+
+/**
+ * Minimal open-addressing set of {@code long}s (linear probing, power-of-two table), so
+ * joining engine ids against the live store doesn't box every id on every cycle.
+ */
+final class LongHashSet {
+
+    private long[] slots;
+    private boolean[] used;
+    private int size;
+
+    LongHashSet(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1;
+        slots = new long[capacity];
+        used = new boolean[capacity];
+    }
+
+    boolean add(long value) {
+        if ((size + 1) * 2 > slots.length) grow();
+        int mask = slots.length - 1;
+        for (int i = mix(value) & mask; ; i = (i + 1) & mask) {
+            if (!used[i]) {
+                used[i] = true;
+                slots[i] = value;
+                size++;
+                return true;
+            }
+            if (slots[i] == value) return false;
+        }
+    }
+
+    boolean contains(long value) {
+        int mask = slots.length - 1;
+        for (int i = mix(value) & mask; used[i]; i = (i + 1) & mask) {
+            if (slots[i] == value) return true;
+        }
+        return false;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void grow() {
+        long[] oldSlots = slots;
+        boolean[] oldUsed = used;
+        slots = new long[oldSlots.length * 2];
+        used = new boolean[oldSlots.length * 2];
+        size = 0;
+        for (int i = 0; i < oldSlots.length; i++) {
+            if (oldUsed[i]) add(oldSlots[i]);
+        }
+    }
+
+    private static int mix(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,143 @@
+package com.sixeyes.service;
+
+import com.sixeyes.exception.InvalidMagnetException;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * A magnet URI reduced to what identifies and locates the torrent (BEP 9; BEP 52 for v2).
+ * Hashes are lower-case hex whether they came as hex or base32 {@code btih}, or as a
+ * SHA-256 multihash {@code btmh}. Trackers and web seeds keep their order with repeats
+ * dropped; other parameters are not kept. The same torrent therefore gets the same
+ * {@link #infoHash()} and {@link #toUri()} however its magnet was written.
+ */
+public record MagnetLink(
+        String infoHashV1,
+        String infoHashV2,
+        String name,
+        List<String> trackers,
+        List<String> webSeeds
+) {
+    /** Longest magnet the torrents table stores; optional parameters that would overflow it are left out. */
+    public static final int MAX_LENGTH = 4000;
+
+    private static final String PREFIX = "magnet:?";
+    private static final String BTIH = "urn:btih:";
+    private static final String BTMH_SHA256 = "urn:btmh:1220";   // multihash: sha2-256, 32 bytes
+    private static final String BASE32 = "abcdefghijklmnopqrstuvwxyz234567";
+    private static final HexFormat HEX = HexFormat.of();
+
+    /** Throws {@link InvalidMagnetException} unless {@code uri} is a magnet with a BitTorrent hash. */
+    public static MagnetLink parse(String uri) {
+        if (uri == null || !uri.regionMatches(true, 0, PREFIX, 0, PREFIX.length())) {
+            throw new InvalidMagnetException(uri);
+        }
+        String v1 = null;
+        String v2 = null;
+        String name = null;
+        Set<String> trackers = new LinkedHashSet<>();
+        Set<String> webSeeds = new LinkedHashSet<>();
+        for (String param : uri.substring(PREFIX.length()).split("&")) {
+            int eq = param.indexOf('=');
+            if (eq <= 0) continue;
+            String value = decode(param.substring(eq + 1), uri);
+            switch (baseKey(param.substring(0, eq))) {
+                case "xt" -> {
+                    String lower = value.toLowerCase(Locale.ROOT);
+                    if (v1 == null && lower.startsWith(BTIH)) {
+                        v1 = btih(lower.substring(BTIH.length()), uri);
+                    } else if (v2 == null && lower.startsWith(BTMH_SHA256)) {
+                        v2 = hex(lower.substring(BTMH_SHA256.length()), 64, uri);
+                    }
+                }
+                case "dn" -> { if (name == null && !value.isBlank()) name = value; }
+                case "tr" -> { if (!value.isBlank()) trackers.add(value); }
+                case "ws" -> { if (!value.isBlank()) webSeeds.add(value); }
+                default -> { }
+            }
+        }
+        if (v1 == null && v2 == null) throw new InvalidMagnetException(uri);
+        return new MagnetLink(v1, v2, name, List.copyOf(trackers), List.copyOf(webSeeds));
+    }
+
+    /** The hash that identifies the swarm, and the torrents table's dedup key: v1 where there is one. */
+    public String infoHash() {
+        return infoHashV1 != null ? infoHashV1 : infoHashV2;
+    }
+
+    /** Both hashes of a hybrid, then the name, trackers and web seeds while they fit in {@link #MAX_LENGTH}. */
+    public String toUri() {
+        StringBuilder magnet = new StringBuilder(256).append(PREFIX);
+        if (infoHashV1 != null) magnet.append("xt=").append(BTIH).append(infoHashV1);
+        if (infoHashV2 != null) {
+            if (infoHashV1 != null) magnet.append('&');
+            magnet.append("xt=").append(BTMH_SHA256).append(infoHashV2);
+        }
+        if (name != null) append(magnet, "&dn=", name);
+        for (String tracker : trackers) append(magnet, "&tr=", tracker);
+        for (String seed : webSeeds) append(magnet, "&ws=", seed);
+        return magnet.toString();
+    }
+
+    // BEP 9 numbers repeated parameters: tr.1, tr.2, ...
+    private static String baseKey(String key) {
+        String lower = key.toLowerCase(Locale.ROOT);
+        int dot = lower.indexOf('.');
+        if (dot > 0 && dot < lower.length() - 1 && lower.substring(dot + 1).chars().allMatch(Character::isDigit)) {
+            return lower.substring(0, dot);
+        }
+        return lower;
+    }
+
+    private static String btih(String hash, String uri) {
+        if (hash.length() == 32) return HEX.formatHex(base32(hash, uri));
+        return hex(hash, 40, uri);
+    }
+
+    private static String hex(String hash, int length, String uri) {
+        if (hash.length() != length || !hash.chars().allMatch(HexFormat::isHexDigit)) {
+            throw new InvalidMagnetException(uri);
+        }
+        return hash;
+    }
+
+    private static byte[] base32(String hash, String uri) {
+        byte[] out = new byte[20];
+        long bits = 0;
+        int pending = 0;
+        int written = 0;
+        for (int i = 0; i < hash.length(); i++) {
+            int digit = BASE32.indexOf(hash.charAt(i));
+            if (digit < 0) throw new InvalidMagnetException(uri);
+            bits = bits << 5 | digit;
+            pending += 5;
+            if (pending >= 8) {
+                pending -= 8;
+                out[written++] = (byte) (bits >>> pending);
+            }
+        }
+        return out;
+    }
+
+    private static String decode(String value, String uri) {
+        try {
+            return URLDecoder.decode(value, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidMagnetException(uri);
+        }
+    }
+
+    private static void append(StringBuilder magnet, String param, String value) {
+        String encoded = URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+        if (magnet.length() + param.length() + encoded.length() <= MAX_LENGTH) {
+            magnet.append(param).append(encoded);
+        }
+    }
+}
@@ -7,7 +7,10 @@ import com.sixeyes.repo.SettingsRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Service
 @RequiredArgsConstructor
@@ -19,19 +22,41 @@ public class SettingsService {
     @Value("${settings.default-download-path:/app/downloads}")
     private String defaultDownloadPath;
 
-    @Transactional(readOnly = true)
+    // Only this service writes the row, so the last value read or saved stays current.
+    private volatile SettingsResponse current;
+
+    // SUPPORTS: once cached, reads don't open a transaction or touch the pool.
+    @Transactional(propagation = Propagation.SUPPORTS)
     public SettingsResponse getSettings() {
-        return SettingsResponse.from(getOrCreate());
+        SettingsResponse cached = current;
+        if (cached != null) return cached;
+        return current = SettingsResponse.from(getOrCreate());
     }
 
     public SettingsResponse updateSettings(UpdateSettingsRequest request) {
         Settings settings = getOrCreate();
         settings.setDownloadPath(request.downloadPath());
-        return SettingsResponse.from(settingsRepository.save(settings));
+        SettingsResponse updated = SettingsResponse.from(settingsRepository.save(settings));
+        publishAfterCommit(updated);
+        return updated;
+    }
+
+    // A rolled-back update must not become the cached value.
+    private void publishAfterCommit(SettingsResponse updated) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            current = updated;
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                current = updated;
+            }
+        });
     }
 
     public String getDownloadPath() {
-        return getOrCreate().getDownloadPath();
+        return getSettings().downloadPath();
     }
 
     private Settings getOrCreate() {
@@ -0,0 +1,133 @@
+package com.sixeyes.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Caches one value for a short TTL. When it is stale, the first caller loads it and every
+ * concurrent caller waits on that same load instead of starting its own. Failures are
+ * handed to the waiting callers but never cached, so the next call retries. The loader
+ * must not return null.
+ *
+ * <p>With a {@code maxStaleMs}, a failed load falls back to the last good value while it
+ * is younger than that; {@link #read()} says when it did.
+ */
+public final class SingleFlightCache<T> {
+
+    /** {@code hits} got a fresh value, {@code coalesced} waited on another caller's load, {@code stale} got the fallback. */
+    public record Stats(long hits, long coalesced, long misses, long stale) {}
+
+    /** A value and, when {@code stale}, how old it was; a fresh value has age 0. */
+    public record Read<T>(T value, boolean stale, long ageMs) {
+
+        public static <T> Read<T> fresh(T value) {
+            return new Read<>(value, false, 0);
+        }
+    }
+
+    private record Cached<T>(T value, long loadedAt) {}
+
+    private final Supplier<T> loader;
+    private final long ttlNanos;
+    private final long maxStaleNanos;
+    private final LongSupplier nanoClock;
+
+    private final AtomicReference<CompletableFuture<T>> inFlight = new AtomicReference<>();
+    private volatile Cached<T> cached;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder stale = new LongAdder();
+
+    public SingleFlightCache(Supplier<T> loader, long ttlMs) {
+        this(loader, ttlMs, 0);
+    }
+
+    public SingleFlightCache(Supplier<T> loader, long ttlMs, long maxStaleMs) {
+        this(loader, ttlMs, maxStaleMs, System::nanoTime);
+    }
+
+    SingleFlightCache(Supplier<T> loader, long ttlMs, LongSupplier nanoClock) {
+        this(loader, ttlMs, 0, nanoClock);
+    }
+
+    SingleFlightCache(Supplier<T> loader, long ttlMs, long maxStaleMs, LongSupplier nanoClock) {
+        this.loader = loader;
+        this.ttlNanos = ttlMs * 1_000_000L;
+        this.maxStaleNanos = maxStaleMs * 1_000_000L;
+        this.nanoClock = nanoClock;
+    }
+
+    public T get() {
+        return read().value();
+    }
+
+    public Read<T> read() {
+        T fresh = fresh();
+        if (fresh != null) {
+            hits.increment();
+            return Read.fresh(fresh);
+        }
+
+        CompletableFuture<T> mine = new CompletableFuture<>();
+        CompletableFuture<T> running = inFlight.compareAndExchange(null, mine);
+        if (running != null) {
+            coalesced.increment();
+            try {
+                return Read.fresh(await(running));
+            } catch (RuntimeException e) {
+                return fallback(e);
+            }
+        }
+        try {
+            // A load may have finished between the freshness check and winning the slot.
+            fresh = fresh();
+            if (fresh != null) {
+                hits.increment();
+                mine.complete(fresh);
+                return Read.fresh(fresh);
+            }
+            misses.increment();
+            T value = loader.get();
+            cached = new Cached<>(value, nanoClock.getAsLong());
+            mine.complete(value);
+            return Read.fresh(value);
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            return fallback(e);
+        } finally {
+            inFlight.set(null);
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), coalesced.sum(), misses.sum(), stale.sum());
+    }
+
+    private Read<T> fallback(RuntimeException failure) {
+        Cached<T> c = cached;
+        long age = c != null ? nanoClock.getAsLong() - c.loadedAt() : Long.MAX_VALUE;
+        if (age >= maxStaleNanos) throw failure;
+        stale.increment();
+        return new Read<>(c.value(), true, age / 1_000_000L);
+    }
+
+    private T fresh() {
+        Cached<T> c = cached;
+        return c != null && nanoClock.getAsLong() - c.loadedAt() < ttlNanos ? c.value() : null;
+    }
+
+    private static <T> T await(CompletableFuture<T> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+}
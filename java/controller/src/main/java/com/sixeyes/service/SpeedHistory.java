@@ -0,0 +1,113 @@
+package com.sixeyes.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fixed-memory speed history per torrent. Each torrent gets one ring of primitive columns
+ * (timestamp, download and upload bytes/s, peers), so a full ring costs
+ * {@code capacity * 20} bytes and never allocates after creation.
+ *
+ * <p>Fed by {@link TorrentSyncService} on every telemetry update; read through
+ * {@link #range} and downsampled by {@link HistoryDownsampler} before it leaves the server.
+ */
+@Component
+public class SpeedHistory {
+
+    /** Raw samples in a time window, oldest first. */
+    public record Series(long[] timestamps, float[] download, float[] upload, int[] peers) {
+
+        static final Series EMPTY = new Series(new long[0], new float[0], new float[0], new int[0]);
+
+        public int size() {
+            return timestamps.length;
+        }
+    }
+
+    private final int capacity;
+    private final ConcurrentHashMap<Long, Ring> rings = new ConcurrentHashMap<>();
+
+    public SpeedHistory(@Value("${history.capacity:7200}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    public void record(long id, long timestampMs, double downloadBps, double uploadBps, int peers) {
+        rings.computeIfAbsent(id, key -> new Ring(capacity))
+                .add(timestampMs, (float) downloadBps, (float) uploadBps, peers);
+    }
+
+    public void remove(long id) {
+        rings.remove(id);
+    }
+
+    /** Samples with {@code from <= timestamp <= to}. */
+    public Series range(long id, long from, long to) {
+        Ring ring = rings.get(id);
+        return ring != null ? ring.range(from, to) : Series.EMPTY;
+    }
+
+    private static final class Ring {
+
+        private final long[] timestamps;
+        private final float[] download;
+        private final float[] upload;
+        private final int[] peers;
+        private int next;
+        private int size;
+
+        Ring(int capacity) {
+            timestamps = new long[capacity];
+            download = new float[capacity];
+            upload = new float[capacity];
+            peers = new int[capacity];
+        }
+
+        synchronized void add(long timestamp, float down, float up, int peerCount) {
+            // Keep timestamps non-decreasing so range() can binary search.
+            if (size > 0) timestamp = Math.max(timestamp, timestamps[physical(size - 1)]);
+            timestamps[next] = timestamp;
+            download[next] = down;
+            upload[next] = up;
+            peers[next] = peerCount;
+            next = (next + 1) % timestamps.length;
+            if (size < timestamps.length) size++;
+        }
+
+        synchronized Series range(long from, long to) {
+            int start = lowerBound(from);
+            int end = lowerBound(to == Long.MAX_VALUE ? to : to + 1);
+            int n = end - start;
+            if (n <= 0) return Series.EMPTY;
+
+            Series out = new Series(new long[n], new float[n], new float[n], new int[n]);
+            for (int i = 0; i < n; i++) {
+                int p = physical(start + i);
+                out.timestamps()[i] = timestamps[p];
+                out.download()[i] = download[p];
+                out.upload()[i] = upload[p];
+                out.peers()[i] = peers[p];
+            }
+            return out;
+        }
+
+        /** First logical index whose timestamp is {@code >= value}. */
+        private int lowerBound(long value) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (timestamps[physical(mid)] < value) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+
+        /** Maps a logical index (0 = oldest) to its array slot. */
+        private int physical(int logical) {
+            int oldest = size < timestamps.length ? 0 : next;
+            return (oldest + logical) % timestamps.length;
+        }
+    }
+}
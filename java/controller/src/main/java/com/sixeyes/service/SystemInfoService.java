@@ -1,31 +1,79 @@
 package com.sixeyes.service;
 
 import com.sixeyes.dto.response.DiskInfo;
+import com.sixeyes.dto.response.DisplayFormat;
 import com.sixeyes.dto.response.SystemInfoResponse;
 import com.sixeyes.dto.response.SystemInfoResponse.NetworkInfo;
 import com.sixeyes.dto.response.SystemInfoResponse.StorageInfo;
-import com.sixeyes.model.TorrentStatus;
-import com.sixeyes.repo.TorrentRepository;
-import lombok.RequiredArgsConstructor;
+import com.sixeyes.exception.EngineUnavailableException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
-@Transactional(readOnly = true)
 public class SystemInfoService {
 
     private final PythonClientService pythonClient;
-    private final TorrentRepository torrentRepository;
+    private final TorrentLiveStore liveStore;
+    private final SingleFlightCache<StorageInfo> storageCache;
+    private final SingleFlightCache<List<DiskInfo>> diskCache;
+    private final long maxStaleMs;
+    // Last good listing per path, for browsing while the engine is down; access-ordered LRU.
+    private final Map<String, Browsed> browsed = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Browsed> eldest) {
+            return size() > BROWSE_FALLBACK_PATHS;
+        }
+    };
+
+    private record Browsed(Map<String, Object> listing, long loadedAt) {}
+
+    private static final int BROWSE_FALLBACK_PATHS = 128;
 
     private static final double GB = 1024.0 * 1024.0 * 1024.0;
 
+    public SystemInfoService(
+            PythonClientService pythonClient,
+            TorrentLiveStore liveStore,
+            @Value("${system.storage-ttl-ms:5000}") long storageTtlMs,
+            @Value("${system.max-stale-ms:3600000}") long maxStaleMs
+    ) {
+        this.pythonClient = pythonClient;
+        this.liveStore = liveStore;
+        this.maxStaleMs = maxStaleMs;
+        this.storageCache = new SingleFlightCache<>(this::loadStorage, storageTtlMs, maxStaleMs);
+        this.diskCache = new SingleFlightCache<>(() -> List.copyOf(pythonClient.fetchDisks()), storageTtlMs, maxStaleMs);
+    }
+
+    /**
+     * Storage comes from the engine through a short single-flight cache, so any number of
+     * dashboards cost one engine call per TTL. Network totals are the live store's running
+     * sums and are always current.
+     */
     public SystemInfoResponse getSystemInfo() {
+        return readSystemInfo().value();
+    }
+
+    /** As {@link #getSystemInfo()}, but says when the storage part is the last good one because the engine is down. */
+    public SingleFlightCache.Read<SystemInfoResponse> readSystemInfo() {
+        SingleFlightCache.Read<StorageInfo> storage = storageCache.read();
+        TorrentLiveStore.SessionRates rates = liveStore.sessionRates();
+        SystemInfoResponse info = new SystemInfoResponse(storage.value(), new NetworkInfo(
+                DisplayFormat.rateMbps(rates.download()), DisplayFormat.rateMbps(rates.upload())));
+        return new SingleFlightCache.Read<>(info, storage.stale(), storage.ageMs());
+    }
+
+    public SingleFlightCache.Stats getStorageCacheStats() {
+        return storageCache.stats();
+    }
+
+    private StorageInfo loadStorage() {
         Map<String, Object> raw = pythonClient.fetchStorageInfo();
 
         double usedBytes  = toDouble(raw.get("Used"));
@@ -36,30 +84,41 @@ public class SystemInfoService {
 
         String device = raw.get("Device") != null ? raw.get("Device").toString() : "downloads";
 
-        StorageInfo storage = new StorageInfo(
+        return new StorageInfo(
                 round(totalBytes / GB),
                 round(usedBytes  / GB),
                 round(freeBytes  / GB),
                 device
         );
-
-        double totalDownload = torrentRepository.findByStatus(TorrentStatus.DOWNLOADING).stream()
-                .mapToDouble(t -> parseSpeed(t.getDownloadSpeed()))
-                .sum();
-
-        double totalUpload = torrentRepository.findAll().stream()
-                .mapToDouble(t -> parseSpeed(t.getUploadSpeed()))
-                .sum();
-
-        return new SystemInfoResponse(storage, new NetworkInfo(totalDownload, totalUpload));
     }
 
+    /** Same TTL as storage; adding a torrent still checks free space against a fresh list. */
     public List<DiskInfo> getDiskList() {
-        return pythonClient.fetchDisks();
+        return diskCache.get();
+    }
+
+    public SingleFlightCache.Read<List<DiskInfo>> readDiskList() {
+        return diskCache.read();
     }
 
-    public Map<String, Object> browse(String path) {
-        return pythonClient.browse(path);
+    /** Falls back to the last listing of {@code path} while the engine is unavailable. */
+    public SingleFlightCache.Read<Map<String, Object>> browse(String path) {
+        String key = path != null ? path : "";
+        try {
+            Map<String, Object> listing = pythonClient.browse(path);
+            synchronized (browsed) {
+                browsed.put(key, new Browsed(listing, System.nanoTime()));
+            }
+            return SingleFlightCache.Read.fresh(listing);
+        } catch (EngineUnavailableException e) {
+            Browsed last;
+            synchronized (browsed) {
+                last = browsed.get(key);
+            }
+            long ageMs = last != null ? TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - last.loadedAt()) : Long.MAX_VALUE;
+            if (ageMs >= maxStaleMs) throw e;
+            return new SingleFlightCache.Read<>(last.listing(), true, ageMs);
+        }
     }
 
     public Map<String, Object> makeDir(String parent, String name) {
@@ -81,15 +140,4 @@ public class SystemInfoService {
     private static double round(double value) {
         return Math.round(value * 10.0) / 10.0;
     }
-
-    private static double parseSpeed(String speed) {
-
-        if (speed == null || speed.isBlank()){
-            return 0.0;
-        }
-
-        try {
-            return Double.parseDouble(speed.replace("MB/s", "").trim());
-        } catch (NumberFormatException e) { return 0.0; }
-    }
 }
@@ -0,0 +1,127 @@
+package com.sixeyes.service;
+
+import com.sixeyes.model.TelemetryField;
+import com.sixeyes.model.Torrent;
+import com.sixeyes.model.TorrentStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Merges engine telemetry into a scratch copy of a torrent and reports which columns
+ * changed. The input is never touched, so callers can keep it as an immutable snapshot.
+ *
+ * <p>Most torrents don't change between two cycles, so a primitive pre-check runs first;
+ * only when it finds a difference is the torrent copied and diffed column by column.
+ */
+@Component
+public class TelemetryChangeDetector {
+
+    private final double progressEpsilon;
+
+    public TelemetryChangeDetector(@Value("${sync.progress-epsilon:0.1}") double progressEpsilon) {
+        this.progressEpsilon = progressEpsilon;
+    }
+
+    public TorrentDelta detect(Torrent current, Map<String, Object> data) {
+        return detect(current, EngineTelemetry.fromMap(data));
+    }
+
+    public TorrentDelta detect(Torrent current, EngineTelemetry telemetry) {
+        if (!mayChange(current, telemetry)) {
+            return new TorrentDelta(current, Set.of());
+        }
+
+        Torrent next = current.snapshot();
+        applyTelemetry(next, telemetry);
+
+        EnumSet<TelemetryField> changed = EnumSet.noneOf(TelemetryField.class);
+        for (TelemetryField field : TelemetryField.values()) {
+            if (field == TelemetryField.PROGRESS) {
+                if (progressChanged(current.getProgress(), next.getProgress())) {
+                    changed.add(field);
+                } else {
+                    // Keep the old value as the baseline: stored ticks of sub-epsilon progress
+                    // would each look unchanged, and slow progress would never be written.
+                    next.setProgress(current.getProgress());
+                }
+            } else if (!Objects.equals(field.valueOf(current), field.valueOf(next))) {
+                changed.add(field);
+            }
+        }
+        return new TorrentDelta(next, changed);
+    }
+
+    // Sub-epsilon jitter is ignored, but reaching 100% is always written so completion
+    // never hides behind the tolerance.
+    private boolean progressChanged(double before, double after) {
+        if (before < 100.0 && after >= 100.0) return true;
+        return Math.abs(after - before) > progressEpsilon;
+    }
+
+    /** False only when applying {@code t} would leave every reported column as it is. */
+    private boolean mayChange(Torrent current, EngineTelemetry t) {
+        if (t.has(TelemetryField.TITLE) && !Objects.equals(current.getTitle(), t.title())) return true;
+        if (t.has(TelemetryField.SIZE) && current.getSizeBytes() != t.sizeBytes()) return true;
+        if (t.has(TelemetryField.ETA)) {
+            Long stored = current.getEtaSeconds();
+            if (stored == null ? t.etaSeconds() > 0 : stored != t.etaSeconds()) return true;
+        }
+        if (t.has(TelemetryField.PEERS) && current.getPeers() != t.peers()) return true;
+        if (t.has(TelemetryField.PROGRESS)) {
+            double rounded = Math.round(t.progress() * 100.0) / 100.0;
+            if (progressChanged(current.getProgress(), rounded)) return true;
+            if (rounded >= 100.0 && current.getStatus() == TorrentStatus.DOWNLOADING) return true;
+        }
+        if (t.has(TelemetryField.DOWNLOAD_RATE) && current.getDownloadRate() != t.downloadRate()) return true;
+        if (t.has(TelemetryField.UPLOAD_RATE) && current.getUploadRate() != t.uploadRate()) return true;
+        if (t.has(TelemetryField.STATUS) && current.getStatus() == TorrentStatus.DOWNLOADING) {
+            return t.status() == TorrentStatus.SEEDING || t.status() == TorrentStatus.ERROR;
+        }
+        return false;
+    }
+
+    private void applyTelemetry(Torrent torrent, EngineTelemetry t) {
+        if (t.has(TelemetryField.TITLE)) torrent.setTitle(t.title());
+        if (t.has(TelemetryField.SIZE)) torrent.setSizeBytes(t.sizeBytes());
+        if (t.has(TelemetryField.ETA)) torrent.setEtaSeconds(eta(t));
+        if (t.has(TelemetryField.PEERS)) torrent.setPeers(t.peers());
+        if (t.has(TelemetryField.PROGRESS)) torrent.setProgress(t.progress());
+        if (t.has(TelemetryField.DOWNLOAD_RATE)) torrent.setDownloadRate(t.downloadRate());
+        if (t.has(TelemetryField.UPLOAD_RATE)) torrent.setUploadRate(t.uploadRate());
+        if (t.has(TelemetryField.STATUS)) handleStatusUpdate(torrent, t.status());
+    }
+
+    private static Long eta(EngineTelemetry t) {
+        return t.etaSeconds() > 0 ? t.etaSeconds() : null;
+    }
+
+    private void handleStatusUpdate(Torrent torrent, TorrentStatus engineStatus) {
+
+        switch (engineStatus) {
+
+            case SEEDING -> {
+                if (torrent.getStatus() == TorrentStatus.DOWNLOADING) {
+                    torrent.setStatus(TorrentStatus.SEEDING);
+                    torrent.setProgress(100.0);
+                    torrent.setDownloadRate(0);
+                    torrent.setEtaSeconds(null);
+                }
+            }
+
+            case ERROR -> {
+                if (torrent.getStatus() == TorrentStatus.DOWNLOADING) {
+                    torrent.setStatus(TorrentStatus.ERROR);
+                }
+            }
+
+            default -> {
+
+            }
+        }
+    }
+}
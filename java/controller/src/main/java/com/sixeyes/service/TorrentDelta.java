@@ -0,0 +1,21 @@
+package com.sixeyes.service;
+
+import com.sixeyes.model.TelemetryField;
+import com.sixeyes.model.Torrent;
+
+import java.util.Set;
+
+/**
+ * Result of comparing engine telemetry with the persisted row: {@code next} carries the
+ * merged state and {@code changed} lists the columns that actually differ.
+ */
+public record TorrentDelta(Torrent next, Set<TelemetryField> changed) {
+
+    public long id() {
+        return next.getId();
+    }
+
+    public boolean isEmpty() {
+        return changed.isEmpty();
+    }
+}
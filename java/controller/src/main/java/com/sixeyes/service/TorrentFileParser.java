@@ -0,0 +1,464 @@
+package com.sixeyes.service;
+
+import com.sixeyes.exception.InvalidTorrentFileException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reads a {@code .torrent} file (BEP 3, BEP 52) in one pass over a stream, without building
+ * a tree of the document. The bytes of the {@code info} dictionary are fed to SHA-1 and
+ * SHA-256 as they go past, which gives the v1 and v2 info hashes; only the handful of values
+ * the controller uses are materialised. Piece hashes and file paths are skipped in place.
+ *
+ * <p>Malformed input fails with {@link InvalidTorrentFileException}: bad syntax, nesting
+ * deeper than {@value #MAX_DEPTH}, or more than {@code maxBytes} of input.
+ */
+@Component
+public class TorrentFileParser {
+
+    static final int MAX_DEPTH = 64;
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final int MAX_KEY_LENGTH = 64;
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final long maxBytes;
+
+    @Autowired
+    public TorrentFileParser(@Value("${torrent-file.max-bytes:16777216}") long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public TorrentMetainfo parse(InputStream in) {
+        try {
+            return new Reader(in, maxBytes).torrent();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the .torrent upload", e);
+        }
+    }
+
+    private record Files(int count, long size) {}
+
+    private static final class Reader {
+        private final InputStream in;
+        private final long maxBytes;
+        private final byte[] buf = new byte[BUFFER_SIZE];
+        private int pos;
+        private int limit;
+        private long offset;          // stream position of buf[0]
+        private int depth;
+
+        // Set while inside the info dictionary; buf[hashFrom, pos) is consumed but not yet digested.
+        private MessageDigest sha1;
+        private MessageDigest sha256;
+        private int hashFrom;
+
+        Reader(InputStream in, long maxBytes) {
+            this.in = in;
+            this.maxBytes = maxBytes;
+        }
+
+        TorrentMetainfo torrent() throws IOException {
+            expect('d');
+            Set<String> trackers = new LinkedHashSet<>();
+            String announce = null;
+            List<String> webSeeds = List.of();
+            TorrentMetainfo info = null;
+            while (peek() != 'e') {
+                String key = key();
+                if ("info".equals(key)) {
+                    if (info != null) throw invalid("more than one info dictionary");
+                    info = info();
+                } else if ("announce".equals(key)) {
+                    announce = optionalString();
+                } else if ("announce-list".equals(key)) {
+                    announceList(trackers);
+                } else if ("url-list".equals(key)) {
+                    webSeeds = stringOrList();
+                } else {
+                    skip();
+                }
+            }
+            next();
+            if (info == null) throw invalid("no info dictionary");
+            // announce-list supersedes announce (BEP 12); announce is the fallback.
+            if (trackers.isEmpty() && announce != null && !announce.isEmpty()) trackers.add(announce);
+            return new TorrentMetainfo(info.name(), info.totalSize(), info.fileCount(),
+                    info.infoHashV1(), info.infoHashV2(), List.copyOf(trackers), webSeeds);
+        }
+
+        private TorrentMetainfo info() throws IOException {
+            if (peek() != 'd') throw invalid("info is not a dictionary");
+            startHashing();
+            next();
+            depth++;
+            String name = null;
+            String utf8Name = null;
+            Long length = null;
+            Files files = null;
+            Files tree = null;
+            long metaVersion = 1;
+            boolean pieces = false;
+            while (peek() != 'e') {
+                String key = key();
+                if (key == null) {
+                    skip();
+                    continue;
+                }
+                switch (key) {
+                    case "name" -> name = optionalString();
+                    case "name.utf-8" -> utf8Name = optionalString();
+                    case "length" -> length = optionalLong();
+                    case "files" -> files = fileList();
+                    case "file tree" -> tree = fileTree();
+                    case "meta version" -> metaVersion = orDefault(optionalLong(), 1L);
+                    case "pieces" -> {
+                        pieces = true;
+                        skip();
+                    }
+                    default -> skip();
+                }
+            }
+            next();
+            depth--;
+            byte[][] digests = stopHashing();
+
+            boolean v1 = pieces && (files != null || length != null);
+            boolean v2 = metaVersion == 2 && tree != null;
+            if (!v1 && !v2) throw invalid("info describes no files");
+            if (utf8Name != null && !utf8Name.isEmpty()) name = utf8Name;
+            if (name == null || name.isEmpty()) throw invalid("info has no name");
+            if (length != null && length < 0) throw invalid("negative length");
+
+            Files described = files != null ? files
+                    : length != null ? new Files(1, length)
+                    : tree;
+            return new TorrentMetainfo(name, described.size(), described.count(),
+                    v1 ? HEX.formatHex(digests[0]) : null,
+                    v2 ? HEX.formatHex(digests[1]) : null,
+                    List.of(), List.of());
+        }
+
+        // v1 multi-file: a list of {length, path, attr?}; padding files ('p' in attr) are not real data.
+        private Files fileList() throws IOException {
+            if (peek() != 'l') {
+                skip();
+                return null;
+            }
+            next();
+            depth++;
+            int count = 0;
+            long size = 0;
+            while (peek() != 'e') {
+                if (peek() != 'd') {
+                    skip();
+                    continue;
+                }
+                next();
+                depth++;
+                Long length = null;
+                String attr = null;
+                while (peek() != 'e') {
+                    String key = key();
+                    if ("length".equals(key)) length = optionalLong();
+                    else if ("attr".equals(key)) attr = optionalString();
+                    else skip();
+                }
+                next();
+                depth--;
+                if (length == null || length < 0) throw invalid("file without a valid length");
+                if (attr != null && attr.indexOf('p') >= 0) continue;
+                count++;
+                size = add(size, length);
+            }
+            next();
+            depth--;
+            return new Files(count, size);
+        }
+
+        // v2: nested dictionaries keyed by path element; a file is the entry under the empty key.
+        private Files fileTree() throws IOException {
+            if (peek() != 'd') {
+                skip();
+                return null;
+            }
+            long[] tally = new long[2];
+            tree(tally);
+            if (tally[0] > Integer.MAX_VALUE) throw invalid("too many files");
+            return new Files((int) tally[0], tally[1]);
+        }
+
+        private void tree(long[] tally) throws IOException {
+            enter();
+            while (peek() != 'e') {
+                long keyLength = keyLength();
+                skipBytes(keyLength);
+                boolean file = keyLength == 0;
+                if (peek() != 'd') {
+                    skip();
+                } else if (file) {
+                    fileEntry(tally);
+                } else {
+                    tree(tally);
+                }
+            }
+            next();
+            depth--;
+        }
+
+        private void fileEntry(long[] tally) throws IOException {
+            enter();
+            Long length = null;
+            while (peek() != 'e') {
+                if ("length".equals(key())) length = optionalLong();
+                else skip();
+            }
+            next();
+            depth--;
+            if (length == null || length < 0) throw invalid("file without a valid length");
+            tally[0]++;
+            tally[1] = add(tally[1], length);
+        }
+
+        private void announceList(Set<String> trackers) throws IOException {
+            if (peek() != 'l') {
+                skip();
+                return;
+            }
+            next();
+            depth++;
+            while (peek() != 'e') {
+                for (String tracker : stringOrList()) {
+                    if (!tracker.isEmpty()) trackers.add(tracker);
+                }
+            }
+            next();
+            depth--;
+        }
+
+        private List<String> stringOrList() throws IOException {
+            int c = peek();
+            if (isDigit(c)) return List.of(string(length()));
+            if (c != 'l') {
+                skip();
+                return List.of();
+            }
+            next();
+            depth++;
+            List<String> values = new ArrayList<>();
+            while (peek() != 'e') {
+                String value = optionalString();
+                if (value != null && !value.isEmpty()) values.add(value);
+            }
+            next();
+            depth--;
+            return values;
+        }
+
+        /** A dictionary key; null for one too long to be a key we look for (it is skipped). */
+        private String key() throws IOException {
+            long length = keyLength();
+            if (length > MAX_KEY_LENGTH) {
+                skipBytes(length);
+                return null;
+            }
+            return string(length);
+        }
+
+        private long keyLength() throws IOException {
+            int c = peek();
+            if (!isDigit(c)) throw invalid(c < 0 ? "truncated" : "dictionary key is not a string");
+            return length();
+        }
+
+        private String optionalString() throws IOException {
+            if (!isDigit(peek())) {
+                skip();
+                return null;
+            }
+            return string(length());
+        }
+
+        private Long optionalLong() throws IOException {
+            if (peek() != 'i') {
+                skip();
+                return null;
+            }
+            next();
+            return integer();
+        }
+
+        /** Skips one value of any type. */
+        private void skip() throws IOException {
+            int c = peek();
+            if (isDigit(c)) {
+                skipBytes(length());
+            } else if (c == 'i') {
+                next();
+                integer();
+            } else if (c == 'l') {
+                enter();
+                while (peek() != 'e') skip();
+                next();
+                depth--;
+            } else if (c == 'd') {
+                enter();
+                while (peek() != 'e') {
+                    skipBytes(keyLength());
+                    skip();
+                }
+                next();
+                depth--;
+            } else {
+                throw invalid(c < 0 ? "truncated" : "unexpected byte 0x" + Integer.toHexString(c));
+            }
+        }
+
+        private void enter() throws IOException {
+            next();
+            if (++depth > MAX_DEPTH) throw invalid("nested deeper than " + MAX_DEPTH);
+        }
+
+        // <digits> ':' — no sign, no leading zeros.
+        private long length() throws IOException {
+            long value = digits(':');
+            if (value > maxBytes - position()) throw invalid("string runs past the end of the file");
+            return value;
+        }
+
+        // After 'i': ['-'] <digits> 'e'; "-0" and leading zeros are not canonical.
+        private long integer() throws IOException {
+            boolean negative = peek() == '-';
+            if (negative) next();
+            long value = digits('e');
+            if (negative && value == 0) throw invalid("negative zero");
+            return negative ? -value : value;
+        }
+
+        private long digits(char terminator) throws IOException {
+            int c = next();
+            if (!isDigit(c)) throw invalid("expected a digit");
+            long value = c - '0';
+            boolean leadingZero = value == 0;
+            while ((c = next()) != terminator) {
+                if (!isDigit(c)) throw invalid("expected a digit or '" + terminator + "'");
+                if (leadingZero) throw invalid("leading zero");
+                if (value > (Long.MAX_VALUE - (c - '0')) / 10) throw invalid("number out of range");
+                value = value * 10 + (c - '0');
+            }
+            return value;
+        }
+
+        private String string(long length) throws IOException {
+            byte[] bytes = new byte[(int) length];
+            int copied = 0;
+            while (copied < length) {
+                if (pos == limit && !fill()) throw invalid("truncated");
+                int n = Math.min(limit - pos, bytes.length - copied);
+                System.arraycopy(buf, pos, bytes, copied, n);
+                pos += n;
+                copied += n;
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private void skipBytes(long length) throws IOException {
+            while (length > 0) {
+                if (pos == limit && !fill()) throw invalid("truncated");
+                int n = (int) Math.min(limit - pos, length);
+                pos += n;
+                length -= n;
+            }
+        }
+
+        private void expect(char c) throws IOException {
+            if (next() != c) throw invalid("expected '" + c + "'");
+        }
+
+        private int peek() throws IOException {
+            if (pos == limit && !fill()) return -1;
+            return buf[pos] & 0xff;
+        }
+
+        private int next() throws IOException {
+            int c = peek();
+            if (c < 0) throw invalid("truncated");
+            pos++;
+            return c;
+        }
+
+        private boolean fill() throws IOException {
+            digestConsumed();
+            offset += limit;
+            pos = 0;
+            limit = 0;
+            hashFrom = 0;
+            int n = in.read(buf);
+            if (n <= 0) return false;
+            if (offset + n > maxBytes) throw invalid("larger than " + maxBytes + " bytes");
+            limit = n;
+            return true;
+        }
+
+        private long position() {
+            return offset + pos;
+        }
+
+        private void startHashing() {
+            try {
+                sha1 = MessageDigest.getInstance("SHA-1");
+                sha256 = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+            hashFrom = pos;
+        }
+
+        private byte[][] stopHashing() {
+            digestConsumed();
+            byte[][] digests = {sha1.digest(), sha256.digest()};
+            sha1 = null;
+            sha256 = null;
+            return digests;
+        }
+
+        private void digestConsumed() {
+            if (sha1 == null || pos == hashFrom) return;
+            sha1.update(buf, hashFrom, pos - hashFrom);
+            sha256.update(buf, hashFrom, pos - hashFrom);
+            hashFrom = pos;
+        }
+
+        private InvalidTorrentFileException invalid(String reason) {
+            return new InvalidTorrentFileException(reason + " at byte " + position());
+        }
+
+        private static long add(long total, long length) {
+            try {
+                return Math.addExact(total, length);
+            } catch (ArithmeticException e) {
+                throw new InvalidTorrentFileException("total size out of range");
+            }
+        }
+
+        private static boolean isDigit(int c) {
+            return c >= '0' && c <= '9';
+        }
+
+        private static <T> T orDefault(T value, T fallback) {
+            return value != null ? value : fallback;
+        }
+    }
+}
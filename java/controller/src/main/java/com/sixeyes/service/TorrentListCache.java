@@ -0,0 +1,92 @@
+package com.sixeyes.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sixeyes.dto.response.TorrentResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The {@code /torrents/get} body, serialized once per live-store version as JSON bytes
+ * plus a gzip copy, and handed unchanged to every request until the version moves. The
+ * first request after a sync changes the list rebuilds it; concurrent ones wait for that
+ * build rather than serializing the same list again.
+ */
+@Component
+public class TorrentListCache {
+
+    /** One immutable encoding of the list at {@code version}. Callers must not modify the arrays. */
+    public record Encoded(long version, byte[] json, byte[] gzip) {
+
+        public String etag(boolean gzipped) {
+            return "\"" + version + (gzipped ? "-gz" : "") + "\"";
+        }
+    }
+
+    public record Stats(long builds, long hits) {}
+
+    private final TorrentLiveStore liveStore;
+    private final ObjectMapper objectMapper;
+    private final ReentrantLock buildLock = new ReentrantLock();
+    private volatile Encoded current;
+
+    private final LongAdder builds = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+
+    public TorrentListCache(TorrentLiveStore liveStore, ObjectMapper objectMapper) {
+        this.liveStore = liveStore;
+        this.objectMapper = objectMapper;
+    }
+
+    public Encoded current() {
+        Encoded cached = current;
+        if (cached != null && cached.version() == liveStore.version()) {
+            hits.increment();
+            return cached;
+        }
+        buildLock.lock();
+        try {
+            // Read the version before the list, so a racing change leaves this one stale, never ahead.
+            long version = liveStore.version();
+            cached = current;
+            if (cached != null && cached.version() == version) {
+                hits.increment();
+                return cached;
+            }
+            byte[] json = serialize(liveStore.all().stream().map(TorrentResponse::from).toList());
+            builds.increment();
+            return current = new Encoded(version, json, gzip(json));
+        } finally {
+            buildLock.unlock();
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(builds.sum(), hits.sum());
+    }
+
+    private byte[] serialize(List<TorrentResponse> torrents) {
+        try {
+            return objectMapper.writeValueAsBytes(torrents);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unserializable torrent list", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 8 + 64);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out, 8192)) {
+            gz.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,279 @@
+package com.sixeyes.service;
+
+import com.sixeyes.model.TelemetryField;
+import com.sixeyes.model.Torrent;
+import com.sixeyes.model.TorrentStatus;
+import com.sixeyes.repo.TorrentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * In-memory view of every tracked torrent, keyed by id. Engine telemetry lands here
+ * first; the database only sees lifecycle changes and periodic checkpoints of the
+ * volatile fields (speeds, peers, eta, progress).
+ *
+ * <p>Entries are detached snapshots that are replaced, never mutated, so readers can
+ * hand them out without copying.
+ *
+ * <p>Every visible change (telemetry, lifecycle save, add, remove) takes the next value
+ * of one store-wide counter and stamps it on the row, so clients can ask for what
+ * changed since a version. Removals leave a bounded set of tombstones. The counter
+ * starts from the boot time in microseconds, so versions stay increasing across
+ * restarts, and anything older than this process gets a full list instead of a diff.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TorrentLiveStore {
+
+    private record Entry(Torrent state, Set<TelemetryField> dirty) {}
+
+    private final TorrentRepository torrentRepository;
+
+    /** What changed after a version: rows to upsert and ids to delete, or everything when {@code full}. */
+    public record Changes(long version, boolean full, List<Torrent> upserted, List<Long> removed) {}
+
+    /** Session-wide throughput in bytes/s. */
+    public record SessionRates(long download, long upload) {}
+
+    static final int TOMBSTONE_CAPACITY = 4096;
+
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    private final long bootVersion = System.currentTimeMillis() * 1000;
+    private final AtomicLong version = new AtomicLong(bootVersion);
+    // Mutations share the read lock; changesSince() takes the write lock so no change is
+    // half-applied (version taken, entry not yet visible) while it scans.
+    private final ReentrantReadWriteLock cut = new ReentrantReadWriteLock();
+    private final LinkedHashMap<Long, Long> tombstones = new LinkedHashMap<>();
+    private long tombstoneFloor = bootVersion;
+
+    // Session throughput in bytes/s, adjusted by the difference whenever a row is replaced.
+    private final AtomicLong downloadRate = new AtomicLong();
+    private final AtomicLong uploadRate = new AtomicLong();
+
+    public List<Torrent> all() {
+        ensureLoaded();
+        return entries.values().stream()
+                .map(Entry::state)
+                .sorted(Comparator.comparing(Torrent::getId))
+                .toList();
+    }
+
+    public List<Torrent> withStatus(Collection<TorrentStatus> statuses) {
+        ensureLoaded();
+        return entries.values().stream()
+                .map(Entry::state)
+                .filter(t -> statuses.contains(t.getStatus()))
+                .toList();
+    }
+
+    public Optional<Torrent> get(long id) {
+        ensureLoaded();
+        Entry entry = entries.get(id);
+        return entry != null ? Optional.of(entry.state()) : Optional.empty();
+    }
+
+    /**
+     * Records a freshly persisted row; it replaces the live view and clears its dirty set.
+     * Returns the stored state, which carries the new change version.
+     */
+    public Torrent upsert(Torrent persisted) {
+        ensureLoaded();
+        Torrent state = persisted.snapshot();
+        cut.readLock().lock();
+        try {
+            state.setChangeVersion(version.incrementAndGet());
+            Entry previous = entries.put(persisted.getId(), new Entry(state, Set.of()));
+            account(previous != null ? previous.state() : null, state);
+        } finally {
+            cut.readLock().unlock();
+        }
+        return state;
+    }
+
+    public void remove(long id) {
+        ensureLoaded();
+        cut.readLock().lock();
+        try {
+            Entry removed = entries.remove(id);
+            if (removed == null) return;
+            account(removed.state(), null);
+            long removedAt = version.incrementAndGet();
+            synchronized (tombstones) {
+                tombstones.put(id, removedAt);
+                if (tombstones.size() > TOMBSTONE_CAPACITY) {
+                    Iterator<Map.Entry<Long, Long>> oldest = tombstones.entrySet().iterator();
+                    tombstoneFloor = oldest.next().getValue();
+                    oldest.remove();
+                }
+            }
+        } finally {
+            cut.readLock().unlock();
+        }
+    }
+
+    /** Current store-wide version; it moves whenever any row visibly changes. */
+    public long version() {
+        ensureLoaded();
+        return version.get();
+    }
+
+    /**
+     * Total download rate of downloading torrents and upload rate of all torrents, in
+     * bytes/s. Kept as running sums, so this is O(1) however many torrents are tracked.
+     */
+    public SessionRates sessionRates() {
+        ensureLoaded();
+        return new SessionRates(downloadRate.get(), uploadRate.get());
+    }
+
+    /**
+     * Rows changed and ids removed after {@code since}. Versions from another process, or
+     * older than the oldest tombstone still kept, can't be diffed and get a full list.
+     */
+    public Changes changesSince(long since) {
+        ensureLoaded();
+        cut.writeLock().lock();
+        try {
+            long current = version.get();
+            boolean full;
+            synchronized (tombstones) {
+                full = since < tombstoneFloor || since > current;
+            }
+            if (full) return new Changes(current, true, all(), List.of());
+
+            List<Torrent> upserted = entries.values().stream()
+                    .map(Entry::state)
+                    .filter(t -> t.getChangeVersion() > since)
+                    .sorted(Comparator.comparing(Torrent::getId))
+                    .toList();
+            List<Long> removed;
+            synchronized (tombstones) {
+                removed = tombstones.entrySet().stream()
+                        .filter(e -> e.getValue() > since)
+                        .map(Map.Entry::getKey)
+                        .toList();
+            }
+            return new Changes(current, false, upserted, removed);
+        } finally {
+            cut.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Copies the live volatile fields onto an entity loaded from the database, so a save
+     * made on a lifecycle transition doesn't write back stale checkpoint values.
+     */
+    public void mergeInto(Torrent entity) {
+        get(entity.getId()).ifPresent(live -> {
+            entity.setProgress(live.getProgress());
+            entity.setDownloadRate(live.getDownloadRate());
+            entity.setUploadRate(live.getUploadRate());
+            entity.setPeers(live.getPeers());
+            entity.setEtaSeconds(live.getEtaSeconds());
+        });
+    }
+
+    /**
+     * Atomically runs {@code detector} against the current entry and, if it reports
+     * changes, swaps in the new state and marks those fields dirty. A {@code null} from
+     * the detector leaves the entry alone.
+     */
+    public TorrentDelta applyTelemetry(long id, Function<Torrent, TorrentDelta> detector) {
+        ensureLoaded();
+        TorrentDelta[] result = new TorrentDelta[1];
+        cut.readLock().lock();
+        try {
+            entries.computeIfPresent(id, (key, entry) -> {
+                TorrentDelta delta = detector.apply(entry.state());
+                result[0] = delta;
+                if (delta == null || delta.isEmpty()) return entry;
+                delta.next().setChangeVersion(version.incrementAndGet());
+                account(entry.state(), delta.next());
+                return new Entry(delta.next(), union(entry.dirty(), delta.changed()));
+            });
+        } finally {
+            cut.readLock().unlock();
+        }
+        return result[0];
+    }
+
+    /**
+     * Takes every entry with unpersisted changes and clears its dirty set. With
+     * {@code lifecycleOnly}, only rows carrying a lifecycle change are drained.
+     */
+    public List<TorrentDelta> drainDirty(boolean lifecycleOnly) {
+        List<TorrentDelta> drained = new ArrayList<>();
+        for (Long id : entries.keySet()) {
+            entries.computeIfPresent(id, (key, entry) -> {
+                if (entry.dirty().isEmpty()) return entry;
+                if (lifecycleOnly && entry.dirty().stream().noneMatch(TelemetryField::isLifecycle)) return entry;
+                drained.add(new TorrentDelta(entry.state(), entry.dirty()));
+                return new Entry(entry.state(), Set.of());
+            });
+        }
+        return drained;
+    }
+
+    /** Puts drained changes back after a failed write so the next flush retries them. */
+    public void markDirty(List<TorrentDelta> deltas) {
+        for (TorrentDelta delta : deltas) {
+            entries.computeIfPresent(delta.id(), (key, entry) ->
+                    new Entry(entry.state(), union(entry.dirty(), delta.changed())));
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) return;
+        loadLock.lock();
+        try {
+            if (loaded) return;
+            torrentRepository.findAll().forEach(t -> {
+                Torrent state = t.snapshot();
+                state.setChangeVersion(bootVersion);
+                entries.put(t.getId(), new Entry(state, Set.of()));
+                account(null, state);
+            });
+            loaded = true;
+            log.info("Live torrent store loaded with {} torrent(s)", entries.size());
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private void account(Torrent before, Torrent after) {
+        downloadRate.addAndGet(downloadContribution(after) - downloadContribution(before));
+        uploadRate.addAndGet((after != null ? after.getUploadRate() : 0) - (before != null ? before.getUploadRate() : 0));
+    }
+
+    private static long downloadContribution(Torrent t) {
+        return t != null && t.getStatus() == TorrentStatus.DOWNLOADING ? t.getDownloadRate() : 0;
+    }
+
+    private static Set<TelemetryField> union(Set<TelemetryField> a, Set<TelemetryField> b) {
+        EnumSet<TelemetryField> merged = EnumSet.noneOf(TelemetryField.class);
+        merged.addAll(a);
+        merged.addAll(b);
+        return merged;
+    }
+}
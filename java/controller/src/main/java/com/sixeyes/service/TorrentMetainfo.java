@@ -0,0 +1,31 @@
+package com.sixeyes.service;
+
+import java.util.List;
+
+/**
+ * What the controller needs from a {@code .torrent} file, as read by {@link TorrentFileParser}.
+ * {@code infoHashV1} (SHA-1) is null for a v2-only torrent and {@code infoHashV2} (SHA-256)
+ * for a v1 torrent; a hybrid has both. Sizes and counts leave out BEP 47 padding files.
+ */
+public record TorrentMetainfo(
+        String name,
+        long totalSize,
+        int fileCount,
+        String infoHashV1,
+        String infoHashV2,
+        List<String> trackers,
+        List<String> webSeeds
+) {
+    /** The file's magnet, in the same canonical form as a pasted one. */
+    public MagnetLink link() {
+        return new MagnetLink(infoHashV1, infoHashV2, name, trackers, webSeeds);
+    }
+
+    public String infoHash() {
+        return link().infoHash();
+    }
+
+    public String magnet() {
+        return link().toUri();
+    }
+}
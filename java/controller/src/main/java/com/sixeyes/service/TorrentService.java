@@ -1,24 +1,57 @@
 package com.sixeyes.service;
 
+import com.sixeyes.dto.request.BatchCommandRequest;
+import com.sixeyes.dto.request.TorrentSearchRequest;
+import com.sixeyes.dto.request.TorrentSort;
+import com.sixeyes.dto.response.BatchItemResult;
+import com.sixeyes.dto.response.BatchItemResult.Outcome;
+import com.sixeyes.dto.response.BatchResponse;
+import com.sixeyes.dto.response.CommandAcceptedResponse;
 import com.sixeyes.dto.response.CompletedTorrentResponse;
 import com.sixeyes.dto.response.DiskInfo;
 import com.sixeyes.dto.response.InstallJob;
+import com.sixeyes.dto.response.SpeedHistoryResponse;
+import com.sixeyes.dto.response.TorrentChangesResponse;
 import com.sixeyes.dto.response.TorrentResponse;
+import com.sixeyes.event.InstallStatusChanged;
+import com.sixeyes.event.TorrentEventBus;
+import com.sixeyes.event.TorrentRemoved;
+import com.sixeyes.event.TorrentStatusChanged;
 import com.sixeyes.exception.DuplicateMagnetException;
 import com.sixeyes.exception.InsufficientStorageException;
 import com.sixeyes.exception.InvalidMagnetException;
 import com.sixeyes.exception.TorrentNotFoundException;
+import com.sixeyes.model.EngineCommand;
+import com.sixeyes.model.EngineCommandType;
 import com.sixeyes.model.Torrent;
 import com.sixeyes.model.TorrentStatus;
+import com.sixeyes.repo.TorrentFilter;
 import com.sixeyes.repo.TorrentRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -29,169 +62,505 @@ public class TorrentService {
     private final TorrentRepository torrentRepository;
     private final PythonClientService pythonClient;
     private final SettingsService settingsService;
+    private final TorrentLiveStore liveStore;
+    private final AdaptiveSyncScheduler syncScheduler;
+    private final SpeedHistory speedHistory;
+    private final TorrentEventBus eventBus;
+    private final InstallQueue installQueue;
+    private final EngineFanOut fanOut;
+    private final CatalogService catalogService;
+    private final EngineCommandOutbox commandOutbox;
+    private final TorrentFileParser torrentFileParser;
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_BATCH = 500;
+    private static final int MAX_TITLE = 255;
+    private static final double BYTES_PER_GB = 1024.0 * 1024 * 1024;
 
     @Value("${settings.min-free-gb:0.5}")
     private double minFreeGb;
 
-    public TorrentResponse addTorrent(String magnetLink) {
+    public CommandAcceptedResponse addTorrent(String magnetLink) {
         return addTorrent(magnetLink, null);
     }
 
-    public TorrentResponse addTorrent(String magnetLink, String requestedPath) {
-        if (magnetLink == null || !magnetLink.startsWith("magnet:")) {
-            throw new InvalidMagnetException(magnetLink);
-        }
-        if (torrentRepository.existsByMagnet(magnetLink)) {
+    /**
+     * Records the torrent and queues its engine add in {@link EngineCommandOutbox}; like the
+     * other single-torrent commands it answers once the state is committed, not once the
+     * engine has acted.
+     */
+    public CommandAcceptedResponse addTorrent(String magnetLink, String requestedPath) {
+        return add(MagnetLink.parse(magnetLink), 0, resolvePath(requestedPath), pythonClient::fetchDisks);
+    }
+
+    /**
+     * {@code sizeBytes} is known only for {@code .torrent} uploads (0 otherwise); it sizes the
+     * storage check. Duplicates are the same info hash, whatever trackers or order the magnet has.
+     */
+    private CommandAcceptedResponse add(MagnetLink link, long sizeBytes, String downloadPath,
+                                        Supplier<List<DiskInfo>> disks) {
+        if (torrentRepository.existsByInfoHash(link.infoHash())) {
             throw new DuplicateMagnetException();
         }
 
-        String downloadPath = (requestedPath != null && !requestedPath.isBlank())
-                ? requestedPath
-                : settingsService.getDownloadPath();
-        validateStorage(downloadPath);
+        validateStorage(downloadPath, disks.get(), sizeBytes);
 
-        Torrent newTorrent = new Torrent(magnetLink);
-        newTorrent.setSavePath(downloadPath);
-        Torrent torrent = torrentRepository.save(newTorrent);
-        pythonClient.startDownload(torrent.getId(), torrent.getMagnet(), downloadPath);
+        Torrent newTorrent = newTorrent(link, downloadPath);
+        newTorrent.setSizeBytes(sizeBytes);
+        Torrent torrent;
+        try {
+            torrent = torrentRepository.save(newTorrent);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent add of the same torrent got past the check above first.
+            if (TorrentRepository.isInfoHashConflict(e)) throw new DuplicateMagnetException();
+            throw e;
+        }
+        EngineCommand command = commandOutbox.enqueue(EngineCommandType.ADD, torrent, false);
+        TorrentResponse response = upsertLive(torrent);
+        eventBus.publish(new TorrentStatusChanged(torrent.getId(), null, torrent.getStatus()));
+        syncScheduler.wake();
 
-        log.info("Torrent added: id={} path={}", torrent.getId(), downloadPath);
-        return TorrentResponse.from(torrent);
+        log.info("Torrent added: id={} path={} command={}", torrent.getId(), downloadPath, command.getId());
+        return accepted(command, response);
     }
 
-    public TorrentResponse addTorrentFromFile(byte[] torrentBytes, String filename) {
-        return addTorrentFromFile(torrentBytes, filename, null);
+    public CommandAcceptedResponse addTorrentFromFile(InputStream torrentFile) {
+        return addTorrentFromFile(torrentFile, null);
     }
 
-    public TorrentResponse addTorrentFromFile(byte[] torrentBytes, String filename, String requestedPath) {
-        String magnet = pythonClient.magnetFromFile(torrentBytes, filename);
-        return addTorrent(magnet, requestedPath);
+    /**
+     * Reads the upload with {@link TorrentFileParser} and builds the magnet here, while the
+     * disk lookup runs alongside; the storage check then knows the torrent's size.
+     */
+    public CommandAcceptedResponse addTorrentFromFile(InputStream torrentFile, String requestedPath) {
+        String downloadPath = resolvePath(requestedPath);
+        return fanOut.both("addFile",
+                () -> torrentFileParser.parse(torrentFile),
+                pythonClient::fetchDisks,
+                (file, disks) -> add(file.link(), file.totalSize(), downloadPath, () -> disks));
     }
 
-    @Transactional(readOnly = true)
+    /** A row for a canonical magnet; the engine fills in the title later when the magnet has no name. */
+    private static Torrent newTorrent(MagnetLink link, String downloadPath) {
+        Torrent torrent = new Torrent(link.toUri());
+        torrent.setInfoHash(link.infoHash());
+        torrent.setSavePath(downloadPath);
+        if (link.name() != null) {
+            torrent.setTitle(link.name().length() > MAX_TITLE ? link.name().substring(0, MAX_TITLE) : link.name());
+        }
+        return torrent;
+    }
+
+    private String resolvePath(String requestedPath) {
+        return (requestedPath != null && !requestedPath.isBlank())
+                ? requestedPath
+                : settingsService.getDownloadPath();
+    }
+
+    // Served from the live store; SUPPORTS keeps dashboard polls off the connection pool.
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<TorrentResponse> getAllTorrents() {
-        return torrentRepository.findAll().stream()
+        return liveStore.all().stream()
                 .map(TorrentResponse::from)
                 .toList();
     }
 
-    @Transactional(readOnly = true)
+    /** Version of the torrent list; read it before the list so an ETag is never ahead of its body. */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public long getListVersion() {
+        return liveStore.version();
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public TorrentChangesResponse getChanges(long since) {
+        TorrentLiveStore.Changes changes = liveStore.changesSince(since);
+        return new TorrentChangesResponse(
+                changes.version(),
+                changes.full(),
+                changes.upserted().stream().map(TorrentResponse::from).toList(),
+                changes.removed());
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<CompletedTorrentResponse> getCompletedTorrents() {
-        return torrentRepository.findAll().stream()
+        return liveStore.all().stream()
                 .filter(Torrent::isCompleted)
                 .map(CompletedTorrentResponse::from)
                 .toList();
     }
 
-    public TorrentResponse pauseTorrent(Long id) {
+    /** One page of torrents from the database, filtered and sorted there. */
+    @Transactional(readOnly = true)
+    public Page<TorrentResponse> searchTorrents(TorrentSearchRequest request) {
+        return torrentRepository.search(filterOf(request), pageOf(request)).map(TorrentResponse::from);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<CompletedTorrentResponse> searchCompletedTorrents(TorrentSearchRequest request) {
+        return torrentRepository.search(filterOf(request).withCompletedOnly(), pageOf(request))
+                .map(CompletedTorrentResponse::from);
+    }
+
+    private static TorrentFilter filterOf(TorrentSearchRequest request) {
+        if (request.createdFrom() != null && request.createdTo() != null
+                && request.createdFrom().isAfter(request.createdTo())) {
+            throw new IllegalArgumentException("createdFrom must not be after createdTo");
+        }
+        return new TorrentFilter(
+                parseStatus(request.status()),
+                blankToNull(request.installStatus()),
+                blankToNull(request.title()),
+                request.createdFrom() != null ? request.createdFrom().atStartOfDay() : null,
+                request.createdTo() != null ? request.createdTo().plusDays(1).atStartOfDay() : null,
+                false);
+    }
+
+    private static PageRequest pageOf(TorrentSearchRequest request) {
+        Sort.Direction direction = request.dir() == null || request.dir().isBlank()
+                ? Sort.Direction.DESC
+                : Sort.Direction.fromString(request.dir());
+        return PageRequest.of(
+                request.page() != null ? request.page() : 0,
+                request.size() != null ? request.size() : DEFAULT_PAGE_SIZE,
+                Sort.by(direction, TorrentSort.fromParam(request.sort()).getProperty()));
+    }
+
+    // Unlike TorrentStatus.fromValue, an unknown status is a client error rather than DOWNLOADING.
+    private static TorrentStatus parseStatus(String value) {
+        if (value == null || value.isBlank()) return null;
+        for (TorrentStatus status : TorrentStatus.values()) {
+            if (status.name().equalsIgnoreCase(value.trim())) return status;
+        }
+        throw new IllegalArgumentException("Unknown status '" + value + "'");
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    public CommandAcceptedResponse pauseTorrent(Long id) {
         return halt(id, TorrentStatus.PAUSED);
     }
 
-    public TorrentResponse stopTorrent(Long id) {
+    public CommandAcceptedResponse stopTorrent(Long id) {
         return halt(id, TorrentStatus.STOPPED);
     }
 
-    
-    private TorrentResponse halt(Long id, TorrentStatus status) {
+    private CommandAcceptedResponse halt(Long id, TorrentStatus status) {
         Torrent torrent = findOrThrow(id);
-        try {
-            if (status == TorrentStatus.STOPPED) {
-                pythonClient.stop(torrent.getId(), torrent.getMagnet());
-            } else {
-                pythonClient.pause(torrent.getId(), torrent.getMagnet());
+        EngineCommand command = commandOutbox.enqueue(
+                status == TorrentStatus.STOPPED ? EngineCommandType.STOP : EngineCommandType.PAUSE, torrent, false);
+        changeStatus(torrent, status);
+        torrent.setDownloadRate(0);
+        torrent.setUploadRate(0);
+        torrent.setEtaSeconds(null);
+        log.info("Torrent {}: id={} command={}", status, id, command.getId());
+        syncScheduler.wake();
+        return accepted(command, saveLive(torrent));
+    }
+
+    /** An engine that lost the torrent has it re-added from the magnet when the command is delivered. */
+    public CommandAcceptedResponse resumeTorrent(Long id) {
+        Torrent torrent = findOrThrow(id);
+        EngineCommand command = commandOutbox.enqueue(EngineCommandType.RESUME, torrent, false);
+        changeStatus(torrent, torrent.isCompleted() ? TorrentStatus.SEEDING : TorrentStatus.DOWNLOADING);
+        log.info("Torrent resumed: id={} command={}", id, command.getId());
+        syncScheduler.wake();
+        return accepted(command, saveLive(torrent));
+    }
+
+    public CommandAcceptedResponse removeTorrent(Long id, boolean deleteFiles) {
+        Torrent torrent = findOrThrow(id);
+        EngineCommand command = commandOutbox.enqueue(EngineCommandType.REMOVE, torrent, deleteFiles);
+        torrentRepository.deleteById(id);
+        removeLive(id);
+        eventBus.publish(new TorrentRemoved(id));
+        syncScheduler.wake();
+        log.info("Torrent removed: id={} deleteFiles={} command={}", id, deleteFiles, command.getId());
+        return new CommandAcceptedResponse(command.getId(), id, null);
+    }
+
+    private static CommandAcceptedResponse accepted(EngineCommand command, TorrentResponse torrent) {
+        return new CommandAcceptedResponse(command.getId(), torrent.id(), torrent);
+    }
+
+    /**
+     * Adds magnets and catalog games together: one duplicate query (by info hash), one storage
+     * check and one insert. Bad items are reported per item; a full disk rejects the whole
+     * batch. Like {@link #addTorrent}, the engine adds are queued in the outbox.
+     */
+    public BatchResponse addTorrents(List<String> magnets, List<String> catalogUrls, String requestedPath) {
+        List<String> links = magnets != null ? magnets : List.of();
+        List<String> urls = catalogUrls != null ? catalogUrls : List.of();
+        if (links.isEmpty() && urls.isEmpty()) throw new IllegalArgumentException("Nothing to add");
+        if (links.size() + urls.size() > MAX_BATCH) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH + " torrents per batch");
+        }
+
+        List<BatchItemResult> results = new ArrayList<>();
+        Map<String, Pending> byHash = new LinkedHashMap<>();
+        for (String magnet : links) accept(magnet, magnet, byHash, results);
+        for (String url : urls) {
+            String magnet;
+            try {
+                magnet = catalogService.getDetails(url).magnet();
+            } catch (IllegalArgumentException e) {
+                results.add(BatchItemResult.failed(url, null, Outcome.INVALID, e.getMessage()));
+                continue;
             }
-        } catch (RuntimeException e) {
-            log.warn("Engine {} failed for id={} (recording state anyway): {}",
-                    status, id, e.getMessage());
+            if (magnet == null) {
+                results.add(BatchItemResult.failed(url, null, Outcome.INVALID, "No magnet for this game"));
+                continue;
+            }
+            accept(url, magnet, byHash, results);
         }
-        torrent.setStatus(status);
-        torrent.setDownloadSpeed("0.00 MB/s");
-        torrent.setUploadSpeed("0.00 MB/s");
-        torrent.setEta(null);
-        log.info("Torrent {}: id={}", status, id);
-        return TorrentResponse.from(torrentRepository.save(torrent));
+        if (!byHash.isEmpty()) {
+            for (String existing : torrentRepository.findExistingInfoHashes(byHash.keySet())) {
+                results.add(BatchItemResult.failed(byHash.remove(existing).ref(), null,
+                        Outcome.DUPLICATE, "Torrent already exists"));
+            }
+        }
+        if (byHash.isEmpty()) return BatchResponse.of(results);
+
+        String downloadPath = resolvePath(requestedPath);
+        validateStorage(downloadPath, pythonClient.fetchDisks(), 0);
+
+        List<Torrent> saved;
+        try {
+            saved = torrentRepository.saveAll(byHash.values().stream()
+                    .map(pending -> newTorrent(pending.link(), downloadPath))
+                    .toList());
+        } catch (DataIntegrityViolationException e) {
+            if (TorrentRepository.isInfoHashConflict(e)) throw new DuplicateMagnetException();
+            throw e;
+        }
+        commandOutbox.enqueueAll(EngineCommandType.ADD, saved, false);
+        for (Torrent torrent : saved) {
+            upsertLive(torrent);
+            eventBus.publish(new TorrentStatusChanged(torrent.getId(), null, torrent.getStatus()));
+            results.add(BatchItemResult.ok(byHash.get(torrent.getInfoHash()).ref(), torrent.getId()));
+        }
+        syncScheduler.wake();
+
+        log.info("Batch add: {} added, path={}", saved.size(), downloadPath);
+        return BatchResponse.of(results);
     }
 
-    public TorrentResponse resumeTorrent(Long id) {
-        Torrent torrent = findOrThrow(id);
+    private record Pending(String ref, MagnetLink link) {}
+
+    private static void accept(String ref, String magnet, Map<String, Pending> byHash,
+                               List<BatchItemResult> results) {
+        MagnetLink link;
         try {
-            pythonClient.resume(torrent.getId(), torrent.getMagnet());
-        } catch (RuntimeException e) {
+            link = MagnetLink.parse(magnet);
+        } catch (InvalidMagnetException e) {
+            results.add(BatchItemResult.failed(ref, null, Outcome.INVALID, "Invalid magnet link"));
+            return;
+        }
+        if (byHash.putIfAbsent(link.infoHash(), new Pending(ref, link)) != null) {
+            results.add(BatchItemResult.failed(ref, null, Outcome.DUPLICATE, "Repeated in this batch"));
+        }
+    }
+
+    public BatchResponse pauseTorrents(BatchCommandRequest request) {
+        return haltAll(request, TorrentStatus.PAUSED);
+    }
 
-            log.info("Resume: engine missing id={}, re-adding from magnet", id);
-            pythonClient.startDownload(torrent.getId(), torrent.getMagnet(), torrent.getSavePath());
+    public BatchResponse stopTorrents(BatchCommandRequest request) {
+        return haltAll(request, TorrentStatus.STOPPED);
+    }
+
+    // Like halt(): the state is recorded now and each engine command is queued in the outbox,
+    // behind any command still pending for the same torrent.
+    private BatchResponse haltAll(BatchCommandRequest request, TorrentStatus status) {
+        List<BatchItemResult> results = new ArrayList<>();
+        List<Torrent> torrents = findAllTargets(request, results);
+        if (torrents.isEmpty()) return BatchResponse.of(results);
+        commandOutbox.enqueueAll(
+                status == TorrentStatus.STOPPED ? EngineCommandType.STOP : EngineCommandType.PAUSE, torrents, false);
+        for (Torrent torrent : torrents) {
+            changeStatus(torrent, status);
+            torrent.setDownloadRate(0);
+            torrent.setUploadRate(0);
+            torrent.setEtaSeconds(null);
+            results.add(BatchItemResult.ok(torrent.getId()));
         }
-        torrent.setStatus(torrent.isCompleted() ? TorrentStatus.SEEDING : TorrentStatus.DOWNLOADING);
-        log.info("Torrent resumed: id={}", id);
-        return TorrentResponse.from(torrentRepository.save(torrent));
+        saveAllLive(torrents);
+        syncScheduler.wake();
+        log.info("Batch {}: {} torrents", status, torrents.size());
+        return BatchResponse.of(results);
     }
 
-    public void removeTorrent(Long id, boolean deleteFiles) {
-        Torrent torrent = findOrThrow(id);
-        pythonClient.remove(torrent.getId(), torrent.getMagnet(), deleteFiles);
-        torrentRepository.deleteById(id);
-        log.info("Torrent removed: id={} deleteFiles={}", id, deleteFiles);
+    /** Like {@link #resumeTorrent}: a torrent the engine lost is re-added from its magnet on delivery. */
+    public BatchResponse resumeTorrents(BatchCommandRequest request) {
+        List<BatchItemResult> results = new ArrayList<>();
+        List<Torrent> torrents = findAllTargets(request, results);
+        if (torrents.isEmpty()) return BatchResponse.of(results);
+
+        commandOutbox.enqueueAll(EngineCommandType.RESUME, torrents, false);
+        for (Torrent torrent : torrents) {
+            changeStatus(torrent, torrent.isCompleted() ? TorrentStatus.SEEDING : TorrentStatus.DOWNLOADING);
+            results.add(BatchItemResult.ok(torrent.getId()));
+        }
+        saveAllLive(torrents);
+        syncScheduler.wake();
+        log.info("Batch resume: {} torrents", torrents.size());
+        return BatchResponse.of(results);
+    }
+
+    /** Like {@link #removeTorrent}: rows go now, and the outbox carries each remove to the engine. */
+    public BatchResponse removeTorrents(BatchCommandRequest request) {
+        List<BatchItemResult> results = new ArrayList<>();
+        List<Torrent> torrents = findAllTargets(request, results);
+        if (torrents.isEmpty()) return BatchResponse.of(results);
+
+        commandOutbox.enqueueAll(EngineCommandType.REMOVE, torrents, request.deleteFiles());
+        List<Long> removed = torrents.stream().map(Torrent::getId).toList();
+        torrentRepository.deleteAllByIdInBatch(removed);
+        for (Long id : removed) {
+            results.add(BatchItemResult.ok(id));
+            removeLive(id);
+            eventBus.publish(new TorrentRemoved(id));
+        }
+        syncScheduler.wake();
+        log.info("Batch remove: {} torrents, deleteFiles={}", removed.size(), request.deleteFiles());
+        return BatchResponse.of(results);
+    }
+
+    /** Explicit ids, or up to {@link #MAX_BATCH} rows matching the filter; unknown ids become NOT_FOUND. */
+    private List<Torrent> findAllTargets(BatchCommandRequest request, List<BatchItemResult> results) {
+        boolean hasIds = request.ids() != null && !request.ids().isEmpty();
+        if (hasIds == request.hasFilter()) {
+            throw new IllegalArgumentException("Give either ids or a filter (status, installStatus, title)");
+        }
+        Collection<Long> ids = hasIds
+                ? new LinkedHashSet<>(request.ids())
+                : torrentRepository.findIds(new TorrentFilter(
+                        parseStatus(request.status()),
+                        blankToNull(request.installStatus()),
+                        blankToNull(request.title()),
+                        null, null, false), MAX_BATCH);
+        Map<Long, Torrent> found = torrentRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Torrent::getId, Function.identity()));
+        List<Torrent> torrents = new ArrayList<>(found.size());
+        for (Long id : ids) {
+            Torrent torrent = found.get(id);
+            if (torrent == null) {
+                results.add(BatchItemResult.failed(String.valueOf(id), id, Outcome.NOT_FOUND, "Torrent not found"));
+                continue;
+            }
+            liveStore.mergeInto(torrent);
+            torrents.add(torrent);
+        }
+        return torrents;
+    }
+
+    /** Speed samples in {@code [from, to]}, downsampled to at most {@code points}. */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public SpeedHistoryResponse getHistory(Long id, long from, long to, int points) {
+        if (liveStore.get(id).isEmpty()) throw new TorrentNotFoundException(id);
+        SpeedHistory.Series raw = speedHistory.range(id, from, to);
+        return SpeedHistoryResponse.of(id, from, to, raw.size(), HistoryDownsampler.lttb(raw, points));
     }
 
     public TorrentResponse requestInstall(Long id) {
         Torrent torrent = findOrThrow(id);
-        torrent.setInstallStatus("REQUESTED");
-        torrent.setInstallMessage(null);
+        changeInstallStatus(torrent, "REQUESTED", null);
         log.info("Install requested: id={} path={}", id, torrent.getSavePath());
-        return TorrentResponse.from(torrentRepository.save(torrent));
+        return saveLive(torrent);
     }
 
     public TorrentResponse cancelInstall(Long id) {
         Torrent torrent = findOrThrow(id);
-        torrent.setInstallStatus("NONE");
-        torrent.setInstallMessage(null);
+        changeInstallStatus(torrent, "NONE", null);
         log.info("Install cancelled: id={}", id);
-        return TorrentResponse.from(torrentRepository.save(torrent));
+        return saveLive(torrent);
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<InstallJob> getInstallQueue() {
-        return torrentRepository.findByInstallStatus("REQUESTED").stream()
-                .map(t -> new InstallJob(t.getId(), t.getTitle(), t.getSavePath()))
-                .toList();
+        return installQueue.jobs();
     }
 
     public void updateInstallStatus(Long id, String status, String message) {
         Torrent torrent = findOrThrow(id);
+        changeInstallStatus(torrent, status, message);
+        saveLive(torrent);
+        log.info("Install status: id={} status={} msg={}", id, status, message);
+    }
+
+    // Events are held by the bus until the surrounding transaction commits.
+    private void changeStatus(Torrent torrent, TorrentStatus status) {
+        TorrentStatus before = torrent.getStatus();
+        torrent.setStatus(status);
+        if (before != status) eventBus.publish(new TorrentStatusChanged(torrent.getId(), before, status));
+    }
+
+    private void changeInstallStatus(Torrent torrent, String status, String message) {
+        String before = torrent.getInstallStatus();
+        boolean changed = !Objects.equals(before, status) || !Objects.equals(torrent.getInstallMessage(), message);
         torrent.setInstallStatus(status);
         torrent.setInstallMessage(message);
-        torrentRepository.save(torrent);
-        log.info("Install status: id={} status={} msg={}", id, status, message);
+        if (changed) eventBus.publish(new InstallStatusChanged(torrent.getId(), before, status, message));
     }
 
-    private void validateStorage(String downloadPath) {
-        List<DiskInfo> disks = pythonClient.fetchDisks();
+    // Disk figures are GiB; requiredBytes is 0 when the size is not known before the engine fetches metadata.
+    private void validateStorage(String downloadPath, List<DiskInfo> disks, long requiredBytes) {
+        double requiredGb = minFreeGb + requiredBytes / BYTES_PER_GB;
         disks.stream()
                 .filter(d -> downloadPath.startsWith(d.path()))
                 .max(Comparator.comparingInt(d -> d.path().length()))
                 .ifPresent(disk -> {
-                    if (disk.available() < minFreeGb) {
-                        throw new InsufficientStorageException(disk.path(), disk.available(), minFreeGb);
+                    if (disk.available() < requiredGb) {
+                        throw new InsufficientStorageException(disk.path(), disk.available(), requiredGb);
                     }
                 });
     }
 
+    // Loads the row with the live telemetry overlaid, so a lifecycle save also
+    // checkpoints the volatile fields instead of writing stale ones back.
     private Torrent findOrThrow(Long id) {
-        return torrentRepository.findById(id)
+        Torrent torrent = torrentRepository.findById(id)
                 .orElseThrow(() -> new TorrentNotFoundException(id));
+        liveStore.mergeInto(torrent);
+        return torrent;
     }
 
-    public static String formatSpeed(String raw) {
-        if (raw == null || raw.isBlank()) {
-            return "0.00 MB/s";
-        }
+    private TorrentResponse saveLive(Torrent torrent) {
+        return upsertLive(torrentRepository.save(torrent));
+    }
 
-        try {
-            double mbps = Double.parseDouble(raw.replace("MB/s", "").trim());
-            return String.format("%.2f MB/s", mbps);
+    private void saveAllLive(List<Torrent> torrents) {
+        torrentRepository.saveAll(torrents).forEach(this::upsertLive);
+    }
+
+    // The live view takes the row once it is committed, so a rollback never leaves it
+    // showing a torrent the database doesn't have. The response can't carry the change
+    // version the store will stamp; clients pick that up from the next change poll.
+    private TorrentResponse upsertLive(Torrent persisted) {
+        Torrent state = persisted.snapshot();
+        afterCommit(() -> liveStore.upsert(state));
+        return TorrentResponse.from(state);
+    }
+
+    private void removeLive(Long id) {
+        afterCommit(() -> {
+            liveStore.remove(id);
+            speedHistory.remove(id);
+        });
+    }
 
-        } catch (NumberFormatException e) {
-            return "0.00 MB/s";
+    // Same hand-off TorrentEventBus uses; runs now when there is no transaction.
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
         }
     }
 }
@@ -0,0 +1,397 @@
+package com.sixeyes.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sixeyes.dto.response.SystemInfoResponse;
+import com.sixeyes.dto.response.TorrentResponse;
+import com.sixeyes.event.TorrentEvent;
+import com.sixeyes.event.TorrentEventBus;
+import com.sixeyes.event.TorrentEventListener;
+import com.sixeyes.exception.StreamCapacityException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fans torrent and system state out to dashboard tabs over Server-Sent Events. A new
+ * subscriber gets one {@code snapshot}; after that only {@code torrent} (one changed row),
+ * {@code removed} and {@code system} events, batched once per flush interval.
+ *
+ * <p>Every event is serialized once and sent as the same string to all subscribers. Event
+ * ids are {@code <epoch>-<seq>}; a reconnect whose {@code Last-Event-ID} is still in the
+ * replay buffer gets the missed events instead of a new snapshot. Events are numbered and
+ * queued under one lock, so each subscriber sees them in id order with no gap after its
+ * snapshot; the socket writes happen outside it, one writer per subscriber draining a
+ * bounded queue. A subscriber that falls {@code subscriber-queue} events behind is dropped
+ * and resumes (or resnapshots) when it reconnects, so one stalled client never holds up
+ * the others or the scheduler.
+ */
+@Slf4j
+@Service
+public class TorrentStreamBroadcaster implements SmartLifecycle {
+
+    /** Where a subscriber's events go; {@link SseEmitter} in production. */
+    interface Sink {
+        void send(String id, String name, String data) throws IOException;
+
+        void comment(String text) throws IOException;
+
+        void close();
+    }
+
+    private record StreamEvent(long seq, String name, String data) {}
+
+    /** One queued write; {@code name == null} is a comment line. */
+    private record Frame(String id, String name, String data) {}
+
+    private final String epoch = UUID.randomUUID().toString().substring(0, 8);
+    private final TorrentLiveStore liveStore;
+    private final SystemInfoService systemInfoService;
+    private final TorrentEventBus eventBus;
+    private final ObjectMapper objectMapper;
+    private final int maxSubscribers;
+    private final int replayCapacity;
+    private final long timeoutMs;
+    private final int queueCapacity;
+    private final Executor writers;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private final Deque<StreamEvent> replay = new ArrayDeque<>();
+    // Orders numbering and queueing; nothing under it touches a socket.
+    private final ReentrantLock sendLock = new ReentrantLock();
+    private long seq;
+    private volatile boolean resnapshot;
+    private volatile SystemInfoResponse lastSystem;
+    private volatile TorrentEventBus.Subscription subscription;
+
+    @Autowired
+    public TorrentStreamBroadcaster(
+            TorrentLiveStore liveStore,
+            SystemInfoService systemInfoService,
+            TorrentEventBus eventBus,
+            ObjectMapper objectMapper,
+            @Value("${stream.max-subscribers:32}") int maxSubscribers,
+            @Value("${stream.replay-capacity:1024}") int replayCapacity,
+            @Value("${stream.timeout-ms:1800000}") long timeoutMs,
+            @Value("${stream.subscriber-queue:256}") int queueCapacity
+    ) {
+        this(liveStore, systemInfoService, eventBus, objectMapper, maxSubscribers, replayCapacity, timeoutMs,
+                queueCapacity, Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    TorrentStreamBroadcaster(TorrentLiveStore liveStore, SystemInfoService systemInfoService,
+                             TorrentEventBus eventBus, ObjectMapper objectMapper, int maxSubscribers,
+                             int replayCapacity, long timeoutMs, int queueCapacity, Executor writers) {
+        this.liveStore = liveStore;
+        this.systemInfoService = systemInfoService;
+        this.eventBus = eventBus;
+        this.objectMapper = objectMapper;
+        this.maxSubscribers = maxSubscribers;
+        this.replayCapacity = replayCapacity;
+        this.timeoutMs = timeoutMs;
+        this.queueCapacity = queueCapacity;
+        this.writers = writers;
+    }
+
+    @Override
+    public void start() {
+        subscription = eventBus.subscribe("torrent-stream", 1024, new TorrentEventListener() {
+            @Override
+            public void onEvent(TorrentEvent event) {
+                dirty.add(event.torrentId());
+            }
+
+            @Override
+            public void resync() {
+                resnapshot = true;
+            }
+        });
+    }
+
+    /**
+     * Runs in the first shutdown phase: completing the open streams lets the web server's
+     * graceful shutdown finish instead of waiting out its timeout on idle subscribers.
+     */
+    @Override
+    public void stop() {
+        if (subscription != null) subscription.close();
+        subscription = null;
+        subscribers.forEach(this::drop);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return subscription != null;
+    }
+
+    /** Opens an async SSE response; the request thread goes back to the pool straight away. */
+    public SseEmitter open(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Sink sink = new EmitterSink(emitter);
+        emitter.onCompletion(() -> forget(sink));
+        emitter.onTimeout(() -> forget(sink));
+        emitter.onError(e -> forget(sink));
+        register(sink, lastEventId);
+        return emitter;
+    }
+
+    /** Marks a torrent whose live state changed; it goes out with the next flush. */
+    public void touch(long torrentId) {
+        if (!subscribers.isEmpty()) dirty.add(torrentId);
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    void register(Sink sink, String lastEventId) {
+        sendLock.lock();
+        try {
+            if (subscribers.size() >= maxSubscribers) throw new StreamCapacityException(maxSubscribers);
+            Subscriber subscriber = new Subscriber(sink);
+            List<StreamEvent> missed = missedSince(lastEventId);
+            if (missed != null && missed.size() < queueCapacity) {
+                for (StreamEvent e : missed) subscriber.offer(new Frame(id(e.seq()), e.name(), e.data()));
+            } else {
+                subscriber.offer(new Frame(id(seq), "snapshot", snapshotJson()));
+            }
+            subscribers.add(subscriber);
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    /** Sends the rows that changed since the last flush. */
+    @Scheduled(fixedDelayString = "${stream.flush-interval-ms:1000}")
+    public void flush() {
+        if (subscribers.isEmpty()) {
+            dirty.clear();
+            resnapshot = false;
+            return;
+        }
+        if (resnapshot) {
+            resnapshot = false;
+            dirty.clear();
+            sendLock.lock();
+            try {
+                replay.clear();
+                broadcast(new StreamEvent(++seq, "snapshot", snapshotJson()), false);
+            } finally {
+                sendLock.unlock();
+            }
+            return;
+        }
+        if (dirty.isEmpty()) return;
+
+        List<Long> ids = new ArrayList<>(dirty);
+        dirty.removeAll(ids);
+        sendLock.lock();
+        try {
+            for (long id : ids) {
+                StreamEvent event = liveStore.get(id)
+                        .map(t -> new StreamEvent(++seq, "torrent", json(TorrentResponse.from(t))))
+                        .orElseGet(() -> new StreamEvent(++seq, "removed", json(Map.of("id", id))));
+                broadcast(event, true);
+            }
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    /** Refreshes system info once for all subscribers and sends it when it moved. */
+    @Scheduled(fixedDelayString = "${stream.system-interval-ms:5000}")
+    public void refreshSystem() {
+        if (subscribers.isEmpty()) return;
+        SystemInfoResponse current;
+        try {
+            current = systemInfoService.getSystemInfo();
+        } catch (RuntimeException e) {
+            log.debug("System info unavailable for stream: {}", e.getMessage());
+            return;
+        }
+        if (Objects.equals(current, lastSystem)) return;
+        lastSystem = current;
+        sendLock.lock();
+        try {
+            broadcast(new StreamEvent(++seq, "system", json(current)), true);
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    /** Comment line that keeps proxies from closing idle streams and detects dead clients. */
+    @Scheduled(fixedDelayString = "${stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        if (subscribers.isEmpty()) return;
+        Frame heartbeat = new Frame(null, null, "hb");
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.offer(heartbeat)) drop(subscriber);
+        }
+    }
+
+    // Callers hold sendLock.
+    private void broadcast(StreamEvent event, boolean replayable) {
+        if (replayable) {
+            replay.addLast(event);
+            while (replay.size() > replayCapacity) replay.removeFirst();
+        }
+        Frame frame = new Frame(id(event.seq()), event.name(), event.data());
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.offer(frame)) {
+                log.debug("Stream subscriber fell {} events behind; dropping it", queueCapacity);
+                drop(subscriber);
+            }
+        }
+    }
+
+    /** Events after {@code lastEventId}, or null when they can't be replayed. Caller holds sendLock. */
+    private List<StreamEvent> missedSince(String lastEventId) {
+        if (lastEventId == null || !lastEventId.startsWith(epoch + "-")) return null;
+        long last;
+        try {
+            last = Long.parseLong(lastEventId.substring(epoch.length() + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (last > seq) return null;
+        if (last < seq && (replay.isEmpty() || replay.peekFirst().seq() > last + 1)) return null;
+        List<StreamEvent> missed = new ArrayList<>();
+        for (StreamEvent e : replay) {
+            if (e.seq() > last) missed.add(e);
+        }
+        return missed;
+    }
+
+    private String snapshotJson() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("torrents", liveStore.all().stream().map(TorrentResponse::from).toList());
+        snapshot.put("system", lastSystem);
+        return json(snapshot);
+    }
+
+    private String id(long value) {
+        return epoch + "-" + value;
+    }
+
+    private void drop(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+        subscriber.close();
+    }
+
+    private void forget(Sink sink) {
+        subscribers.removeIf(s -> s.sink == sink);
+    }
+
+    private String json(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unserializable stream payload", e);
+        }
+    }
+
+    /**
+     * A sink with its own bounded queue. At most one writer task drains it at a time, so
+     * frames go out in queue order; {@link #close()} takes effect once a pending write returns.
+     */
+    private final class Subscriber {
+        private final Sink sink;
+        private final BlockingQueue<Frame> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closing = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Subscriber(Sink sink) {
+            this.sink = sink;
+        }
+
+        /** False when the queue is full; never blocks. */
+        boolean offer(Frame frame) {
+            if (closing.get()) return true;
+            if (!queue.offer(frame)) return false;
+            schedule();
+            return true;
+        }
+
+        void close() {
+            if (closing.compareAndSet(false, true)) schedule();
+        }
+
+        private void schedule() {
+            if (draining.compareAndSet(false, true)) writers.execute(this::drain);
+        }
+
+        private void drain() {
+            do {
+                Frame frame;
+                while (!closing.get() && (frame = queue.poll()) != null) {
+                    try {
+                        if (frame.name() == null) sink.comment(frame.data());
+                        else sink.send(frame.id(), frame.name(), frame.data());
+                    } catch (IOException e) {
+                        subscribers.remove(this);
+                        closing.set(true);
+                    }
+                }
+                if (closing.get() && !closed) {
+                    closed = true;
+                    queue.clear();
+                    sink.close();
+                }
+                draining.set(false);
+                // An offer or close that found us still draining relies on this re-check.
+            } while (!closed && (closing.get() || !queue.isEmpty()) && draining.compareAndSet(false, true));
+        }
+    }
+
+    // A send can race the container completing the response; treat that like a broken pipe.
+    private record EmitterSink(SseEmitter emitter) implements Sink {
+
+        @Override
+        public void send(String id, String name, String data) throws IOException {
+            send(SseEmitter.event().id(id).name(name).data(data));
+        }
+
+        @Override
+        public void comment(String text) throws IOException {
+            send(SseEmitter.event().comment(text));
+        }
+
+        private void send(SseEmitter.SseEventBuilder event) throws IOException {
+            try {
+                emitter.send(event);
+            } catch (IllegalStateException e) {
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public void close() {
+            emitter.complete();
+        }
+    }
+}
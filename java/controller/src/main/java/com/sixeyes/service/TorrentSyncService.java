@@ -1,142 +1,170 @@
 package com.sixeyes.service;
 
+import com.sixeyes.event.TorrentEventBus;
+import com.sixeyes.event.TorrentStatusChanged;
+import com.sixeyes.exception.EngineCircuitOpenException;
+import com.sixeyes.model.TelemetryField;
 import com.sixeyes.model.Torrent;
 import com.sixeyes.model.TorrentStatus;
-import com.sixeyes.repo.TorrentRepository;
+import com.sixeyes.repo.TorrentTelemetryWriter;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class TorrentSyncService {
 
-    private final TorrentRepository torrentRepository;
+    private static final Set<TorrentStatus> ACTIVE = Set.of(TorrentStatus.DOWNLOADING, TorrentStatus.SEEDING);
+
+    private final TorrentLiveStore liveStore;
     private final PythonClientService pythonClient;
+    private final TelemetryChangeDetector changeDetector;
+    private final TorrentTelemetryWriter telemetryWriter;
+    private final SpeedHistory speedHistory;
+    private final EngineReconciler reconciler;
+    private final TorrentEventBus eventBus;
+    private final TorrentStreamBroadcaster streamBroadcaster;
+
+    /**
+     * Outcome of one sync cycle: rows considered (and how many of those are downloading),
+     * rows whose live state changed, rows written to the database (lifecycle changes only;
+     * the rest wait for a checkpoint) and whether the engine call failed.
+     */
+    public record SyncReport(int active, int downloading, int changed, int written, boolean failed) {
+
+        static SyncReport failure(int active, int downloading) {
+            return new SyncReport(active, downloading, 0, 0, true);
+        }
 
-    @Scheduled(fixedDelayString = "${sync.interval-ms:3000}")
-    @Transactional
-    public void syncFromEngine() {
-        List<Torrent> active = torrentRepository.findByStatusIn(
-                List.of(TorrentStatus.DOWNLOADING, TorrentStatus.SEEDING)
-        );
-        if (active.isEmpty()) return;
+        public int skipped() {
+            return active - changed;
+        }
+    }
 
+    private volatile SyncReport lastReport = new SyncReport(0, 0, 0, 0, false);
+
+    /**
+     * Pulls engine telemetry into the live store. Seeding torrents are only diffed when
+     * {@code includeSeeding} is set, so fast cycles stay focused on active downloads.
+     *
+     * <p>Runs in stages and deliberately outside any transaction: fetch from the engine,
+     * diff in memory, then a short write transaction for lifecycle changes. Re-adding
+     * torrents the engine lost is handed to {@link EngineReconciler} in the background.
+     */
+    public SyncReport syncFromEngine(boolean includeSeeding) {
+        List<Torrent> active = liveStore.withStatus(ACTIVE);
+        int downloading = (int) active.stream().filter(t -> t.getStatus() == TorrentStatus.DOWNLOADING).count();
+        if (active.isEmpty()) return lastReport = new SyncReport(0, 0, 0, 0, false);
+
+        Set<TorrentStatus> due = includeSeeding ? ACTIVE : Set.of(TorrentStatus.DOWNLOADING);
         try {
-            Map<Long, Torrent> byId = active.stream()
-                    .collect(Collectors.toMap(Torrent::getId, t -> t));
-
-            Set<Long> engineIds = new HashSet<>();
-            pythonClient.fetchAllTorrentData().forEach(data -> {
-                if (data.get("id") instanceof Number n) {
-                    engineIds.add(n.longValue());
-                    Torrent torrent = byId.get(n.longValue());
-                    if (torrent != null) applyTelemetry(torrent, data);
-                }
+            LongHashSet engineIds = new LongHashSet(active.size());
+            int[] changed = {0};
+            pythonClient.fetchTelemetry(telemetry -> {
+                engineIds.add(telemetry.id());
+                if (apply(telemetry, due) != null) changed[0]++;
             });
 
-            torrentRepository.saveAll(active);
-            reconcileMissing(active, engineIds);
-            log.debug("Synced {} active torrent(s) from engine", active.size());
-
+            int written = flush(liveStore.drainDirty(true));
+            lastReport = new SyncReport(active.size(), downloading, changed[0], written, false);
+            List<Torrent> missing = active.stream()
+                    .filter(t -> t.getStatus() == TorrentStatus.DOWNLOADING && !engineIds.contains(t.getId()))
+                    .toList();
+            int readding = reconciler.reconcile(missing);
+            log.debug("Synced {} active torrent(s) from engine: {} changed, {} skipped, {} written, {} re-adding",
+                    active.size(), changed[0], active.size() - changed[0], written, readding);
+
+        } catch (EngineCircuitOpenException e) {
+            log.debug("Engine sync skipped: {}", e.getMessage());
+            lastReport = SyncReport.failure(active.size(), downloading);
         } catch (Exception e) {
             log.warn("Engine sync failed — will retry on next cycle: {}", e.getMessage());
+            lastReport = SyncReport.failure(active.size(), downloading);
         }
+        return lastReport;
     }
 
-
-    private void reconcileMissing(List<Torrent> active, Set<Long> engineIds) {
-        for (Torrent t : active) {
-            if (t.getStatus() == TorrentStatus.DOWNLOADING && !engineIds.contains(t.getId())) {
-                try {
-                    pythonClient.startDownload(t.getId(), t.getMagnet(), t.getSavePath());
-                    log.info("Reconcile: re-added missing torrent id={} to engine", t.getId());
-                } catch (Exception e) {
-                    log.warn("Reconcile: re-add failed for id={}: {}", t.getId(), e.getMessage());
-                }
-            }
-        }
+    /**
+     * Applies one telemetry record pushed by the engine stream. Lifecycle changes are
+     * written straight away, like a sync cycle would; the rest wait for a checkpoint.
+     */
+    public boolean applyPushed(Map<String, Object> data) {
+        EngineTelemetry telemetry = EngineTelemetry.fromMap(data);
+        if (!telemetry.hasId()) return false;
+        TorrentDelta delta = apply(telemetry, ACTIVE);
+        if (delta == null) return false;
+        if (delta.changed().stream().anyMatch(TelemetryField::isLifecycle)) flush(liveStore.drainDirty(true));
+        return true;
     }
 
-    private void applyTelemetry(Torrent torrent, Map<String, Object> data) {
-
-        data.forEach((key, value) -> {
-            if (value == null) return;
-
-            switch (key) {
-                case "title" -> torrent.setTitle(asString(value));
-                case "infoHash" -> torrent.setInfoHash(asString(value));
-                case "size" -> torrent.setSize(asString(value));
-                case "eta" -> torrent.setEta(asString(value));
-
-                case "peers" -> torrent.setPeers(asInt(value));
-                case "progress" -> torrent.setProgress(asDouble(value));
-
-                case "downloadSpeed" ->
-                        torrent.setDownloadSpeed(TorrentService.formatSpeed(asSpeedString(value)));
-
-                case "uploadSpeed" ->
-                        torrent.setUploadSpeed(TorrentService.formatSpeed(asSpeedString(value)));
-
-                case "status" ->
-                        handleStatusUpdate(torrent, asString(value));
-            }
-        });
-
-
-    }
-
-    private void handleStatusUpdate(Torrent torrent, String rawStatus) {
-        TorrentStatus engineStatus = TorrentStatus.fromValue(rawStatus);
-
-        switch (engineStatus) {
-
-            case SEEDING -> {
-                if (torrent.getStatus() == TorrentStatus.DOWNLOADING) {
-                    torrent.setStatus(TorrentStatus.SEEDING);
-                    torrent.setProgress(100.0);
-                    torrent.setDownloadSpeed("0.00 MB/s");
-                    torrent.setEta(null);
-                }
-            }
-
-            case ERROR -> {
-                if (torrent.getStatus() == TorrentStatus.DOWNLOADING) {
-                    torrent.setStatus(TorrentStatus.ERROR);
-                }
-            }
-
-            default -> {
-
-            }
+    /** Persists the volatile fields that changed since the last checkpoint. */
+    @Scheduled(fixedDelayString = "${sync.checkpoint-interval-ms:60000}",
+               initialDelayString = "${sync.checkpoint-interval-ms:60000}")
+    public void checkpoint() {
+        try {
+            int written = flush(liveStore.drainDirty(false));
+            if (written > 0) log.debug("Checkpointed telemetry for {} torrent(s)", written);
+        } catch (Exception e) {
+            log.warn("Telemetry checkpoint failed — will retry: {}", e.getMessage());
         }
     }
 
-    private String asString(Object o) {
-        return o instanceof String s ? s : null;
+    @PreDestroy
+    void checkpointOnShutdown() {
+        checkpoint();
     }
 
-
-    private String asSpeedString(Object o) {
-        if (o instanceof Number n) return n.toString();
-        return o instanceof String s ? s : null;
+    public SyncReport getLastReport() {
+        return lastReport;
     }
 
-    private int asInt(Object o) {
-        return o instanceof Number n ? n.intValue() : 0;
+    /**
+     * Diffs one engine record into the live store and samples the resulting speeds into
+     * the history; returns the delta, or null if nothing changed.
+     */
+    private TorrentDelta apply(EngineTelemetry telemetry, Set<TorrentStatus> due) {
+        long id = telemetry.id();
+        TorrentDelta delta = liveStore.applyTelemetry(id, t ->
+                due.contains(t.getStatus()) ? changeDetector.detect(t, telemetry) : null);
+        if (delta == null) return null;
+
+        Torrent state = delta.next();
+        speedHistory.record(id, System.currentTimeMillis(),
+                state.getDownloadRate(),
+                state.getUploadRate(),
+                state.getPeers());
+        if (delta.isEmpty()) return null;
+        streamBroadcaster.touch(id);
+        return delta;
     }
 
-    private double asDouble(Object o) {
-        return o instanceof Number n ? n.doubleValue() : 0.0;
+    /**
+     * Writes the deltas, then announces the status transitions among them. A failed write
+     * puts the deltas back, so their events go out with whichever flush commits them.
+     */
+    private int flush(List<TorrentDelta> deltas) {
+        if (deltas.isEmpty()) return 0;
+        int written;
+        try {
+            written = telemetryWriter.write(deltas);
+        } catch (RuntimeException e) {
+            liveStore.markDirty(deltas);
+            throw e;
+        }
+        for (TorrentDelta delta : deltas) {
+            // The detector only ever moves a torrent out of DOWNLOADING.
+            if (delta.changed().contains(TelemetryField.STATUS)) {
+                eventBus.publish(new TorrentStatusChanged(delta.id(), TorrentStatus.DOWNLOADING, delta.next().getStatus()));
+            }
+        }
+        return written;
     }
-
 }
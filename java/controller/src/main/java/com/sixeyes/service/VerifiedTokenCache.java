@@ -0,0 +1,81 @@
+package com.sixeyes.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Tokens that already passed the signature and expiry checks, keyed by the token's SHA-256
+ * so bearer tokens themselves are never kept in memory. An entry lives until the token's
+ * {@code exp} or {@code maxTtlMs}, whichever comes first. When full, expired entries are
+ * swept (at most once a second); if it is still full, new tokens just aren't cached.
+ */
+final class VerifiedTokenCache {
+
+    private static final long SWEEP_INTERVAL_MS = 1_000;
+
+    private record Entry(String subject, long expiresAt) {}
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int capacity;
+    private final long maxTtlMs;
+    private final LongSupplier clock;
+    private volatile long nextSweepAt;
+
+    VerifiedTokenCache(int capacity, long maxTtlMs) {
+        this(capacity, maxTtlMs, System::currentTimeMillis);
+    }
+
+    VerifiedTokenCache(int capacity, long maxTtlMs, LongSupplier clock) {
+        this.capacity = capacity;
+        this.maxTtlMs = maxTtlMs;
+        this.clock = clock;
+    }
+
+    /** Subject of a cached, unexpired token; null otherwise. */
+    String get(String token) {
+        if (capacity <= 0) return null;
+        String key = hash(token);
+        Entry entry = entries.get(key);
+        if (entry == null) return null;
+        if (entry.expiresAt() <= clock.getAsLong()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.subject();
+    }
+
+    void put(String token, String subject, long tokenExpiresAt) {
+        if (capacity <= 0) return;
+        long now = clock.getAsLong();
+        long expiresAt = Math.min(tokenExpiresAt, now + maxTtlMs);
+        if (expiresAt <= now) return;
+        if (entries.size() >= capacity && !sweep(now)) return;
+        entries.put(hash(token), new Entry(subject, expiresAt));
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /** Drops expired entries; true when there is room afterwards. */
+    private boolean sweep(long now) {
+        if (now >= nextSweepAt) {
+            nextSweepAt = now + SWEEP_INTERVAL_MS;
+            entries.values().removeIf(e -> e.expiresAt() <= now);
+        }
+        return entries.size() < capacity;
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+}
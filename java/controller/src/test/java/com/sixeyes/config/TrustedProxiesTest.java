@@ -0,0 +1,36 @@
+package com.sixeyes.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TrustedProxiesTest {
+
+    @Test
+    void noEntriesTrustsNobody() {
+        TrustedProxies proxies = new TrustedProxies("");
+
+        assertThat(proxies.contains("127.0.0.1")).isFalse();
+        assertThat(proxies.contains(null)).isFalse();
+    }
+
+    @Test
+    void matchesAddressesRangesAndHostNames() {
+        TrustedProxies proxies = new TrustedProxies(" 10.1.2.3 , 172.16.0.0/12, fd00::/8, localhost");
+
+        assertThat(proxies.contains("10.1.2.3")).isTrue();
+        assertThat(proxies.contains("10.1.2.4")).isFalse();
+        assertThat(proxies.contains("172.31.255.1")).isTrue();
+        assertThat(proxies.contains("172.32.0.1")).isFalse();
+        assertThat(proxies.contains("fd12::1")).isTrue();
+        assertThat(proxies.contains("fe80::1")).isFalse();
+        assertThat(proxies.contains("127.0.0.1")).isTrue();
+        assertThat(proxies.contains("203.0.113.7")).isFalse();
+    }
+
+    @Test
+    void rejectsAMalformedRange() {
+        assertThatThrownBy(() -> new TrustedProxies("10.0.0.0/33")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -1,5 +1,9 @@
 package com.sixeyes.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.sixeyes.config.BinaryCodecConfig;
 import com.sixeyes.dto.response.CatalogGameResponse;
 import com.sixeyes.service.CatalogService;
 import com.sixeyes.service.JwtService;
@@ -7,12 +11,15 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
@@ -20,6 +27,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(CatalogController.class)
+@Import(BinaryCodecConfig.class)
 class CatalogControllerTest {
 
     @Autowired MockMvc mvc;
@@ -63,6 +71,33 @@ class CatalogControllerTest {
                 .andExpect(jsonPath("$.magnet").value("magnet:?xt=urn:btih:DEF"));
     }
 
+    @Test
+    @WithMockUser
+    void game_negotiatesSmileAndCbor() throws Exception {
+        var game = new CatalogGameResponse(1L, "Elden Ring",
+                "https://fitgirl-repacks.site/elden-ring/",
+                "https://img.example.com/cover.jpg", "magnet:?xt=urn:btih:DEF", "30 GB",
+                null, "$59.99", 55.5, null, null, "FromSoftware", null);
+        when(service.getDetails("https://fitgirl-repacks.site/elden-ring/")).thenReturn(game);
+
+        var smile = MediaType.parseMediaType("application/x-jackson-smile");
+        assertThat(fetchGame(smile, new ObjectMapper(new SmileFactory()))).isEqualTo(game);
+        assertThat(fetchGame(MediaType.APPLICATION_CBOR, new ObjectMapper(new CBORFactory()))).isEqualTo(game);
+
+        mvc.perform(get("/catalog/game").param("url", "https://fitgirl-repacks.site/elden-ring/"))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    private CatalogGameResponse fetchGame(MediaType type, ObjectMapper reader) throws Exception {
+        byte[] body = mvc.perform(get("/catalog/game")
+                        .param("url", "https://fitgirl-repacks.site/elden-ring/")
+                        .accept(type))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(type))
+                .andReturn().getResponse().getContentAsByteArray();
+        return reader.readValue(body, CatalogGameResponse.class);
+    }
+
     @Test
     @WithMockUser
     void refresh_returns202() throws Exception {
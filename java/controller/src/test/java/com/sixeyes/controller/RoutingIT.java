@@ -1,5 +1,6 @@
 package com.sixeyes.controller;
 
+import com.sixeyes.service.JwtService;
 import com.sixeyes.service.PythonClientService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,6 +16,12 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.stream.Stream;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 /**
@@ -38,6 +45,9 @@ class RoutingIT {
     @MockitoBean
     PythonClientService pythonClient;
 
+    @Autowired
+    JwtService jwtService;
+
     private String url(String path) {
         return "http://localhost:" + port + path;
     }
@@ -67,6 +77,55 @@ class RoutingIT {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
     }
 
+    @Test
+    void torrentStreamOpensWithASnapshotForAuthenticatedClients() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url("/api/v1/torrents/stream")))
+                .header("Authorization", "Bearer " + jwtService.generate("admin"))
+                .header("Accept", "text/event-stream")
+                .build();
+
+        HttpResponse<Stream<String>> response = HttpClient.newHttpClient()
+                .send(request, HttpResponse.BodyHandlers.ofLines());
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        try (Stream<String> lines = response.body()) {
+            assertThat(lines.filter(l -> l.startsWith("event:")).findFirst()).hasValue("event:snapshot");
+        }
+    }
+
+    @Test
+    void torrentListAnswersNotModifiedForACurrentETag() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(jwtService.generate("admin"));
+        ResponseEntity<String> first = rest.exchange(url("/api/v1/torrents/get"), HttpMethod.GET,
+                new HttpEntity<>(headers), String.class);
+        assertThat(first.getHeaders().getETag()).isNotNull();
+        assertThat(first.getHeaders().getCacheControl()).contains("no-cache");
+
+        headers.setIfNoneMatch(first.getHeaders().getETag());
+        ResponseEntity<String> second = rest.exchange(url("/api/v1/torrents/get"), HttpMethod.GET,
+                new HttpEntity<>(headers), String.class);
+
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(second.getBody()).isNull();
+    }
+
+    @Test
+    void pageParameterSelectsTheDatabaseBackedList() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(jwtService.generate("admin"));
+
+        ResponseEntity<String> paged = rest.exchange(url("/api/v1/torrents/getCompleted?page=0&size=5&sort=size"),
+                HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        assertThat(paged.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(paged.getBody()).contains("\"content\"", "\"totalElements\":", "\"number\":0", "\"size\":5")
+                .doesNotContain("pageable");
+
+        ResponseEntity<String> badSort = rest.exchange(url("/api/v1/torrents/get?page=0&sort=magnet"),
+                HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        assertThat(badSort.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
     @Test
     void rootPathIsNotMapped() {
         // Without the /api/v1 prefix the endpoint must not resolve.
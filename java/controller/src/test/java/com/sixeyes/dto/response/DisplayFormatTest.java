@@ -0,0 +1,62 @@
+package com.sixeyes.dto.response;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Display formatting at the API edge")
+class DisplayFormatTest {
+
+    @ParameterizedTest(name = "{0} B/s → ''{1}''")
+    @CsvSource({
+            "0,         0.00 MB/s",
+            "5484052,   5.23 MB/s",
+            "1048576,   1.00 MB/s",
+            "104857600, 100.00 MB/s",
+            "11080302,  10.57 MB/s"
+    })
+    @DisplayName("formats rates as MB/s with two decimals")
+    void rate(long bytesPerSecond, String expected) {
+        assertEquals(expected.trim(), DisplayFormat.rate(bytesPerSecond));
+    }
+
+    @Test
+    @DisplayName("converts rates to MB/s for charts")
+    void rateMbps() {
+        assertEquals(2.5, DisplayFormat.rateMbps(2_621_440), 1e-9);
+    }
+
+    @ParameterizedTest(name = "{0} B → ''{1}''")
+    @CsvSource({
+            "0,          0 B",
+            "512,        512.0 B",
+            "1536,       1.5 KB",
+            "4509715660, 4.2 GB"
+    })
+    @DisplayName("formats sizes with a 1024-based unit")
+    void size(long bytes, String expected) {
+        assertEquals(expected.trim(), DisplayFormat.size(bytes));
+    }
+
+    @ParameterizedTest(name = "{0}s → ''{1}''")
+    @CsvSource({
+            "9,      9s",
+            "250,    4m 10s",
+            "3900,   1h 5m",
+            "183600, 2d 3h"
+    })
+    @DisplayName("formats eta with its two largest units")
+    void eta(long seconds, String expected) {
+        assertEquals(expected.trim(), DisplayFormat.eta(seconds));
+    }
+
+    @Test
+    @DisplayName("unknown eta stays null")
+    void unknownEta() {
+        assertNull(DisplayFormat.eta(null));
+        assertNull(DisplayFormat.eta(0L));
+    }
+}
@@ -0,0 +1,140 @@
+package com.sixeyes.event;
+
+import com.sixeyes.model.TorrentStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TorrentEventBusTest {
+
+    private final TorrentEventBus bus = new TorrentEventBus(10, 1);
+    private final BlockingQueue<TorrentEvent> received = new LinkedBlockingQueue<>();
+    private TorrentEventBus.Subscription subscription;
+
+    @AfterEach
+    void tearDown() {
+        if (subscription != null) subscription.close();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void deliversImmediatelyOutsideTransactions() throws InterruptedException {
+        subscription = bus.subscribe("test", 8, listener(received::add));
+        TorrentEvent event = new TorrentRemoved(1);
+        bus.publish(event);
+
+        assertThat(received.poll(2, TimeUnit.SECONDS)).isSameAs(event);
+    }
+
+    @Test
+    void holdsEventsUntilCommit() throws InterruptedException {
+        subscription = bus.subscribe("test", 8, listener(received::add));
+        TransactionSynchronizationManager.initSynchronization();
+        bus.publish(new TorrentStatusChanged(1, TorrentStatus.DOWNLOADING, TorrentStatus.PAUSED));
+
+        assertThat(received.poll(100, TimeUnit.MILLISECONDS)).isNull();
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+
+        assertThat(received.poll(2, TimeUnit.SECONDS))
+                .isInstanceOfSatisfying(TorrentStatusChanged.class, e -> assertThat(e.to()).isEqualTo(TorrentStatus.PAUSED));
+    }
+
+    @Test
+    void rolledBackEventsAreNeverDelivered() throws InterruptedException {
+        subscription = bus.subscribe("test", 8, listener(received::add));
+        TransactionSynchronizationManager.initSynchronization();
+        bus.publish(new TorrentRemoved(1));
+        TransactionSynchronizationUtils.invokeAfterCompletion(
+                TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(received.poll(200, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    void failingListenerIsRetried() throws InterruptedException {
+        AtomicInteger calls = new AtomicInteger();
+        subscription = bus.subscribe("test", 8, listener(event -> {
+            if (calls.incrementAndGet() < TorrentEventBus.MAX_ATTEMPTS) throw new IllegalStateException("boom");
+            received.add(event);
+        }));
+        bus.publish(new TorrentRemoved(7));
+
+        assertThat(received.poll(2, TimeUnit.SECONDS)).isNotNull();
+        assertThat(calls).hasValue(TorrentEventBus.MAX_ATTEMPTS);
+    }
+
+    @Test
+    void fullQueueAsksSubscriberToResync() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch resynced = new CountDownLatch(1);
+        subscription = bus.subscribe("slow", 1, new TorrentEventListener() {
+            @Override
+            public void onEvent(TorrentEvent event) throws InterruptedException {
+                release.await();
+            }
+
+            @Override
+            public void resync() {
+                resynced.countDown();
+            }
+        });
+        for (int i = 0; i < 4; i++) bus.publish(new TorrentRemoved(i));
+        release.countDown();
+
+        assertThat(resynced.await(2, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void anEventGivenUpOnAsksSubscriberToResyncUntilItSucceeds() throws InterruptedException {
+        AtomicInteger resyncs = new AtomicInteger();
+        CountDownLatch resynced = new CountDownLatch(1);
+        subscription = bus.subscribe("broken", 8, new TorrentEventListener() {
+            @Override
+            public void onEvent(TorrentEvent event) {
+                throw new IllegalStateException("boom");
+            }
+
+            @Override
+            public void resync() {
+                if (resyncs.incrementAndGet() < 2) throw new IllegalStateException("database down");
+                resynced.countDown();
+            }
+        });
+        bus.publish(new TorrentRemoved(3));
+
+        assertThat(resynced.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(resyncs).hasValue(2);
+    }
+
+    private interface EventHandler {
+        void handle(TorrentEvent event) throws Exception;
+    }
+
+    private static TorrentEventListener listener(EventHandler handler) {
+        return new TorrentEventListener() {
+            @Override
+            public void onEvent(TorrentEvent event) throws Exception {
+                handler.handle(event);
+            }
+
+            @Override
+            public void resync() {
+            }
+        };
+    }
+}
@@ -2,8 +2,6 @@ package com.sixeyes.model;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.params.ParameterizedTest;
-import org.junit.jupiter.params.provider.CsvSource;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -16,10 +14,11 @@ class TorrentTest {
     @DisplayName("has correct default values")
     void defaultValues() {
         Torrent t = new Torrent();
-        assertEquals("0 B", t.getSize());
+        assertEquals(0L, t.getSizeBytes());
         assertEquals(0.0, t.getProgress());
-        assertEquals("0.00 MB/s", t.getDownloadSpeed());
-        assertEquals("0.00 MB/s", t.getUploadSpeed());
+        assertEquals(0L, t.getDownloadRate());
+        assertEquals(0L, t.getUploadRate());
+        assertNull(t.getEtaSeconds());
         assertEquals(0, t.getPeers());
         assertEquals(TorrentStatus.DOWNLOADING, t.getStatus());
     }
@@ -31,74 +30,6 @@ class TorrentTest {
         assertEquals(magnet, new Torrent(magnet).getMagnet());
     }
 
-    // --- Speed formatting (bytes/s float from Python → "X.XX MB/s") ---
-
-    @ParameterizedTest(name = "''{0}'' → ''{1}''")
-    @CsvSource({
-            "5.23,      5.23 MB/s",
-            "5.23 MB/s, 5.23 MB/s",
-            "5.23MB/s,  5.23 MB/s",
-            "0,         0.00 MB/s",
-            "100,       100.00 MB/s",
-            "10.567,    10.57 MB/s",
-            "5.2,       5.20 MB/s",
-            "5.234567,  5.23 MB/s"
-    })
-    @DisplayName("formats download speed correctly")
-    void downloadSpeedFormatting(String input, String expected) {
-        Torrent t = new Torrent();
-        t.setDownloadSpeed(input.trim());
-        assertEquals(expected.trim(), t.getDownloadSpeed());
-    }
-
-    @ParameterizedTest(name = "''{0}'' → ''{1}''")
-    @CsvSource({
-            "2.45,      2.45 MB/s",
-            "2.45 MB/s, 2.45 MB/s",
-            "0.0,       0.00 MB/s",
-            "15.789,    15.79 MB/s"
-    })
-    @DisplayName("formats upload speed correctly")
-    void uploadSpeedFormatting(String input, String expected) {
-        Torrent t = new Torrent();
-        t.setUploadSpeed(input.trim());
-        assertEquals(expected.trim(), t.getUploadSpeed());
-    }
-
-    @Test
-    @DisplayName("null speed defaults to 0.00 MB/s")
-    void nullSpeedDefaultsToZero() {
-        Torrent t = new Torrent();
-        assertDoesNotThrow(() -> t.setDownloadSpeed(null));
-        assertDoesNotThrow(() -> t.setUploadSpeed(null));
-        assertEquals("0.00 MB/s", t.getDownloadSpeed());
-        assertEquals("0.00 MB/s", t.getUploadSpeed());
-    }
-
-    @Test
-    @DisplayName("invalid speed string defaults to 0.00 MB/s")
-    void invalidSpeedDefaultsToZero() {
-        Torrent t = new Torrent();
-        assertDoesNotThrow(() -> t.setDownloadSpeed("invalid"));
-        assertEquals("0.00 MB/s", t.getDownloadSpeed());
-    }
-
-    @Test
-    @DisplayName("speed format is idempotent (same result regardless of input format)")
-    void speedFormattingIdempotent() {
-        Torrent t = new Torrent();
-        t.setDownloadSpeed("5.23");
-        String r1 = t.getDownloadSpeed();
-        t.setDownloadSpeed("5.23 MB/s");
-        String r2 = t.getDownloadSpeed();
-        t.setDownloadSpeed("5.23MB/s");
-        String r3 = t.getDownloadSpeed();
-
-        assertEquals(r1, r2);
-        assertEquals(r2, r3);
-        assertTrue(r1.matches("\\d+\\.\\d{2} MB/s"));
-    }
-
     // --- Progress (Python sends 0.0–100.0 float) ---
 
     @Test
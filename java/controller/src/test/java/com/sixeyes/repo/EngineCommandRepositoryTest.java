@@ -0,0 +1,61 @@
+package com.sixeyes.repo;
+
+import com.sixeyes.model.EngineCommand;
+import com.sixeyes.model.EngineCommandStatus;
+import com.sixeyes.model.EngineCommandType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class EngineCommandRepositoryTest {
+
+    @Autowired
+    private EngineCommandRepository repository;
+
+    @Test
+    void pendingHeadsAreEachTorrentsOldestPendingCommandInIdOrder() {
+        EngineCommand delivered = command(1, EngineCommandStatus.DELIVERED);
+        EngineCommand firstOf1 = command(1, EngineCommandStatus.PENDING);
+        command(1, EngineCommandStatus.PENDING);
+        EngineCommand firstOf2 = command(2, EngineCommandStatus.PENDING);
+        command(2, EngineCommandStatus.PENDING);
+        EngineCommand onlyOf3 = command(3, EngineCommandStatus.PENDING);
+
+        assertThat(repository.findPendingHeads(0, Limit.of(10)))
+                .containsExactly(firstOf1, firstOf2, onlyOf3)
+                .doesNotContain(delivered);
+        assertThat(repository.findPendingHeads(0, Limit.of(2))).containsExactly(firstOf1, firstOf2);
+        assertThat(repository.findPendingHeads(firstOf2.getId(), Limit.of(2))).containsExactly(onlyOf3);
+    }
+
+    @Test
+    void findsTheTorrentsThatStillHaveAPendingCommand() {
+        command(1, EngineCommandStatus.PENDING);
+        command(1, EngineCommandStatus.PENDING);
+        command(2, EngineCommandStatus.DELIVERED);
+        command(3, EngineCommandStatus.PENDING);
+
+        assertThat(repository.findTorrentIdsWithPending(List.of(1L, 2L, 4L))).containsExactly(1L);
+        assertThat(repository.existsByTorrentIdAndStatus(3L, EngineCommandStatus.PENDING)).isTrue();
+        assertThat(repository.existsByTorrentIdAndStatus(2L, EngineCommandStatus.PENDING)).isFalse();
+    }
+
+    private EngineCommand command(long torrentId, EngineCommandStatus status) {
+        EngineCommand c = new EngineCommand();
+        c.setTorrentId(torrentId);
+        c.setType(EngineCommandType.PAUSE);
+        c.setMagnet("magnet:?xt=urn:btih:" + torrentId);
+        c.setIdempotencyKey(UUID.randomUUID().toString());
+        c.setStatus(status);
+        c.setCreatedAt(Instant.now());
+        return repository.save(c);
+    }
+}
@@ -0,0 +1,81 @@
+package com.sixeyes.repo;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LegacyTelemetryColumnMigrationTest {
+
+    private JdbcTemplate jdbc;
+    private LegacyTelemetryColumnMigration migration;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", ""));
+        migration = new LegacyTelemetryColumnMigration(jdbc);
+    }
+
+    @Test
+    void backfillsNumericColumnsAndDropsLegacyOnes() {
+        jdbc.execute("""
+                CREATE TABLE torrents (id BIGINT PRIMARY KEY, size VARCHAR(32), download_speed VARCHAR(32),
+                  upload_speed VARCHAR(32), eta VARCHAR(32), size_bytes BIGINT DEFAULT 0 NOT NULL,
+                  download_rate BIGINT DEFAULT 0 NOT NULL, upload_rate BIGINT DEFAULT 0 NOT NULL, eta_seconds BIGINT)
+                """);
+        jdbc.update("INSERT INTO torrents (id, size, download_speed, upload_speed, eta) VALUES (1, '1.5 KB', '2.00 MB/s', '0.50 MB/s', '1h 5m')");
+        jdbc.update("INSERT INTO torrents (id, size, download_speed, upload_speed, eta) VALUES (2, '0 B', 'junk', NULL, NULL)");
+
+        migration.afterPropertiesSet();
+
+        Map<String, Object> first = jdbc.queryForMap("SELECT * FROM torrents WHERE id = 1");
+        assertThat(first).doesNotContainKeys("SIZE", "DOWNLOAD_SPEED", "UPLOAD_SPEED", "ETA");
+        assertThat(first).containsEntry("SIZE_BYTES", 1536L)
+                .containsEntry("DOWNLOAD_RATE", 2_097_152L)
+                .containsEntry("UPLOAD_RATE", 524_288L)
+                .containsEntry("ETA_SECONDS", 3_900L);
+        Map<String, Object> second = jdbc.queryForMap("SELECT * FROM torrents WHERE id = 2");
+        assertThat(second).containsEntry("DOWNLOAD_RATE", 0L).containsEntry("ETA_SECONDS", null);
+    }
+
+    @Test
+    void addsTheNumericColumnsHibernateHasNotCreatedYet() {
+        // The old table as it is before Hibernate starts.
+        jdbc.execute("CREATE TABLE torrents (id BIGINT PRIMARY KEY, size VARCHAR(32), eta VARCHAR(32))");
+        jdbc.update("INSERT INTO torrents (id, size, eta) VALUES (1, '2 MB', NULL)");
+
+        migration.afterPropertiesSet();
+
+        assertThat(jdbc.queryForMap("SELECT * FROM torrents WHERE id = 1"))
+                .doesNotContainKeys("SIZE", "ETA")
+                .containsEntry("SIZE_BYTES", 2_097_152L)
+                .containsEntry("DOWNLOAD_RATE", 0L)
+                .containsEntry("UPLOAD_RATE", 0L)
+                .containsEntry("ETA_SECONDS", null);
+    }
+
+    @Test
+    void migratedSchemaIsLeftAlone() {
+        jdbc.execute("CREATE TABLE torrents (id BIGINT PRIMARY KEY, size_bytes BIGINT DEFAULT 0 NOT NULL)");
+        jdbc.update("INSERT INTO torrents (id, size_bytes) VALUES (1, 42)");
+
+        migration.afterPropertiesSet();
+
+        assertThat(jdbc.queryForObject("SELECT size_bytes FROM torrents", Long.class)).isEqualTo(42L);
+    }
+
+    @Test
+    void parsesLegacyDisplayStrings() {
+        assertThat(LegacyTelemetryColumnMigration.parseSize("4.0 GB")).isEqualTo(4L << 30);
+        assertThat(LegacyTelemetryColumnMigration.parseSize("n/a")).isZero();
+        assertThat(LegacyTelemetryColumnMigration.parseRate("1.25")).isEqualTo(1_310_720L);
+        assertThat(LegacyTelemetryColumnMigration.parseEta("2d 3h")).isEqualTo(183_600L);
+        assertThat(LegacyTelemetryColumnMigration.parseEta("soon")).isNull();
+    }
+}
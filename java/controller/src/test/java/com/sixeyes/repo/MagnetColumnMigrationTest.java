@@ -0,0 +1,76 @@
+package com.sixeyes.repo;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MagnetColumnMigrationTest {
+
+    private static final String A = "a".repeat(40);
+    private static final String B = "b".repeat(40);
+
+    private JdbcTemplate jdbc;
+    private MagnetColumnMigration migration;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", ""));
+        migration = new MagnetColumnMigration(jdbc);
+    }
+
+    @Test
+    void movesCanonicalMagnetsOutAndKeysRowsByInfoHash() {
+        // The old table as it is before Hibernate starts.
+        jdbc.execute("CREATE TABLE torrents (id BIGINT PRIMARY KEY, magnet VARCHAR(4000) NOT NULL UNIQUE, info_hash VARCHAR(255))");
+        jdbc.update("INSERT INTO torrents VALUES (1, 'magnet:?dn=One&xt=urn:btih:" + A.toUpperCase() + "', NULL)");
+        jdbc.update("INSERT INTO torrents VALUES (2, 'magnet:?xt=urn:btih:" + B + "', '" + A + "')");
+        jdbc.update("INSERT INTO torrents VALUES (3, 'magnet:?xt=urn:btih:" + A + "&tr=udp://other', NULL)");
+        jdbc.update("INSERT INTO torrents VALUES (4, 'magnet:?xt=urn:ed2k:whatever', NULL)");
+
+        migration.afterPropertiesSet();
+
+        assertThat(jdbc.queryForMap("SELECT * FROM torrents WHERE id = 1")).doesNotContainKey("MAGNET");
+        assertThat(jdbc.queryForMap("SELECT id, info_hash FROM torrents WHERE id = 1")).containsEntry("INFO_HASH", A);
+        assertThat(jdbc.queryForObject("SELECT info_hash FROM torrents WHERE id = 2", String.class)).isEqualTo(B);
+        assertThat(jdbc.queryForObject("SELECT info_hash FROM torrents WHERE id = 3", String.class)).isNull();
+        assertThat(jdbc.queryForObject("SELECT info_hash FROM torrents WHERE id = 4", String.class)).isNull();
+        Map<Long, String> magnets = new java.util.HashMap<>();
+        jdbc.query("SELECT torrent_id, magnet FROM torrent_magnets", rs -> {
+            magnets.put(rs.getLong(1), rs.getString(2));
+        });
+        assertThat(magnets).containsEntry(1L, "magnet:?xt=urn:btih:" + A + "&dn=One")
+                .containsEntry(3L, "magnet:?xt=urn:btih:" + A + "&tr=udp%3A%2F%2Fother")
+                .containsEntry(4L, "magnet:?xt=urn:ed2k:whatever")
+                .hasSize(4);
+        assertThat(jdbc.queryForObject("""
+                SELECT character_maximum_length FROM information_schema.columns
+                WHERE table_name = 'TORRENTS' AND column_name = 'INFO_HASH'""", Long.class)).isEqualTo(64L);
+        // What ddl-auto=update adds afterwards now fits the data.
+        jdbc.execute("CREATE UNIQUE INDEX uk_torrents_info_hash ON torrents (info_hash)");
+    }
+
+    @Test
+    void freshDatabaseIsLeftForHibernate() {
+        migration.afterPropertiesSet();
+
+        assertThat(jdbc.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.tables WHERE table_name = 'TORRENT_MAGNETS'", Long.class)).isZero();
+    }
+
+    @Test
+    void migratedSchemaIsLeftAlone() {
+        jdbc.execute("CREATE TABLE torrents (id BIGINT PRIMARY KEY, info_hash VARCHAR(64))");
+        jdbc.update("INSERT INTO torrents VALUES (1, '" + A + "')");
+
+        migration.afterPropertiesSet();
+
+        assertThat(jdbc.queryForObject("SELECT info_hash FROM torrents", String.class)).isEqualTo(A);
+    }
+}
@@ -0,0 +1,140 @@
+package com.sixeyes.repo;
+
+import com.sixeyes.model.Torrent;
+import com.sixeyes.model.TorrentStatus;
+import com.sixeyes.model.TorrentSummary;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.sixeyes.repo.TorrentSearchRepositoryTest$RecordingInspector")
+class TorrentSearchRepositoryTest {
+
+    public static class RecordingInspector implements StatementInspector {
+        static final List<String> SQL = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            SQL.add(sql.toLowerCase());
+            return sql;
+        }
+    }
+
+    private static final TorrentFilter ALL = new TorrentFilter(null, null, null, null, null, false);
+
+    @Autowired
+    private TorrentRepository repository;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @BeforeEach
+    void setUp() {
+        torrent("Ubuntu 24.04", TorrentStatus.DOWNLOADING, 40.0, 500, "NONE", LocalDateTime.of(2026, 3, 1, 10, 0));
+        torrent("Debian 12", TorrentStatus.SEEDING, 100.0, 0, "INSTALLED", LocalDateTime.of(2026, 3, 5, 10, 0));
+        torrent("Fedora_40", TorrentStatus.PAUSED, 100.0, 0, null, LocalDateTime.of(2026, 4, 1, 10, 0));
+        torrent("Arch 100% iso", TorrentStatus.DOWNLOADING, 10.0, 900, "NONE", LocalDateTime.of(2026, 4, 2, 10, 0));
+        em.clear();
+        RecordingInspector.SQL.clear();
+    }
+
+    @Test
+    void pagesAndSortsInTheDatabase() {
+        Page<TorrentSummary> first = repository.search(ALL, PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "downloadRate")));
+
+        assertThat(first.getTotalElements()).isEqualTo(4);
+        assertThat(first.getTotalPages()).isEqualTo(2);
+        assertThat(first.getContent()).extracting(TorrentSummary::title)
+                .startsWith("Arch 100% iso", "Ubuntu 24.04");
+    }
+
+    @Test
+    void neverSelectsTheMagnet() {
+        repository.search(ALL, PageRequest.of(0, 10));
+
+        assertThat(RecordingInspector.SQL).isNotEmpty().noneMatch(sql -> sql.contains("magnet"));
+    }
+
+    @Test
+    void completedMatchesSeedingOrFullProgress() {
+        Page<TorrentSummary> page = repository.search(ALL.withCompletedOnly(), PageRequest.of(0, 10));
+
+        assertThat(page.getContent()).extracting(TorrentSummary::title)
+                .containsExactlyInAnyOrder("Debian 12", "Fedora_40");
+    }
+
+    @Test
+    void filtersCombine() {
+        TorrentFilter march = new TorrentFilter(TorrentStatus.DOWNLOADING, "NONE", null,
+                LocalDateTime.of(2026, 3, 1, 0, 0), LocalDateTime.of(2026, 4, 1, 0, 0), false);
+
+        assertThat(repository.search(march, PageRequest.of(0, 10)).getContent())
+                .extracting(TorrentSummary::title).containsExactly("Ubuntu 24.04");
+    }
+
+    @Test
+    void noneInstallStatusIncludesRowsFromBeforeTheColumn() {
+        TorrentFilter none = new TorrentFilter(null, "NONE", null, null, null, false);
+
+        assertThat(repository.search(none, PageRequest.of(0, 10)).getContent())
+                .extracting(TorrentSummary::title).containsExactlyInAnyOrder("Ubuntu 24.04", "Fedora_40", "Arch 100% iso");
+    }
+
+    @Test
+    void titleSearchIsCaseInsensitiveAndTakesWildcardsLiterally() {
+        assertThat(search("ubuntu")).containsExactly("Ubuntu 24.04");
+        assertThat(search("100%")).containsExactly("Arch 100% iso");
+        assertThat(search("u_24")).isEmpty();
+        assertThat(search("a_40")).containsExactly("Fedora_40");
+    }
+
+    private List<String> search(String title) {
+        TorrentFilter filter = new TorrentFilter(null, null, title, null, null, false);
+        return repository.search(filter, PageRequest.of(0, 10)).map(TorrentSummary::title).getContent();
+    }
+
+    @Test
+    void aSecondRowForTheSameInfoHashIsAnInfoHashConflict() {
+        repository.save(hashed("a".repeat(40)));
+
+        assertThatThrownBy(() -> repository.save(hashed("a".repeat(40))))
+                .isInstanceOfSatisfying(DataIntegrityViolationException.class,
+                        e -> assertThat(TorrentRepository.isInfoHashConflict(e)).isTrue());
+    }
+
+    private static Torrent hashed(String infoHash) {
+        Torrent t = new Torrent("magnet:?xt=urn:btih:" + infoHash);
+        t.setInfoHash(infoHash);
+        return t;
+    }
+
+    private void torrent(String title, TorrentStatus status, double progress, long rate, String install, LocalDateTime created) {
+        Torrent t = new Torrent("magnet:?xt=urn:btih:" + title.hashCode());
+        t.setTitle(title);
+        t.setStatus(status);
+        t.setProgress(progress);
+        t.setDownloadRate(rate);
+        t.setInstallStatus(install);
+        Long id = em.persistAndGetId(t, Long.class);
+        em.flush();
+        em.getEntityManager().createQuery("UPDATE Torrent t SET t.createdAt = :created WHERE t.id = :id")
+                .setParameter("created", created)
+                .setParameter("id", id)
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,83 @@
+package com.sixeyes.service;
+
+import com.sixeyes.service.TorrentSyncService.SyncReport;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AdaptiveSyncSchedulerTest {
+
+    private final TaskScheduler taskScheduler = mock(TaskScheduler.class);
+    private final EngineStreamClient streamClient = mock(EngineStreamClient.class);
+    private final AdaptiveSyncScheduler scheduler = new AdaptiveSyncScheduler(
+            mock(TorrentSyncService.class), streamClient, taskScheduler, 2_000, 15_000, 60_000);
+
+    @Test
+    void downloadsWithChangesPollAtFastCadence() {
+        assertThat(scheduler.nextDelay(new SyncReport(3, 1, 1, 0, false))).isEqualTo(Duration.ofSeconds(2));
+    }
+
+    @Test
+    void connectedStreamDropsDownloadsToSlowCadence() {
+        when(streamClient.isConnected()).thenReturn(true);
+
+        assertThat(scheduler.nextDelay(new SyncReport(3, 1, 1, 0, false))).isEqualTo(Duration.ofSeconds(15));
+    }
+
+    @Test
+    void seedsOnlyPollAtSlowCadence() {
+        assertThat(scheduler.nextDelay(new SyncReport(5, 0, 2, 0, false))).isEqualTo(Duration.ofSeconds(15));
+    }
+
+    @Test
+    void quietCyclesBackOffExponentiallyUpToTheCap() {
+        SyncReport quiet = new SyncReport(1, 1, 0, 0, false);
+
+        assertThat(scheduler.nextDelay(quiet)).isEqualTo(Duration.ofSeconds(4));
+        assertThat(scheduler.nextDelay(quiet)).isEqualTo(Duration.ofSeconds(8));
+        assertThat(scheduler.nextDelay(quiet)).isEqualTo(Duration.ofSeconds(16));
+        for (int i = 0; i < 20; i++) scheduler.nextDelay(quiet);
+        assertThat(scheduler.nextDelay(quiet)).isEqualTo(Duration.ofSeconds(60));
+    }
+
+    @Test
+    void engineFailuresBackOff() {
+        SyncReport failed = SyncReport.failure(2, 2);
+
+        assertThat(scheduler.nextDelay(failed)).isEqualTo(Duration.ofSeconds(4));
+        assertThat(scheduler.nextDelay(failed)).isEqualTo(Duration.ofSeconds(8));
+    }
+
+    @Test
+    void changeResetsBackOff() {
+        scheduler.nextDelay(new SyncReport(1, 1, 0, 0, false));
+        scheduler.nextDelay(new SyncReport(1, 1, 0, 0, false));
+
+        assertThat(scheduler.nextDelay(new SyncReport(1, 1, 1, 0, false))).isEqualTo(Duration.ofSeconds(2));
+    }
+
+    @Test
+    void nothingActiveWaitsForTheMaxInterval() {
+        assertThat(scheduler.nextDelay(new SyncReport(0, 0, 0, 0, false))).isEqualTo(Duration.ofSeconds(60));
+    }
+
+    @Test
+    void wakeResetsBackOffAndSchedulesImmediately() {
+        SyncReport quiet = new SyncReport(1, 1, 0, 0, false);
+        scheduler.nextDelay(quiet);
+        scheduler.nextDelay(quiet);
+
+        scheduler.wake();
+
+        verify(taskScheduler).schedule(any(Runnable.class), any(Instant.class));
+        assertThat(scheduler.nextDelay(quiet)).isEqualTo(Duration.ofSeconds(4));
+    }
+}
@@ -0,0 +1,96 @@
+package com.sixeyes.service;
+
+import com.sixeyes.dto.request.DashboardPart;
+import com.sixeyes.dto.response.DashboardSnapshot;
+import com.sixeyes.dto.response.DiskInfo;
+import com.sixeyes.dto.response.SettingsResponse;
+import com.sixeyes.dto.response.SystemInfoResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardServiceTest {
+
+    @Mock TorrentService torrentService;
+    @Mock SystemInfoService systemInfoService;
+    @Mock SettingsService settingsService;
+
+    private final EngineFanOut fanOut = new EngineFanOut(2_000);
+
+    @AfterEach
+    void tearDown() {
+        fanOut.shutdown();
+    }
+
+    @Test
+    void assemblesEveryPartByDefault() {
+        SystemInfoResponse system = new SystemInfoResponse(
+                new SystemInfoResponse.StorageInfo(500, 100, 400, "sda"),
+                new SystemInfoResponse.NetworkInfo(1.5, 0.2));
+        List<DiskInfo> disks = List.of(new DiskInfo("/data", "sda", 500, 100, 400));
+        when(torrentService.getListVersion()).thenReturn(42L);
+        when(torrentService.getAllTorrents()).thenReturn(List.of());
+        when(systemInfoService.readSystemInfo()).thenReturn(SingleFlightCache.Read.fresh(system));
+        when(systemInfoService.readDiskList()).thenReturn(new SingleFlightCache.Read<>(disks, true, 90_000));
+        when(settingsService.getSettings()).thenReturn(new SettingsResponse("/data"));
+
+        DashboardSnapshot snapshot = service().snapshot(DashboardPart.parse(null));
+
+        assertThat(snapshot.version()).isEqualTo(42L);
+        assertThat(snapshot.torrents()).isEmpty();
+        assertThat(snapshot.system()).isEqualTo(system);
+        assertThat(snapshot.disks()).isEqualTo(disks);
+        assertThat(snapshot.settings().downloadPath()).isEqualTo("/data");
+        assertThat(snapshot.unavailable()).isNull();
+        assertThat(snapshot.stale()).containsExactly("disks");
+    }
+
+    @Test
+    void onlyRequestedPartsAreLoaded() {
+        when(settingsService.getSettings()).thenReturn(new SettingsResponse("/data"));
+
+        DashboardSnapshot snapshot = service().snapshot(DashboardPart.parse(" settings "));
+
+        assertThat(snapshot.settings()).isNotNull();
+        assertThat(snapshot.torrents()).isNull();
+        assertThat(snapshot.system()).isNull();
+        verifyNoInteractions(torrentService, systemInfoService);
+    }
+
+    @Test
+    void anEngineFailureOnlyBlanksItsOwnPart() {
+        when(torrentService.getAllTorrents()).thenReturn(List.of());
+        when(systemInfoService.readSystemInfo()).thenThrow(new IllegalStateException("engine down"));
+        when(systemInfoService.readDiskList()).thenReturn(SingleFlightCache.Read.fresh(List.of()));
+
+        DashboardSnapshot snapshot = service().snapshot(
+                EnumSet.of(DashboardPart.TORRENTS, DashboardPart.SYSTEM, DashboardPart.DISKS));
+
+        assertThat(snapshot.torrents()).isEmpty();
+        assertThat(snapshot.disks()).isEmpty();
+        assertThat(snapshot.system()).isNull();
+        assertThat(snapshot.unavailable()).containsExactly("system");
+    }
+
+    @Test
+    void unknownFieldsAreRejected() {
+        assertThatThrownBy(() -> DashboardPart.parse("torrents,cpu"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("cpu");
+    }
+
+    private DashboardService service() {
+        return new DashboardService(torrentService, systemInfoService, settingsService, fanOut);
+    }
+}
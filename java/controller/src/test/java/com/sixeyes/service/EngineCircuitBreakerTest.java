@@ -0,0 +1,100 @@
+package com.sixeyes.service;
+
+import com.sixeyes.exception.EngineCircuitOpenException;
+import com.sixeyes.exception.EngineUnavailableException;
+import com.sixeyes.service.EngineCircuitBreaker.State;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EngineCircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final EngineCircuitBreaker breaker = new EngineCircuitBreaker(3, 10_000, 2, now::get);
+
+    @Test
+    void opensAfterConsecutiveFaultsAndFailsFast() {
+        fail(2);
+        breaker.acquire("op").succeeded();   // a success resets the count
+        fail(3);
+
+        assertThat(breaker.state()).isEqualTo(State.OPEN);
+        assertThatThrownBy(() -> breaker.acquire("GET /python/get"))
+                .isInstanceOf(EngineCircuitOpenException.class)
+                .hasMessageContaining("GET /python/get")
+                .satisfies(e -> assertThat(((EngineCircuitOpenException) e).getRetryAfterSeconds()).isBetween(1L, 11L));
+        assertThat(breaker.stats().rejected()).isEqualTo(1);
+        assertThat(breaker.stats().opened()).isEqualTo(1);
+    }
+
+    @Test
+    void letsOneProbeThroughOnceTheOpenPeriodIsOver() {
+        fail(3);
+        advance(10_000);
+
+        EngineCircuitBreaker.Permit probe = breaker.acquire("probe");
+        assertThat(breaker.state()).isEqualTo(State.HALF_OPEN);
+        assertThatThrownBy(() -> breaker.acquire("other")).isInstanceOf(EngineCircuitOpenException.class);
+
+        probe.succeeded();
+        assertThat(breaker.state()).isEqualTo(State.CLOSED);
+        breaker.acquire("after").succeeded();
+    }
+
+    @Test
+    void aFailedProbeReopensForAnotherPeriod() {
+        fail(3);
+        advance(10_000);
+
+        breaker.acquire("probe").failed("timeout");
+
+        assertThat(breaker.state()).isEqualTo(State.OPEN);
+        advance(9_000);
+        assertThatThrownBy(() -> breaker.acquire("op")).isInstanceOf(EngineCircuitOpenException.class);
+        advance(1_000);
+        breaker.acquire("probe").succeeded();
+        assertThat(breaker.state()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    void anAbandonedProbeFreesTheSlotWithoutAVerdict() {
+        fail(3);
+        advance(10_000);
+
+        breaker.acquire("probe").abandoned();
+
+        assertThat(breaker.state()).isEqualTo(State.HALF_OPEN);
+        breaker.acquire("probe").succeeded();
+        assertThat(breaker.state()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    void bulkheadRefusesCallsPastTheLimitUntilOneFinishes() {
+        EngineCircuitBreaker.Permit first = breaker.acquire("a");
+        breaker.acquire("b");
+
+        assertThatThrownBy(() -> breaker.acquire("c"))
+                .isInstanceOf(EngineUnavailableException.class)
+                .isNotInstanceOf(EngineCircuitOpenException.class);
+        assertThat(breaker.stats().shed()).isEqualTo(1);
+        assertThat(breaker.stats().inFlight()).isEqualTo(2);
+
+        first.succeeded();
+        first.succeeded();   // reporting twice must not free a second slot
+        breaker.acquire("c");
+        assertThatThrownBy(() -> breaker.acquire("d")).isInstanceOf(EngineUnavailableException.class);
+        assertThat(breaker.state()).isEqualTo(State.CLOSED);
+    }
+
+    private void fail(int times) {
+        for (int i = 0; i < times; i++) breaker.acquire("op").failed("connection refused");
+    }
+
+    private void advance(long ms) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(ms));
+    }
+}
@@ -0,0 +1,180 @@
+package com.sixeyes.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sixeyes.dto.response.DiskInfo;
+import com.sixeyes.exception.EngineCircuitOpenException;
+import com.sixeyes.exception.EngineUnavailableException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/** Runs the client against a local fake engine. */
+class EngineClientTest {
+
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private final EngineCircuitBreaker breaker = new EngineCircuitBreaker(3, 60_000, 8, System::nanoTime);
+    private HttpServer engine;
+    private EngineClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        engine = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        engine.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        engine.createContext("/python/get", exchange -> {
+            requests.add(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+            respond(exchange, 200, gzip("""
+                    [{"id":1,"status":"Downloading","progress":12.5},{"id":2,"status":"Seeding"}]
+                    """), true);
+        });
+        engine.createContext("/python/systemInfo/getDisks", exchange -> {
+            sleep(1_500);
+            respond(exchange, 200, bytes("[{\"path\":\"/data\",\"device\":\"sda\",\"total\":500}]"), false);
+        });
+        engine.createContext("/python/pause", exchange -> {
+            requests.add(exchange.getRequestMethod() + " " + new String(exchange.getRequestBody().readAllBytes()));
+            respond(exchange, 200, bytes("{\"status\":\"paused\"}"), false);
+        });
+        engine.createContext("/python/batch/add", exchange -> {
+            sleep(1_500);
+            respond(exchange, 200, bytes("{\"results\":[{\"id\":7,\"ok\":true,\"missing\":false}]}"), false);
+        });
+        engine.createContext("/python/stop", exchange -> {
+            requests.add("stop");
+            respond(exchange, 500, bytes("{}"), false);
+        });
+        engine.createContext("/python/resume", exchange -> {
+            requests.add("resume");
+            respond(exchange, 404, bytes("{}"), false);
+        });
+        engine.start();
+
+        String url = "http://127.0.0.1:" + engine.getAddress().getPort();
+        client = new EngineClient(new ObjectMapper(), new EngineTelemetryDecoder(new ObjectMapper()), breaker,
+                url, "json", 8, 1_000, 200, 1_000, 5_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.shutdown();
+        engine.stop(0);
+    }
+
+    @Test
+    void decodesGzippedTelemetry() throws Exception {
+        List<Long> ids = new ArrayList<>();
+
+        int count = client.fetchTelemetry(t -> ids.add(t.id())).get(5, TimeUnit.SECONDS);
+
+        assertThat(count).isEqualTo(2);
+        assertThat(ids).containsExactly(1L, 2L);
+        assertThat(requests).containsExactly("gzip");
+    }
+
+    @Test
+    void sendsCommandsAsJson() throws Exception {
+        client.pause(3L, "magnet:?xt=urn:btih:3").get(5, TimeUnit.SECONDS);
+
+        assertThat(requests).containsExactly("PUT {\"id\":3,\"magnet\":\"magnet:?xt=urn:btih:3\"}");
+    }
+
+    // The I/O reactor checks timeouts about once a second, hence the generous margins.
+    @Test
+    void readsTimeOutSoonerThanAdds() throws Exception {
+        CompletableFuture<List<DiskInfo>> disks = client.fetchDisks();
+        CompletableFuture<List<EngineBatchResult>> added = client.startDownloads(List.of());
+
+        assertThatThrownBy(() -> disks.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Python engine unavailable during GET /python/systemInfo/getDisks");
+        assertThat(added.get(5, TimeUnit.SECONDS))
+                .containsExactly(new EngineBatchResult(7L, true, false, null));
+    }
+
+    @Test
+    void errorStatusFailsTheFuture() {
+        assertThatThrownBy(() -> client.stop(1L, "m").get(5, TimeUnit.SECONDS))
+                .hasMessageContaining("Python engine unavailable during PUT /python/stop");
+    }
+
+    @Test
+    void repeatedFaultsOpenTheCircuitAndLaterCallsNeverReachTheEngine() {
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> client.stop(1L, "m").get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(EngineUnavailableException.class);
+        }
+
+        assertThatThrownBy(() -> client.stop(1L, "m").get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(EngineCircuitOpenException.class);
+        assertThat(requests).containsExactly("stop", "stop", "stop");
+        assertThat(breaker.stats().state()).isEqualTo(EngineCircuitBreaker.State.OPEN);
+        assertThat(breaker.stats().inFlight()).isZero();
+    }
+
+    @Test
+    void clientErrorsDoNotCountAsEngineFaults() {
+        for (int i = 0; i < 5; i++) {
+            assertThatThrownBy(() -> client.resume(1L, "m").get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(EngineUnavailableException.class);
+        }
+
+        assertThat(breaker.state()).isEqualTo(EngineCircuitBreaker.State.CLOSED);
+        assertThat(requests).hasSize(5);
+    }
+
+    @Test
+    void facadeRethrowsTheEngineFailure() {
+        PythonClientService blocking = new PythonClientService(client);
+
+        assertThatThrownBy(() -> blocking.stop(1L, "m"))
+                .isInstanceOf(EngineUnavailableException.class)
+                .hasMessage("Python engine unavailable during PUT /python/stop");
+        assertThat(blocking.fetchTelemetry(t -> { })).isEqualTo(2);
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body, boolean gzipped) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        if (gzipped) exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] gzip(String s) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(bytes(s));
+        }
+        return out.toByteArray();
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.sixeyes.service;
+
+import com.sixeyes.exception.EngineCircuitOpenException;
+import com.sixeyes.exception.EngineUnavailableException;
+import com.sixeyes.model.EngineCommand;
+import com.sixeyes.model.EngineCommandStatus;
+import com.sixeyes.model.EngineCommandType;
+import com.sixeyes.model.Torrent;
+import com.sixeyes.repo.EngineCommandRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EngineCommandOutboxTest {
+
+    private final EngineCommandRepository repository = mock(EngineCommandRepository.class);
+    private final EngineClient engine = mock(EngineClient.class);
+    private final MutableClock clock = new MutableClock();
+    private final EngineCommandOutbox outbox = new EngineCommandOutbox(repository, engine, clock,
+            8, 3, Duration.ofMillis(500), Duration.ofSeconds(60), 30_000, Duration.ofHours(24));
+
+    private final Map<Long, EngineCommand> rows = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        when(repository.save(any())).thenAnswer(i -> {
+            EngineCommand c = i.getArgument(0);
+            if (c.getId() == null) c.setId(ids.incrementAndGet());
+            rows.put(c.getId(), c);
+            return c;
+        });
+        when(repository.saveAll(anyList())).thenAnswer(i -> {
+            List<EngineCommand> batch = i.getArgument(0);
+            batch.forEach(repository::save);
+            return batch;
+        });
+        when(repository.findPendingHeads(anyLong(), any(Limit.class))).thenAnswer(i -> {
+            long after = i.getArgument(0);
+            Limit limit = i.getArgument(1);
+            Set<Long> seen = new HashSet<>();
+            return rows.values().stream()
+                    .filter(c -> c.getStatus() == EngineCommandStatus.PENDING)
+                    .sorted(Comparator.comparing(EngineCommand::getId))
+                    .filter(c -> seen.add(c.getTorrentId()))
+                    .filter(c -> c.getId() > after)
+                    .limit(limit.max())
+                    .toList();
+        });
+    }
+
+    @Test
+    void deliversEachTorrentsCommandsInOrderAndTorrentsSideBySide() {
+        CompletableFuture<Void> pause = new CompletableFuture<>();
+        when(engine.pause(eq(1L), anyString(), anyString())).thenReturn(pause);
+        when(engine.stop(eq(2L), anyString(), anyString())).thenReturn(CompletableFuture.completedFuture(null));
+        when(engine.resume(eq(1L), anyString(), anyString())).thenReturn(CompletableFuture.completedFuture(null));
+
+        EngineCommand first = outbox.enqueue(EngineCommandType.PAUSE, torrent(1), false);
+        EngineCommand second = outbox.enqueue(EngineCommandType.RESUME, torrent(1), false);
+        EngineCommand other = outbox.enqueue(EngineCommandType.STOP, torrent(2), false);
+
+        outbox.dispatch();
+        assertThat(other.getStatus()).isEqualTo(EngineCommandStatus.DELIVERED);
+        verify(engine, never()).resume(anyLong(), anyString(), anyString());   // waits for the pause
+
+        outbox.dispatch();
+        verify(engine, times(1)).pause(1L, "magnet:?xt=urn:btih:1", first.getIdempotencyKey());
+        verify(engine, never()).resume(anyLong(), anyString(), anyString());
+
+        clock.advance(Duration.ofMillis(40));
+        pause.complete(null);
+        outbox.dispatch();
+
+        verify(engine).resume(1L, "magnet:?xt=urn:btih:1", second.getIdempotencyKey());
+        assertThat(first.getStatus()).isEqualTo(EngineCommandStatus.DELIVERED);
+        assertThat(second.getStatus()).isEqualTo(EngineCommandStatus.DELIVERED);
+        assertThat(outbox.stats().latency().get(EngineCommandType.PAUSE))
+                .isEqualTo(new EngineCommandOutbox.Latency(1, 40, 40, 40, 40));
+    }
+
+    @Test
+    void aTorrentWithAPileOfCommandsDoesNotStarveTheOthers() {
+        when(engine.pause(anyLong(), anyString(), anyString())).thenReturn(new CompletableFuture<>());
+        when(engine.stop(anyLong(), anyString(), anyString())).thenReturn(CompletableFuture.completedFuture(null));
+        for (int i = 0; i <= EngineCommandOutbox.HEAD_PAGE; i++) {
+            outbox.enqueue(EngineCommandType.PAUSE, torrent(1), false);
+        }
+        // More heads backing off than fit in one page, all ahead of the torrent that is ready.
+        for (long id = 100; id < 100 + EngineCommandOutbox.HEAD_PAGE; id++) {
+            outbox.enqueue(EngineCommandType.RESUME, torrent(id), false)
+                    .setNextAttemptAt(clock.instant().plusSeconds(60));
+        }
+        EngineCommand other = outbox.enqueue(EngineCommandType.STOP, torrent(2), false);
+
+        outbox.dispatch();
+
+        assertThat(other.getStatus()).isEqualTo(EngineCommandStatus.DELIVERED);
+        verify(engine, times(1)).pause(anyLong(), anyString(), anyString());
+        verify(engine, never()).resume(anyLong(), anyString(), anyString());
+    }
+
+    @Test
+    void aBatchQueuesOneCommandPerTorrentBehindWhatIsAlreadyPending() {
+        CompletableFuture<Void> resume = new CompletableFuture<>();
+        when(engine.resume(eq(1L), anyString(), anyString())).thenReturn(resume);
+        when(engine.pause(anyLong(), anyString(), anyString())).thenReturn(CompletableFuture.completedFuture(null));
+
+        outbox.enqueue(EngineCommandType.RESUME, torrent(1), false);
+        List<EngineCommand> batch = outbox.enqueueAll(EngineCommandType.PAUSE, List.of(torrent(1), torrent(2)), false);
+
+        assertThat(batch).extracting(EngineCommand::getTorrentId).containsExactly(1L, 2L);
+        outbox.dispatch();
+        verify(engine).pause(eq(2L), anyString(), anyString());
+        verify(engine, never()).pause(eq(1L), anyString(), anyString());   // waits for the resume
+
+        resume.complete(null);
+        outbox.dispatch();
+        outbox.dispatch();
+        verify(engine).pause(eq(1L), anyString(), eq(batch.get(0).getIdempotencyKey()));
+    }
+
+    @Test
+    void failedDeliveryBacksOffAndGivesUpAfterTheLastAttempt() {
+        when(engine.stop(anyLong(), anyString(), anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new EngineUnavailableException("timeout")));
+        EngineCommand command = outbox.enqueue(EngineCommandType.STOP, torrent(1), false);
+
+        outbox.dispatch();
+        assertThat(command.getNextAttemptAt()).isEqualTo(clock.instant().plusMillis(500));
+        assertThat(outbox.dispatch()).isEqualTo(500);          // nothing due; sleep until the retry
+        verify(engine, times(1)).stop(anyLong(), anyString(), anyString());
+
+        clock.advance(Duration.ofMillis(500));
+        outbox.dispatch();
+        assertThat(command.getNextAttemptAt()).isEqualTo(clock.instant().plusSeconds(1));
+
+        clock.advance(Duration.ofSeconds(1));
+        outbox.dispatch();
+
+        assertThat(command.getStatus()).isEqualTo(EngineCommandStatus.FAILED);
+        assertThat(command.getAttempts()).isEqualTo(3);
+        assertThat(command.getLastError()).isEqualTo("timeout");
+        assertThat(outbox.stats().failed()).isEqualTo(1);
+        assertThat(outbox.stats().retried()).isEqualTo(2);
+    }
+
+    @Test
+    void anEngineRefusalFailsAtOnce() {
+        when(engine.startDownload(anyLong(), anyString(), any(), anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new EngineUnavailableException("bad request",
+                        new EngineClient.EngineHttpException(422, "POST /python/add answered HTTP 422"))));
+        EngineCommand command = outbox.enqueue(EngineCommandType.ADD, torrent(1), false);
+
+        outbox.dispatch();
+
+        assertThat(command.getStatus()).isEqualTo(EngineCommandStatus.FAILED);
+        assertThat(command.getAttempts()).isEqualTo(1);
+    }
+
+    @Test
+    void aTorrentTheEngineLostIsReAddedOnResume() {
+        when(engine.resume(anyLong(), anyString(), anyString())).thenReturn(CompletableFuture.failedFuture(
+                new EngineUnavailableException("gone", new EngineClient.EngineHttpException(404, "not found"))));
+        when(engine.startDownload(anyLong(), anyString(), any(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        EngineCommand command = outbox.enqueue(EngineCommandType.RESUME, torrent(1), false);
+
+        outbox.dispatch();
+
+        verify(engine).startDownload(1L, "magnet:?xt=urn:btih:1", "/downloads", command.getIdempotencyKey() + ":add");
+        assertThat(command.getStatus()).isEqualTo(EngineCommandStatus.DELIVERED);
+    }
+
+    @Test
+    void anOpenCircuitDelaysWithoutUsingUpAnAttempt() {
+        when(engine.remove(anyLong(), anyString(), anyBoolean(), anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new EngineCircuitOpenException("DELETE /python/remove", 7)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        EngineCommand command = outbox.enqueue(EngineCommandType.REMOVE, torrent(1), true);
+
+        outbox.dispatch();
+        assertThat(command.getAttempts()).isZero();
+        assertThat(command.getNextAttemptAt()).isEqualTo(clock.instant().plusSeconds(7));
+
+        clock.advance(Duration.ofSeconds(7));
+        outbox.dispatch();
+
+        verify(engine, times(2)).remove(1L, "magnet:?xt=urn:btih:1", true, command.getIdempotencyKey());
+        assertThat(command.getStatus()).isEqualTo(EngineCommandStatus.DELIVERED);
+        assertThat(command.getAttempts()).isEqualTo(1);
+    }
+
+    @Test
+    void everyCommandGetsItsOwnIdempotencyKey() {
+        EngineCommand a = outbox.enqueue(EngineCommandType.PAUSE, torrent(1), false);
+        EngineCommand b = outbox.enqueue(EngineCommandType.PAUSE, torrent(1), false);
+
+        assertThat(a.getIdempotencyKey()).isNotEqualTo(b.getIdempotencyKey()).hasSize(36);
+        assertThat(a.getCreatedAt()).isEqualTo(clock.instant());
+        assertThat(List.of(a.getStatus(), b.getStatus())).containsOnly(EngineCommandStatus.PENDING);
+    }
+
+    private static Torrent torrent(long id) {
+        Torrent t = new Torrent("magnet:?xt=urn:btih:" + id);
+        t.setId(id);
+        t.setSavePath("/downloads");
+        return t;
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+        void advance(Duration d) {
+            now = now.plus(d);
+        }
+
+        @Override public ZoneId getZone() { return ZoneOffset.UTC; }
+        @Override public Clock withZone(ZoneId zone) { return this; }
+        @Override public Instant instant() { return now; }
+    }
+}
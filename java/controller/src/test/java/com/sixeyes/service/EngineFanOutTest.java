@@ -0,0 +1,86 @@
+package com.sixeyes.service;
+
+import com.sixeyes.exception.EngineTimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EngineFanOutTest {
+
+    private final EngineFanOut fanOut = new EngineFanOut(500);
+
+    @AfterEach
+    void tearDown() {
+        fanOut.shutdown();
+    }
+
+    @Test
+    void runsBothCallsAtTheSameTime() {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+
+        String result = fanOut.both("test",
+                () -> meet(bothStarted, "a"),
+                () -> meet(bothStarted, "b"),
+                (a, b) -> a + b);
+
+        assertThat(result).isEqualTo("ab");
+    }
+
+    @Test
+    void theDeadlineIsSharedAndCancelsTheStragglers() throws InterruptedException {
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> fanOut.both("slow",
+                () -> sleep(300),
+                () -> {
+                    try {
+                        Thread.sleep(10_000);
+                    } catch (InterruptedException e) {
+                        interrupted.countDown();
+                    }
+                    return "never";
+                },
+                (a, b) -> a + b))
+                .isInstanceOf(EngineTimeoutException.class)
+                .hasMessageContaining("slow");
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(2_000);
+        assertThat(interrupted.await(2, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void aFailureIsRethrownAsIs() {
+        assertThatThrownBy(() -> fanOut.both("fail",
+                () -> { throw new IllegalStateException("engine down"); },
+                () -> "ok",
+                (a, b) -> a + b))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("engine down");
+    }
+
+    private static String meet(CountDownLatch latch, String value) {
+        latch.countDown();
+        try {
+            // Only returns if the other call is running too.
+            if (!latch.await(2, TimeUnit.SECONDS)) throw new IllegalStateException("calls ran one after another");
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+        return value;
+    }
+
+    private static String sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "slept";
+    }
+}
@@ -0,0 +1,137 @@
+package com.sixeyes.service;
+
+import com.sixeyes.model.EngineCommandStatus;
+import com.sixeyes.model.Torrent;
+import com.sixeyes.model.TorrentStatus;
+import com.sixeyes.repo.EngineCommandRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EngineReconcilerTest {
+
+    private final PythonClientService pythonClient = mock(PythonClientService.class);
+    private final EngineCommandRepository commandRepository = mock(EngineCommandRepository.class);
+    private final TorrentLiveStore liveStore = mock(TorrentLiveStore.class);
+    private final MutableClock clock = new MutableClock();
+    private final EngineReconciler reconciler =
+            new EngineReconciler(pythonClient, commandRepository, liveStore, new DirectExecutor(), clock);
+
+    @BeforeEach
+    void setUp() {
+        when(liveStore.get(anyLong())).thenAnswer(i -> Optional.of(torrent(i.getArgument(0))));
+    }
+
+    @Test
+    void reAddsEveryMissingTorrent() {
+        assertThat(reconciler.reconcile(List.of(torrent(1), torrent(2)))).isEqualTo(2);
+
+        verify(pythonClient).startDownload(1L, "magnet:?xt=urn:btih:1", "/downloads");
+        verify(pythonClient).startDownload(2L, "magnet:?xt=urn:btih:2", "/downloads");
+    }
+
+    @Test
+    void failedReAddBacksOffUntilItsRetryTime() {
+        doThrow(new RuntimeException("engine down")).when(pythonClient).startDownload(anyLong(), any(), any());
+
+        reconciler.reconcile(List.of(torrent(1)));
+        assertThat(reconciler.reconcile(List.of(torrent(1)))).isZero();
+
+        clock.advance(Duration.ofSeconds(5));
+        assertThat(reconciler.reconcile(List.of(torrent(1)))).isEqualTo(1);
+
+        clock.advance(Duration.ofSeconds(5));
+        assertThat(reconciler.reconcile(List.of(torrent(1)))).isZero();    // second failure waits 10s
+
+        verify(pythonClient, times(2)).startDownload(anyLong(), any(), any());
+    }
+
+    @Test
+    void torrentBackInTheEngineForgetsItsBackOff() {
+        doThrow(new RuntimeException("engine down")).when(pythonClient).startDownload(anyLong(), any(), any());
+        reconciler.reconcile(List.of(torrent(1)));
+
+        reconciler.reconcile(List.of());
+
+        assertThat(reconciler.reconcile(List.of(torrent(1)))).isEqualTo(1);
+    }
+
+    @Test
+    void aTorrentWithAPendingCommandIsLeftToTheOutbox() {
+        when(commandRepository.findTorrentIdsWithPending(anyCollection())).thenReturn(List.of(1L));
+
+        assertThat(reconciler.reconcile(List.of(torrent(1), torrent(2)))).isEqualTo(1);
+
+        verify(pythonClient, never()).startDownload(eq(1L), any(), any());
+        verify(pythonClient).startDownload(2L, "magnet:?xt=urn:btih:2", "/downloads");
+    }
+
+    @Test
+    void aCommandQueuedOrAPauseMadeSinceTheCycleCancelsTheReAdd() {
+        when(commandRepository.existsByTorrentIdAndStatus(1L, EngineCommandStatus.PENDING)).thenReturn(true);
+        Torrent paused = torrent(2);
+        paused.setStatus(TorrentStatus.PAUSED);
+        when(liveStore.get(2L)).thenReturn(Optional.of(paused));
+
+        reconciler.reconcile(List.of(torrent(1), torrent(2)));
+
+        verify(pythonClient, never()).startDownload(anyLong(), any(), any());
+    }
+
+    @Test
+    void backOffDoublesUpToFiveMinutes() {
+        assertThat(EngineReconciler.backoff(1)).isEqualTo(Duration.ofSeconds(5));
+        assertThat(EngineReconciler.backoff(3)).isEqualTo(Duration.ofSeconds(20));
+        assertThat(EngineReconciler.backoff(40)).isEqualTo(Duration.ofMinutes(5));
+    }
+
+    private static Torrent torrent(long id) {
+        Torrent t = new Torrent("magnet:?xt=urn:btih:" + id);
+        t.setId(id);
+        t.setSavePath("/downloads");
+        return t;
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+        void advance(Duration d) {
+            now = now.plus(d);
+        }
+
+        @Override public ZoneId getZone() { return ZoneOffset.UTC; }
+        @Override public Clock withZone(ZoneId zone) { return this; }
+        @Override public Instant instant() { return now; }
+    }
+
+    /** Runs tasks on the calling thread so assertions see their effects. */
+    private static final class DirectExecutor extends AbstractExecutorService {
+        @Override public void execute(Runnable command) { command.run(); }
+        @Override public void shutdown() { }
+        @Override public List<Runnable> shutdownNow() { return List.of(); }
+        @Override public boolean isShutdown() { return false; }
+        @Override public boolean isTerminated() { return false; }
+        @Override public boolean awaitTermination(long timeout, TimeUnit unit) { return true; }
+    }
+}
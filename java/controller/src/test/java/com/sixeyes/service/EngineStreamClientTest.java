@@ -0,0 +1,134 @@
+package com.sixeyes.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/** Runs the client against a local fake engine that replays scripted NDJSON sessions. */
+class EngineStreamClientTest {
+
+    private final TorrentSyncService syncService = mock(TorrentSyncService.class);
+    private final List<String> queries = new CopyOnWriteArrayList<>();
+    private final List<String> sessions = new CopyOnWriteArrayList<>();
+    private HttpServer engine;
+    private EngineStreamClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        engine = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        engine.createContext("/python/stream", exchange -> {
+            queries.add(String.valueOf(exchange.getRequestURI().getQuery()));
+            byte[] body = sessions.isEmpty() ? new byte[0] : sessions.remove(0).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/x-ndjson");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        engine.start();
+
+        String url = "http://127.0.0.1:" + engine.getAddress().getPort();
+        client = new EngineStreamClient(syncService, new ObjectMapper(), new RestTemplateBuilder(), url, false, 5_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.stop(0);
+    }
+
+    @Test
+    void appliesSnapshotThenDeltas() {
+        sessions.add("""
+                {"type":"snapshot","seq":4,"epoch":"e1","torrents":[{"id":1,"status":"Downloading","progress":10.0}]}
+                {"type":"delta","seq":5,"epoch":"e1","id":1,"fields":{"progress":12.5,"peers":3}}
+                {"type":"heartbeat","seq":5,"epoch":"e1"}
+                """);
+
+        assertThat(client.consume()).isEqualTo(3);
+
+        verify(syncService).applyPushed(Map.of("id", 1, "status", "Downloading", "progress", 10.0));
+        verify(syncService).applyPushed(Map.of("id", 1L, "progress", 12.5, "peers", 3));
+        assertThat(client.getCursor()).isEqualTo(5);
+        assertThat(client.isConnected()).isFalse();
+    }
+
+    @Test
+    void reconnectsFromTheLastCursor() {
+        sessions.add("""
+                {"type":"snapshot","seq":7,"epoch":"e1","torrents":[]}
+                {"type":"delta","seq":8,"epoch":"e1","id":2,"fields":{"status":"Seeding"}}
+                """);
+        sessions.add("""
+                {"type":"delta","seq":9,"epoch":"e1","id":2,"fields":{"uploadSpeed":0.5}}
+                """);
+
+        client.consume();
+        client.consume();
+
+        assertThat(queries).containsExactly("null", "cursor=8&epoch=e1");
+        verify(syncService).applyPushed(Map.of("id", 2L, "uploadSpeed", 0.5));
+        assertThat(client.getCursor()).isEqualTo(9);
+    }
+
+    @Test
+    void failedApplyKeepsTheCursorAndReplaysTheEventOnReconnect() {
+        when(syncService.applyPushed(Map.of("id", 1L, "peers", 2)))
+                .thenThrow(new IllegalStateException("db down"))
+                .thenReturn(true);
+        sessions.add("""
+                {"type":"delta","seq":2,"epoch":"e1","id":1,"fields":{"peers":1}}
+                {"type":"delta","seq":3,"epoch":"e1","id":1,"fields":{"peers":2}}
+                {"type":"delta","seq":4,"epoch":"e1","id":1,"fields":{"peers":3}}
+                """);
+        sessions.add("""
+                {"type":"delta","seq":3,"epoch":"e1","id":1,"fields":{"peers":2}}
+                {"type":"delta","seq":4,"epoch":"e1","id":1,"fields":{"peers":3}}
+                """);
+
+        assertThatThrownBy(client::consume).isInstanceOf(IllegalStateException.class);
+        assertThat(client.getCursor()).isEqualTo(2);
+        verify(syncService, never()).applyPushed(Map.of("id", 1L, "peers", 3));
+
+        assertThat(client.consume()).isEqualTo(2);
+        assertThat(queries).containsExactly("null", "cursor=2&epoch=e1");
+        verify(syncService).applyPushed(Map.of("id", 1L, "peers", 3));
+        assertThat(client.getCursor()).isEqualTo(4);
+    }
+
+    @Test
+    void anEventThatFailsTwiceIsDroppedForASnapshot() {
+        doThrow(new IllegalStateException("bad row")).when(syncService).applyPushed(Map.of("id", 1L, "peers", 2));
+        sessions.add("""
+                {"type":"delta","seq":2,"epoch":"e1","id":1,"fields":{"peers":1}}
+                {"type":"delta","seq":3,"epoch":"e1","id":1,"fields":{"peers":2}}
+                """);
+        sessions.add("""
+                {"type":"delta","seq":3,"epoch":"e1","id":1,"fields":{"peers":2}}
+                """);
+
+        assertThatThrownBy(client::consume).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(client::consume).isInstanceOf(IllegalStateException.class);
+        client.consume();
+
+        assertThat(queries).containsExactly("null", "cursor=2&epoch=e1", "epoch=e1");
+    }
+}
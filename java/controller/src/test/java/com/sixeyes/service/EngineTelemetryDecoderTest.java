@@ -0,0 +1,95 @@
+package com.sixeyes.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.sixeyes.model.TelemetryField;
+import com.sixeyes.model.TorrentStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EngineTelemetryDecoderTest {
+
+    private final EngineTelemetryDecoder decoder = new EngineTelemetryDecoder(new ObjectMapper());
+
+    @Test
+    void decodesTypedFieldsAndSkipsTheRest() throws IOException {
+        List<String> seen = new ArrayList<>();
+        int count = decode("""
+                [{"id":7,"magnet":"magnet:?xt=urn:btih:abc","savePath":"/d","title":"Game",
+                  "progress":42.5,"peers":3,"downloadRate":1310720,"uploadRate":524288.0,
+                  "etaSeconds":null,"status":"Downloading","extra":{"nested":[1,2]}}]
+                """, t -> {
+            assertThat(t.id()).isEqualTo(7);
+            assertThat(t.title()).isEqualTo("Game");
+            assertThat(t.progress()).isEqualTo(42.5);
+            assertThat(t.peers()).isEqualTo(3);
+            assertThat(t.downloadRate()).isEqualTo(1_310_720L);
+            assertThat(t.uploadRate()).isEqualTo(524_288L);
+            assertThat(t.status()).isEqualTo(TorrentStatus.DOWNLOADING);
+            assertThat(t.has(TelemetryField.ETA)).isTrue();
+            assertThat(t.etaSeconds()).isZero();
+            assertThat(t.has(TelemetryField.SIZE)).isFalse();
+            seen.add(t.title());
+        });
+
+        assertThat(count).isEqualTo(1);
+        assertThat(seen).containsExactly("Game");
+    }
+
+    @Test
+    void reusedFlyweightIsResetBetweenRecords() throws IOException {
+        List<Boolean> hasTitle = new ArrayList<>();
+        decode("""
+                [{"id":1,"title":"A","status":"Seeding"},{"id":2,"peers":0}]
+                """, t -> hasTitle.add(t.has(TelemetryField.TITLE) || t.status() != null));
+
+        assertThat(hasTitle).containsExactly(true, false);
+    }
+
+    @Test
+    void recordsWithoutIdAreDropped() throws IOException {
+        assertThat(decode("""
+                [{"title":"orphan"},{"id":"x"},{"id":3}]
+                """, t -> assertThat(t.id()).isEqualTo(3))).isEqualTo(1);
+    }
+
+    @Test
+    void decodesTheCborEncodingWithTheSameRules() throws IOException {
+        // Same shape the engine's encoder writes: text keys, doubles for floats, null eta.
+        byte[] cbor = new ObjectMapper(new CBORFactory()).writeValueAsBytes(List.of(
+                java.util.Map.of("id", 7, "progress", 42.5, "downloadRate", 1_310_720,
+                        "status", "Seeding", "magnet", "magnet:?xt=urn:btih:abc"),
+                java.util.Map.of("title", "orphan")));
+        List<EngineTelemetry> seen = new ArrayList<>();
+
+        int count = decoder.decodeArray(new ByteArrayInputStream(cbor), true, t -> {
+            assertThat(t.id()).isEqualTo(7);
+            assertThat(t.progress()).isEqualTo(42.5);
+            assertThat(t.downloadRate()).isEqualTo(1_310_720L);
+            assertThat(t.status()).isEqualTo(TorrentStatus.SEEDING);
+            seen.add(t);
+        });
+
+        assertThat(count).isEqualTo(1);
+        assertThat(seen).hasSize(1);
+    }
+
+    @Test
+    void rejectsNonArrayBodies() {
+        assertThatThrownBy(() -> decode("{\"detail\":\"boom\"}", t -> { }))
+                .isInstanceOf(IOException.class);
+    }
+
+    private int decode(String json, Consumer<EngineTelemetry> sink) throws IOException {
+        return decoder.decodeArray(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), sink);
+    }
+}
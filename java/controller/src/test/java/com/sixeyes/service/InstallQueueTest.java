@@ -0,0 +1,65 @@
+package com.sixeyes.service;
+
+import com.sixeyes.event.InstallStatusChanged;
+import com.sixeyes.event.TorrentEventBus;
+import com.sixeyes.event.TorrentRemoved;
+import com.sixeyes.model.Torrent;
+import com.sixeyes.repo.TorrentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InstallQueueTest {
+
+    private final TorrentRepository repository = mock(TorrentRepository.class);
+    private final TorrentLiveStore liveStore = mock(TorrentLiveStore.class);
+    private final TorrentEventBus bus = mock(TorrentEventBus.class);
+    private final InstallQueue queue = new InstallQueue(repository, liveStore, bus);
+
+    @BeforeEach
+    void setUp() {
+        when(repository.findByInstallStatus(InstallQueue.REQUESTED)).thenReturn(List.of(torrent(1)));
+        when(liveStore.get(anyLong())).thenAnswer(i -> Optional.of(torrent(i.getArgument(0))));
+        when(bus.subscribe(anyString(), anyInt(), any())).thenReturn(null);
+        queue.start();
+    }
+
+    @Test
+    void seedsFromTheDatabase() {
+        assertThat(queue.jobs()).extracting(j -> j.id()).containsExactly(1L);
+    }
+
+    @Test
+    void followsInstallEventsInRequestOrder() {
+        queue.apply(new InstallStatusChanged(3, "NONE", "REQUESTED", null));
+        queue.apply(new InstallStatusChanged(2, "NONE", "REQUESTED", null));
+        queue.apply(new InstallStatusChanged(1, "REQUESTED", "INSTALLING", null));
+
+        assertThat(queue.jobs()).extracting(j -> j.id()).containsExactly(3L, 2L);
+    }
+
+    @Test
+    void removedTorrentsLeaveTheQueue() {
+        queue.apply(new TorrentRemoved(1));
+
+        assertThat(queue.jobs()).isEmpty();
+    }
+
+    private static Torrent torrent(long id) {
+        Torrent t = new Torrent("magnet:?xt=urn:btih:" + id);
+        t.setId(id);
+        t.setTitle("Game " + id);
+        t.setSavePath("/downloads");
+        return t;
+    }
+}
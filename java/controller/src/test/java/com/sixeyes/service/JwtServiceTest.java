@@ -0,0 +1,48 @@
+package com.sixeyes.service;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtServiceTest {
+
+    private static final String SECRET = "c2l4ZXllcy1sb2NhbC1kZXZlbG9wbWVudC1zZWNyZXQtZG8tbm90LXVzZS1pbi1wcm9kdWN0aW9u";
+    private static final String OTHER = "b3RoZXItc2l4ZXllcy1zZWNyZXQtdGhhdC1pcy1sb25nLWVub3VnaC1mb3ItaHMyNTYtLS0tLQ==";
+
+    private final VerifiedTokenCache cache = new VerifiedTokenCache(100, 60_000);
+    private final JwtService service = new JwtService(SECRET, 60_000, cache);
+
+    @Test
+    void issuedTokensAuthenticateAndAreCached() {
+        String token = service.generate("admin");
+
+        assertThat(service.authenticate(token)).contains("admin");
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(service.authenticate(token)).contains("admin");
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsForeignTamperedExpiredAndMalformedTokens() {
+        String foreign = new JwtService(OTHER, 60_000, new VerifiedTokenCache(0, 0)).generate("admin");
+        String token = service.generate("admin");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+        String expired = Jwts.builder()
+                .subject("admin")
+                .expiration(new Date(System.currentTimeMillis() - 1_000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .compact();
+
+        assertThat(service.authenticate(foreign)).isEmpty();
+        assertThat(service.authenticate(tampered)).isEmpty();
+        assertThat(service.authenticate(expired)).isEmpty();
+        assertThat(service.authenticate("")).isEmpty();
+        assertThat(service.authenticate("not.a.jwt")).isEmpty();
+        assertThat(cache.size()).isZero();
+    }
+}
@@ -0,0 +1,120 @@
+package com.sixeyes.service;
+
+import com.sixeyes.exception.LoginThrottledException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoginGuardTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private LoginGuard guard;
+
+    @AfterEach
+    void tearDown() {
+        guard.shutdown();
+    }
+
+    @Test
+    void exhaustedClientIsRefusedBeforeTheCheckRuns() {
+        guard = new LoginGuard(1, 4, 2, 6, 100, 5_000, now::get);
+        AtomicInteger checks = new AtomicInteger();
+
+        assertThat(guard.verify("1.2.3.4", () -> checks.incrementAndGet() > 0)).isTrue();
+        assertThat(guard.verify("1.2.3.4", () -> checks.incrementAndGet() < 0)).isFalse();
+        assertThatThrownBy(() -> guard.verify("1.2.3.4", () -> checks.incrementAndGet() > 0))
+                .isInstanceOf(LoginThrottledException.class)
+                .satisfies(e -> assertThat(((LoginThrottledException) e).getRetryAfterSeconds()).isBetween(1L, 11L));
+        assertThat(checks).hasValue(2);
+
+        // Other clients keep their own budget.
+        assertThat(guard.verify("5.6.7.8", () -> true)).isTrue();
+        assertThat(guard.stats().throttled()).isEqualTo(1);
+    }
+
+    @Test
+    void tokensComeBackAtTheRefillRate() {
+        guard = new LoginGuard(1, 4, 1, 6, 100, 5_000, now::get); // one token per 10 s
+        guard.verify("c", () -> true);
+        assertThatThrownBy(() -> guard.verify("c", () -> true)).isInstanceOf(LoginThrottledException.class);
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertThat(guard.verify("c", () -> true)).isTrue();
+    }
+
+    @Test
+    void fullPoolRefusesInsteadOfQueueingMoreWork() throws Exception {
+        guard = new LoginGuard(1, 1, 100, 600, 100, 5_000, now::get);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            callers.submit(() -> guard.verify("a", () -> {
+                running.countDown();
+                return await(release);
+            }));
+            running.await(5, TimeUnit.SECONDS);
+            callers.submit(() -> guard.verify("b", () -> true)); // takes the one queue slot
+            waitFor(() -> guard.stats().queued() == 1);
+
+            assertThatThrownBy(() -> guard.verify("c", () -> true))
+                    .isInstanceOf(LoginThrottledException.class)
+                    .hasMessageContaining("busy");
+            assertThat(guard.stats().busy()).isEqualTo(1);
+        } finally {
+            release.countDown();
+            callers.shutdown();
+            callers.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void idleClientsAreForgotten() {
+        guard = new LoginGuard(1, 4, 1, 60, 2, 5_000, now::get);
+        guard.verify("a", () -> true);
+        guard.verify("b", () -> true);
+        assertThat(guard.stats().clients()).isEqualTo(2);
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        guard.evictIdle();
+        assertThat(guard.stats().clients()).isZero();
+    }
+
+    @Test
+    void pastMaxClientsTheLeastRecentlySeenIsEvictedInsteadOfSharingABucket() {
+        guard = new LoginGuard(1, 4, 1, 60, 2, 5_000, now::get);
+        guard.verify("a", () -> true);
+        guard.verify("b", () -> true);
+        assertThatThrownBy(() -> guard.verify("a", () -> true)).isInstanceOf(LoginThrottledException.class);
+
+        // "b" is now the least recently seen; new clients get their own bucket each.
+        assertThat(guard.verify("c", () -> true)).isTrue();
+        assertThat(guard.verify("d", () -> true)).isTrue();
+        assertThat(guard.stats().clients()).isEqualTo(2);
+        assertThatThrownBy(() -> guard.verify("d", () -> true)).isInstanceOf(LoginThrottledException.class);
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void waitFor(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) Thread.sleep(5);
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+}
@@ -0,0 +1,22 @@
+package com.sixeyes.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongHashSetTest {
+
+    @Test
+    void addsContainsAndGrows() {
+        LongHashSet set = new LongHashSet(2);
+        for (long id = 0; id < 1_000; id++) {
+            assertThat(set.add(id * 31)).isTrue();
+        }
+
+        assertThat(set.add(31)).isFalse();
+        assertThat(set.size()).isEqualTo(1_000);
+        assertThat(set.contains(0)).isTrue();
+        assertThat(set.contains(999 * 31)).isTrue();
+        assertThat(set.contains(32)).isFalse();
+    }
+}
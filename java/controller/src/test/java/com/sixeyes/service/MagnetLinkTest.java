@@ -0,0 +1,54 @@
+package com.sixeyes.service;
+
+import com.sixeyes.exception.InvalidMagnetException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MagnetLinkTest {
+
+    private static final String HASH = "c12fe1c06bba254a9dc9f519b335aa7c1367a88a";
+
+    @Test
+    void differentlyWrittenMagnetsOfOneTorrentCanonicalizeAlike() {
+        MagnetLink plain = MagnetLink.parse("magnet:?xt=urn:btih:" + HASH + "&dn=Some+Game&tr=udp%3A%2F%2Fa.test%3A80");
+        MagnetLink shuffled = MagnetLink.parse("MAGNET:?tr.1=udp://a.test:80&dn=Some%20Game&xl=42&tr.2=udp://a.test:80"
+                + "&xt=urn:btih:" + HASH.toUpperCase());
+
+        assertThat(shuffled).isEqualTo(plain);
+        assertThat(shuffled.toUri()).isEqualTo(plain.toUri())
+                .isEqualTo("magnet:?xt=urn:btih:" + HASH + "&dn=Some%20Game&tr=udp%3A%2F%2Fa.test%3A80");
+        assertThat(plain.infoHash()).isEqualTo(HASH);
+    }
+
+    @Test
+    void base32HashesBecomeHex() {
+        MagnetLink link = MagnetLink.parse("magnet:?xt=urn:btih:YEX6DQDLXISUVHOJ6UM3GNNKPQJWPKEK");
+
+        assertThat(link.infoHashV1()).isEqualTo(HASH);
+    }
+
+    @Test
+    void v2AndHybridMagnetsKeepTheSha256Hash() {
+        String v2 = "ab".repeat(32);
+        MagnetLink v2Only = MagnetLink.parse("magnet:?xt=urn:btmh:1220" + v2.toUpperCase() + "&dn=x");
+        MagnetLink hybrid = MagnetLink.parse("magnet:?xt=urn:btmh:1220" + v2 + "&xt=urn:btih:" + HASH);
+
+        assertThat(v2Only.infoHash()).isEqualTo(v2);
+        assertThat(hybrid.infoHash()).isEqualTo(HASH);
+        assertThat(hybrid.toUri()).isEqualTo("magnet:?xt=urn:btih:" + HASH + "&xt=urn:btmh:1220" + v2);
+    }
+
+    @Test
+    void rejectsMagnetsWithoutAUsableHash() {
+        for (String bad : List.of("not-a-magnet", "magnet:?dn=x", "magnet:?xt=urn:btih:abc",
+                "magnet:?xt=urn:btih:" + "g".repeat(40), "magnet:?xt=urn:btih:" + "1".repeat(32),
+                "magnet:?xt=urn:btmh:1114" + "a".repeat(40), "magnet:?xt=urn:btih:" + HASH + "&dn=%zz")) {
+            assertThatThrownBy(() -> MagnetLink.parse(bad)).as(bad).isInstanceOf(InvalidMagnetException.class);
+        }
+        assertThatThrownBy(() -> MagnetLink.parse(null)).isInstanceOf(InvalidMagnetException.class);
+    }
+}
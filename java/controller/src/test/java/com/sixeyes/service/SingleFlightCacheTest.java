@@ -0,0 +1,98 @@
+package com.sixeyes.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void servesTheCachedValueUntilTheTtlRunsOut() {
+        SingleFlightCache<Integer> cache = new SingleFlightCache<>(loads::incrementAndGet, 5_000, now::get);
+
+        assertThat(cache.get()).isEqualTo(1);
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(4_999));
+        assertThat(cache.get()).isEqualTo(1);
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        assertThat(cache.get()).isEqualTo(2);
+
+        assertThat(cache.stats()).isEqualTo(new SingleFlightCache.Stats(1, 0, 2, 0));
+    }
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SingleFlightCache<Integer> cache = new SingleFlightCache<>(() -> {
+            loading.countDown();
+            await(release);
+            return loads.incrementAndGet();
+        }, 5_000, now::get);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            results.add(pool.submit(cache::get));
+            loading.await();
+            for (int i = 0; i < 7; i++) results.add(pool.submit(cache::get));
+            while (cache.stats().coalesced() < 7) Thread.onSpinWait();
+            release.countDown();
+
+            for (Future<Integer> result : results) assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        } finally {
+            pool.shutdownNow();
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(cache.stats()).isEqualTo(new SingleFlightCache.Stats(0, 7, 1, 0));
+    }
+
+    @Test
+    void failuresReachEveryWaiterButAreNotCached() {
+        SingleFlightCache<Integer> cache = new SingleFlightCache<>(() -> {
+            if (loads.incrementAndGet() == 1) throw new IllegalStateException("engine down");
+            return 42;
+        }, 5_000, now::get);
+
+        assertThatThrownBy(cache::get).isInstanceOf(IllegalStateException.class).hasMessage("engine down");
+        assertThat(cache.get()).isEqualTo(42);
+    }
+
+    @Test
+    void failedLoadFallsBackToTheLastGoodValueWhileYoungEnough() {
+        SingleFlightCache<Integer> cache = new SingleFlightCache<>(() -> {
+            if (loads.incrementAndGet() > 1) throw new IllegalStateException("engine down");
+            return 42;
+        }, 5_000, 60_000, now::get);
+        assertThat(cache.read()).isEqualTo(SingleFlightCache.Read.fresh(42));
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        assertThat(cache.read()).isEqualTo(new SingleFlightCache.Read<>(42, true, 30_000));
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        assertThatThrownBy(cache::read).hasMessage("engine down");
+        assertThat(cache.stats().stale()).isEqualTo(1);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
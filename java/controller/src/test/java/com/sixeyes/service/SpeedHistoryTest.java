@@ -0,0 +1,68 @@
+package com.sixeyes.service;
+
+import com.sixeyes.service.SpeedHistory.Series;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpeedHistoryTest {
+
+    @Test
+    void ringKeepsOnlyTheNewestSamples() {
+        SpeedHistory history = new SpeedHistory(4);
+        for (int i = 1; i <= 6; i++) history.record(1L, i * 1000L, i, 0, i);
+
+        Series all = history.range(1L, 0, Long.MAX_VALUE);
+
+        assertThat(all.timestamps()).containsExactly(3000L, 4000L, 5000L, 6000L);
+        assertThat(all.peers()).containsExactly(3, 4, 5, 6);
+    }
+
+    @Test
+    void rangeIsInclusiveOnBothEnds() {
+        SpeedHistory history = new SpeedHistory(10);
+        for (int i = 1; i <= 8; i++) history.record(1L, i * 1000L, i, i, 0);
+
+        assertThat(history.range(1L, 3000, 5000).timestamps()).containsExactly(3000L, 4000L, 5000L);
+        assertThat(history.range(1L, 9000, 10000).size()).isZero();
+        assertThat(history.range(2L, 0, Long.MAX_VALUE).size()).isZero();
+    }
+
+    @Test
+    void removeDropsTheRing() {
+        SpeedHistory history = new SpeedHistory(4);
+        history.record(1L, 1000L, 1, 1, 1);
+
+        history.remove(1L);
+
+        assertThat(history.range(1L, 0, Long.MAX_VALUE).size()).isZero();
+    }
+
+    @Test
+    void downsamplingKeepsEndpointsAndSpikes() {
+        SpeedHistory history = new SpeedHistory(1000);
+        for (int i = 0; i < 1000; i++) {
+            float down = i == 500 ? 50_000_000f : 1_000_000f;
+            float up = i == 800 ? 9_000_000f : 0f;
+            history.record(1L, i * 1000L, down, up, 5);
+        }
+
+        Series reduced = HistoryDownsampler.lttb(history.range(1L, 0, Long.MAX_VALUE), 50);
+
+        assertThat(reduced.size()).isEqualTo(50);
+        assertThat(reduced.timestamps()[0]).isZero();
+        assertThat(reduced.timestamps()[49]).isEqualTo(999_000L);
+        assertThat(reduced.download()).contains(50_000_000f);
+        assertThat(reduced.upload()).contains(9_000_000f);
+        assertThat(reduced.timestamps()).isSorted();
+    }
+
+    @Test
+    void smallSeriesAreReturnedAsIs() {
+        SpeedHistory history = new SpeedHistory(10);
+        for (int i = 0; i < 5; i++) history.record(1L, i, i, i, i);
+        Series raw = history.range(1L, 0, Long.MAX_VALUE);
+
+        assertThat(HistoryDownsampler.lttb(raw, 300)).isSameAs(raw);
+    }
+}
@@ -0,0 +1,150 @@
+package com.sixeyes.service;
+
+import com.sixeyes.model.TelemetryField;
+import com.sixeyes.model.Torrent;
+import com.sixeyes.model.TorrentStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TelemetryChangeDetectorTest {
+
+    private final TelemetryChangeDetector detector = new TelemetryChangeDetector(0.1);
+
+    @Test
+    void unchangedSeedProducesEmptyDelta() {
+        Torrent seed = seed();
+
+        TorrentDelta delta = detector.detect(seed, telemetry(seed));
+
+        assertThat(delta.isEmpty()).isTrue();
+    }
+
+    @Test
+    void unchangedTorrentIsNotCopied() {
+        Torrent t = downloading(42.0);
+
+        assertThat(detector.detect(t, telemetry(t)).next()).isSameAs(t);
+    }
+
+    @Test
+    void progressJitterWithinToleranceIsIgnored() {
+        Torrent t = downloading(42.0);
+        Map<String, Object> data = telemetry(t);
+        data.put("progress", 42.05);
+
+        assertThat(detector.detect(t, data).isEmpty()).isTrue();
+    }
+
+    @Test
+    void progressBeyondToleranceIsReported() {
+        Torrent t = downloading(42.0);
+        Map<String, Object> data = telemetry(t);
+        data.put("progress", 42.5);
+
+        TorrentDelta delta = detector.detect(t, data);
+
+        assertThat(delta.changed()).containsExactly(TelemetryField.PROGRESS);
+        assertThat(delta.next().getProgress()).isEqualTo(42.5);
+    }
+
+    @Test
+    void onlyChangedColumnsAreReported() {
+        Torrent t = downloading(10.0);
+        Map<String, Object> data = telemetry(t);
+        data.put("downloadRate", 3_670_016L);
+        data.put("peers", 12);
+
+        TorrentDelta delta = detector.detect(t, data);
+
+        assertThat(delta.changed()).containsExactlyInAnyOrder(TelemetryField.DOWNLOAD_RATE, TelemetryField.PEERS);
+        assertThat(delta.next().getDownloadRate()).isEqualTo(3_670_016L);
+    }
+
+    @Test
+    void nullEtaClearsTheStoredEstimate() {
+        Torrent t = downloading(10.0);
+        Map<String, Object> data = telemetry(t);
+        data.put("etaSeconds", null);
+
+        TorrentDelta delta = detector.detect(t, data);
+
+        assertThat(delta.changed()).containsExactly(TelemetryField.ETA);
+        assertThat(delta.next().getEtaSeconds()).isNull();
+    }
+
+    @Test
+    void completionIsAlwaysWrittenEvenWithinTolerance() {
+        Torrent t = downloading(99.95);
+        Map<String, Object> data = telemetry(t);
+        data.put("progress", 100.0);
+
+        TorrentDelta delta = detector.detect(t, data);
+
+        assertThat(delta.changed()).contains(TelemetryField.PROGRESS, TelemetryField.STATUS);
+        assertThat(delta.next().getStatus()).isEqualTo(TorrentStatus.SEEDING);
+    }
+
+    @Test
+    void theEngineCannotRewriteTheInfoHash() {
+        Torrent t = downloading(10.0);
+        t.setInfoHash("a".repeat(40));
+        Map<String, Object> data = telemetry(t);
+        data.put("infoHash", "b".repeat(40));
+
+        TorrentDelta delta = detector.detect(t, data);
+
+        assertThat(delta.changed()).isEmpty();
+        assertThat(delta.next().getInfoHash()).isEqualTo("a".repeat(40));
+    }
+
+    @Test
+    void persistedEntityIsNotMutated() {
+        Torrent t = downloading(10.0);
+        Map<String, Object> data = telemetry(t);
+        data.put("progress", 55.0);
+        data.put("peers", 9);
+
+        detector.detect(t, data);
+
+        assertThat(t.getProgress()).isEqualTo(10.0);
+        assertThat(t.getPeers()).isEqualTo(4);
+    }
+
+    private static Torrent downloading(double progress) {
+        Torrent t = new Torrent("magnet:?xt=urn:btih:abc");
+        t.setId(1L);
+        t.setTitle("Some Game");
+        t.setSizeBytes(4_509_715_660L);
+        t.setProgress(progress);
+        t.setPeers(4);
+        t.setDownloadRate(1_310_720);
+        t.setEtaSeconds(600L);
+        return t;
+    }
+
+    private static Torrent seed() {
+        Torrent t = downloading(100.0);
+        t.setDownloadRate(0);
+        t.setUploadRate(524_288);
+        t.setEtaSeconds(null);
+        return t;
+    }
+
+    private static Map<String, Object> telemetry(Torrent t) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("id", t.getId());
+        data.put("title", t.getTitle());
+        data.put("sizeBytes", t.getSizeBytes());
+        data.put("progress", t.getProgress());
+        data.put("peers", t.getPeers());
+        data.put("downloadRate", t.getDownloadRate());
+        data.put("uploadRate", t.getUploadRate());
+        data.put("etaSeconds", t.getEtaSeconds());
+        data.put("status", t.getStatus().getValue());
+        return data;
+    }
+}
@@ -0,0 +1,250 @@
+package com.sixeyes.service;
+
+import com.sixeyes.exception.InvalidTorrentFileException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TorrentFileParserTest {
+
+    private final TorrentFileParser parser = new TorrentFileParser(1 << 20);
+
+    @Test
+    void singleFileTorrentHashesTheInfoBytes() throws Exception {
+        Map<String, Object> info = dict("length", 1000L, "name", "movie.mkv", "piece length", 16384L,
+                "pieces", new byte[20]);
+        byte[] file = encode(dict("announce", "udp://a.test:80", "info", info));
+
+        TorrentMetainfo meta = parse(file);
+
+        assertThat(meta.name()).isEqualTo("movie.mkv");
+        assertThat(meta.totalSize()).isEqualTo(1000);
+        assertThat(meta.fileCount()).isEqualTo(1);
+        assertThat(meta.infoHashV1()).isEqualTo(hash("SHA-1", encode(info)));
+        assertThat(meta.infoHashV2()).isNull();
+        assertThat(meta.trackers()).containsExactly("udp://a.test:80");
+        assertThat(meta.magnet()).isEqualTo("magnet:?xt=urn:btih:" + meta.infoHashV1()
+                + "&dn=movie.mkv&tr=udp%3A%2F%2Fa.test%3A80");
+    }
+
+    @Test
+    void multiFileTorrentLeavesOutPaddingFiles() {
+        Map<String, Object> info = dict("files", List.of(
+                        dict("length", 10L, "path", List.of("a", "one.txt")),
+                        dict("attr", "p", "length", 16374L, "path", List.of(".pad", "16374")),
+                        dict("length", 32L, "path", List.of("two.txt"))),
+                "name", "album", "piece length", 16384L, "pieces", new byte[40]);
+        byte[] file = encode(dict(
+                "announce", "http://ignored.test/announce",
+                "announce-list", List.of(List.of("udp://a.test"), List.of("udp://b.test", "udp://a.test")),
+                "info", info,
+                "url-list", List.of("https://seed.test/album/")));
+
+        TorrentMetainfo meta = parse(file);
+
+        assertThat(meta.fileCount()).isEqualTo(2);
+        assertThat(meta.totalSize()).isEqualTo(42);
+        assertThat(meta.trackers()).containsExactly("udp://a.test", "udp://b.test");
+        assertThat(meta.webSeeds()).containsExactly("https://seed.test/album/");
+        assertThat(meta.magnet()).endsWith("&ws=https%3A%2F%2Fseed.test%2Falbum%2F");
+    }
+
+    @Test
+    void v2OnlyAndHybridTorrentsGetTheSha256Hash() throws Exception {
+        Map<String, Object> tree = dict("dir", dict("x.bin", dict("", dict("length", 5L, "pieces root", new byte[32]))),
+                "y.bin", dict("", dict("length", 7L)));
+        Map<String, Object> v2 = dict("file tree", tree, "meta version", 2L, "name", "both", "piece length", 16384L);
+        Map<String, Object> hybrid = new LinkedHashMap<>(v2);
+        hybrid.put("length", 12L);
+        hybrid.put("pieces", new byte[20]);
+
+        TorrentMetainfo v2Only = parse(encode(dict("info", v2)));
+        TorrentMetainfo both = parse(encode(dict("info", hybrid)));
+
+        assertThat(v2Only.infoHashV1()).isNull();
+        assertThat(v2Only.infoHashV2()).isEqualTo(hash("SHA-256", encode(v2)));
+        assertThat(v2Only.infoHash()).isEqualTo(v2Only.infoHashV2());
+        assertThat(v2Only.fileCount()).isEqualTo(2);
+        assertThat(v2Only.totalSize()).isEqualTo(12);
+        assertThat(v2Only.magnet()).startsWith("magnet:?xt=urn:btmh:1220" + v2Only.infoHashV2() + "&dn=both");
+        assertThat(both.infoHashV1()).isEqualTo(hash("SHA-1", encode(hybrid)));
+        assertThat(both.infoHashV2()).isEqualTo(hash("SHA-256", encode(hybrid)));
+        assertThat(both.magnet()).startsWith("magnet:?xt=urn:btih:" + both.infoHashV1()
+                + "&xt=urn:btmh:1220" + both.infoHashV2() + "&dn=both");
+    }
+
+    @Test
+    void theResultDoesNotDependOnHowTheStreamIsChunked() {
+        byte[] file = encode(largeTorrent(3_000));
+
+        TorrentMetainfo whole = parse(file);
+        TorrentMetainfo trickled = parser.parse(new OneByteAtATime(file));
+
+        assertThat(trickled).isEqualTo(whole);
+        assertThat(whole.fileCount()).isEqualTo(3_000);
+    }
+
+    @Test
+    void trackersThatWouldOverflowTheMagnetColumnAreLeftOut() {
+        List<Object> tiers = new ArrayList<>();
+        for (int i = 0; i < 200; i++) tiers.add(List.of("udp://tracker-" + i + ".example.test:6969/announce"));
+        byte[] file = encode(dict("announce-list", tiers, "info", dict("length", 1L, "name", "x", "pieces", new byte[20])));
+
+        TorrentMetainfo meta = parse(file);
+
+        assertThat(meta.trackers()).hasSize(200);
+        assertThat(meta.magnet()).hasSizeLessThanOrEqualTo(MagnetLink.MAX_LENGTH)
+                .contains("&tr=udp%3A%2F%2Ftracker-0.")
+                .doesNotContain("tracker-199.");
+    }
+
+    @Test
+    void rejectsMalformedFiles() {
+        String pieces = "6:pieces20:" + "x".repeat(20);
+        assertInvalid("", "truncated");
+        assertInvalid("d4:infod6:lengthi1e4:name1:x" + pieces, "truncated");
+        assertInvalid("d4:infod6:lengthi01e4:name1:x" + pieces + "ee", "leading zero");
+        assertInvalid("d4:infod6:lengthi-0e4:name1:x" + pieces + "ee", "negative zero");
+        assertInvalid("d4:infod6:lengthi-5e4:name1:x" + pieces + "ee", "negative length");
+        assertInvalid("d4:infod6:lengthi99999999999999999999e4:name1:x" + pieces + "ee", "out of range");
+        assertInvalid("di1ei2ee", "key is not a string");
+        assertInvalid("d4:infod4:name1:xee", "no files");
+        assertInvalid("d4:infod6:lengthi1e" + pieces + "ee", "no name");
+        assertInvalid("d3:foo999999999:xe", "past the end");
+        assertInvalid("d4:infoi1ee", "not a dictionary");
+        assertInvalid("d1:x" + "l".repeat(100) + "e".repeat(100) + "e", "nested deeper");
+    }
+
+    @Test
+    void rejectsFilesOverTheSizeLimit() {
+        byte[] file = encode(largeTorrent(2_000));
+        TorrentFileParser small = new TorrentFileParser(file.length - 1);
+
+        assertThatThrownBy(() -> small.parse(new ByteArrayInputStream(file)))
+                .isInstanceOf(InvalidTorrentFileException.class)
+                .hasMessageContaining("larger than");
+        assertThat(new TorrentFileParser(file.length).parse(new ByteArrayInputStream(file)).fileCount()).isEqualTo(2_000);
+    }
+
+    @Test
+    void fuzzedInputEitherParsesOrIsRejectedCleanly() {
+        Random random = new Random(24);
+        byte[] seed = encode(largeTorrent(20));
+        for (int round = 0; round < 20_000; round++) {
+            byte[] input;
+            if (round % 4 == 0) {
+                input = new byte[random.nextInt(256)];
+                random.nextBytes(input);
+                if (input.length > 0) input[0] = 'd';
+            } else {
+                input = seed.clone();
+                for (int flips = 1 + random.nextInt(4); flips > 0; flips--) {
+                    input[random.nextInt(input.length)] = (byte) "die:0123456789-x\0".charAt(random.nextInt(17));
+                }
+                if (round % 3 == 0) input = java.util.Arrays.copyOf(input, random.nextInt(input.length));
+            }
+            try {
+                parse(input);
+            } catch (InvalidTorrentFileException expected) {
+                // rejected cleanly
+            }
+        }
+    }
+
+    private TorrentMetainfo parse(byte[] file) {
+        return parser.parse(new ByteArrayInputStream(file));
+    }
+
+    private void assertInvalid(String file, String reason) {
+        assertThatThrownBy(() -> parse(file.getBytes(StandardCharsets.ISO_8859_1)))
+                .isInstanceOf(InvalidTorrentFileException.class)
+                .hasMessageContaining(reason);
+    }
+
+    static Map<String, Object> largeTorrent(int files) {
+        List<Object> list = new ArrayList<>(files);
+        for (int i = 0; i < files; i++) {
+            list.add(dict("length", 1_000_000L + i, "path", List.of("disc " + (i / 100), "track-" + i + ".flac")));
+        }
+        return dict("announce", "udp://tracker.test:1337/announce", "comment", "generated",
+                "info", dict("files", list, "name", "collection", "piece length", 1L << 20,
+                        "pieces", new byte[20 * (files / 4 + 1)]));
+    }
+
+    static Map<String, Object> dict(Object... keysAndValues) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) map.put((String) keysAndValues[i], keysAndValues[i + 1]);
+        return map;
+    }
+
+    /** Bencodes strings, byte arrays, longs, lists and maps (in insertion order, which the callers keep sorted). */
+    static byte[] encode(Object value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encode(value, out);
+        return out.toByteArray();
+    }
+
+    private static void encode(Object value, ByteArrayOutputStream out) {
+        if (value instanceof String s) {
+            encode(s.getBytes(StandardCharsets.UTF_8), out);
+        } else if (value instanceof byte[] bytes) {
+            out.writeBytes((bytes.length + ":").getBytes(StandardCharsets.US_ASCII));
+            out.writeBytes(bytes);
+        } else if (value instanceof Long n) {
+            out.writeBytes(("i" + n + "e").getBytes(StandardCharsets.US_ASCII));
+        } else if (value instanceof List<?> list) {
+            out.write('l');
+            list.forEach(item -> encode(item, out));
+            out.write('e');
+        } else if (value instanceof Map<?, ?> map) {
+            out.write('d');
+            map.forEach((k, v) -> {
+                encode(k, out);
+                encode(v, out);
+            });
+            out.write('e');
+        } else {
+            throw new IllegalArgumentException(String.valueOf(value));
+        }
+    }
+
+    private static String hash(String algorithm, byte[] bytes) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance(algorithm).digest(bytes));
+    }
+
+    private static final class OneByteAtATime extends InputStream {
+        private final byte[] bytes;
+        private int pos;
+
+        OneByteAtATime(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public int read() {
+            return pos < bytes.length ? bytes[pos++] & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) return 0;
+            int c = read();
+            if (c < 0) return -1;
+            b[off] = (byte) c;
+            return 1;
+        }
+    }
+}
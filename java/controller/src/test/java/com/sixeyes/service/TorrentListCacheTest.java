@@ -0,0 +1,82 @@
+package com.sixeyes.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sixeyes.model.Torrent;
+import com.sixeyes.model.TorrentStatus;
+import com.sixeyes.repo.TorrentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TorrentListCacheTest {
+
+    @Mock TorrentRepository torrentRepository;
+
+    private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+    private TorrentLiveStore store;
+    private TorrentListCache cache;
+
+    @BeforeEach
+    void setUp() {
+        when(torrentRepository.findAll()).thenReturn(List.of(torrent(1L), torrent(2L)));
+        store = new TorrentLiveStore(torrentRepository);
+        cache = new TorrentListCache(store, mapper);
+    }
+
+    @Test
+    void encodesOncePerVersion() {
+        TorrentListCache.Encoded first = cache.current();
+
+        assertThat(cache.current()).isSameAs(first);
+        assertThat(cache.current()).isSameAs(first);
+        assertThat(cache.stats()).isEqualTo(new TorrentListCache.Stats(1, 2));
+    }
+
+    @Test
+    void rebuildsAfterTheListChanges() throws IOException {
+        TorrentListCache.Encoded before = cache.current();
+
+        store.upsert(torrent(3L));
+        TorrentListCache.Encoded after = cache.current();
+
+        assertThat(after.version()).isGreaterThan(before.version());
+        assertThat(mapper.readTree(after.json())).hasSize(3);
+        assertThat(after.etag(false)).isNotEqualTo(before.etag(false));
+        assertThat(cache.stats().builds()).isEqualTo(2);
+    }
+
+    @Test
+    void gzipCopyHoldsTheSameJson() throws IOException {
+        TorrentListCache.Encoded list = cache.current();
+
+        byte[] inflated;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(list.gzip()))) {
+            inflated = in.readAllBytes();
+        }
+        assertThat(inflated).isEqualTo(list.json());
+        JsonNode rows = mapper.readTree(inflated);
+        assertThat(rows).extracting(r -> r.get("id").asLong()).containsExactly(1L, 2L);
+        assertThat(list.etag(true)).isEqualTo("\"" + list.version() + "-gz\"");
+    }
+
+    private static Torrent torrent(long id) {
+        Torrent t = new Torrent("magnet:?xt=urn:btih:" + id);
+        t.setId(id);
+        t.setStatus(TorrentStatus.DOWNLOADING);
+        t.setCreatedAt(LocalDateTime.of(2026, 3, 1, 12, 0));
+        return t;
+    }
+}
@@ -0,0 +1,210 @@
+package com.sixeyes.service;
+
+import com.sixeyes.model.TelemetryField;
+import com.sixeyes.model.Torrent;
+import com.sixeyes.model.TorrentStatus;
+import com.sixeyes.repo.TorrentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TorrentLiveStoreTest {
+
+    @Mock TorrentRepository torrentRepository;
+
+    private final TelemetryChangeDetector detector = new TelemetryChangeDetector(0.1);
+    private TorrentLiveStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new TorrentLiveStore(torrentRepository);
+    }
+
+    @Test
+    void loadsFromDatabaseOnlyOnce() {
+        when(torrentRepository.findAll()).thenReturn(List.of(torrent(1L, 10.0)));
+
+        assertThat(store.all()).hasSize(1);
+        assertThat(store.all()).hasSize(1);
+
+        verify(torrentRepository, times(1)).findAll();
+    }
+
+    @Test
+    void volatileChangesStayInMemoryUntilCheckpoint() {
+        when(torrentRepository.findAll()).thenReturn(List.of(torrent(1L, 10.0)));
+
+        store.applyTelemetry(1L, t -> detector.detect(t, Map.of("progress", 25.0, "peers", 7)));
+
+        assertThat(store.get(1L)).get().extracting(Torrent::getProgress).isEqualTo(25.0);
+        assertThat(store.drainDirty(true)).isEmpty();
+
+        List<TorrentDelta> checkpoint = store.drainDirty(false);
+        assertThat(checkpoint).singleElement()
+                .extracting(TorrentDelta::changed)
+                .isEqualTo(java.util.EnumSet.of(TelemetryField.PROGRESS, TelemetryField.PEERS));
+        assertThat(store.drainDirty(false)).isEmpty();
+    }
+
+    @Test
+    void lifecycleChangeDrainsWithPendingVolatileFields() {
+        when(torrentRepository.findAll()).thenReturn(List.of(torrent(1L, 10.0)));
+
+        store.applyTelemetry(1L, t -> detector.detect(t, Map.of("peers", 3)));
+        store.applyTelemetry(1L, t -> detector.detect(t, Map.of("status", "Seeding")));
+
+        List<TorrentDelta> drained = store.drainDirty(true);
+        assertThat(drained).singleElement().satisfies(d -> {
+            assertThat(d.changed()).contains(TelemetryField.STATUS, TelemetryField.PROGRESS, TelemetryField.PEERS);
+            assertThat(d.next().getStatus()).isEqualTo(TorrentStatus.SEEDING);
+        });
+    }
+
+    @Test
+    void failedWriteCanBeMarkedDirtyAgain() {
+        when(torrentRepository.findAll()).thenReturn(List.of(torrent(1L, 10.0)));
+        store.applyTelemetry(1L, t -> detector.detect(t, Map.of("peers", 3)));
+
+        List<TorrentDelta> drained = store.drainDirty(false);
+        store.markDirty(drained);
+
+        assertThat(store.drainDirty(false)).hasSize(1);
+    }
+
+    @Test
+    void upsertReplacesLiveStateAndClearsDirty() {
+        when(torrentRepository.findAll()).thenReturn(List.of(torrent(1L, 10.0)));
+        store.applyTelemetry(1L, t -> detector.detect(t, Map.of("peers", 3)));
+
+        Torrent paused = torrent(1L, 10.0);
+        paused.setStatus(TorrentStatus.PAUSED);
+        store.upsert(paused);
+
+        assertThat(store.get(1L)).get().extracting(Torrent::getStatus).isEqualTo(TorrentStatus.PAUSED);
+        assertThat(store.drainDirty(false)).isEmpty();
+    }
+
+    @Test
+    void mergeIntoOverlaysLiveVolatileFields() {
+        when(torrentRepository.findAll()).thenReturn(List.of(torrent(1L, 10.0)));
+        store.applyTelemetry(1L, t -> detector.detect(t, Map.of("progress", 60.0, "peers", 11)));
+
+        Torrent fromDb = torrent(1L, 10.0);
+        store.mergeInto(fromDb);
+
+        assertThat(fromDb.getProgress()).isEqualTo(60.0);
+        assertThat(fromDb.getPeers()).isEqualTo(11);
+    }
+
+    @Test
+    void changesSinceReturnsOnlyRowsTouchedAfterThatVersion() {
+        when(torrentRepository.findAll()).thenReturn(List.of(torrent(1L, 10.0), torrent(2L, 10.0), torrent(3L, 10.0)));
+        long seen = store.version();
+
+        store.applyTelemetry(1L, t -> detector.detect(t, Map.of("progress", 50.0)));
+        store.applyTelemetry(2L, t -> detector.detect(t, Map.of("progress", 10.0)));
+        store.remove(3L);
+
+        TorrentLiveStore.Changes changes = store.changesSince(seen);
+        assertThat(changes.full()).isFalse();
+        assertThat(changes.upserted()).extracting(Torrent::getId).containsExactly(1L);
+        assertThat(changes.removed()).containsExactly(3L);
+        assertThat(changes.version()).isGreaterThan(seen);
+
+        TorrentLiveStore.Changes idle = store.changesSince(changes.version());
+        assertThat(idle.upserted()).isEmpty();
+        assertThat(idle.removed()).isEmpty();
+        assertThat(idle.version()).isEqualTo(changes.version());
+    }
+
+    @Test
+    void upsertStampsANewVersion() {
+        when(torrentRepository.findAll()).thenReturn(List.of(torrent(1L, 10.0)));
+        long before = store.version();
+
+        Torrent stored = store.upsert(torrent(1L, 20.0));
+
+        assertThat(stored.getChangeVersion()).isGreaterThan(before).isEqualTo(store.version());
+    }
+
+    @Test
+    void versionsFromAnotherProcessGetTheFullList() {
+        when(torrentRepository.findAll()).thenReturn(List.of(torrent(1L, 10.0), torrent(2L, 10.0)));
+
+        assertThat(store.changesSince(0).full()).isTrue();
+        assertThat(store.changesSince(store.version() + 1).upserted()).hasSize(2);
+    }
+
+    @Test
+    void sinceOlderThanTheOldestTombstoneGetsTheFullList() {
+        List<Torrent> many = new java.util.ArrayList<>();
+        for (long id = 1; id <= TorrentLiveStore.TOMBSTONE_CAPACITY + 2; id++) many.add(torrent(id, 0.0));
+        when(torrentRepository.findAll()).thenReturn(many);
+        long seen = store.version();
+
+        for (long id = 1; id <= TorrentLiveStore.TOMBSTONE_CAPACITY + 1; id++) store.remove(id);
+
+        TorrentLiveStore.Changes changes = store.changesSince(seen);
+        assertThat(changes.full()).isTrue();
+        assertThat(changes.upserted()).extracting(Torrent::getId).containsExactly((long) TorrentLiveStore.TOMBSTONE_CAPACITY + 2);
+    }
+
+    @Test
+    void slowProgressAccumulatesUntilItIsWritten() {
+        when(torrentRepository.findAll()).thenReturn(List.of(torrent(1L, 10.0)));
+
+        // +0.05% a tick, below the 0.1 tolerance, while the rate changes every tick.
+        boolean progressDrained = false;
+        for (int tick = 1; tick <= 10 && !progressDrained; tick++) {
+            Map<String, Object> data = Map.of("progress", 10.0 + tick * 0.05, "downloadRate", 1_000 + tick);
+            store.applyTelemetry(1L, t -> detector.detect(t, data));
+            progressDrained = store.drainDirty(false).stream()
+                    .anyMatch(d -> d.changed().contains(TelemetryField.PROGRESS));
+        }
+
+        assertThat(progressDrained).isTrue();
+        assertThat(store.get(1L)).get().extracting(Torrent::getProgress).isEqualTo(10.15);
+    }
+
+    @Test
+    void sessionRatesFollowEveryReplacement() {
+        Torrent a = torrent(1L, 10.0);
+        a.setDownloadRate(1_000);
+        a.setUploadRate(100);
+        Torrent b = torrent(2L, 100.0);
+        b.setDownloadRate(5_000); // seeding: its download rate doesn't count
+        b.setUploadRate(300);
+        when(torrentRepository.findAll()).thenReturn(List.of(a, b));
+
+        assertThat(store.sessionRates()).isEqualTo(new TorrentLiveStore.SessionRates(1_000, 400));
+
+        store.applyTelemetry(1L, t -> detector.detect(t, Map.of("downloadRate", 4_000, "uploadRate", 50)));
+        assertThat(store.sessionRates()).isEqualTo(new TorrentLiveStore.SessionRates(4_000, 350));
+
+        Torrent paused = store.get(1L).orElseThrow().snapshot();
+        paused.setStatus(TorrentStatus.PAUSED);
+        store.upsert(paused);
+        assertThat(store.sessionRates()).isEqualTo(new TorrentLiveStore.SessionRates(0, 350));
+
+        store.remove(2L);
+        assertThat(store.sessionRates()).isEqualTo(new TorrentLiveStore.SessionRates(0, 50));
+    }
+
+    private static Torrent torrent(long id, double progress) {
+        Torrent t = new Torrent("magnet:?xt=urn:btih:" + id);
+        t.setId(id);
+        t.setProgress(progress);
+        return t;
+    }
+}
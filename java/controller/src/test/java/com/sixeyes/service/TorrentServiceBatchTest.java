@@ -0,0 +1,235 @@
+package com.sixeyes.service;
+
+import com.sixeyes.dto.request.BatchCommandRequest;
+import com.sixeyes.dto.response.BatchItemResult;
+import com.sixeyes.dto.response.BatchItemResult.Outcome;
+import com.sixeyes.dto.response.BatchResponse;
+import com.sixeyes.dto.response.CatalogGameResponse;
+import com.sixeyes.dto.response.DiskInfo;
+import com.sixeyes.event.TorrentEventBus;
+import com.sixeyes.exception.InsufficientStorageException;
+import com.sixeyes.model.EngineCommandType;
+import com.sixeyes.model.Torrent;
+import com.sixeyes.model.TorrentStatus;
+import com.sixeyes.repo.TorrentFilter;
+import com.sixeyes.repo.TorrentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class TorrentServiceBatchTest {
+
+    @Mock TorrentRepository torrentRepository;
+    @Mock PythonClientService pythonClient;
+    @Mock SettingsService settingsService;
+    @Mock TorrentLiveStore liveStore;
+    @Mock AdaptiveSyncScheduler syncScheduler;
+    @Mock SpeedHistory speedHistory;
+    @Mock TorrentEventBus eventBus;
+    @Mock InstallQueue installQueue;
+    @Mock CatalogService catalogService;
+    @Mock EngineCommandOutbox commandOutbox;
+    @Mock TorrentFileParser torrentFileParser;
+
+    @Spy
+    EngineFanOut fanOut = new EngineFanOut(5_000);
+
+    @InjectMocks
+    TorrentService service;
+
+    private final AtomicLong ids = new AtomicLong(100);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "minFreeGb", 1.0);
+        when(settingsService.getDownloadPath()).thenReturn("/data");
+        when(pythonClient.fetchDisks()).thenReturn(List.of(new DiskInfo("/data", "sda", 500, 100, 400)));
+        when(torrentRepository.saveAll(anyList())).thenAnswer(i -> {
+            List<Torrent> rows = i.getArgument(0);
+            rows.stream().filter(t -> t.getId() == null).forEach(t -> t.setId(ids.incrementAndGet()));
+            return rows;
+        });
+        when(liveStore.upsert(any())).thenAnswer(i -> i.getArgument(0));
+    }
+
+    @Test
+    void addReportsEachItemAndQueuesTheEngineAddsTogether() {
+        String fresh = "magnet:?xt=urn:btih:" + "a".repeat(40);
+        // The same torrent with its parameters reordered, an upper-case hash and another tracker.
+        String freshAgain = "magnet:?dn=Same&tr=udp%3A%2F%2Fother.test&xt=urn:btih:" + "A".repeat(40);
+        String known = "magnet:?xt=urn:btih:" + "b".repeat(40);
+        String fromCatalog = "magnet:?xt=urn:btih:" + "c".repeat(40);
+        String gameUrl = "https://fitgirl-repacks.site/game/";
+        when(catalogService.getDetails(gameUrl)).thenReturn(game(fromCatalog));
+        when(catalogService.getDetails("https://elsewhere/"))
+                .thenThrow(new IllegalArgumentException("Invalid game URL"));
+        when(torrentRepository.findExistingInfoHashes(anyCollection())).thenReturn(List.of("b".repeat(40)));
+
+        BatchResponse response = service.addTorrents(
+                List.of(fresh, known, "not-a-magnet", freshAgain),
+                List.of(gameUrl, "https://elsewhere/"),
+                null);
+
+        assertThat(response.succeeded()).isEqualTo(2);
+        assertThat(response.failed()).isEqualTo(4);
+        assertThat(outcomeOf(response, fresh)).containsExactly(Outcome.OK);
+        assertThat(outcomeOf(response, freshAgain)).containsExactly(Outcome.DUPLICATE);
+        assertThat(outcomeOf(response, known)).containsExactly(Outcome.DUPLICATE);
+        assertThat(outcomeOf(response, "not-a-magnet")).containsExactly(Outcome.INVALID);
+        assertThat(outcomeOf(response, gameUrl)).containsExactly(Outcome.OK);
+        assertThat(outcomeOf(response, "https://elsewhere/")).containsExactly(Outcome.INVALID);
+
+        verify(pythonClient, times(1)).fetchDisks();
+        verifyNoMoreInteractions(pythonClient);
+        verify(torrentRepository, times(1)).saveAll(anyList());
+        verify(commandOutbox).enqueueAll(eq(EngineCommandType.ADD),
+                org.mockito.ArgumentMatchers.<List<Torrent>>argThat(rows ->
+                        rows.stream().map(Torrent::getInfoHash).toList()
+                                .equals(List.of("a".repeat(40), "c".repeat(40)))),
+                eq(false));
+        verify(liveStore, times(2)).upsert(any());
+        verify(syncScheduler, times(1)).wake();
+    }
+
+    @Test
+    void addRejectsTheWholeBatchWhenTheDiskIsFull() {
+        when(pythonClient.fetchDisks()).thenReturn(List.of(new DiskInfo("/data", "sda", 500, 499.5, 0.5)));
+
+        assertThatThrownBy(() -> service.addTorrents(List.of("magnet:?xt=urn:btih:" + "a".repeat(40)), null, null))
+                .isInstanceOf(InsufficientStorageException.class);
+        verify(torrentRepository, never()).saveAll(anyList());
+        verify(commandOutbox, never()).enqueueAll(any(), anyList(), any(Boolean.class));
+    }
+
+    @Test
+    void pauseByFilterRecordsStateAndQueuesAPausePerTorrent() {
+        Torrent a = torrent(1L, TorrentStatus.DOWNLOADING);
+        Torrent b = torrent(2L, TorrentStatus.DOWNLOADING);
+        when(torrentRepository.findIds(any(TorrentFilter.class), anyInt())).thenReturn(List.of(1L, 2L));
+        when(torrentRepository.findAllById(anyCollection())).thenReturn(List.of(a, b));
+
+        BatchResponse response = service.pauseTorrents(
+                new BatchCommandRequest(null, "downloading", null, null, false));
+
+        assertThat(response.succeeded()).isEqualTo(2);
+        assertThat(a.getStatus()).isEqualTo(TorrentStatus.PAUSED);
+        assertThat(b.getDownloadRate()).isZero();
+        verify(torrentRepository).findIds(
+                org.mockito.ArgumentMatchers.argThat(f -> f.status() == TorrentStatus.DOWNLOADING),
+                eq(TorrentService.MAX_BATCH));
+        verify(torrentRepository, times(1)).saveAll(anyList());
+        verify(commandOutbox).enqueueAll(EngineCommandType.PAUSE, List.of(a, b), false);
+        verifyNoInteractions(pythonClient);
+    }
+
+    @Test
+    void resumeQueuesAResumePerTorrentAndReportsUnknownIds() {
+        Torrent paused = torrent(1L, TorrentStatus.PAUSED);
+        Torrent stopped = torrent(2L, TorrentStatus.STOPPED);
+        stopped.setProgress(100);
+        when(torrentRepository.findAllById(anyCollection())).thenReturn(List.of(paused, stopped));
+
+        BatchResponse response = service.resumeTorrents(
+                new BatchCommandRequest(List.of(1L, 2L, 9L), null, null, null, false));
+
+        assertThat(paused.getStatus()).isEqualTo(TorrentStatus.DOWNLOADING);
+        assertThat(stopped.getStatus()).isEqualTo(TorrentStatus.SEEDING);
+        assertThat(outcomeOf(response, "9")).containsExactly(Outcome.NOT_FOUND);
+        assertThat(response.succeeded()).isEqualTo(2);
+        verify(commandOutbox).enqueueAll(EngineCommandType.RESUME, List.of(paused, stopped), false);
+        verifyNoInteractions(pythonClient);
+    }
+
+    @Test
+    void removeDeletesInOneStatementAndQueuesTheEngineRemoves() {
+        List<Torrent> rows = List.of(torrent(1L, TorrentStatus.SEEDING), torrent(2L, TorrentStatus.SEEDING));
+        when(torrentRepository.findAllById(anyCollection())).thenReturn(rows);
+
+        BatchResponse response = service.removeTorrents(
+                new BatchCommandRequest(List.of(1L, 2L), null, null, null, true));
+
+        assertThat(response.succeeded()).isEqualTo(2);
+        verify(commandOutbox).enqueueAll(EngineCommandType.REMOVE, rows, true);
+        verify(torrentRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(liveStore).remove(1L);
+        verify(liveStore).remove(2L);
+        verifyNoInteractions(pythonClient);
+    }
+
+    @Test
+    void aRolledBackRemoveLeavesTheLiveViewAlone() {
+        when(torrentRepository.findAllById(anyCollection())).thenReturn(List.of(torrent(1L, TorrentStatus.SEEDING)));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.removeTorrents(new BatchCommandRequest(List.of(1L), null, null, null, false));
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                    TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(liveStore, never()).remove(1L);
+        verify(speedHistory, never()).remove(1L);
+    }
+
+    @Test
+    void commandsNeedEitherIdsOrAFilter() {
+        assertThatThrownBy(() -> service.pauseTorrents(new BatchCommandRequest(null, null, null, null, false)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.pauseTorrents(new BatchCommandRequest(List.of(1L), "paused", null, null, false)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.pauseTorrents(new BatchCommandRequest(null, "bogus", null, null, false)))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(commandOutbox, never()).enqueueAll(any(), anyList(), any(Boolean.class));
+    }
+
+    private static List<Outcome> outcomeOf(BatchResponse response, String ref) {
+        return response.results().stream()
+                .filter(r -> r.ref().equals(ref))
+                .map(BatchItemResult::outcome)
+                .toList();
+    }
+
+    private static Torrent torrent(long id, TorrentStatus status) {
+        Torrent t = new Torrent("magnet:?xt=urn:btih:" + id);
+        t.setId(id);
+        t.setStatus(status);
+        t.setDownloadRate(1000);
+        return t;
+    }
+
+    private static CatalogGameResponse game(String magnet) {
+        return new CatalogGameResponse(1L, "Game", "https://fitgirl-repacks.site/game/", null, magnet,
+                null, null, null, null, null, null, null, null);
+    }
+}
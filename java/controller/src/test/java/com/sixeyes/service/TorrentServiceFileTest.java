@@ -1,21 +1,47 @@
 package com.sixeyes.service;
 
-import com.sixeyes.dto.response.TorrentResponse;
+import com.sixeyes.dto.response.CommandAcceptedResponse;
+import com.sixeyes.dto.response.DiskInfo;
+import com.sixeyes.exception.DuplicateMagnetException;
+import com.sixeyes.exception.InsufficientStorageException;
+import com.sixeyes.model.EngineCommand;
+import com.sixeyes.model.EngineCommandType;
+import com.sixeyes.model.Torrent;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class TorrentServiceFileTest {
 
+    // A single 13-byte file; the 20 'x' stand in for its piece hash.
+    private static final byte[] TORRENT = ("d8:announce22:udp://tracker.test:80/4:infod6:lengthi13e4:name9:hello.txt"
+            + "12:piece lengthi16384e6:pieces20:xxxxxxxxxxxxxxxxxxxxee").getBytes(StandardCharsets.US_ASCII);
+
     @Mock
     com.sixeyes.repo.TorrentRepository torrentRepository;
 
@@ -25,24 +51,118 @@ class TorrentServiceFileTest {
     @Mock
     SettingsService settingsService;
 
+    @Mock
+    TorrentLiveStore liveStore;
+
+    @Mock
+    AdaptiveSyncScheduler syncScheduler;
+
+    @Mock
+    SpeedHistory speedHistory;
+
+    @Mock
+    com.sixeyes.event.TorrentEventBus eventBus;
+
+    @Mock
+    InstallQueue installQueue;
+
+    @Mock
+    CatalogService catalogService;
+
+    @Mock
+    EngineCommandOutbox commandOutbox;
+
+    @Spy
+    EngineFanOut fanOut = new EngineFanOut(5_000);
+
+    @Spy
+    TorrentFileParser torrentFileParser = new TorrentFileParser(1 << 20);
+
     @InjectMocks
     TorrentService service;
 
     @Test
-    void addTorrentFromFileParsesThenAdds() {
-        String magnet = "magnet:?xt=urn:btih:abc";
+    void addTorrentFromFileBuildsTheMagnetLocally() {
+        when(settingsService.getDownloadPath()).thenReturn("/app/downloads");
+        when(pythonClient.fetchDisks()).thenReturn(List.of());
+        when(torrentRepository.existsByInfoHash(any())).thenReturn(false);
+        when(torrentRepository.save(any())).thenAnswer(i -> {
+            Torrent saved = i.getArgument(0);
+            saved.setId(1L);
+            return saved;
+        });
+        when(liveStore.upsert(any())).thenAnswer(i -> i.getArgument(0));
+        EngineCommand command = new EngineCommand();
+        command.setId(9L);
+        when(commandOutbox.enqueue(eq(EngineCommandType.ADD), any(), eq(false))).thenReturn(command);
+
+        CommandAcceptedResponse res = service.addTorrentFromFile(new ByteArrayInputStream(TORRENT));
+
+        assertNotNull(res.torrent());
+        assertEquals(9L, res.commandId());
+        ArgumentCaptor<Torrent> saved = ArgumentCaptor.forClass(Torrent.class);
+        verify(torrentRepository).save(saved.capture());
+        assertTrue(saved.getValue().getMagnet().startsWith("magnet:?xt=urn:btih:"));
+        assertTrue(saved.getValue().getMagnet().endsWith("&dn=hello.txt&tr=udp%3A%2F%2Ftracker.test%3A80%2F"));
+        assertEquals("hello.txt", saved.getValue().getTitle());
+        assertEquals(13L, saved.getValue().getSizeBytes());
+        assertEquals(40, saved.getValue().getInfoHash().length());
+        assertTrue(saved.getValue().getMagnet().contains(saved.getValue().getInfoHash()));
+        verify(pythonClient, never()).startDownload(any(), any(), any());
+    }
+
+    @Test
+    void theLiveStoreSeesTheTorrentOnlyOnceItIsCommitted() {
+        when(settingsService.getDownloadPath()).thenReturn("/app/downloads");
+        when(pythonClient.fetchDisks()).thenReturn(List.of());
+        when(torrentRepository.save(any())).thenAnswer(i -> {
+            Torrent saved = i.getArgument(0);
+            saved.setId(1L);
+            return saved;
+        });
+        EngineCommand command = new EngineCommand();
+        command.setId(9L);
+        when(commandOutbox.enqueue(eq(EngineCommandType.ADD), any(), eq(false))).thenReturn(command);
 
-        when(pythonClient.magnetFromFile(any(), anyString())).thenReturn(magnet);
-        when(torrentRepository.existsByMagnet(magnet)).thenReturn(false);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            CommandAcceptedResponse res = service.addTorrentFromFile(new ByteArrayInputStream(TORRENT));
+
+            assertEquals(1L, res.torrent().id());
+            verifyNoInteractions(liveStore);
+
+            TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+            ArgumentCaptor<Torrent> live = ArgumentCaptor.forClass(Torrent.class);
+            verify(liveStore).upsert(live.capture());
+            assertEquals(1L, live.getValue().getId());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void aConcurrentAddOfTheSameTorrentIsADuplicate() {
         when(settingsService.getDownloadPath()).thenReturn("/app/downloads");
-        when(pythonClient.fetchDisks()).thenReturn(java.util.List.of());
-        when(torrentRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+        when(pythonClient.fetchDisks()).thenReturn(List.of());
+        when(torrentRepository.existsByInfoHash(any())).thenReturn(false);
+        when(torrentRepository.save(any())).thenThrow(new DataIntegrityViolationException("duplicate key",
+                new ConstraintViolationException("duplicate key", new SQLException(), "uk_torrents_info_hash")));
+
+        assertThrows(DuplicateMagnetException.class,
+                () -> service.addTorrentFromFile(new ByteArrayInputStream(TORRENT)));
+        verifyNoInteractions(commandOutbox, liveStore);
+    }
 
-        TorrentResponse res = service.addTorrentFromFile("data".getBytes(), "x.torrent");
+    @Test
+    void theStorageCheckCountsTheTorrentsSize() {
+        when(settingsService.getDownloadPath()).thenReturn("/data");
+        // 0.5 GiB free is above the 0.5 GiB floor, but not once the 13 bytes are added.
+        when(pythonClient.fetchDisks()).thenReturn(List.of(new DiskInfo("/data", "sda", 100, 99.5, 0.5)));
+        when(torrentRepository.existsByInfoHash(any())).thenReturn(false);
+        org.springframework.test.util.ReflectionTestUtils.setField(service, "minFreeGb", 0.5);
 
-        assertNotNull(res);
-        verify(pythonClient).magnetFromFile(any(), anyString());
-        verify(torrentRepository).save(any());
-        verify(pythonClient).startDownload(any(), anyString(), anyString());
+        assertThrows(InsufficientStorageException.class,
+                () -> service.addTorrentFromFile(new ByteArrayInputStream(TORRENT)));
+        verify(torrentRepository, never()).save(any());
     }
 }
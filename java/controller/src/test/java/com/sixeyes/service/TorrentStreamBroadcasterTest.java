@@ -0,0 +1,196 @@
+package com.sixeyes.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sixeyes.event.TorrentEventBus;
+import com.sixeyes.exception.StreamCapacityException;
+import com.sixeyes.model.Torrent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TorrentStreamBroadcasterTest {
+
+    private final Map<Long, Torrent> live = new HashMap<>();
+    private final TorrentLiveStore liveStore = mock(TorrentLiveStore.class);
+    private final TorrentStreamBroadcaster broadcaster = new TorrentStreamBroadcaster(
+            liveStore, mock(SystemInfoService.class), mock(TorrentEventBus.class), new ObjectMapper(), 3, 4, 0, 8,
+            Runnable::run);
+
+    @BeforeEach
+    void setUp() {
+        live.put(1L, torrent(1));
+        when(liveStore.all()).thenAnswer(i -> List.copyOf(live.values()));
+        when(liveStore.get(anyLong())).thenAnswer(i -> Optional.ofNullable(live.get(i.<Long>getArgument(0))));
+    }
+
+    @Test
+    void newSubscriberGetsSnapshotThenOnlyChangedRows() {
+        RecordingSink sink = new RecordingSink();
+        broadcaster.register(sink, null);
+
+        broadcaster.touch(1);
+        broadcaster.flush();
+        broadcaster.flush();
+
+        assertThat(sink.names()).containsExactly("snapshot", "torrent");
+        assertThat(sink.events.get(0).data()).contains("\"torrents\":[{\"id\":1");
+    }
+
+    @Test
+    void removedTorrentIsAnnounced() {
+        RecordingSink sink = new RecordingSink();
+        broadcaster.register(sink, null);
+        live.remove(1L);
+
+        broadcaster.touch(1);
+        broadcaster.flush();
+
+        assertThat(sink.names()).containsExactly("snapshot", "removed");
+        assertThat(sink.events.get(1).data()).isEqualTo("{\"id\":1}");
+    }
+
+    @Test
+    void reconnectWithLastEventIdReplaysOnlyMissedEvents() {
+        RecordingSink first = new RecordingSink();
+        broadcaster.register(first, null);
+        broadcaster.touch(1);
+        broadcaster.flush();
+        String seen = first.events.get(1).id();
+        broadcaster.touch(1);
+        broadcaster.flush();
+
+        RecordingSink resumed = new RecordingSink();
+        broadcaster.register(resumed, seen);
+
+        assertThat(resumed.names()).containsExactly("torrent");
+        assertThat(resumed.events.get(0).id()).isEqualTo(first.events.get(2).id());
+    }
+
+    @Test
+    void staleOrForeignLastEventIdFallsBackToSnapshot() {
+        RecordingSink first = new RecordingSink();
+        broadcaster.register(first, null);
+        for (int i = 0; i < 6; i++) {
+            broadcaster.touch(1);
+            broadcaster.flush();
+        }
+
+        RecordingSink stale = new RecordingSink();
+        broadcaster.register(stale, first.events.get(1).id());
+        RecordingSink foreign = new RecordingSink();
+        broadcaster.register(foreign, "deadbeef-3");
+
+        assertThat(stale.names()).containsExactly("snapshot");
+        assertThat(foreign.names()).containsExactly("snapshot");
+    }
+
+    @Test
+    void subscribersBeyondTheCapAreRejected() {
+        for (int i = 0; i < 3; i++) broadcaster.register(new RecordingSink(), null);
+
+        assertThatThrownBy(() -> broadcaster.register(new RecordingSink(), null))
+                .isInstanceOf(StreamCapacityException.class);
+    }
+
+    @Test
+    void brokenSubscriberIsDropped() {
+        RecordingSink broken = new RecordingSink();
+        broadcaster.register(broken, null);
+        broken.failing = true;
+
+        broadcaster.heartbeat();
+
+        assertThat(broadcaster.subscriberCount()).isZero();
+        assertThat(broken.closed).isTrue();
+    }
+
+    @Test
+    void aStalledSubscriberIsDroppedWithoutHoldingUpTheOthers() throws Exception {
+        TorrentStreamBroadcaster async = new TorrentStreamBroadcaster(liveStore, mock(SystemInfoService.class),
+                mock(TorrentEventBus.class), new ObjectMapper(), 3, 16, 0, 2, Executors.newVirtualThreadPerTaskExecutor());
+        RecordingSink stalled = new RecordingSink();
+        stalled.stall = new CountDownLatch(1);
+        RecordingSink healthy = new RecordingSink();
+        async.register(stalled, null);
+        async.register(healthy, null);
+
+        for (int i = 0; i < 4; i++) {
+            async.touch(1);
+            async.flush();          // queues only; returns although one socket is stuck
+            int sent = i + 2;
+            await(() -> healthy.events.size() == sent);
+        }
+
+        assertThat(async.subscriberCount()).isEqualTo(1);
+        assertThat(healthy.names()).containsExactly("snapshot", "torrent", "torrent", "torrent", "torrent");
+        stalled.stall.countDown();
+        await(() -> stalled.closed);
+        assertThat(stalled.events).hasSizeLessThanOrEqualTo(3);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("timed out").isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private static Torrent torrent(long id) {
+        Torrent t = new Torrent("magnet:?xt=urn:btih:" + id);
+        t.setId(id);
+        return t;
+    }
+
+    private record Sent(String id, String name, String data) {}
+
+    private static final class RecordingSink implements TorrentStreamBroadcaster.Sink {
+        final List<Sent> events = new CopyOnWriteArrayList<>();
+        volatile boolean failing;
+        volatile boolean closed;
+        volatile CountDownLatch stall;
+
+        @Override
+        public void send(String id, String name, String data) throws IOException {
+            if (failing) throw new IOException("gone");
+            if (stall != null) {
+                try {
+                    stall.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+            events.add(new Sent(id, name, data));
+        }
+
+        @Override
+        public void comment(String text) throws IOException {
+            if (failing) throw new IOException("gone");
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        List<String> names() {
+            return events.stream().map(Sent::name).toList();
+        }
+    }
+}
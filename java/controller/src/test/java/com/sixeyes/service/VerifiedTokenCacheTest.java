@@ -0,0 +1,66 @@
+package com.sixeyes.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VerifiedTokenCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    @Test
+    void entryLivesUntilTheTokenExpires() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10, 60_000, now::get);
+        cache.put("token", "admin", now.get() + 5_000);
+
+        assertThat(cache.get("token")).isEqualTo("admin");
+        now.addAndGet(5_000);
+        assertThat(cache.get("token")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void maxTtlCapsLongLivedTokens() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10, 1_000, now::get);
+        cache.put("token", "admin", now.get() + 86_400_000);
+
+        now.addAndGet(999);
+        assertThat(cache.get("token")).isEqualTo("admin");
+        now.addAndGet(1);
+        assertThat(cache.get("token")).isNull();
+    }
+
+    @Test
+    void alreadyExpiredTokensAreNotCached() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10, 60_000, now::get);
+        cache.put("token", "admin", now.get());
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void fullCacheSweepsExpiredEntriesOrSkipsNewOnes() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(2, 60_000, now::get);
+        cache.put("a", "admin", now.get() + 1_000);
+        cache.put("b", "admin", now.get() + 60_000);
+
+        cache.put("c", "admin", now.get() + 60_000);
+        assertThat(cache.get("c")).isNull();
+
+        now.addAndGet(2_000);
+        cache.put("c", "admin", now.get() + 60_000);
+        assertThat(cache.get("c")).isEqualTo("admin");
+        assertThat(cache.get("b")).isEqualTo("admin");
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void zeroCapacityDisablesCaching() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(0, 60_000, now::get);
+        cache.put("token", "admin", now.get() + 5_000);
+
+        assertThat(cache.get("token")).isNull();
+    }
+}
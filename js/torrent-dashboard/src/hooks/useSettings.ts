@@ -1,5 +1,5 @@
 import { useCallback, useEffect, useState } from 'react'
-import { settingsApi, systemApi } from '../services/api'
+import { dashboardApi, settingsApi } from '../services/api'
 import type { DiskInfo, Settings } from '../types'
 
 export function useSettings() {
@@ -13,9 +13,11 @@ export function useSettings() {
   const load = useCallback(async () => {
     setLoading(true)
     try {
-      const [s, d] = await Promise.all([settingsApi.get(), systemApi.getDisks()])
-      setSettings(s)
-      setDisks(d)
+      const snapshot = await dashboardApi.snapshot(['settings', 'disks'])
+      setSettings(snapshot.settings ?? null)
+      setDisks(snapshot.disks ?? [])
+      if (snapshot.unavailable?.includes('disks')) setError('Disk list unavailable')
+      else if (snapshot.stale?.includes('disks')) setError('Engine unreachable; disk list may be out of date')
     } catch (e) {
       setError((e as Error).message)
     } finally {
@@ -1,5 +1,6 @@
 import { useEffect, useReducer } from 'react'
 import { systemApi } from '../services/api'
+import { onLiveStatus, subscribeLive } from '../services/stream'
 import type { NetworkDataPoint, SystemInfo } from '../types'
 
 const POLL_MS = 5_000
@@ -29,32 +30,37 @@ function loadHistory(): NetworkDataPoint[] {
 let system: SystemInfo = DEFAULT_SYSTEM
 let history: NetworkDataPoint[] = loadHistory()
 let started = false
+let live = false
 const listeners = new Set<() => void>()
 
 function emit() {
   listeners.forEach(fn => fn())
 }
 
+function record(data: SystemInfo) {
+  system = data
+  const time = new Date().toLocaleTimeString('en-US', {
+    hour12: false,
+    hour: '2-digit',
+    minute: '2-digit',
+    second: '2-digit',
+  })
+  history = [
+    ...history,
+    { time, download: data.network.downloadSpeed, upload: data.network.uploadSpeed },
+  ].slice(-MAX_HISTORY)
+  try {
+    localStorage.setItem(HISTORY_KEY, JSON.stringify(history))
+  } catch {
+    // storage full / unavailable — graph still works in-memory
+  }
+  emit()
+}
+
 async function poll() {
+  if (live) return // the stream delivers system info while it is up
   try {
-    const data = await systemApi.getInfo()
-    system = data
-    const time = new Date().toLocaleTimeString('en-US', {
-      hour12: false,
-      hour: '2-digit',
-      minute: '2-digit',
-      second: '2-digit',
-    })
-    history = [
-      ...history,
-      { time, download: data.network.downloadSpeed, upload: data.network.uploadSpeed },
-    ].slice(-MAX_HISTORY)
-    try {
-      localStorage.setItem(HISTORY_KEY, JSON.stringify(history))
-    } catch {
-      // storage full / unavailable — graph still works in-memory
-    }
-    emit()
+    record(await systemApi.getInfo())
   } catch {
     // non-critical — keep previous values
   }
@@ -63,6 +69,10 @@ async function poll() {
 function ensureStarted() {
   if (started) return
   started = true
+  onLiveStatus(connected => { live = connected })
+  subscribeLive(update => {
+    if (update.system && update.system !== system) record(update.system)
+  })
   poll()
   setInterval(poll, POLL_MS)
 }
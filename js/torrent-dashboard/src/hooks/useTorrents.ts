@@ -1,5 +1,6 @@
 import { useCallback, useEffect, useRef, useState } from 'react'
 import { torrentApi } from '../services/api'
+import { onLiveStatus, subscribeLive } from '../services/stream'
 import type { CompletedTorrent, Torrent } from '../types'
 
 const POLL_MS = 5_000
@@ -26,6 +27,27 @@ export function useTorrents() {
     }
   }, [showError])
 
+  // Polling fallback: since=0 returns the full list, later polls only what changed.
+  const version = useRef(0)
+  const pollChanges = useCallback(async () => {
+    try {
+      const changes = await torrentApi.changes(version.current)
+      version.current = changes.version
+      if (changes.full) {
+        setTorrents(changes.upserted)
+        return
+      }
+      if (changes.upserted.length === 0 && changes.deleted.length === 0) return
+      const upserted = new Map(changes.upserted.map(t => [t.id, t]))
+      setTorrents(prev => [
+        ...prev.filter(t => !changes.deleted.includes(t.id)).map(t => upserted.get(t.id) ?? t),
+        ...changes.upserted.filter(t => !prev.some(p => p.id === t.id)),
+      ])
+    } catch (e) {
+      showError((e as Error).message)
+    }
+  }, [showError])
+
   const fetchCompleted = useCallback(async () => {
     try {
       setCompleted(await torrentApi.getCompleted())
@@ -37,9 +59,26 @@ export function useTorrents() {
   useEffect(() => {
     fetchTorrents()
     fetchCompleted()
-    const id = setInterval(() => { fetchTorrents(); fetchCompleted() }, POLL_MS)
-    return () => clearInterval(id)
-  }, [fetchTorrents, fetchCompleted])
+    // The live stream pushes row changes; polling only runs while it is down
+    // (e.g. the server's subscriber cap is reached).
+    let live = false
+    const offStatus = onLiveStatus(connected => {
+      live = connected
+      if (connected) version.current = 0
+    })
+    const offLive = subscribeLive(update => {
+      setTorrents(update.torrents)
+      if (update.lifecycle) fetchCompleted()
+    })
+    const id = setInterval(() => {
+      if (!live) { pollChanges(); fetchCompleted() }
+    }, POLL_MS)
+    return () => {
+      clearInterval(id)
+      offLive()
+      offStatus()
+    }
+  }, [fetchTorrents, fetchCompleted, pollChanges])
 
   const addTorrent = useCallback(async (magnet: string, downloadPath?: string) => {
     setLoading(true)
@@ -69,8 +108,8 @@ export function useTorrents() {
 
   const pauseTorrent = useCallback(async (id: number) => {
     try {
-      const updated = await torrentApi.pause(id)
-      setTorrents(prev => prev.map(t => (t.id === id ? updated : t)))
+      const { torrent: updated } = await torrentApi.pause(id)
+      if (updated) setTorrents(prev => prev.map(t => (t.id === id ? updated : t)))
     } catch (e) {
       showError((e as Error).message)
     }
@@ -78,8 +117,8 @@ export function useTorrents() {
 
   const stopTorrent = useCallback(async (id: number) => {
     try {
-      const updated = await torrentApi.stop(id)
-      setTorrents(prev => prev.map(t => (t.id === id ? updated : t)))
+      const { torrent: updated } = await torrentApi.stop(id)
+      if (updated) setTorrents(prev => prev.map(t => (t.id === id ? updated : t)))
     } catch (e) {
       showError((e as Error).message)
     }
@@ -87,8 +126,8 @@ export function useTorrents() {
 
   const resumeTorrent = useCallback(async (id: number) => {
     try {
-      const updated = await torrentApi.resume(id)
-      setTorrents(prev => prev.map(t => (t.id === id ? updated : t)))
+      const { torrent: updated } = await torrentApi.resume(id)
+      if (updated) setTorrents(prev => prev.map(t => (t.id === id ? updated : t)))
     } catch (e) {
       showError((e as Error).message)
     }
@@ -1,4 +1,4 @@
-import type { BrowseResult, CatalogGame, CatalogPage, CompletedTorrent, DiskInfo, Settings, SystemInfo, Torrent } from '../types'
+import type { BrowseResult, CatalogGame, CatalogPage, CommandAccepted, CompletedTorrent, DashboardField, DashboardSnapshot, DiskInfo, Settings, SpeedHistory, SystemInfo, Torrent, TorrentChanges } from '../types'
 
 const BASE_URL = import.meta.env.VITE_API_BASE_URL ?? '/api/v1'
 
@@ -58,11 +58,11 @@ export const authApi = {
 
 export const torrentApi = {
   add: (magnet: string, downloadPath?: string) =>
-    request<Torrent>('/torrents/add', {
+    request<CommandAccepted>('/torrents/add', {
       method: 'POST',
       body: JSON.stringify({ magnet, downloadPath: downloadPath ?? null }),
     }),
-  addFile: async (file: File, downloadPath?: string): Promise<Torrent> => {
+  addFile: async (file: File, downloadPath?: string): Promise<CommandAccepted> => {
     const token = getToken()
     const form = new FormData()
     form.append('file', file)
@@ -81,18 +81,27 @@ export const torrentApi = {
       const b = await res.json().catch(() => ({}))
       throw new Error((b as { message?: string }).message ?? `HTTP ${res.status}`)
     }
-    return res.json() as Promise<Torrent>
+    return res.json() as Promise<CommandAccepted>
   },
   getAll: () => request<Torrent[]>('/torrents/get'),
+  changes: (since: number) => request<TorrentChanges>(`/torrents/changes?since=${since}`),
   getCompleted: () => request<CompletedTorrent[]>('/torrents/getCompleted'),
-  pause: (id: number) => request<Torrent>(`/torrents/${id}/pause`, { method: 'PUT' }),
-  stop: (id: number) => request<Torrent>(`/torrents/${id}/stop`, { method: 'PUT' }),
-  resume: (id: number) => request<Torrent>(`/torrents/${id}/resume`, { method: 'PUT' }),
+  pause: (id: number) => request<CommandAccepted>(`/torrents/${id}/pause`, { method: 'PUT' }),
+  stop: (id: number) => request<CommandAccepted>(`/torrents/${id}/stop`, { method: 'PUT' }),
+  resume: (id: number) => request<CommandAccepted>(`/torrents/${id}/resume`, { method: 'PUT' }),
   remove: (id: number, deleteFiles = false) =>
-    request<{ message: string }>(
+    request<CommandAccepted>(
       `/torrents/${id}/removeTorrent?deleteFiles=${deleteFiles}`,
       { method: 'DELETE' },
     ),
+  history: (id: number, opts: { from?: number; to?: number; points?: number } = {}) => {
+    const q = new URLSearchParams()
+    if (opts.from !== undefined) q.set('from', String(opts.from))
+    if (opts.to !== undefined) q.set('to', String(opts.to))
+    if (opts.points !== undefined) q.set('points', String(opts.points))
+    const qs = q.toString()
+    return request<SpeedHistory>(`/torrents/${id}/history${qs ? `?${qs}` : ''}`)
+  },
   install: (id: number) => request<Torrent>(`/torrents/${id}/install`, { method: 'POST' }),
   cancelInstall: (id: number) => request<Torrent>(`/torrents/${id}/install`, { method: 'DELETE' }),
 }
@@ -109,6 +118,11 @@ export const systemApi = {
     }),
 }
 
+export const dashboardApi = {
+  snapshot: (fields?: DashboardField[]) =>
+    request<DashboardSnapshot>(`/dashboard/snapshot${fields?.length ? `?fields=${fields.join(',')}` : ''}`),
+}
+
 export const settingsApi = {
   get: () => request<Settings>('/settings'),
   update: (downloadPath: string) =>
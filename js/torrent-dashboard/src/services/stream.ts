@@ -0,0 +1,142 @@
+import type { SystemInfo, Torrent } from '../types'
+import { clearToken } from './api'
+
+const BASE_URL = import.meta.env.VITE_API_BASE_URL ?? '/api/v1'
+const MAX_BACKOFF_MS = 30_000
+
+export interface LiveUpdate {
+  torrents: Torrent[]
+  system: SystemInfo | null
+  // true when a torrent appeared, disappeared or changed status / install status
+  lifecycle: boolean
+}
+
+type Listener = (update: LiveUpdate) => void
+
+// Module-level singleton: every hook shares one /torrents/stream connection, which
+// stays open while at least one listener is subscribed. EventSource can't send the
+// Authorization header, so the stream is read with fetch and parsed here.
+const torrents = new Map<number, Torrent>()
+let system: SystemInfo | null = null
+let connected = false
+let lastEventId: string | null = null
+let controller: AbortController | null = null
+let backoff = 1_000
+const listeners = new Set<Listener>()
+const statusListeners = new Set<(connected: boolean) => void>()
+
+function emit(lifecycle: boolean) {
+  const update = { torrents: Array.from(torrents.values()), system, lifecycle }
+  listeners.forEach(fn => fn(update))
+}
+
+function setConnected(value: boolean) {
+  if (connected === value) return
+  connected = value
+  statusListeners.forEach(fn => fn(value))
+}
+
+function handle(event: string, data: string) {
+  const payload = JSON.parse(data)
+  switch (event) {
+    case 'snapshot':
+      torrents.clear()
+      for (const t of payload.torrents as Torrent[]) torrents.set(t.id, t)
+      if (payload.system) system = payload.system
+      emit(true)
+      break
+    case 'torrent': {
+      const t = payload as Torrent
+      const prev = torrents.get(t.id)
+      torrents.set(t.id, t)
+      emit(!prev || prev.status !== t.status || prev.installStatus !== t.installStatus)
+      break
+    }
+    case 'removed':
+      torrents.delete(payload.id)
+      emit(true)
+      break
+    case 'system':
+      system = payload as SystemInfo
+      emit(false)
+      break
+  }
+}
+
+async function connect() {
+  const token = localStorage.getItem('token')
+  controller = new AbortController()
+  const headers: Record<string, string> = { Accept: 'text/event-stream, application/json' }
+  if (token) headers['Authorization'] = `Bearer ${token}`
+  if (lastEventId) headers['Last-Event-ID'] = lastEventId
+
+  const res = await fetch(`${BASE_URL}/torrents/stream`, { headers, signal: controller.signal })
+  if (res.status === 401) {
+    clearToken()
+    window.location.reload()
+    return
+  }
+  if (!res.ok || !res.body) throw new Error(`HTTP ${res.status}`)
+
+  setConnected(true)
+  backoff = 1_000
+  const reader = res.body.pipeThrough(new TextDecoderStream()).getReader()
+  let buffer = ''
+  for (;;) {
+    const { value, done } = await reader.read()
+    if (done) break
+    buffer += value
+    let split: number
+    while ((split = buffer.indexOf('\n\n')) >= 0) {
+      const block = buffer.slice(0, split)
+      buffer = buffer.slice(split + 2)
+      let event = 'message'
+      const data: string[] = []
+      for (const line of block.split('\n')) {
+        if (line.startsWith(':')) continue // heartbeat
+        const colon = line.indexOf(':')
+        const field = colon < 0 ? line : line.slice(0, colon)
+        const val = colon < 0 ? '' : line.slice(colon + 1).replace(/^ /, '')
+        if (field === 'id') lastEventId = val
+        else if (field === 'event') event = val
+        else if (field === 'data') data.push(val)
+      }
+      if (data.length) handle(event, data.join('\n'))
+    }
+  }
+}
+
+async function run() {
+  while (listeners.size > 0) {
+    try {
+      await connect()
+    } catch {
+      // network error, 503 (subscriber cap) or aborted — retry below
+    }
+    setConnected(false)
+    if (listeners.size === 0) break
+    await new Promise(r => setTimeout(r, backoff))
+    backoff = Math.min(backoff * 2, MAX_BACKOFF_MS)
+  }
+  controller = null
+}
+
+/** Subscribes to live torrent/system state; returns the unsubscribe function. */
+export function subscribeLive(listener: Listener): () => void {
+  listeners.add(listener)
+  if (listeners.size === 1 && !controller) run()
+  else if (torrents.size > 0 || system) listener({ torrents: Array.from(torrents.values()), system, lifecycle: true })
+  return () => {
+    listeners.delete(listener)
+    if (listeners.size === 0) controller?.abort()
+  }
+}
+
+/** Tells callers whether the stream is up, so they can pause their polling fallback. */
+export function onLiveStatus(fn: (connected: boolean) => void): () => void {
+  statusListeners.add(fn)
+  fn(connected)
+  return () => {
+    statusListeners.delete(fn)
+  }
+}
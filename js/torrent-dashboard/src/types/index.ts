@@ -2,15 +2,34 @@ export interface Torrent {
   id: number
   title: string | null
   size: string
+  sizeBytes: number
   progress: number
   downloadSpeed: string
   uploadSpeed: string
+  downloadRate: number
+  uploadRate: number
   peers: number
   eta: string | null
+  etaSeconds: number | null
   status: TorrentStatus
   installStatus: InstallStatus
   createdAt: string | null
   updatedAt: string | null
+  version: number
+}
+
+export interface TorrentChanges {
+  version: number
+  full: boolean
+  upserted: Torrent[]
+  deleted: number[]
+}
+
+// 202 answer to a single-torrent command: the recorded state; the engine call follows.
+export interface CommandAccepted {
+  commandId: number
+  torrentId: number
+  torrent: Torrent | null
 }
 
 export type TorrentStatus = 'Downloading' | 'Seeding' | 'Paused' | 'Stopped' | 'Error'
@@ -21,6 +40,7 @@ export interface CompletedTorrent {
   id: number
   title: string | null
   size: string
+  sizeBytes: number
   completedAt: string
   installStatus: InstallStatus
 }
@@ -30,6 +50,18 @@ export interface SystemInfo {
   network: { downloadSpeed: number; uploadSpeed: number }
 }
 
+/** Columnar, server-downsampled speed history (bytes/s, epoch-ms timestamps). */
+export interface SpeedHistory {
+  id: number
+  from: number
+  to: number
+  samples: number
+  timestamps: number[]
+  download: number[]
+  upload: number[]
+  peers: number[]
+}
+
 export interface NetworkDataPoint {
   time: string
   download: number
@@ -48,6 +80,20 @@ export interface Settings {
   downloadPath: string
 }
 
+export type DashboardField = 'torrents' | 'system' | 'disks' | 'settings'
+
+// Fields not requested are absent; ones the server couldn't load are listed in `unavailable`,
+// and ones served from the last good value while the engine is down in `stale`.
+export interface DashboardSnapshot {
+  version?: number
+  torrents?: Torrent[]
+  system?: SystemInfo
+  disks?: DiskInfo[]
+  settings?: Settings
+  unavailable?: DashboardField[]
+  stale?: DashboardField[]
+}
+
 export interface FsEntry {
   name: string
   path: string
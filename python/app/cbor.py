@@ -0,0 +1,74 @@
+"""Minimal CBOR (RFC 8949) encoder for the engine's own payloads.
+
+Covers exactly what the routes return — dict, list, str, int, float, bool, None,
+bytes — so /get can answer ``Accept: application/cbor`` without another wheel in the
+image. Floats are always written as 64-bit doubles.
+"""
+import struct
+
+MEDIA_TYPE = "application/cbor"
+
+
+def _head(major: int, value: int, out: bytearray) -> None:
+    if value < 24:
+        out.append(major << 5 | value)
+    elif value < 0x100:
+        out.append(major << 5 | 24)
+        out.append(value)
+    elif value < 0x10000:
+        out.append(major << 5 | 25)
+        out += struct.pack(">H", value)
+    elif value < 0x100000000:
+        out.append(major << 5 | 26)
+        out += struct.pack(">I", value)
+    else:
+        out.append(major << 5 | 27)
+        out += struct.pack(">Q", value)
+
+
+def _encode(value, out: bytearray) -> None:
+    if value is None:
+        out.append(0xF6)
+    elif value is True:
+        out.append(0xF5)
+    elif value is False:
+        out.append(0xF4)
+    elif isinstance(value, int):
+        if value >= 0:
+            _head(0, value, out)
+        else:
+            _head(1, -1 - value, out)
+    elif isinstance(value, float):
+        out.append(0xFB)
+        out += struct.pack(">d", value)
+    elif isinstance(value, str):
+        data = value.encode("utf-8")
+        _head(3, len(data), out)
+        out += data
+    elif isinstance(value, (bytes, bytearray)):
+        _head(2, len(value), out)
+        out += value
+    elif isinstance(value, (list, tuple)):
+        _head(4, len(value), out)
+        for item in value:
+            _encode(item, out)
+    elif isinstance(value, dict):
+        _head(5, len(value), out)
+        for key, item in value.items():
+            _encode(str(key), out)
+            _encode(item, out)
+    else:
+        raise TypeError(f"cannot CBOR-encode {type(value).__name__}")
+
+
+def dumps(value) -> bytes:
+    out = bytearray()
+    _encode(value, out)
+    return bytes(out)
+
+
+def accepts(accept_header: str | None) -> bool:
+    """True when the client listed CBOR in its Accept header (q-values are ignored)."""
+    if not accept_header:
+        return False
+    return any(part.split(";")[0].strip() == MEDIA_TYPE for part in accept_header.split(","))
@@ -0,0 +1,31 @@
+"""gzip for the engine's larger responses, when the caller advertises it.
+
+Applied per route rather than as middleware, so the long-lived NDJSON /stream feed is
+never held back inside a compressor.
+"""
+import gzip
+
+# Below this a gzip header and the CPU cost outweigh the bytes saved.
+MIN_SIZE = 1024
+
+
+def accepts_gzip(accept_encoding: str | None) -> bool:
+    if not accept_encoding:
+        return False
+    for coding in accept_encoding.split(","):
+        name, _, params = coding.strip().partition(";")
+        if name.strip().lower() not in ("gzip", "*"):
+            continue
+        q = params.replace(" ", "")
+        try:
+            return not q.startswith("q=") or float(q[2:]) > 0
+        except ValueError:
+            return False
+    return False
+
+
+def encode(body: bytes, accept_encoding: str | None) -> tuple[bytes, dict[str, str]]:
+    """The body to send and the headers that describe it."""
+    if len(body) < MIN_SIZE or not accepts_gzip(accept_encoding):
+        return body, {"Vary": "Accept-Encoding"}
+    return gzip.compress(body, compresslevel=5), {"Content-Encoding": "gzip", "Vary": "Accept-Encoding"}
@@ -0,0 +1,37 @@
+"""Replay protection for commands sent by the controller's outbox.
+
+The outbox redelivers a command until it sees an answer, so the same command can arrive
+twice: after a timeout that hid a success, or after a controller restart. Each delivery
+carries the command's Idempotency-Key; the first successful answer for a key is kept
+(bounded, oldest evicted first) and returned for repeats without acting again. Failures
+are not kept, so a retry after an error really runs.
+"""
+import threading
+from collections import OrderedDict
+from typing import Any, Callable
+
+MAX_KEYS = 4096
+
+_lock = threading.Lock()
+_answers: "OrderedDict[str, Any]" = OrderedDict()
+
+
+def run(key: str | None, action: Callable[[], Any]) -> Any:
+    if not key:
+        return action()
+    with _lock:
+        if key in _answers:
+            _answers.move_to_end(key)
+            return _answers[key]
+    result = action()
+    with _lock:
+        _answers[key] = result
+        _answers.move_to_end(key)
+        while len(_answers) > MAX_KEYS:
+            _answers.popitem(last=False)
+    return result
+
+
+def clear() -> None:
+    with _lock:
+        _answers.clear()
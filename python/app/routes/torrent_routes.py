@@ -1,6 +1,11 @@
-from fastapi import APIRouter, HTTPException, UploadFile, File
+import json
+
+from fastapi import APIRouter, Header, HTTPException, UploadFile, File
+from fastapi.encoders import jsonable_encoder
+from fastapi.responses import Response, StreamingResponse
 from pydantic import BaseModel
 
+from app import cbor, compression, idempotency
 from app.services import torrent_service
 
 router = APIRouter(prefix="/python", tags=["torrents"])
@@ -18,46 +23,111 @@ class TorrentIdRequest(BaseModel):
     deleteFiles: bool = False
 
 
+class BatchAddRequest(BaseModel):
+    items: list[AddTorrentRequest]
+
+
+class BatchIdsRequest(BaseModel):
+    ids: list[int]
+    deleteFiles: bool = False
+
+
+# The single-torrent commands accept the outbox's Idempotency-Key; see app.idempotency.
 @router.post("/add", status_code=201)
-def add(body: AddTorrentRequest):
-    return torrent_service.add_torrent(body.id, body.magnet, body.downloadPath)
+def add(body: AddTorrentRequest, idempotency_key: str | None = Header(default=None)):
+    return idempotency.run(idempotency_key,
+                           lambda: torrent_service.add_torrent(body.id, body.magnet, body.downloadPath))
 
 
 @router.get("/get")
-def get_all():
-    return torrent_service.get_all()
+def get_all(
+    accept: str | None = Header(default=None),
+    accept_encoding: str | None = Header(default=None),
+):
+    """JSON by default; CBOR when the controller asks for it (python.telemetry-format).
+    Either is gzipped when the controller accepts it."""
+    torrents = torrent_service.get_all()
+    if cbor.accepts(accept):
+        body, media_type = cbor.dumps(torrents), cbor.MEDIA_TYPE
+    else:
+        body = json.dumps(jsonable_encoder(torrents), separators=(",", ":")).encode()
+        media_type = "application/json"
+    content, headers = compression.encode(body, accept_encoding)
+    return Response(content=content, media_type=media_type, headers=headers)
+
+
+@router.get("/stream")
+def stream(cursor: int | None = None, epoch: str | None = None):
+    """Long-lived NDJSON feed of per-torrent deltas; see torrent_service.stream_events."""
+    return StreamingResponse(
+        torrent_service.stream_events(cursor, epoch),
+        media_type="application/x-ndjson",
+    )
 
 
 @router.put("/pause")
-def pause(body: TorrentIdRequest):
+def pause(body: TorrentIdRequest, idempotency_key: str | None = Header(default=None)):
     try:
-        torrent_service.pause(body.id)
+        idempotency.run(idempotency_key, lambda: torrent_service.pause(body.id))
         return {"success": True}
     except KeyError as e:
         raise HTTPException(status_code=404, detail=str(e))
 
 
 @router.put("/stop")
-def stop(body: TorrentIdRequest):
-    torrent_service.stop(body.id)
+def stop(body: TorrentIdRequest, idempotency_key: str | None = Header(default=None)):
+    idempotency.run(idempotency_key, lambda: torrent_service.stop(body.id))
     return {"success": True}
 
 
 @router.put("/resume")
-def resume(body: TorrentIdRequest):
+def resume(body: TorrentIdRequest, idempotency_key: str | None = Header(default=None)):
     try:
-        torrent_service.resume(body.id)
+        idempotency.run(idempotency_key, lambda: torrent_service.resume(body.id))
         return {"success": True}
     except KeyError as e:
         raise HTTPException(status_code=404, detail=str(e))
 
 
 @router.delete("/remove")
-def remove(body: TorrentIdRequest):
-    torrent_service.remove(body.id, body.deleteFiles)
+def remove(body: TorrentIdRequest, idempotency_key: str | None = Header(default=None)):
+    idempotency.run(idempotency_key, lambda: torrent_service.remove(body.id, body.deleteFiles))
     return {"success": True, "message": "Torrent removed"}
 
 
+# Batch variants: one request for many torrents, with an outcome per id instead of
+# failing the whole call. A missing torrent is reported, not raised, so the controller
+# can re-add it from its magnet.
+@router.post("/batch/add")
+def batch_add(body: BatchAddRequest):
+    by_id = {item.id: item for item in body.items}
+    return {"results": torrent_service.run_batch(
+        list(by_id),
+        lambda tid: torrent_service.add_torrent(tid, by_id[tid].magnet, by_id[tid].downloadPath),
+    )}
+
+
+@router.post("/batch/pause")
+def batch_pause(body: BatchIdsRequest):
+    return {"results": torrent_service.run_batch(body.ids, torrent_service.pause)}
+
+
+@router.post("/batch/stop")
+def batch_stop(body: BatchIdsRequest):
+    return {"results": torrent_service.run_batch(body.ids, torrent_service.stop)}
+
+
+@router.post("/batch/resume")
+def batch_resume(body: BatchIdsRequest):
+    return {"results": torrent_service.run_batch(body.ids, torrent_service.resume)}
+
+
+@router.post("/batch/remove")
+def batch_remove(body: BatchIdsRequest):
+    return {"results": torrent_service.run_batch(
+        body.ids, lambda tid: torrent_service.remove(tid, body.deleteFiles))}
+
+
 @router.post("/parseMagnet")
 async def parse_magnet(file: UploadFile = File(...)):
     raw = await file.read()
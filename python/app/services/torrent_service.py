@@ -3,6 +3,9 @@ import os
 import shutil
 import threading
 import time
+import uuid
+from collections import deque
+from itertools import islice
 
 import libtorrent as lt
 import psutil
@@ -113,6 +116,10 @@ def magnet_from_torrent_bytes(data: bytes) -> str:
 
 _session = lt.session()
 _session.listen_on(6881, 6891)
+# Status alerts (finished, errors) drive telemetry; storage alerts carry the resume blobs.
+_session.apply_settings({"alert_mask": lt.alert.category_t.error_notification
+                         | lt.alert.category_t.status_notification
+                         | lt.alert.category_t.storage_notification})
 
 _torrents: dict[int, dict] = {}
 _handles: dict[object, lt.torrent_handle] = {}
@@ -162,19 +169,83 @@ def _request_resume_save(handle) -> None:
 
 
 def _alert_pump() -> None:
-    """Persist fast-resume blobs as libtorrent emits them."""
+    """Drive telemetry and fast-resume persistence from libtorrent's alerts.
+
+    Every STATS_INTERVAL_MS the session is asked for a state_update_alert, which
+    lists only the torrents whose status changed since the last one; those
+    changes, and finished/error alerts, are published as they arrive.
+    """
+    next_stats = 0.0
     while True:
-        _session.wait_for_alert(1000)
+        now = time.monotonic()
+        if now >= next_stats:
+            _session.post_torrent_updates()
+            next_stats = now + STATS_INTERVAL_MS / 1000
+        _session.wait_for_alert(max(1, int((next_stats - now) * 1000)))
         for a in _session.pop_alerts():
-            if type(a).__name__ == "save_resume_data_alert":
-                try:
-                    buf = lt.write_resume_data_buf(a.params)
-                    tid = _id_by_handle.get(a.handle)
-                    if tid is not None:
-                        with open(_resume_path(tid), "wb") as f:
-                            f.write(buf)
-                except Exception as e:
-                    print(f"[resume] blob write failed: {e}")
+            try:
+                _on_alert(a)
+            except Exception as e:
+                print(f"[alerts] {type(a).__name__} failed: {e}")
+
+
+def _on_alert(a) -> None:
+    name = type(a).__name__
+    if name == "state_update_alert":
+        for st in a.status:
+            data = _tracked(st.handle)
+            if data is None or data["status"] != TorrentStatus.DOWNLOADING.value:
+                continue  # halted, finished or still fetching metadata
+            if st.is_seeding:
+                _complete(data, st.handle)
+            else:
+                _update(data, _telemetry(st))
+    elif name == "torrent_finished_alert":
+        data = _tracked(a.handle)
+        if data is not None and data["status"] == TorrentStatus.DOWNLOADING.value:
+            _complete(data, a.handle)
+    elif name == "torrent_error_alert":
+        data = _tracked(a.handle)
+        if data is not None:
+            _update(data, {"status": TorrentStatus.ERROR.value})
+    elif name == "save_resume_data_alert":
+        buf = lt.write_resume_data_buf(a.params)
+        tid = _id_by_handle.get(a.handle)
+        if tid is not None:
+            with open(_resume_path(tid), "wb") as f:
+                f.write(buf)
+
+
+def _tracked(handle) -> dict | None:
+    """The record for a handle whose metadata passed validation, if it is still held."""
+    tid = _id_by_handle.get(handle)
+    if tid is None or tid not in _hash_by_id:
+        return None
+    return _torrents.get(tid)
+
+
+def _telemetry(s) -> dict:
+    remaining = s.total_wanted - s.total_wanted_done
+    eta = int(remaining / s.download_rate) if (s.download_rate > 0 and remaining > 0) else None
+    return {
+        "progress": round(s.progress * 100, 2),
+        "peers": s.num_peers,
+        "downloadRate": s.download_rate,
+        "uploadRate": s.upload_rate,
+        "etaSeconds": eta,
+    }
+
+
+def _complete(data: dict, handle) -> None:
+    _update(data, {
+        "progress": 100.0,
+        "status": TorrentStatus.SEEDING.value,
+        "downloadRate": 0,
+        "uploadRate": 0,
+        "peers": 0,
+        "etaSeconds": None,
+    })
+    _request_resume_save(handle)  # persist completed state
 
 
 def _resume_saver() -> None:
@@ -189,15 +260,87 @@ def _resume_saver() -> None:
                 pass
 
 
+# --- Telemetry event log (pushed to the controller over /python/stream) -----
+# Every state change is recorded as a per-torrent delta with a sequence number.
+# Streams resume from the client's cursor while it is still in the ring; a
+# stale cursor, or one from a previous process (epoch mismatch), gets a
+# snapshot of every torrent first.
+EVENT_LOG_SIZE = int(os.getenv("EVENT_LOG_SIZE", "5000"))
+STATS_INTERVAL_MS = int(os.getenv("STATS_INTERVAL_MS", "1000"))
+STREAM_HEARTBEAT_S = float(os.getenv("STREAM_HEARTBEAT_S", "15"))
+_STREAM_FIELDS = ("title", "sizeBytes", "progress", "peers", "downloadRate", "uploadRate", "etaSeconds", "status")
+
+_EPOCH = uuid.uuid4().hex[:12]
+_events: deque = deque(maxlen=EVENT_LOG_SIZE)
+_events_cond = threading.Condition()
+_seq = 0
+
+
+def _publish(event: dict) -> None:
+    global _seq
+    with _events_cond:
+        _seq += 1
+        event["seq"] = _seq
+        _events.append(event)
+        _events_cond.notify_all()
+
+
+def _update(data: dict, changes: dict) -> None:
+    """Apply changes to a torrent record and publish only the fields that moved."""
+    moved = {k: v for k, v in changes.items() if data.get(k) != v}
+    if not moved:
+        return
+    data.update(moved)
+    fields = {k: v for k, v in moved.items() if k in _STREAM_FIELDS}
+    if fields and _torrents.get(data["id"]) is data:
+        _publish({"type": "delta", "id": data["id"], "fields": fields})
+
+
+def _public(data: dict) -> dict:
+    return {k: v for k, v in data.items() if k == "id" or k in _STREAM_FIELDS}
+
+
+def _resumable(cursor: int) -> bool:
+    oldest = _events[0]["seq"] if _events else _seq + 1
+    return oldest - 1 <= cursor <= _seq
+
+
+def stream_events(cursor: int | None = None, epoch: str | None = None):
+    """Yield NDJSON lines: a snapshot when the cursor can't be resumed, then deltas.
+
+    Idle streams get a heartbeat every STREAM_HEARTBEAT_S so the client can tell a
+    quiet engine from a dead connection.
+    """
+    if epoch != _EPOCH:
+        cursor = None
+    while True:
+        with _events_cond:
+            if cursor is None or not _resumable(cursor):
+                cursor = _seq
+                batch = [{"type": "snapshot", "seq": cursor,
+                          "torrents": [_public(d) for d in list(_torrents.values())]}]
+            else:
+                start = cursor - (_events[0]["seq"] - 1) if _events else 0
+                batch = list(islice(_events, start, None))
+                if not batch:
+                    if _events_cond.wait(STREAM_HEARTBEAT_S):
+                        continue
+                    batch = [{"type": "heartbeat", "seq": cursor}]
+                cursor = batch[-1]["seq"]
+        for event in batch:
+            yield json.dumps({**event, "epoch": _EPOCH}) + "\n"
+
+
 threading.Thread(target=_alert_pump, daemon=True).start()
 threading.Thread(target=_resume_saver, daemon=True).start()
 
 
 def add_torrent(torrent_id: int, magnet: str, save_path: str | None = None) -> dict:
-    # Idempotent: if a live download thread already owns this id, don't start a
-    # second one (the reconcile loop may re-request an add we're already running).
+    # Idempotent: if the session already holds this id, or a live thread is still
+    # fetching its metadata, don't start a second one (the reconcile loop may
+    # re-request an add we're already running).
     existing = _threads.get(torrent_id)
-    if existing is not None and existing.is_alive():
+    if torrent_id in _hash_by_id or (existing is not None and existing.is_alive()):
         return _torrents.get(torrent_id, {"id": torrent_id, "magnet": magnet})
 
     effective_path = _safe_save_path(save_path)
@@ -210,6 +353,7 @@ def add_torrent(torrent_id: int, magnet: str, save_path: str | None = None) -> d
         "status": TorrentStatus.DOWNLOADING.value,
     }
     _torrents[torrent_id] = data
+    _publish({"type": "delta", "id": torrent_id, "fields": {"status": data["status"]}})
 
     t = threading.Thread(target=_download_thread, args=(data,), daemon=True)
     _threads[torrent_id] = t
@@ -232,10 +376,12 @@ def _halt(torrent_id: int, status: str) -> None:
             handle.auto_managed(False)
             handle.pause()
     if torrent_id in _torrents:
-        _torrents[torrent_id]["status"] = status
-        _torrents[torrent_id]["downloadSpeed"] = 0.0
-        _torrents[torrent_id]["uploadSpeed"] = 0.0
-        _torrents[torrent_id]["eta"] = None
+        _update(_torrents[torrent_id], {
+            "status": status,
+            "downloadRate": 0,
+            "uploadRate": 0,
+            "etaSeconds": None,
+        })
 
 
 def pause(torrent_id: int) -> None:
@@ -252,7 +398,7 @@ def resume(torrent_id: int) -> None:
     handle = _get_handle(torrent_id)
     handle.auto_managed(True)
     handle.resume()
-    _torrents[torrent_id]["status"] = TorrentStatus.DOWNLOADING.value
+    _update(_torrents[torrent_id], {"status": TorrentStatus.DOWNLOADING.value})
 
 
 def remove(torrent_id: int, delete_files: bool = False) -> None:
@@ -275,10 +421,27 @@ def remove(torrent_id: int, delete_files: bool = False) -> None:
         del _hash_by_id[torrent_id]
 
     _threads.pop(torrent_id, None)
-    _torrents.pop(torrent_id, None)
+    if _torrents.pop(torrent_id, None) is not None:
+        _publish({"type": "removed", "id": torrent_id})
     _delete_state(torrent_id)
 
 
+def run_batch(ids: list[int], action) -> list[dict]:
+    """Applies ``action`` to each id, recording an outcome per id instead of raising.
+    KeyError (the engine doesn't hold the torrent) is reported as ``missing``."""
+    results = []
+    for tid in ids:
+        try:
+            action(tid)
+            results.append({"id": tid, "ok": True, "missing": False, "error": None})
+        except KeyError:
+            results.append({"id": tid, "ok": False, "missing": True, "error": None})
+        except Exception as e:
+            print(f"[batch] {getattr(action, '__name__', 'action')} failed for {tid}: {e}")
+            results.append({"id": tid, "ok": False, "missing": False, "error": str(e)})
+    return results
+
+
 def get_storage_info() -> dict:
     usage = shutil.disk_usage(DEFAULT_SAVE_PATH)
     return {
@@ -356,7 +519,7 @@ def _download_thread(data: dict) -> None:
         handle.auto_managed(False)
         _id_by_handle[handle] = torrent_id
         _write_meta(torrent_id, data["magnet"], save_path)
-        data["status"] = TorrentStatus.DOWNLOADING.value
+        _update(data, {"status": TorrentStatus.DOWNLOADING.value})
 
         while not handle.has_metadata():
             if torrent_id not in _torrents:
@@ -370,55 +533,29 @@ def _download_thread(data: dict) -> None:
         total_size = sum(f.size for f in files)
 
         if not _validate_metadata(info, files, total_size, save_path):
-            data["status"] = TorrentStatus.ERROR.value
+            _update(data, {"status": TorrentStatus.ERROR.value})
             _cleanup_handle(handle)
             return
 
         _handles[info_hash] = handle
         _hash_by_id[torrent_id] = info_hash
 
-        data.update({
+        _update(data, {
             "title": info.name(),
-            "size": _format_bytes(total_size),
+            "sizeBytes": total_size,
             "progress": 0.0,
             "peers": 0,
-            "downloadSpeed": 0.0,
-            "uploadSpeed": 0.0,
+            "downloadRate": 0,
+            "uploadRate": 0,
         })
-
-        while handle.status().state != lt.torrent_status.seeding:
-            if torrent_id not in _torrents:
-                _cleanup_handle(handle)
-                return
-            if handle.is_paused():
-                time.sleep(2)
-                continue
-
-            s = handle.status()
-            remaining = s.total_wanted - s.total_wanted_done
-            eta = _format_eta(remaining / s.download_rate) if (s.download_rate > 0 and remaining > 0) else None
-            data.update({
-                "progress": round(s.progress * 100, 2),
-                "peers": s.num_peers,
-                "downloadSpeed": round(s.download_rate / (1024 * 1024), 4),
-                "uploadSpeed": round(s.upload_rate / (1024 * 1024), 4),
-                "eta": eta,
-            })
-            time.sleep(2)
-
-        if torrent_id in _torrents:
-            data.update({
-                "progress": 100.0,
-                "status": TorrentStatus.SEEDING.value,
-                "downloadSpeed": 0.0,
-                "uploadSpeed": 0.0,
-                "peers": 0,
-            })
-            _request_resume_save(handle)  # persist completed state
+        # From here the alert pump publishes progress; a torrent that was already
+        # complete (fast-resumed) may have finished before it was tracked.
+        if handle.status().is_seeding and data["status"] == TorrentStatus.DOWNLOADING.value:
+            _complete(data, handle)
 
     except Exception as e:
         if torrent_id in _torrents:
-            _torrents[torrent_id]["status"] = TorrentStatus.ERROR.value
+            _update(_torrents[torrent_id], {"status": TorrentStatus.ERROR.value})
         print(f"[torrent_service] Error on torrent {torrent_id}: {e}")
 
 
@@ -458,30 +595,6 @@ def _cleanup_handle(handle: lt.torrent_handle) -> None:
         pass
 
 
-def _format_bytes(n: int) -> str:
-    for unit in ("B", "KB", "MB", "GB", "TB"):
-        if n < 1024.0:
-            return f"{n:.1f} {unit}"
-        n /= 1024.0
-    return f"{n:.1f} PB"
-
-
-def _format_eta(seconds: float) -> str | None:
-    seconds = int(seconds)
-    if seconds <= 0:
-        return None
-    d, rem = divmod(seconds, 86400)
-    h, rem = divmod(rem, 3600)
-    m, s = divmod(rem, 60)
-    if d:
-        return f"{d}d {h}h"
-    if h:
-        return f"{h}h {m}m"
-    if m:
-        return f"{m}m {s}s"
-    return f"{s}s"
-
-
 def _resume_persisted() -> None:
     """On startup, re-add every torrent recorded on the persistent volume."""
     if not os.path.isdir(STATE_DIR):
@@ -0,0 +1,43 @@
+"""Encoder checks against the RFC 8949 Appendix A examples."""
+import pytest
+
+from app import cbor
+
+
+@pytest.mark.parametrize("value, expected", [
+    (0, "00"),
+    (23, "17"),
+    (24, "1818"),
+    (1000, "1903e8"),
+    (1000000, "1a000f4240"),
+    (1000000000000, "1b000000e8d4a51000"),
+    (-1, "20"),
+    (-1000, "3903e7"),
+    (1.1, "fb3ff199999999999a"),
+    (False, "f4"),
+    (True, "f5"),
+    (None, "f6"),
+    ("", "60"),
+    ("IETF", "6449455446"),
+    ("ü", "62c3bc"),
+    ([1, [2, 3], [4, 5]], "8301820203820405"),
+    ({"a": 1, "b": [2, 3]}, "a26161016162820203"),
+])
+def test_rfc_examples(value, expected):
+    assert cbor.dumps(value).hex() == expected
+
+
+def test_unknown_types_are_rejected():
+    with pytest.raises(TypeError):
+        cbor.dumps({"x": object()})
+
+
+@pytest.mark.parametrize("header, expected", [
+    (None, False),
+    ("application/json", False),
+    ("application/cbor", True),
+    ("application/cbor;q=0.9, application/json;q=0.5", True),
+    ("application/cbor-seq", False),
+])
+def test_accepts(header, expected):
+    assert cbor.accepts(header) is expected
@@ -0,0 +1,34 @@
+"""Accept-Encoding handling for the gzipped /get body."""
+import gzip
+
+import pytest
+
+from app import compression
+
+
+@pytest.mark.parametrize("header, expected", [
+    (None, False),
+    ("", False),
+    ("gzip", True),
+    ("deflate, gzip", True),
+    ("GZIP;q=0.5", True),
+    ("*", True),
+    ("gzip;q=0", False),
+    ("gzip; q=0.000", False),
+    ("br", False),
+])
+def test_accepts_gzip(header, expected):
+    assert compression.accepts_gzip(header) is expected
+
+
+def test_large_bodies_are_gzipped():
+    body = b'{"id":1}' * 500
+    content, headers = compression.encode(body, "gzip")
+    assert headers["Content-Encoding"] == "gzip"
+    assert gzip.decompress(content) == body
+
+
+def test_small_bodies_are_sent_as_is():
+    content, headers = compression.encode(b"[]", "gzip")
+    assert content == b"[]"
+    assert "Content-Encoding" not in headers
@@ -0,0 +1,44 @@
+"""Idempotency-Key replay protection for outbox commands."""
+import pytest
+
+from app import idempotency
+
+
+@pytest.fixture(autouse=True)
+def fresh():
+    idempotency.clear()
+    yield
+    idempotency.clear()
+
+
+def test_a_repeated_key_returns_the_first_answer_without_acting():
+    calls = []
+    first = idempotency.run("k1", lambda: calls.append(1) or {"id": 1})
+    again = idempotency.run("k1", lambda: calls.append(2) or {"id": 2})
+    assert first == again == {"id": 1}
+    assert calls == [1]
+
+
+def test_no_key_always_acts():
+    calls = []
+    idempotency.run(None, lambda: calls.append(1))
+    idempotency.run("", lambda: calls.append(2))
+    assert calls == [1, 2]
+
+
+def test_a_failure_is_not_remembered():
+    def boom():
+        raise KeyError(7)
+
+    with pytest.raises(KeyError):
+        idempotency.run("k1", boom)
+    assert idempotency.run("k1", lambda: "done") == "done"
+
+
+def test_oldest_keys_are_evicted(monkeypatch):
+    monkeypatch.setattr(idempotency, "MAX_KEYS", 2)
+    calls = []
+    for key in ("a", "b", "c"):
+        idempotency.run(key, lambda: calls.append(key))
+    idempotency.run("a", lambda: calls.append("a again"))
+    assert calls == ["a", "b", "c", "a again"]